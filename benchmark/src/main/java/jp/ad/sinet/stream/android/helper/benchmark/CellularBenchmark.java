@@ -0,0 +1,139 @@
+/*
+ * Copyright (C) 2026 National Institute of Informatics
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+
+package jp.ad.sinet.stream.android.helper.benchmark;
+
+import android.telephony.SignalStrength;
+import android.telephony.TelephonyManager;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import jp.ad.sinet.stream.android.helper.provider.CellularParser;
+import jp.ad.sinet.stream.android.helper.provider.JsonBuilderForCellular;
+
+/**
+ * Cost of parsing a SignalStrength, and of building the cellular part
+ * of the exported JSON document.
+ * <p>
+ *     Run with the system property "stub.sdk_int" below 29 to measure
+ *     the reflection based path for older systems.
+ * </p>
+ */
+@State(Scope.Thread)
+public class CellularBenchmark {
+    @Param({"" + TelephonyManager.NETWORK_TYPE_LTE, "" + TelephonyManager.NETWORK_TYPE_NR})
+    public int networkType;
+
+    private SignalStrength mSignalStrength;
+
+    @Setup
+    public void setUp() {
+        mSignalStrength = CellularFixture.newSignalStrength(networkType);
+    }
+
+    @Benchmark
+    public void parse(final Blackhole blackhole) {
+        CellularParser cellularParser = new CellularParser(
+                new CellularParser.CellularParserListener() {
+                    @Override
+                    public void onGsmInfo(@Nullable Integer rssi, @Nullable Integer ber) {
+                        blackhole.consume(rssi);
+                    }
+
+                    @Override
+                    public void onCdmaInfo(@Nullable Integer rssi, @Nullable Integer ecio) {
+                        blackhole.consume(rssi);
+                    }
+
+                    @Override
+                    public void onEvdoInfo(@Nullable Integer rssi,
+                                           @Nullable Integer ecio,
+                                           @Nullable Integer snr) {
+                        blackhole.consume(rssi);
+                    }
+
+                    @Override
+                    public void onTdsCdmaInfo(@Nullable Integer rscp) {
+                        blackhole.consume(rscp);
+                    }
+
+                    @Override
+                    public void onWcdmaInfo(@Nullable Integer rscp, @Nullable Integer ecno) {
+                        blackhole.consume(rscp);
+                    }
+
+                    @Override
+                    public void onLteInfo(@Nullable Integer rssi,
+                                          @Nullable Integer rsrp,
+                                          @Nullable Integer rsrq,
+                                          @Nullable Integer rssnr,
+                                          @Nullable Integer cqi,
+                                          @Nullable Integer cqiIndex,
+                                          @Nullable Integer ta) {
+                        blackhole.consume(rsrp);
+                    }
+
+                    @Override
+                    public void onNrInfo(@Nullable Integer ssRsrp,
+                                         @Nullable Integer ssRsrq,
+                                         @Nullable Integer ssSinr) {
+                        blackhole.consume(ssRsrp);
+                    }
+
+                    @Override
+                    public void onOthersInfo(@Nullable String data) {
+                        blackhole.consume(data);
+                    }
+
+                    @Override
+                    public void onError(@NonNull String description) {
+                        throw new IllegalStateException(description);
+                    }
+                });
+        cellularParser.parse(networkType, mSignalStrength);
+    }
+
+    @Benchmark
+    public void buildJsonForCellular(final Blackhole blackhole) {
+        JsonBuilderForCellular jsonBuilder = new JsonBuilderForCellular(
+                new JsonBuilderForCellular.JsonBuilderForCellularListener() {
+                    @Override
+                    public void onJsonObject(@NonNull JSONObject jsonObject) {
+                        blackhole.consume(jsonObject);
+                    }
+
+                    @Override
+                    public void onError(@NonNull String description) {
+                        throw new IllegalStateException(description);
+                    }
+                });
+        jsonBuilder.build(networkType, mSignalStrength, 1700000000000L);
+    }
+}
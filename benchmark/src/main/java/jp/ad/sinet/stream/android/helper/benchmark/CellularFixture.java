@@ -0,0 +1,55 @@
+/*
+ * Copyright (C) 2026 National Institute of Informatics
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+
+package jp.ad.sinet.stream.android.helper.benchmark;
+
+import android.telephony.CellInfo;
+import android.telephony.CellSignalStrength;
+import android.telephony.CellSignalStrengthLte;
+import android.telephony.CellSignalStrengthNr;
+import android.telephony.SignalStrength;
+import android.telephony.TelephonyManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Typical SignalStrength objects to be parsed.
+ */
+class CellularFixture {
+    static SignalStrength newLteSignalStrength() {
+        List<CellSignalStrength> list = new ArrayList<>();
+        list.add(new CellSignalStrengthLte(-95,
+                -65, -95, -10, 120, 15, CellInfo.UNAVAILABLE, 3));
+        return new SignalStrength(list, 3);
+    }
+
+    static SignalStrength newNrSignalStrength() {
+        List<CellSignalStrength> list = new ArrayList<>();
+        list.add(new CellSignalStrengthNr(-90, -90, -11, 20));
+        return new SignalStrength(list, 4);
+    }
+
+    static SignalStrength newSignalStrength(int networkType) {
+        return (networkType == TelephonyManager.NETWORK_TYPE_NR)
+                ? newNrSignalStrength() : newLteSignalStrength();
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright (C) 2026 National Institute of Informatics
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+
+package jp.ad.sinet.stream.android.helper.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import jp.ad.sinet.stream.android.helper.util.DateTimeUtil;
+
+/**
+ * Cost of formatting a timestamp, which happens once per sensor
+ * (and once per cellular record) on every export.
+ */
+@State(Scope.Thread)
+public class DateTimeUtilBenchmark {
+    private final DateTimeUtil mDateTimeUtil = new DateTimeUtil();
+    private long mUnixTime = 1700000000000L;
+
+    @Benchmark
+    public String toIso8601String() {
+        /* Vary the input, so that no formatter cache can short-cut */
+        return mDateTimeUtil.toIso8601String(mUnixTime++);
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright (C) 2026 National Institute of Informatics
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+
+package jp.ad.sinet.stream.android.helper.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+
+import jp.ad.sinet.stream.android.helper.models.SensorHolder;
+import jp.ad.sinet.stream.android.helper.models.SysInfo;
+import jp.ad.sinet.stream.android.helper.provider.JsonBuilder;
+import jp.ad.sinet.stream.android.helper.provider.SensorStorage;
+
+/**
+ * Cost of building the JSON document exported on every interval,
+ * along with the number of sensors reported.
+ */
+@State(Scope.Thread)
+public class JsonBuilderBenchmark {
+    @Param({"1", "4", "16", "32"})
+    public int sensorCount;
+
+    private final SysInfo mSysInfo = new SysInfo("15", "NII", "Benchmark");
+    private ArrayList<SensorHolder> mSensorHolders;
+
+    @Setup
+    public void setUp() {
+        SensorStorage sensorStorage = SensorFixture.newSensorStorage(sensorCount);
+        mSensorHolders = sensorStorage.getSensorHolders();
+    }
+
+    @Benchmark
+    public String buildJsonString() {
+        JsonBuilder jsonBuilder = new JsonBuilder(mSysInfo,
+                "user1@example.com", "benchmark",
+                35.681236, 139.767125, 1700000000000L);
+        return jsonBuilder.buildJsonString(mSensorHolders);
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright (C) 2026 National Institute of Informatics
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+
+package jp.ad.sinet.stream.android.helper.benchmark;
+
+import java.util.ArrayList;
+
+import jp.ad.sinet.stream.android.helper.constants.SensorTypes;
+import jp.ad.sinet.stream.android.helper.models.SensorDescriptor;
+import jp.ad.sinet.stream.android.helper.provider.SensorStorage;
+
+/**
+ * Builds a {@link SensorStorage} filled with samples, as if the given
+ * number of sensors had reported once since the last export.
+ */
+class SensorFixture {
+    /* Typical mix of sensor types and dimensions on a handset */
+    private final static int[] SENSOR_TYPES = {
+            SensorTypes.TYPE_ACCELEROMETER,
+            SensorTypes.TYPE_MAGNETIC_FIELD,
+            SensorTypes.TYPE_GYROSCOPE,
+            SensorTypes.TYPE_LIGHT,
+            SensorTypes.TYPE_PRESSURE,
+            SensorTypes.TYPE_PROXIMITY,
+            SensorTypes.TYPE_GRAVITY,
+            SensorTypes.TYPE_LINEAR_ACCELERATION,
+            SensorTypes.TYPE_ROTATION_VECTOR,
+            SensorTypes.TYPE_RELATIVE_HUMIDITY,
+            SensorTypes.TYPE_AMBIENT_TEMPERATURE,
+            SensorTypes.TYPE_MAGNETIC_FIELD_UNCALIBRATED,
+            SensorTypes.TYPE_GAME_ROTATION_VECTOR,
+            SensorTypes.TYPE_GYROSCOPE_UNCALIBRATED,
+            SensorTypes.TYPE_STEP_COUNTER,
+            SensorTypes.TYPE_GEOMAGNETIC_ROTATION_VECTOR,
+    };
+
+    static SensorStorage newSensorStorage(int sensorCount) {
+        SensorStorage sensorStorage = new SensorStorage();
+        for (int i = 0; i < sensorCount; i++) {
+            sensorStorage.registerDescriptor(newSensorDescriptor(i));
+        }
+        fill(sensorStorage, sensorCount, 1_000_000L);
+        return sensorStorage;
+    }
+
+    static void fill(SensorStorage sensorStorage, int sensorCount, long timestamp) {
+        float[] values = new float[15];
+        for (int i = 0; i < sensorCount; i++) {
+            for (int j = 0; j < values.length; j++) {
+                values[j] = (float) Math.sin(timestamp + i + j);
+            }
+            /* The handle equals to the index, see newSensorStorage() */
+            sensorStorage.setSensorSample(i, timestamp, values,
+                    1700000000000L + timestamp / 1000000L);
+        }
+    }
+
+    static ArrayList<Integer> sensorTypes(int sensorCount) {
+        ArrayList<Integer> sensorTypes = new ArrayList<>();
+        for (int i = 0; i < sensorCount; i++) {
+            sensorTypes.add(sensorType(i));
+        }
+        return sensorTypes;
+    }
+
+    private static int sensorType(int index) {
+        if (index < SENSOR_TYPES.length) {
+            return SENSOR_TYPES[index];
+        }
+        /* Beyond the typical set, take from the device private range */
+        return SensorTypes.TYPE_DEVICE_PRIVATE_BASE + index;
+    }
+
+    private static SensorDescriptor newSensorDescriptor(int index) {
+        int sensorType = sensorType(index);
+        return new SensorDescriptor(index, sensorType, "benchmark_" + sensorType,
+                "Benchmark Sensor #" + index, index + 1, false);
+    }
+}
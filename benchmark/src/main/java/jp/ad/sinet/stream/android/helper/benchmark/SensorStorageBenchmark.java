@@ -0,0 +1,69 @@
+/*
+ * Copyright (C) 2026 National Institute of Informatics
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+
+package jp.ad.sinet.stream.android.helper.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+
+import jp.ad.sinet.stream.android.helper.constants.SensorTypes;
+import jp.ad.sinet.stream.android.helper.models.SensorHolder;
+import jp.ad.sinet.stream.android.helper.provider.SensorStorage;
+
+/**
+ * Cost of taking the latest samples out of {@link SensorStorage}, which
+ * happens on every export, and of putting a sample in, which happens on
+ * every sensor event.
+ */
+@State(Scope.Thread)
+public class SensorStorageBenchmark {
+    @Param({"1", "16", "32"})
+    public int sensorCount;
+
+    private SensorStorage mSensorStorage;
+    private final float[] mValues = {0.1f, 9.8f, 0.3f};
+    private long mTimestamp = 0L;
+    private int mHandle;
+
+    @Setup
+    public void setUp() {
+        mSensorStorage = SensorFixture.newSensorStorage(sensorCount);
+        mHandle = mSensorStorage.getHandle(SensorTypes.TYPE_ACCELEROMETER);
+    }
+
+    @Benchmark
+    public ArrayList<SensorHolder> getSensorHolders() {
+        return mSensorStorage.getSensorHolders();
+    }
+
+    @Benchmark
+    public void setSensorSample() {
+        mTimestamp += 1000L;
+        mSensorStorage.setSensorSample(
+                mHandle,
+                mTimestamp, mValues, 1700000000000L);
+    }
+}
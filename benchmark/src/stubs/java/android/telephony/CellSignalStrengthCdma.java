@@ -0,0 +1,74 @@
+/*
+ * Copyright (C) 2026 National Institute of Informatics
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+
+package android.telephony;
+
+/**
+ * Pure-JVM stand-in of the Android framework class, for benchmarks only.
+ */
+public final class CellSignalStrengthCdma extends CellSignalStrength {
+    private final int mCdmaLevel;
+    private final int mEvdoLevel;
+    private final int mCdmaDbm;
+    private final int mCdmaEcio;
+    private final int mEvdoDbm;
+    private final int mEvdoEcio;
+    private final int mEvdoSnr;
+
+    public CellSignalStrengthCdma(int dbm, int cdmaLevel, int evdoLevel, int cdmaDbm, int cdmaEcio, int evdoDbm, int evdoEcio, int evdoSnr) {
+        super(dbm);
+        this.mCdmaLevel = cdmaLevel;
+        this.mEvdoLevel = evdoLevel;
+        this.mCdmaDbm = cdmaDbm;
+        this.mCdmaEcio = cdmaEcio;
+        this.mEvdoDbm = evdoDbm;
+        this.mEvdoEcio = evdoEcio;
+        this.mEvdoSnr = evdoSnr;
+    }
+
+    public int getCdmaLevel() {
+        return mCdmaLevel;
+    }
+
+    public int getEvdoLevel() {
+        return mEvdoLevel;
+    }
+
+    public int getCdmaDbm() {
+        return mCdmaDbm;
+    }
+
+    public int getCdmaEcio() {
+        return mCdmaEcio;
+    }
+
+    public int getEvdoDbm() {
+        return mEvdoDbm;
+    }
+
+    public int getEvdoEcio() {
+        return mEvdoEcio;
+    }
+
+    public int getEvdoSnr() {
+        return mEvdoSnr;
+    }
+}
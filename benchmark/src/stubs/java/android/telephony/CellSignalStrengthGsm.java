@@ -0,0 +1,44 @@
+/*
+ * Copyright (C) 2026 National Institute of Informatics
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+
+package android.telephony;
+
+/**
+ * Pure-JVM stand-in of the Android framework class, for benchmarks only.
+ */
+public final class CellSignalStrengthGsm extends CellSignalStrength {
+    private final int mRssi;
+    private final int mBitErrorRate;
+
+    public CellSignalStrengthGsm(int dbm, int rssi, int bitErrorRate) {
+        super(dbm);
+        this.mRssi = rssi;
+        this.mBitErrorRate = bitErrorRate;
+    }
+
+    public int getRssi() {
+        return mRssi;
+    }
+
+    public int getBitErrorRate() {
+        return mBitErrorRate;
+    }
+}
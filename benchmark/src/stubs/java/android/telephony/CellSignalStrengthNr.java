@@ -1,5 +1,5 @@
 /*
- * Copyright (C) 2020 National Institute of Informatics
+ * Copyright (C) 2026 National Institute of Informatics
  *
  *  Licensed to the Apache Software Foundation (ASF) under one
  *  or more contributor license agreements.  See the NOTICE file
@@ -19,32 +19,32 @@
  *  under the License.
  */
 
-package jp.ad.sinet.stream.android.helper.models;
+package android.telephony;
 
-import android.hardware.SensorEvent;
-
-public class SensorHolder {
-    private SensorEvent mSensorEvent;
-    private long mUnixTime;
-
-    public SensorHolder(SensorEvent sensorEvent, long unixTime) {
-        this.mSensorEvent = sensorEvent;
-        this.mUnixTime = unixTime;
-    }
-
-    public void setSensorEvent(SensorEvent sensorEvent) {
-        this.mSensorEvent = sensorEvent;
+/**
+ * Pure-JVM stand-in of the Android framework class, for benchmarks only.
+ */
+public final class CellSignalStrengthNr extends CellSignalStrength {
+    private final int mSsRsrp;
+    private final int mSsRsrq;
+    private final int mSsSinr;
+
+    public CellSignalStrengthNr(int dbm, int ssRsrp, int ssRsrq, int ssSinr) {
+        super(dbm);
+        this.mSsRsrp = ssRsrp;
+        this.mSsRsrq = ssRsrq;
+        this.mSsSinr = ssSinr;
     }
 
-    public SensorEvent getSensorEvent() {
-        return this.mSensorEvent;
+    public int getSsRsrp() {
+        return mSsRsrp;
     }
 
-    public void setUnixTime(long unixTime) {
-        this.mUnixTime = unixTime;
+    public int getSsRsrq() {
+        return mSsRsrq;
     }
 
-    public long getUnixTime() {
-        return this.mUnixTime;
+    public int getSsSinr() {
+        return mSsSinr;
     }
 }
@@ -0,0 +1,122 @@
+/*
+ * Copyright (C) 2026 National Institute of Informatics
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+
+package android.telephony;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Pure-JVM stand-in of the Android framework class, for benchmarks only.
+ * <p>
+ *     The legacy getters for systems before Q return {@link #INVALID},
+ *     except for those derived from the given CellSignalStrength list.
+ * </p>
+ */
+public class SignalStrength {
+    public static final int INVALID = Integer.MAX_VALUE;
+
+    private final List<CellSignalStrength> mCellSignalStrengths;
+    private final int mLevel;
+
+    public SignalStrength(List<CellSignalStrength> cellSignalStrengths, int level) {
+        this.mCellSignalStrengths = new ArrayList<>(cellSignalStrengths);
+        this.mLevel = level;
+    }
+
+    public List<CellSignalStrength> getCellSignalStrengths() {
+        return new ArrayList<>(mCellSignalStrengths);
+    }
+
+    public int getLevel() {
+        return mLevel;
+    }
+
+    public int getGsmSignalStrength() {
+        CellSignalStrengthGsm gsm = find(CellSignalStrengthGsm.class);
+        return (gsm != null) ? gsm.getRssi() : INVALID;
+    }
+
+    public int getGsmBitErrorRate() {
+        CellSignalStrengthGsm gsm = find(CellSignalStrengthGsm.class);
+        return (gsm != null) ? gsm.getBitErrorRate() : INVALID;
+    }
+
+    public int getCdmaDbm() {
+        CellSignalStrengthCdma cdma = find(CellSignalStrengthCdma.class);
+        return (cdma != null) ? cdma.getCdmaDbm() : INVALID;
+    }
+
+    public int getCdmaEcio() {
+        CellSignalStrengthCdma cdma = find(CellSignalStrengthCdma.class);
+        return (cdma != null) ? cdma.getCdmaEcio() : INVALID;
+    }
+
+    public int getEvdoDbm() {
+        CellSignalStrengthCdma cdma = find(CellSignalStrengthCdma.class);
+        return (cdma != null) ? cdma.getEvdoDbm() : INVALID;
+    }
+
+    public int getEvdoEcio() {
+        CellSignalStrengthCdma cdma = find(CellSignalStrengthCdma.class);
+        return (cdma != null) ? cdma.getEvdoEcio() : INVALID;
+    }
+
+    public int getEvdoSnr() {
+        CellSignalStrengthCdma cdma = find(CellSignalStrengthCdma.class);
+        return (cdma != null) ? cdma.getEvdoSnr() : INVALID;
+    }
+
+    /* Hidden APIs looked up by reflection on systems before Q */
+    public int getLteSignalStrength() {
+        CellSignalStrengthLte lte = find(CellSignalStrengthLte.class);
+        return (lte != null) ? lte.getRssi() : INVALID;
+    }
+
+    public int getLteRsrp() {
+        CellSignalStrengthLte lte = find(CellSignalStrengthLte.class);
+        return (lte != null) ? lte.getRsrp() : INVALID;
+    }
+
+    public int getLteRsrq() {
+        CellSignalStrengthLte lte = find(CellSignalStrengthLte.class);
+        return (lte != null) ? lte.getRsrq() : INVALID;
+    }
+
+    public int getLteRssnr() {
+        CellSignalStrengthLte lte = find(CellSignalStrengthLte.class);
+        return (lte != null) ? lte.getRssnr() : INVALID;
+    }
+
+    public int getLteCqi() {
+        CellSignalStrengthLte lte = find(CellSignalStrengthLte.class);
+        return (lte != null) ? lte.getCqi() : INVALID;
+    }
+
+    private <T extends CellSignalStrength> T find(Class<T> clazz) {
+        for (CellSignalStrength css : mCellSignalStrengths) {
+            if (clazz.isInstance(css)) {
+                return clazz.cast(css);
+            }
+        }
+        return null;
+    }
+}
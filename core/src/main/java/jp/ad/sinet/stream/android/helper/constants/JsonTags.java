@@ -35,6 +35,8 @@ public enum JsonTags {
     JSON_TAGS_SENSOR_TYPE("type"),
     JSON_TAGS_SENSOR_NAME("name"),
     JSON_TAGS_SENSOR_ID("id"),
+    JSON_TAGS_SENSOR_HANDLE("handle"),
+    JSON_TAGS_SENSOR_WAKEUP("wakeup"),
     JSON_TAGS_SENSOR_SCALAR_VALUE("value"),
     JSON_TAGS_SENSOR_VECTOR_VALUES("values"),
     JSON_TAGS_SENSOR_TIMESTAMP("timestamp"),;
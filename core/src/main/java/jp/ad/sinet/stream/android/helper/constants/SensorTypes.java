@@ -0,0 +1,164 @@
+/*
+ * Copyright (C) 2020-2021 National Institute of Informatics
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+
+package jp.ad.sinet.stream.android.helper.constants;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class SensorTypes {
+    /*
+     * Literal copies of android.hardware.Sensor.TYPE_XXX, so that this
+     * module can be used without the Android framework.
+     * Values are fixed by the platform and never change across releases.
+     */
+    public static final int TYPE_ACCELEROMETER = 1;
+    public static final int TYPE_MAGNETIC_FIELD = 2;
+    public static final int TYPE_ORIENTATION = 3;
+    public static final int TYPE_GYROSCOPE = 4;
+    public static final int TYPE_LIGHT = 5;
+    public static final int TYPE_PRESSURE = 6;
+    public static final int TYPE_TEMPERATURE = 7;
+    public static final int TYPE_PROXIMITY = 8;
+    public static final int TYPE_GRAVITY = 9;
+    public static final int TYPE_LINEAR_ACCELERATION = 10;
+    public static final int TYPE_ROTATION_VECTOR = 11;
+    public static final int TYPE_RELATIVE_HUMIDITY = 12;
+    public static final int TYPE_AMBIENT_TEMPERATURE = 13;
+    public static final int TYPE_MAGNETIC_FIELD_UNCALIBRATED = 14;
+    public static final int TYPE_GAME_ROTATION_VECTOR = 15;
+    public static final int TYPE_GYROSCOPE_UNCALIBRATED = 16;
+    public static final int TYPE_SIGNIFICANT_MOTION = 17;
+    public static final int TYPE_STEP_DETECTOR = 18;
+    public static final int TYPE_STEP_COUNTER = 19;
+    public static final int TYPE_GEOMAGNETIC_ROTATION_VECTOR = 20;
+    public static final int TYPE_HEART_RATE = 21;
+    public static final int TYPE_POSE_6DOF = 28;
+    public static final int TYPE_STATIONARY_DETECT = 29;
+    public static final int TYPE_MOTION_DETECT = 30;
+    public static final int TYPE_HEART_BEAT = 31;
+    public static final int TYPE_LOW_LATENCY_OFFBODY_DETECT = 34;
+    public static final int TYPE_ACCELEROMETER_UNCALIBRATED = 35;
+    public static final int TYPE_HINGE_ANGLE = 36;
+    public static final int TYPE_HEAD_TRACKER = 37;
+    public static final int TYPE_ACCELEROMETER_LIMITED_AXES = 38;
+    public static final int TYPE_GYROSCOPE_LIMITED_AXES = 39;
+    public static final int TYPE_ACCELEROMETER_LIMITED_AXES_UNCALIBRATED = 40;
+    public static final int TYPE_GYROSCOPE_LIMITED_AXES_UNCALIBRATED = 41;
+    public static final int TYPE_HEADING = 42;
+    public static final int TYPE_DEVICE_PRIVATE_BASE = 65536;
+
+    private final Map<Integer, String> mNameMap = new HashMap<>();
+
+    /*
+     * Sensor.getStringType() is supported from Build.VERSION_CODES.KITKAT_WATCH.
+     * This is an effort to resolve sensor type name for old systems, and
+     * for sensor types not available on this device (e.g. in a recorded trace).
+     *
+     * [NB] Sensor.TYPE_XXX may be added/obsoleted as the progress of Android SDK.
+     */
+    public SensorTypes() {
+        /* type=1 */
+        mNameMap.put(TYPE_ACCELEROMETER, "accelerometer");
+        /* type=2 */
+        mNameMap.put(TYPE_MAGNETIC_FIELD, "magnetic_field");
+        /* type=3 */
+        mNameMap.put(TYPE_ORIENTATION, "orientation"); /* Deprecated as of API 15 */
+        /* type=4 */
+        mNameMap.put(TYPE_GYROSCOPE, "gyroscope");
+        /* type=5 */
+        mNameMap.put(TYPE_LIGHT, "light");
+        /* type=6 */
+        mNameMap.put(TYPE_PRESSURE, "pressure");
+        /* type=7 */
+        /* mNameMap.put(TYPE_TEMPERATURE, "temperature"); *//* Deprecated as of API 15 */
+        /* type=8 */
+        mNameMap.put(TYPE_PROXIMITY, "proximity");
+        /* type=9 */
+        mNameMap.put(TYPE_GRAVITY, "gravity");
+        /* type=10 */
+        mNameMap.put(TYPE_LINEAR_ACCELERATION, "linear_acceleration");
+        /* type=11 */
+        mNameMap.put(TYPE_ROTATION_VECTOR, "rotation_vector");
+        /* type=12 */
+        mNameMap.put(TYPE_RELATIVE_HUMIDITY, "relative_humidity");
+        /* type=13 */
+        mNameMap.put(TYPE_AMBIENT_TEMPERATURE, "ambient_temperature");
+        /* type=14 */
+        mNameMap.put(TYPE_MAGNETIC_FIELD_UNCALIBRATED, "magnetic_field_uncalibrated");
+        /* type=15 */
+        mNameMap.put(TYPE_GAME_ROTATION_VECTOR, "game_rotation_vector");
+        /* type=16 */
+        mNameMap.put(TYPE_GYROSCOPE_UNCALIBRATED, "gyroscope_uncalibrated");
+        /* type=17 */
+        mNameMap.put(TYPE_SIGNIFICANT_MOTION, "significant_motion");
+        /* type=18 */
+        mNameMap.put(TYPE_STEP_DETECTOR, "step_detector");
+        /* type=19 */
+        mNameMap.put(TYPE_STEP_COUNTER, "step_counter");
+        /* type=20 */
+        mNameMap.put(TYPE_GEOMAGNETIC_ROTATION_VECTOR, "geomagnetic_rotation_vector");
+
+        /* type=21 */
+        mNameMap.put(TYPE_HEART_RATE, "heart_rate");
+
+        /* type=28 */
+        mNameMap.put(TYPE_POSE_6DOF, "pose_6dof");
+        /* type=29 */
+        mNameMap.put(TYPE_STATIONARY_DETECT, "stationary_detect");
+        /* type=30 */
+        mNameMap.put(TYPE_MOTION_DETECT, "motion_detect");
+        /* type=31 */
+        mNameMap.put(TYPE_HEART_BEAT, "heart_beat");
+
+        /* type=34 */
+        mNameMap.put(TYPE_LOW_LATENCY_OFFBODY_DETECT,
+                "low_latency_offbody_detect");
+        /* type=35 */
+        mNameMap.put(TYPE_ACCELEROMETER_UNCALIBRATED,
+                "accelerometer_uncalibrated");
+
+        /* type=36 */
+        mNameMap.put(TYPE_HINGE_ANGLE, "hinge_angle");
+
+        /* type=37 */
+        mNameMap.put(TYPE_HEAD_TRACKER, "head_tracker");
+        /* type=38 */
+        mNameMap.put(TYPE_ACCELEROMETER_LIMITED_AXES,
+                "accelerometer_limited_axes");
+        /* type=39 */
+        mNameMap.put(TYPE_GYROSCOPE_LIMITED_AXES,
+                "gyroscope_limited_axes");
+        /* type=40 */
+        mNameMap.put(TYPE_ACCELEROMETER_LIMITED_AXES_UNCALIBRATED,
+                "accelerometer_limited_axes_uncalibrated");
+        /* type=41 */
+        mNameMap.put(TYPE_GYROSCOPE_LIMITED_AXES_UNCALIBRATED,
+                "gyroscope_limited_axes_uncalibrated");
+        /* type=42 */
+        mNameMap.put(TYPE_HEADING, "heading");
+    }
+
+    public String getName(int type) {
+        String name = mNameMap.get(type);
+        return ((name != null) ? name : "Unknown(" + type + ")");
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright (C) 2026 National Institute of Informatics
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+
+package jp.ad.sinet.stream.android.helper.metrics;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+
+import jp.ad.sinet.stream.android.helper.models.DeliveryLatencyReport;
+import jp.ad.sinet.stream.android.helper.models.LatencySummary;
+
+/**
+ * Aggregates the end-to-end latency of delivered sensor data, per sensor
+ * type and per pipeline stage, into {@link LatencyHistogram}s.
+ * <p>
+ *     All times must be in the same time base, i.e.
+ *     {@code SystemClock.elapsedRealtimeNanos()}, which is shared by
+ *     processes on the same device and by {@code SensorEvent.timestamp}.
+ * </p>
+ */
+public class DeliveryLatencyTracker {
+    private final ConcurrentHashMap<Integer, LatencyHistogram> mSensorHistograms =
+            new ConcurrentHashMap<>();
+    private final LatencyHistogram mIngestHistogram = new LatencyHistogram();
+    private final LatencyHistogram mSerializeHistogram = new LatencyHistogram();
+    private final LatencyHistogram mTransportHistogram = new LatencyHistogram();
+
+    /**
+     * Record the stamps of a delivered export.
+     *
+     * @param sensorTypes sensor types contained in the export
+     * @param eventNanos when each sample has occurred
+     * @param ingestNanos when each sample has arrived at the pipeline
+     * @param serializeNanos when the export has built
+     * @param receiveNanos when the export has received by the client
+     */
+    public void record(@NonNull int[] sensorTypes, @NonNull long[] eventNanos,
+                       @NonNull long[] ingestNanos, long serializeNanos, long receiveNanos) {
+        int n = Math.min(sensorTypes.length,
+                Math.min(eventNanos.length, ingestNanos.length));
+        for (int i = 0; i < n; i++) {
+            getSensorHistogram(sensorTypes[i]).record(receiveNanos - eventNanos[i]);
+            mIngestHistogram.record(ingestNanos[i] - eventNanos[i]);
+            mSerializeHistogram.record(serializeNanos - ingestNanos[i]);
+        }
+        mTransportHistogram.record(receiveNanos - serializeNanos);
+    }
+
+    @NonNull
+    private LatencyHistogram getSensorHistogram(int sensorType) {
+        LatencyHistogram histogram = mSensorHistograms.get(sensorType);
+        if (histogram == null) {
+            LatencyHistogram newHistogram = new LatencyHistogram();
+            histogram = mSensorHistograms.putIfAbsent(sensorType, newHistogram);
+            if (histogram == null) {
+                histogram = newHistogram;
+            }
+        }
+        return histogram;
+    }
+
+    @NonNull
+    public DeliveryLatencyReport getReport() {
+        ArrayList<Integer> sensorTypeList = new ArrayList<>(mSensorHistograms.keySet());
+        Collections.sort(sensorTypeList);
+        int n = sensorTypeList.size();
+        int[] sensorTypes = new int[n];
+        LatencySummary[] sensorLatencies = new LatencySummary[n];
+        for (int i = 0; i < n; i++) {
+            sensorTypes[i] = sensorTypeList.get(i);
+            sensorLatencies[i] = LatencySummary.of(getSensorHistogram(sensorTypes[i]));
+        }
+        return new DeliveryLatencyReport(sensorTypes, sensorLatencies,
+                LatencySummary.of(mIngestHistogram),
+                LatencySummary.of(mSerializeHistogram),
+                LatencySummary.of(mTransportHistogram));
+    }
+
+    public void reset() {
+        mSensorHistograms.clear();
+        mIngestHistogram.reset();
+        mSerializeHistogram.reset();
+        mTransportHistogram.reset();
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright (C) 2026 National Institute of Informatics
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+
+package jp.ad.sinet.stream.android.helper.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A lock-free histogram of durations in nanoseconds, with log-scale buckets.
+ * <p>
+ *     Each power of two is split into 4 sub-buckets, so that a percentile
+ *     is reported with at most 25% of error, while the whole range of
+ *     positive long values fits in {@link #BUCKET_COUNT} counters.
+ *     {@link #record} does neither lock nor allocate, so that it can be
+ *     called on every event.
+ * </p>
+ */
+public class LatencyHistogram {
+    private final static int SUB_BUCKET_BITS = 2;
+    private final static int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    public final static int BUCKET_COUNT =
+            SUB_BUCKET_COUNT + (62 - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT;
+
+    private final AtomicLongArray mBuckets = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong mCount = new AtomicLong();
+    private final AtomicLong mSum = new AtomicLong();
+    private final AtomicLong mMax = new AtomicLong();
+
+    /**
+     * Add a sample to this histogram. Negative values are taken as zero.
+     *
+     * @param nanos duration in nanoseconds
+     */
+    public void record(long nanos) {
+        if (nanos < 0L) {
+            nanos = 0L;
+        }
+        mBuckets.incrementAndGet(toIndex(nanos));
+        mCount.incrementAndGet();
+        mSum.addAndGet(nanos);
+
+        long max = mMax.get();
+        while (nanos > max) {
+            if (mMax.compareAndSet(max, nanos)) {
+                break;
+            }
+            max = mMax.get();
+        }
+    }
+
+    public long getCount() {
+        return mCount.get();
+    }
+
+    public long getSum() {
+        return mSum.get();
+    }
+
+    public long getMax() {
+        return mMax.get();
+    }
+
+    /**
+     * Estimate the value at the given quantile, from the upper bound of
+     * the bucket where the quantile falls in.
+     * <p>
+     *     Buckets are read one by one without stopping writers, so that
+     *     the result is an approximation while samples are being recorded.
+     * </p>
+     *
+     * @param quantile quantile in range [0.0, 1.0], such like 0.99
+     * @return estimated value in nanoseconds, or zero if empty
+     */
+    public long getPercentile(double quantile) {
+        long[] buckets = getBuckets();
+        long total = 0L;
+        for (long count : buckets) {
+            total += count;
+        }
+        if (total == 0L) {
+            return 0L;
+        }
+
+        long rank = (long) Math.ceil(Math.max(0.0, Math.min(1.0, quantile)) * total);
+        rank = Math.max(rank, 1L);
+        long accumulated = 0L;
+        for (int i = 0; i < buckets.length; i++) {
+            accumulated += buckets[i];
+            if (accumulated >= rank) {
+                return Math.min(toUpperBound(i), getMax());
+            }
+        }
+        return getMax();
+    }
+
+    /**
+     * @return a copy of bucket counters, indexed as described in {@link #toIndex}
+     */
+    public long[] getBuckets() {
+        long[] buckets = new long[BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            buckets[i] = mBuckets.get(i);
+        }
+        return buckets;
+    }
+
+    /**
+     * Clear all samples. Samples recorded while resetting may be lost.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            mBuckets.set(i, 0L);
+        }
+        mCount.set(0L);
+        mSum.set(0L);
+        mMax.set(0L);
+    }
+
+    /**
+     * Values below {@link #SUB_BUCKET_COUNT} have their own bucket.
+     * Others go to one of the sub-buckets of their most significant bit.
+     *
+     * @param value non-negative value
+     * @return bucket index
+     */
+    static int toIndex(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> shift) & (SUB_BUCKET_COUNT - 1);
+        return SUB_BUCKET_COUNT + shift * SUB_BUCKET_COUNT + subBucket;
+    }
+
+    static long toUpperBound(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = (index - SUB_BUCKET_COUNT) / SUB_BUCKET_COUNT;
+        int subBucket = (index - SUB_BUCKET_COUNT) % SUB_BUCKET_COUNT;
+        long upper = ((long) (SUB_BUCKET_COUNT + subBucket + 1) << shift) - 1L;
+        return (upper < 0L) ? Long.MAX_VALUE : upper;
+    }
+}
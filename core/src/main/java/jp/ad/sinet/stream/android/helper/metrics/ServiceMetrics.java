@@ -0,0 +1,138 @@
+/*
+ * Copyright (C) 2026 National Institute of Informatics
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+
+package jp.ad.sinet.stream.android.helper.metrics;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import jp.ad.sinet.stream.android.helper.models.ServiceStats;
+
+/**
+ * Lock-free runtime counters of a service, cheap enough to be kept on.
+ * <p>
+ *     Writers only touch atomic variables. A per event type counter is
+ *     allocated on the first event of that type, and reused afterwards.
+ *     Use {@link #snapshot} to take a consistent-enough copy for reporting.
+ * </p>
+ */
+public class ServiceMetrics {
+    /**
+     * Event type to be used by services which do not distinguish events.
+     */
+    public final static int EVENT_TYPE_ANY = 0;
+
+    private final String mServiceName;
+    private final long mStartNanos = System.nanoTime();
+
+    private final AtomicLong mEventCount = new AtomicLong();
+    private final ConcurrentHashMap<Integer, AtomicLong> mEventCountMap = new ConcurrentHashMap<>();
+    private final AtomicLong mMessageCount = new AtomicLong();
+    private final AtomicLong mByteCount = new AtomicLong();
+    private final AtomicLong mSendFailureCount = new AtomicLong();
+    private final LatencyHistogram mLatencyHistogram = new LatencyHistogram();
+
+    public ServiceMetrics(@NonNull String serviceName) {
+        this.mServiceName = serviceName;
+    }
+
+    public void onEventReceived(int eventType) {
+        mEventCount.incrementAndGet();
+        AtomicLong counter = mEventCountMap.get(eventType);
+        if (counter == null) {
+            AtomicLong newCounter = new AtomicLong();
+            counter = mEventCountMap.putIfAbsent(eventType, newCounter);
+            if (counter == null) {
+                counter = newCounter;
+            }
+        }
+        counter.incrementAndGet();
+    }
+
+    public void onMessageSent() {
+        mMessageCount.incrementAndGet();
+    }
+
+    public void onBytesSent(long bytes) {
+        mByteCount.addAndGet(bytes);
+    }
+
+    public void onSendFailed() {
+        mSendFailureCount.incrementAndGet();
+    }
+
+    public long getSendFailureCount() {
+        return mSendFailureCount.get();
+    }
+
+    public void recordLatency(long nanos) {
+        mLatencyHistogram.record(nanos);
+    }
+
+    @NonNull
+    public LatencyHistogram getLatencyHistogram() {
+        return mLatencyHistogram;
+    }
+
+    /**
+     * @param clientCount the number of clients currently bound
+     * @return a copy of the current counters
+     */
+    @NonNull
+    public ServiceStats snapshot(int clientCount) {
+        return snapshot(clientCount, 0L, 0L);
+    }
+
+    /**
+     * @param clientCount the number of clients currently bound
+     * @param queueHighWatermark see {@link ServiceStats#getQueueHighWatermark}
+     * @param queueDropCount see {@link ServiceStats#getQueueDropCount}
+     * @return a copy of the current counters
+     */
+    @NonNull
+    public ServiceStats snapshot(int clientCount, long queueHighWatermark, long queueDropCount) {
+        ArrayList<Integer> eventTypeList = new ArrayList<>(mEventCountMap.keySet());
+        Collections.sort(eventTypeList);
+        int n = eventTypeList.size();
+        int[] eventTypes = new int[n];
+        long[] eventCounts = new long[n];
+        for (int i = 0; i < n; i++) {
+            int eventType = eventTypeList.get(i);
+            eventTypes[i] = eventType;
+            AtomicLong counter = mEventCountMap.get(eventType);
+            eventCounts[i] = (counter != null) ? counter.get() : 0L;
+        }
+
+        long uptimeMillis = (System.nanoTime() - mStartNanos) / 1000000L;
+        return new ServiceStats(mServiceName, uptimeMillis, clientCount,
+                mEventCount.get(), eventTypes, eventCounts,
+                mMessageCount.get(), mByteCount.get(), mSendFailureCount.get(),
+                mLatencyHistogram.getCount(),
+                mLatencyHistogram.getPercentile(0.50),
+                mLatencyHistogram.getPercentile(0.99),
+                mLatencyHistogram.getMax(),
+                queueHighWatermark, queueDropCount);
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright (C) 2026 National Institute of Informatics
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+
+package jp.ad.sinet.stream.android.helper.models;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Arrays;
+
+/**
+ * End-to-end latency of sensor data, from the sensor event to the
+ * delivery to the client, along with its breakdown per pipeline stage.
+ * <ul>
+ *     <li>ingest: sensor event to the arrival at SensorService main thread</li>
+ *     <li>serialize: arrival to the JSON export, including the wait for
+ *     the next export interval</li>
+ *     <li>transport: JSON export to the arrival at SensorController,
+ *     through Messenger and the client main thread</li>
+ * </ul>
+ */
+public class DeliveryLatencyReport {
+    private final int[] mSensorTypes;
+    private final LatencySummary[] mSensorLatencies;
+    private final LatencySummary mIngestLatency;
+    private final LatencySummary mSerializeLatency;
+    private final LatencySummary mTransportLatency;
+
+    public DeliveryLatencyReport(@NonNull int[] sensorTypes,
+                                 @NonNull LatencySummary[] sensorLatencies,
+                                 @NonNull LatencySummary ingestLatency,
+                                 @NonNull LatencySummary serializeLatency,
+                                 @NonNull LatencySummary transportLatency) {
+        this.mSensorTypes = sensorTypes;
+        this.mSensorLatencies = sensorLatencies;
+        this.mIngestLatency = ingestLatency;
+        this.mSerializeLatency = serializeLatency;
+        this.mTransportLatency = transportLatency;
+    }
+
+    /**
+     * @return sensor types which have delivered, sorted in ascending order
+     */
+    @NonNull
+    public int[] getSensorTypes() {
+        return mSensorTypes;
+    }
+
+    /**
+     * @param sensorType the sensor type
+     * @return end-to-end latency of the given sensor type, or null if not delivered
+     */
+    @Nullable
+    public LatencySummary getSensorLatency(int sensorType) {
+        int index = Arrays.binarySearch(mSensorTypes, sensorType);
+        return (index >= 0) ? mSensorLatencies[index] : null;
+    }
+
+    @NonNull
+    public LatencySummary getIngestLatency() {
+        return mIngestLatency;
+    }
+
+    @NonNull
+    public LatencySummary getSerializeLatency() {
+        return mSerializeLatency;
+    }
+
+    @NonNull
+    public LatencySummary getTransportLatency() {
+        return mTransportLatency;
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("DeliveryLatencyReport{sensors={");
+        for (int i = 0; i < mSensorTypes.length; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(mSensorTypes[i]).append('=').append(mSensorLatencies[i]);
+        }
+        sb.append("}, ingest=").append(mIngestLatency)
+                .append(", serialize=").append(mSerializeLatency)
+                .append(", transport=").append(mTransportLatency)
+                .append('}');
+        return sb.toString();
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright (C) 2026 National Institute of Informatics
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+
+package jp.ad.sinet.stream.android.helper.models;
+
+import androidx.annotation.NonNull;
+
+import jp.ad.sinet.stream.android.helper.metrics.LatencyHistogram;
+
+/**
+ * Percentiles of a {@link LatencyHistogram} at some point, in nanoseconds.
+ */
+public class LatencySummary {
+    private final long mCount;
+    private final long mP50Nanos;
+    private final long mP99Nanos;
+    private final long mMaxNanos;
+
+    public LatencySummary(long count, long p50Nanos, long p99Nanos, long maxNanos) {
+        this.mCount = count;
+        this.mP50Nanos = p50Nanos;
+        this.mP99Nanos = p99Nanos;
+        this.mMaxNanos = maxNanos;
+    }
+
+    @NonNull
+    public static LatencySummary of(@NonNull LatencyHistogram histogram) {
+        return new LatencySummary(histogram.getCount(),
+                histogram.getPercentile(0.50),
+                histogram.getPercentile(0.99),
+                histogram.getMax());
+    }
+
+    public long getCount() {
+        return mCount;
+    }
+
+    public long getP50Nanos() {
+        return mP50Nanos;
+    }
+
+    public long getP99Nanos() {
+        return mP99Nanos;
+    }
+
+    public long getMaxNanos() {
+        return mMaxNanos;
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return "LatencySummary{" +
+                "count=" + mCount +
+                ", p50Nanos=" + mP50Nanos +
+                ", p99Nanos=" + mP99Nanos +
+                ", maxNanos=" + mMaxNanos +
+                '}';
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright (C) 2026 National Institute of Informatics
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+
+package jp.ad.sinet.stream.android.helper.models;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Immutable attributes of a sensor, resolved once on registration.
+ * <p>
+ *     Each sensor instance is identified by its handle, a dense index
+ *     given on registration, as a device may have more than one sensor
+ *     of a type, such like wake-up and non-wake-up variants.
+ * </p>
+ * <p>
+ *     Unlike {@code android.hardware.Sensor}, this object can be made
+ *     for a sensor which does not exist on this device, such as the one
+ *     appeared in a recorded trace.
+ * </p>
+ */
+public class SensorDescriptor {
+    private final int mHandle;
+    private final int mSensorType;
+    private final String mTypeName;
+    private final String mName;
+    private final int mSensorId;
+    private final boolean mIsWakeUp;
+
+    public SensorDescriptor(int handle, int sensorType, @NonNull String typeName,
+                            @NonNull String name, int sensorId, boolean isWakeUp) {
+        this.mHandle = handle;
+        this.mSensorType = sensorType;
+        this.mTypeName = typeName;
+        this.mName = name;
+        this.mSensorId = sensorId;
+        this.mIsWakeUp = isWakeUp;
+    }
+
+    /**
+     * @return Dense index of this sensor instance, valid in this process
+     */
+    public int getHandle() {
+        return this.mHandle;
+    }
+
+    public int getSensorType() {
+        return this.mSensorType;
+    }
+
+    /**
+     * @return Symbolic sensor type name such like "accelerometer"
+     */
+    @NonNull
+    public String getTypeName() {
+        return this.mTypeName;
+    }
+
+    /**
+     * @return Vendor specific sensor name such like "Goldfish 3-axis Accelerometer"
+     */
+    @NonNull
+    public String getName() {
+        return this.mName;
+    }
+
+    /**
+     * @return Sensor ID, or zero if unavailable
+     */
+    public int getSensorId() {
+        return this.mSensorId;
+    }
+
+    public boolean isWakeUp() {
+        return this.mIsWakeUp;
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright (C) 2020 National Institute of Informatics
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+
+package jp.ad.sinet.stream.android.helper.models;
+
+import androidx.annotation.NonNull;
+
+/**
+ * The latest reading of a sensor.
+ * <p>
+ *     Sensor values are copied on {@link #setSample}, since the caller
+ *     (i.e. the system which owns a SensorEvent) may reuse its buffer.
+ * </p>
+ */
+public class SensorHolder {
+    private final SensorDescriptor mDescriptor;
+    private long mTimestamp;
+    private long mUnixTime;
+    private long mEventNanos;
+    private long mIngestNanos;
+    private float[] mValues = new float[0];
+    private boolean mIsUpdated = false;
+
+    public SensorHolder(@NonNull SensorDescriptor descriptor) {
+        this.mDescriptor = descriptor;
+    }
+
+    public void setSample(long timestamp, @NonNull float[] values, long unixTime) {
+        this.mTimestamp = timestamp;
+        this.mUnixTime = unixTime;
+        if (this.mValues.length != values.length) {
+            this.mValues = new float[values.length];
+        }
+        System.arraycopy(values, 0, this.mValues, 0, values.length);
+    }
+
+    /**
+     * Take over the sample of another holder of the same sensor type,
+     * reusing the values buffer of this holder where possible.
+     *
+     * @param other the holder to copy from
+     */
+    public void copyFrom(@NonNull SensorHolder other) {
+        setSample(other.mTimestamp, other.mValues, other.mUnixTime);
+        setLatencyStamps(other.mEventNanos, other.mIngestNanos);
+        this.mIsUpdated = other.mIsUpdated;
+    }
+
+    @NonNull
+    public SensorDescriptor getDescriptor() {
+        return this.mDescriptor;
+    }
+
+    public int getSensorType() {
+        return this.mDescriptor.getSensorType();
+    }
+
+    /**
+     * @return the sensor timestamp in nanoseconds, as given by the source
+     */
+    public long getTimestamp() {
+        return this.mTimestamp;
+    }
+
+    /**
+     * Keep the times for end-to-end latency tracking, both in the time base
+     * of {@code SystemClock.elapsedRealtimeNanos()}.
+     *
+     * @param eventNanos when the sample has occurred
+     * @param ingestNanos when the sample has arrived at the pipeline
+     */
+    public void setLatencyStamps(long eventNanos, long ingestNanos) {
+        this.mEventNanos = eventNanos;
+        this.mIngestNanos = ingestNanos;
+    }
+
+    public long getEventNanos() {
+        return this.mEventNanos;
+    }
+
+    public long getIngestNanos() {
+        return this.mIngestNanos;
+    }
+
+    public void setUnixTime(long unixTime) {
+        this.mUnixTime = unixTime;
+    }
+
+    public long getUnixTime() {
+        return this.mUnixTime;
+    }
+
+    @NonNull
+    public float[] getValues() {
+        return this.mValues;
+    }
+
+    public void setUpdated(boolean isUpdated) {
+        this.mIsUpdated = isUpdated;
+    }
+
+    public boolean isUpdated() {
+        return this.mIsUpdated;
+    }
+}
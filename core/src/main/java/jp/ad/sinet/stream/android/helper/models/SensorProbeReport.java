@@ -0,0 +1,205 @@
+/*
+ * Copyright (C) 2026 National Institute of Informatics
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+
+package jp.ad.sinet.stream.android.helper.models;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * The delivery characteristics of sensors, as measured by the capability
+ * probe of SensorService, per sensor and requested sampling period.
+ * <p>
+ *     The nominal values such as {@code Sensor.getMinDelay()} often differ
+ *     from what a device actually delivers. This report tells the real ones,
+ *     so that the sampling configuration can be chosen per device.
+ * </p>
+ */
+public class SensorProbeReport {
+    /**
+     * Measurement of a sensor at a requested sampling period.
+     */
+    public static class Result {
+        private final int mHandle;
+        private final int mSensorType;
+        private final String mTypeName;
+        private final int mRequestedPeriodMicros;
+        private final long mWindowNanos;
+        private final int mSamples;
+        private final long mSpanNanos;
+        private final long mIntervalMeanNanos;
+        private final long mIntervalStdDevNanos;
+        private final long mIntervalMaxNanos;
+        private final int mBatches;
+        private final int mMaxBatchSize;
+        private final int mNonMonotonicCount;
+
+        public Result(int handle, int sensorType, @NonNull String typeName,
+                      int requestedPeriodMicros, long windowNanos,
+                      int samples, long spanNanos,
+                      long intervalMeanNanos, long intervalStdDevNanos, long intervalMaxNanos,
+                      int batches, int maxBatchSize, int nonMonotonicCount) {
+            this.mHandle = handle;
+            this.mSensorType = sensorType;
+            this.mTypeName = typeName;
+            this.mRequestedPeriodMicros = requestedPeriodMicros;
+            this.mWindowNanos = windowNanos;
+            this.mSamples = samples;
+            this.mSpanNanos = spanNanos;
+            this.mIntervalMeanNanos = intervalMeanNanos;
+            this.mIntervalStdDevNanos = intervalStdDevNanos;
+            this.mIntervalMaxNanos = intervalMaxNanos;
+            this.mBatches = batches;
+            this.mMaxBatchSize = maxBatchSize;
+            this.mNonMonotonicCount = nonMonotonicCount;
+        }
+
+        public int getHandle() {
+            return mHandle;
+        }
+
+        public int getSensorType() {
+            return mSensorType;
+        }
+
+        @NonNull
+        public String getTypeName() {
+            return mTypeName;
+        }
+
+        /**
+         * @return the requested sampling period in microseconds, zero for the fastest
+         */
+        public int getRequestedPeriodMicros() {
+            return mRequestedPeriodMicros;
+        }
+
+        /**
+         * @return the length of the measurement window in nanoseconds
+         */
+        public long getWindowNanos() {
+            return mWindowNanos;
+        }
+
+        /**
+         * @return the number of samples delivered in the window
+         */
+        public int getSamples() {
+            return mSamples;
+        }
+
+        /**
+         * @return from the first to the last sample timestamp, in nanoseconds
+         */
+        public long getSpanNanos() {
+            return mSpanNanos;
+        }
+
+        /**
+         * @return the achieved rate by sample timestamps, in Hz
+         */
+        public double getAchievedRateHz() {
+            if (mSamples > 1 && mSpanNanos > 0L) {
+                return (mSamples - 1) * 1e9 / mSpanNanos;
+            }
+            return (mWindowNanos > 0L) ? mSamples * 1e9 / mWindowNanos : 0.0;
+        }
+
+        public long getIntervalMeanNanos() {
+            return mIntervalMeanNanos;
+        }
+
+        /**
+         * @return the standard deviation of the sample intervals, as jitter
+         */
+        public long getIntervalStdDevNanos() {
+            return mIntervalStdDevNanos;
+        }
+
+        public long getIntervalMaxNanos() {
+            return mIntervalMaxNanos;
+        }
+
+        /**
+         * @return the number of deliveries, each of which may carry a batch of samples
+         */
+        public int getBatches() {
+            return mBatches;
+        }
+
+        public double getMeanBatchSize() {
+            return (mBatches > 0) ? (double) mSamples / mBatches : 0.0;
+        }
+
+        public int getMaxBatchSize() {
+            return mMaxBatchSize;
+        }
+
+        /**
+         * @return the number of samples whose timestamp did not advance
+         */
+        public int getNonMonotonicCount() {
+            return mNonMonotonicCount;
+        }
+
+        @Override
+        public String toString() {
+            return "Result{" +
+                    "handle=" + mHandle +
+                    ", typeName=" + mTypeName +
+                    ", requestedPeriodMicros=" + mRequestedPeriodMicros +
+                    ", samples=" + mSamples +
+                    ", rateHz=" + String.format(Locale.ENGLISH, "%.1f", getAchievedRateHz()) +
+                    ", intervalMeanNanos=" + mIntervalMeanNanos +
+                    ", intervalStdDevNanos=" + mIntervalStdDevNanos +
+                    ", intervalMaxNanos=" + mIntervalMaxNanos +
+                    ", meanBatchSize=" + String.format(Locale.ENGLISH, "%.1f", getMeanBatchSize()) +
+                    ", maxBatchSize=" + mMaxBatchSize +
+                    ", nonMonotonic=" + mNonMonotonicCount +
+                    '}';
+        }
+    }
+
+    private final List<Result> mResults;
+
+    public SensorProbeReport(@NonNull List<Result> results) {
+        this.mResults = Collections.unmodifiableList(new ArrayList<>(results));
+    }
+
+    /**
+     * @return the results in the order of measurement
+     */
+    @NonNull
+    public List<Result> getResults() {
+        return mResults;
+    }
+
+    @Override
+    public String toString() {
+        return "SensorProbeReport{" +
+                "results=" + mResults +
+                '}';
+    }
+}
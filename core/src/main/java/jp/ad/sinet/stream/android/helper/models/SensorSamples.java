@@ -0,0 +1,202 @@
+/*
+ * Copyright (C) 2026 National Institute of Informatics
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+
+package jp.ad.sinet.stream.android.helper.models;
+
+import androidx.annotation.NonNull;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The sensor samples of an export, in primitive arrays.
+ * <p>
+ *     This is the typed alternative of the JSON string, for the clients
+ *     which do computation on sensor values and thus have nothing to gain
+ *     from text. The values of all samples are packed into a flat array,
+ *     and each sample refers to its range by offset.
+ * </p>
+ * <p>
+ *     An instance is refilled on each delivery to save allocations, so
+ *     that receivers must treat it as read-only and must not keep it
+ *     beyond the callback. Use {@link #getValues(int)} or
+ *     {@link #copyValues(int, float[], int)} to keep the values.
+ * </p>
+ */
+public class SensorSamples {
+    private int mSize = 0;
+    private SensorDescriptor[] mDescriptors = new SensorDescriptor[0];
+    private long[] mTimestamps = new long[0];
+    private long[] mUnixTimes = new long[0];
+    private int[] mOffsets = new int[] { 0 };
+    private float[] mValues = new float[0];
+
+    /**
+     * Take the samples of given holders, as exported by SensorService.
+     *
+     * @param sensorHolders the holders to copy from
+     */
+    public void setSensorHolders(@NonNull List<SensorHolder> sensorHolders) {
+        int n = sensorHolders.size();
+        int valueCount = 0;
+        for (int i = 0; i < n; i++) {
+            valueCount += sensorHolders.get(i).getValues().length;
+        }
+        reset(n, valueCount);
+        for (int i = 0; i < n; i++) {
+            SensorHolder sensorHolder = sensorHolders.get(i);
+            float[] values = sensorHolder.getValues();
+            add(sensorHolder.getDescriptor(), sensorHolder.getTimestamp(),
+                    sensorHolder.getUnixTime(), values, 0, values.length);
+        }
+    }
+
+    /**
+     * Drop all samples, and make room for the ones to be added.
+     *
+     * @param size the number of samples to be added
+     * @param valueCount the number of values of all samples to be added
+     */
+    public void reset(int size, int valueCount) {
+        if (mDescriptors.length < size) {
+            mDescriptors = new SensorDescriptor[size];
+            mTimestamps = new long[size];
+            mUnixTimes = new long[size];
+            mOffsets = new int[size + 1];
+        } else {
+            /* Let go the descriptors of removed sensors */
+            Arrays.fill(mDescriptors, size, mDescriptors.length, null);
+        }
+        if (mValues.length < valueCount) {
+            mValues = new float[valueCount];
+        }
+        mSize = 0;
+        mOffsets[0] = 0;
+    }
+
+    /**
+     * Append a sample, on the room made by {@link #reset}.
+     *
+     * @param descriptor the sensor of the sample
+     * @param timestamp the sensor timestamp in nanoseconds
+     * @param unixTime the wall clock time in milliseconds
+     * @param values the array to copy the values from
+     * @param from the index of the first value in {@code values}
+     * @param count the number of values
+     * @throws IllegalStateException if there is no room
+     */
+    public void add(@NonNull SensorDescriptor descriptor, long timestamp, long unixTime,
+                    @NonNull float[] values, int from, int count) {
+        int offset = mOffsets[mSize];
+        if (mSize >= mDescriptors.length || offset + count > mValues.length) {
+            throw new IllegalStateException("SensorSamples: No room for " + descriptor.getName());
+        }
+        mDescriptors[mSize] = descriptor;
+        mTimestamps[mSize] = timestamp;
+        mUnixTimes[mSize] = unixTime;
+        System.arraycopy(values, from, mValues, offset, count);
+        mSize++;
+        mOffsets[mSize] = offset + count;
+    }
+
+    public int size() {
+        return mSize;
+    }
+
+    @NonNull
+    public SensorDescriptor getDescriptor(int index) {
+        checkIndex(index);
+        return mDescriptors[index];
+    }
+
+    /**
+     * @param index the index of the sample
+     * @return the sensor timestamp in nanoseconds, as given by the source
+     */
+    public long getTimestamp(int index) {
+        checkIndex(index);
+        return mTimestamps[index];
+    }
+
+    /**
+     * @param index the index of the sample
+     * @return the wall clock time in milliseconds, as in JSON
+     */
+    public long getUnixTime(int index) {
+        checkIndex(index);
+        return mUnixTimes[index];
+    }
+
+    public int getValueCount(int index) {
+        checkIndex(index);
+        return mOffsets[index + 1] - mOffsets[index];
+    }
+
+    public float getValue(int index, int valueIndex) {
+        if (valueIndex < 0 || valueIndex >= getValueCount(index)) {
+            throw new IndexOutOfBoundsException("valueIndex " + valueIndex);
+        }
+        return mValues[mOffsets[index] + valueIndex];
+    }
+
+    /**
+     * @param index the index of the sample
+     * @return a copy of the values of the sample
+     */
+    @NonNull
+    public float[] getValues(int index) {
+        checkIndex(index);
+        return Arrays.copyOfRange(mValues, mOffsets[index], mOffsets[index + 1]);
+    }
+
+    /**
+     * Copy the values of a sample into a caller's buffer.
+     *
+     * @param index the index of the sample
+     * @param dst the buffer to copy into
+     * @param dstPos the position in {@code dst}
+     * @return the number of values copied
+     */
+    public int copyValues(int index, @NonNull float[] dst, int dstPos) {
+        int count = getValueCount(index);
+        System.arraycopy(mValues, mOffsets[index], dst, dstPos, count);
+        return count;
+    }
+
+    /**
+     * @param handle the sensor handle to look for
+     * @return the index of the sample of the sensor, or -1 if not found
+     */
+    public int indexOf(int handle) {
+        for (int i = 0; i < mSize; i++) {
+            if (mDescriptors[i].getHandle() == handle) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= mSize) {
+            throw new IndexOutOfBoundsException("index " + index + ", size " + mSize);
+        }
+    }
+}
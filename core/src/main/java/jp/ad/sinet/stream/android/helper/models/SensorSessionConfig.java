@@ -0,0 +1,155 @@
+/*
+ * Copyright (C) 2026 National Institute of Informatics
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+
+package jp.ad.sinet.stream.android.helper.models;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Settings of a sensor session, to be applied by the sensor service
+ * all at once. Settings left unset keep their current values.
+ */
+public class SensorSessionConfig {
+    private long mIntervalMillis = 0L;
+    private boolean mHasLocation = false;
+    private double mLatitude = Double.NaN;
+    private double mLongitude = Double.NaN;
+    private long mLocationTime = -1L;
+    private String mPublisher = null;
+    private String mNote = null;
+    private ArrayList<Integer> mSensorTypes = null;
+    private ArrayList<Integer> mSensorHandles = null;
+
+    /**
+     * @return the interval timer in milliseconds, or zero if unset
+     */
+    public long getIntervalMillis() {
+        return mIntervalMillis;
+    }
+
+    public void setIntervalMillis(long intervalMillis) {
+        this.mIntervalMillis = intervalMillis;
+    }
+
+    /**
+     * @return true if the location is set
+     */
+    public boolean hasLocation() {
+        return mHasLocation;
+    }
+
+    public double getLatitude() {
+        return mLatitude;
+    }
+
+    public double getLongitude() {
+        return mLongitude;
+    }
+
+    /**
+     * @return the UTC time of the location fix, in milliseconds since epoch
+     */
+    public long getLocationTime() {
+        return mLocationTime;
+    }
+
+    public void setLocation(double latitude, double longitude, long utcTime) {
+        this.mHasLocation = true;
+        this.mLatitude = latitude;
+        this.mLongitude = longitude;
+        this.mLocationTime = utcTime;
+    }
+
+    /**
+     * @return the publisher of user data, or null if unset
+     */
+    public String getPublisher() {
+        return mPublisher;
+    }
+
+    public void setPublisher(String publisher) {
+        this.mPublisher = publisher;
+    }
+
+    /**
+     * @return the note of user data, or null if unset
+     */
+    public String getNote() {
+        return mNote;
+    }
+
+    public void setNote(String note) {
+        this.mNote = note;
+    }
+
+    /**
+     * @return the sensor types to be enabled, or null if unset
+     */
+    public ArrayList<Integer> getSensorTypes() {
+        return mSensorTypes;
+    }
+
+    /**
+     * Sensors of other types get disabled on apply.
+     * Exclusive with {@link #setSensorHandles}.
+     *
+     * @param sensorTypes the sensor types to be enabled
+     */
+    public void setSensorTypes(List<Integer> sensorTypes) {
+        this.mSensorTypes = (sensorTypes != null) ? new ArrayList<>(sensorTypes) : null;
+    }
+
+    /**
+     * @return the sensor handles to be enabled, or null if unset
+     */
+    public ArrayList<Integer> getSensorHandles() {
+        return mSensorHandles;
+    }
+
+    /**
+     * Other sensors get disabled on apply.
+     * Exclusive with {@link #setSensorTypes}.
+     *
+     * @param sensorHandles the sensor handles to be enabled
+     */
+    public void setSensorHandles(List<Integer> sensorHandles) {
+        this.mSensorHandles = (sensorHandles != null) ? new ArrayList<>(sensorHandles) : null;
+    }
+
+    /**
+     * @return null if valid, otherwise the description of invalid setting
+     */
+    public String validate() {
+        if (mIntervalMillis < 0L) {
+            return "Invalid interval timer: " + mIntervalMillis;
+        }
+        if (mHasLocation
+                && (! (mLatitude >= -90.0 && mLatitude <= 90.0)
+                ||  ! (mLongitude >= -180.0 && mLongitude <= 180.0))) {
+            return "Location{" + mLatitude + ", " + mLongitude + "} out of range";
+        }
+        if (mSensorTypes != null && mSensorHandles != null) {
+            return "Both sensor types and handles are set";
+        }
+        return null;
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright (C) 2026 National Institute of Informatics
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+
+package jp.ad.sinet.stream.android.helper.models;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+
+/**
+ * A consistent copy of the sensor samples taken at an export boundary,
+ * handed over from the ingest thread to the serializer thread by
+ * {@link jp.ad.sinet.stream.android.helper.provider.SnapshotExchange}.
+ * <p>
+ *     A snapshot is a preallocated buffer to be reused. The holders are
+ *     kept per sensor instance, so that no allocation happens in the steady
+ *     state. While owned by the reader, it must be treated as immutable.
+ * </p>
+ */
+public class SensorSnapshot {
+    /* Indexed by the handle of sensor instance */
+    private final ArrayList<SensorHolder> mHolderByHandle = new ArrayList<>();
+    private final ArrayList<SensorHolder> mSensorHolders = new ArrayList<>();
+    private long mSequence = 0L;
+    private int mMergedCount = 0;
+    private Object mAttachment = null;
+
+    /**
+     * Copy the sample into this snapshot. A sample of the same sensor
+     * taken on a former export boundary, if any, gets overwritten.
+     *
+     * @param sensorHolder the latest sample of a sensor instance
+     */
+    public void put(@NonNull SensorHolder sensorHolder) {
+        int handle = sensorHolder.getDescriptor().getHandle();
+        while (mHolderByHandle.size() <= handle) {
+            mHolderByHandle.add(null);
+        }
+        SensorHolder holder = mHolderByHandle.get(handle);
+        if (holder == null || holder.getDescriptor() != sensorHolder.getDescriptor()) {
+            /* New, or re-registered with the same handle */
+            if (holder != null && holder.isUpdated()) {
+                mSensorHolders.remove(holder);
+            }
+            holder = new SensorHolder(sensorHolder.getDescriptor());
+            mHolderByHandle.set(handle, holder);
+        }
+        if (! holder.isUpdated()) {
+            mSensorHolders.add(holder);
+        }
+        holder.copyFrom(sensorHolder);
+        holder.setUpdated(true);
+    }
+
+    /**
+     * Forget all samples for reuse. Holders are kept.
+     */
+    public void clear() {
+        for (int i = 0, n = mSensorHolders.size(); i < n; i++) {
+            mSensorHolders.get(i).setUpdated(false);
+        }
+        mSensorHolders.clear();
+        mSequence = 0L;
+        mMergedCount = 0;
+        mAttachment = null;
+    }
+
+    /**
+     * @return the samples in this snapshot; must not be modified
+     */
+    @NonNull
+    public ArrayList<SensorHolder> getSensorHolders() {
+        return mSensorHolders;
+    }
+
+    public boolean isEmpty() {
+        return mSensorHolders.isEmpty();
+    }
+
+    public void setSequence(long sequence) {
+        this.mSequence = sequence;
+    }
+
+    /**
+     * @return the sequence number of the latest export boundary
+     */
+    public long getSequence() {
+        return mSequence;
+    }
+
+    /**
+     * Count an export boundary merged into this snapshot, because the
+     * reader has not taken the former one yet.
+     */
+    public void incrementMergedCount() {
+        this.mMergedCount++;
+    }
+
+    public int getMergedCount() {
+        return mMergedCount;
+    }
+
+    /**
+     * Attach an opaque context of the writer, such like the metadata
+     * which the JSON should be built with.
+     *
+     * @param attachment the context, or null
+     */
+    public void setAttachment(@Nullable Object attachment) {
+        this.mAttachment = attachment;
+    }
+
+    @Nullable
+    public Object getAttachment() {
+        return mAttachment;
+    }
+}
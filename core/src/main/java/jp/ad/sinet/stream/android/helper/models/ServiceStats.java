@@ -0,0 +1,207 @@
+/*
+ * Copyright (C) 2026 National Institute of Informatics
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+
+package jp.ad.sinet.stream.android.helper.models;
+
+import androidx.annotation.NonNull;
+
+import java.util.Arrays;
+
+/**
+ * A snapshot of runtime metrics of a service, such like SensorService.
+ * <p>
+ *     Counters are cumulative since the service has created.
+ *     Latency values are in nanoseconds; what is measured depends on
+ *     the service: JSON build time for SensorService, event handling
+ *     time for CellularService, and the age of location fix on delivery
+ *     for GpsService and FlpService.
+ * </p>
+ */
+public class ServiceStats {
+    private final String mServiceName;
+    private final long mUptimeMillis;
+    private final int mClientCount;
+    private final long mEventCount;
+    private final int[] mEventTypes;
+    private final long[] mEventCounts;
+    private final long mMessageCount;
+    private final long mByteCount;
+    private final long mSendFailureCount;
+    private final long mLatencyCount;
+    private final long mLatencyP50Nanos;
+    private final long mLatencyP99Nanos;
+    private final long mLatencyMaxNanos;
+    private final long mQueueHighWatermark;
+    private final long mQueueDropCount;
+
+    public ServiceStats(@NonNull String serviceName, long uptimeMillis, int clientCount,
+                        long eventCount, @NonNull int[] eventTypes, @NonNull long[] eventCounts,
+                        long messageCount, long byteCount, long sendFailureCount,
+                        long latencyCount, long latencyP50Nanos,
+                        long latencyP99Nanos, long latencyMaxNanos,
+                        long queueHighWatermark, long queueDropCount) {
+        this.mServiceName = serviceName;
+        this.mUptimeMillis = uptimeMillis;
+        this.mClientCount = clientCount;
+        this.mEventCount = eventCount;
+        this.mEventTypes = eventTypes;
+        this.mEventCounts = eventCounts;
+        this.mMessageCount = messageCount;
+        this.mByteCount = byteCount;
+        this.mSendFailureCount = sendFailureCount;
+        this.mLatencyCount = latencyCount;
+        this.mLatencyP50Nanos = latencyP50Nanos;
+        this.mLatencyP99Nanos = latencyP99Nanos;
+        this.mLatencyMaxNanos = latencyMaxNanos;
+        this.mQueueHighWatermark = queueHighWatermark;
+        this.mQueueDropCount = queueDropCount;
+    }
+
+    @NonNull
+    public String getServiceName() {
+        return mServiceName;
+    }
+
+    public long getUptimeMillis() {
+        return mUptimeMillis;
+    }
+
+    /**
+     * @return the number of clients currently bound to the service
+     */
+    public int getClientCount() {
+        return mClientCount;
+    }
+
+    /**
+     * @return the number of events received from the system
+     */
+    public long getEventCount() {
+        return mEventCount;
+    }
+
+    /**
+     * @return event types (such like sensor types), sorted in ascending order
+     */
+    @NonNull
+    public int[] getEventTypes() {
+        return mEventTypes;
+    }
+
+    /**
+     * @return the number of events per type, in the order of {@link #getEventTypes}
+     */
+    @NonNull
+    public long[] getEventCounts() {
+        return mEventCounts;
+    }
+
+    /**
+     * @param eventType the event type, such like sensor type
+     * @return the number of events of the given type
+     */
+    public long getEventCount(int eventType) {
+        int index = Arrays.binarySearch(mEventTypes, eventType);
+        return (index >= 0) ? mEventCounts[index] : 0L;
+    }
+
+    /**
+     * @return the number of messages sent to clients
+     */
+    public long getMessageCount() {
+        return mMessageCount;
+    }
+
+    /**
+     * @return the number of payload bytes sent to clients
+     */
+    public long getByteCount() {
+        return mByteCount;
+    }
+
+    /**
+     * @return the number of messages failed to be sent
+     */
+    public long getSendFailureCount() {
+        return mSendFailureCount;
+    }
+
+    public long getLatencyCount() {
+        return mLatencyCount;
+    }
+
+    public long getLatencyP50Nanos() {
+        return mLatencyP50Nanos;
+    }
+
+    public long getLatencyP99Nanos() {
+        return mLatencyP99Nanos;
+    }
+
+    public long getLatencyMaxNanos() {
+        return mLatencyMaxNanos;
+    }
+
+    /**
+     * @return the largest number of samples queued between pipeline
+     *         stages, or zero if the service has no such queue
+     */
+    public long getQueueHighWatermark() {
+        return mQueueHighWatermark;
+    }
+
+    /**
+     * @return the number of samples dropped on queue overflow
+     */
+    public long getQueueDropCount() {
+        return mQueueDropCount;
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("ServiceStats{")
+                .append("service=").append(mServiceName)
+                .append(", uptimeMillis=").append(mUptimeMillis)
+                .append(", clients=").append(mClientCount)
+                .append(", events=").append(mEventCount)
+                .append(" {");
+        for (int i = 0; i < mEventTypes.length; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(mEventTypes[i]).append('=').append(mEventCounts[i]);
+        }
+        sb.append('}')
+                .append(", messages=").append(mMessageCount)
+                .append(", bytes=").append(mByteCount)
+                .append(", sendFailures=").append(mSendFailureCount)
+                .append(", latency{count=").append(mLatencyCount)
+                .append(", p50=").append(mLatencyP50Nanos)
+                .append(", p99=").append(mLatencyP99Nanos)
+                .append(", max=").append(mLatencyMaxNanos)
+                .append("}, queue{highWatermark=").append(mQueueHighWatermark)
+                .append(", drops=").append(mQueueDropCount)
+                .append("}}");
+        return sb.toString();
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright (C) 2026 National Institute of Informatics
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+
+package jp.ad.sinet.stream.android.helper.models;
+
+/**
+ * Parameters of the synthetic sensor load, see
+ * {@link jp.ad.sinet.stream.android.helper.source.SyntheticLoadSource}.
+ */
+public class SyntheticLoadParams {
+    private int mSensorCount = 1;
+    private float mRateHz = 50.0f;
+    private int mDimensions = 3;
+    private float mJitter = 0.0f;
+    private long mBurstPeriodMillis = 0L;
+    private long mBurstLengthMillis = 0L;
+    private float mBurstFactor = 1.0f;
+    private long mDurationMillis = 10000L;
+
+    /**
+     * @return the number of synthetic sensors
+     */
+    public int getSensorCount() {
+        return mSensorCount;
+    }
+
+    public void setSensorCount(int sensorCount) {
+        this.mSensorCount = sensorCount;
+    }
+
+    /**
+     * @return the nominal sampling rate per sensor, in Hz
+     */
+    public float getRateHz() {
+        return mRateHz;
+    }
+
+    public void setRateHz(float rateHz) {
+        this.mRateHz = rateHz;
+    }
+
+    /**
+     * @return the number of values per sample
+     */
+    public int getDimensions() {
+        return mDimensions;
+    }
+
+    public void setDimensions(int dimensions) {
+        this.mDimensions = dimensions;
+    }
+
+    /**
+     * @return the random deviation of sampling period, as a ratio to
+     * the nominal period (0.0 for none, 1.0 for up to a full period)
+     */
+    public float getJitter() {
+        return mJitter;
+    }
+
+    public void setJitter(float jitter) {
+        this.mJitter = jitter;
+    }
+
+    /**
+     * @return the period of bursts in milliseconds, or zero for no bursts
+     */
+    public long getBurstPeriodMillis() {
+        return mBurstPeriodMillis;
+    }
+
+    public void setBurstPeriodMillis(long burstPeriodMillis) {
+        this.mBurstPeriodMillis = burstPeriodMillis;
+    }
+
+    /**
+     * @return the length of each burst in milliseconds
+     */
+    public long getBurstLengthMillis() {
+        return mBurstLengthMillis;
+    }
+
+    public void setBurstLengthMillis(long burstLengthMillis) {
+        this.mBurstLengthMillis = burstLengthMillis;
+    }
+
+    /**
+     * @return the rate multiplier applied during bursts
+     */
+    public float getBurstFactor() {
+        return mBurstFactor;
+    }
+
+    public void setBurstFactor(float burstFactor) {
+        this.mBurstFactor = burstFactor;
+    }
+
+    /**
+     * @return the length of the whole load in milliseconds
+     */
+    public long getDurationMillis() {
+        return mDurationMillis;
+    }
+
+    public void setDurationMillis(long durationMillis) {
+        this.mDurationMillis = durationMillis;
+    }
+
+    /**
+     * @return null if valid, otherwise the description of invalid parameter
+     */
+    public String validate() {
+        if (mSensorCount <= 0) {
+            return "Invalid sensor count: " + mSensorCount;
+        }
+        if (! (mRateHz > 0.0f)) {
+            return "Invalid rate: " + mRateHz;
+        }
+        if (mDimensions <= 0) {
+            return "Invalid dimensions: " + mDimensions;
+        }
+        if (! (mJitter >= 0.0f && mJitter <= 1.0f)) {
+            return "Invalid jitter: " + mJitter;
+        }
+        if (mBurstPeriodMillis < 0L
+                || mBurstLengthMillis < 0L
+                || mBurstLengthMillis > mBurstPeriodMillis
+                || ! (mBurstFactor >= 1.0f)) {
+            return "Invalid burst: period(" + mBurstPeriodMillis +
+                    "),length(" + mBurstLengthMillis +
+                    "),factor(" + mBurstFactor + ")";
+        }
+        if (mDurationMillis <= 0L) {
+            return "Invalid duration: " + mDurationMillis;
+        }
+        return null;
+    }
+}
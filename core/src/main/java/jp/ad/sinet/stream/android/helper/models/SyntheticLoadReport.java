@@ -0,0 +1,106 @@
+/*
+ * Copyright (C) 2026 National Institute of Informatics
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+
+package jp.ad.sinet.stream.android.helper.models;
+
+import java.util.Locale;
+
+/**
+ * The outcome of a synthetic sensor load, as measured by SensorService.
+ */
+public class SyntheticLoadReport {
+    private final int mSamples;
+    private final long mElapsedNanos;
+    private final int mExports;
+    private final long mExportLatencyAvgNanos;
+    private final long mExportLatencyMaxNanos;
+    private final long mDrops;
+
+    public SyntheticLoadReport(int samples, long elapsedNanos,
+                               int exports, long exportLatencyAvgNanos,
+                               long exportLatencyMaxNanos, long drops) {
+        this.mSamples = samples;
+        this.mElapsedNanos = elapsedNanos;
+        this.mExports = exports;
+        this.mExportLatencyAvgNanos = exportLatencyAvgNanos;
+        this.mExportLatencyMaxNanos = exportLatencyMaxNanos;
+        this.mDrops = drops;
+    }
+
+    /**
+     * @return the number of samples ingested
+     */
+    public int getSamples() {
+        return mSamples;
+    }
+
+    public long getElapsedNanos() {
+        return mElapsedNanos;
+    }
+
+    /**
+     * @return the achieved throughput, in samples per second
+     */
+    public double getThroughput() {
+        return (mElapsedNanos > 0L) ? mSamples * 1e9 / mElapsedNanos : 0.0;
+    }
+
+    /**
+     * @return the number of JSON exports
+     */
+    public int getExports() {
+        return mExports;
+    }
+
+    /**
+     * @return average time to build and send a JSON export, in nanoseconds
+     */
+    public long getExportLatencyAvgNanos() {
+        return mExportLatencyAvgNanos;
+    }
+
+    /**
+     * @return worst time to build and send a JSON export, in nanoseconds
+     */
+    public long getExportLatencyMaxNanos() {
+        return mExportLatencyMaxNanos;
+    }
+
+    /**
+     * @return the number of samples overwritten before being exported
+     */
+    public long getDrops() {
+        return mDrops;
+    }
+
+    @Override
+    public String toString() {
+        return "SyntheticLoadReport{" +
+                "samples=" + mSamples +
+                ", elapsedNanos=" + mElapsedNanos +
+                ", throughput=" + String.format(Locale.ENGLISH, "%.1f", getThroughput()) +
+                ", exports=" + mExports +
+                ", exportLatencyAvgNanos=" + mExportLatencyAvgNanos +
+                ", exportLatencyMaxNanos=" + mExportLatencyMaxNanos +
+                ", drops=" + mDrops +
+                '}';
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright (C) 2026 National Institute of Informatics
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+
+package jp.ad.sinet.stream.android.helper.models;
+
+import androidx.annotation.NonNull;
+
+/**
+ * System attributes to be embedded in the "device.sysinfo" part
+ * of the output JSON data, taken from {@code android.os.Build}
+ * by the Android side.
+ */
+public class SysInfo {
+    private final String mRelease;
+    private final String mManufacturer;
+    private final String mModel;
+
+    public SysInfo(
+            @NonNull String release, @NonNull String manufacturer, @NonNull String model) {
+        this.mRelease = release;
+        this.mManufacturer = manufacturer;
+        this.mModel = model;
+    }
+
+    /**
+     * @return Android OS version, such like "15"
+     */
+    @NonNull
+    public String getRelease() {
+        return this.mRelease;
+    }
+
+    @NonNull
+    public String getManufacturer() {
+        return this.mManufacturer;
+    }
+
+    @NonNull
+    public String getModel() {
+        return this.mModel;
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright (C) 2026 National Institute of Informatics
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+
+package jp.ad.sinet.stream.android.helper.provider;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Decides the export interval from the load and the device conditions,
+ * within the bounds given by the client.
+ * <p>
+ *     The interval starts from the base interval (as set by the client),
+ *     and is widened by a factor for low battery or thermal throttling.
+ *     While a backlog is observed, the interval doubles on each update;
+ *     once the backlog has gone, it halves back to the level that the
+ *     device conditions allow.
+ * </p>
+ */
+public class AdaptiveInterval {
+    /* Same values as android.os.PowerManager.THERMAL_STATUS_XXX */
+    public final static int THERMAL_STATUS_NONE = 0;
+    public final static int THERMAL_STATUS_LIGHT = 1;
+    public final static int THERMAL_STATUS_MODERATE = 2;
+    public final static int THERMAL_STATUS_SEVERE = 3;
+    public final static int THERMAL_STATUS_CRITICAL = 4;
+
+    /* Battery level in percent to be taken as low, unless charging */
+    public final static int LOW_BATTERY_PERCENT = 15;
+
+    public final static String REASON_BACKLOG = "backlog";
+    public final static String REASON_BATTERY = "battery";
+    public final static String REASON_THERMAL = "thermal";
+    public final static String REASON_RECOVERED = "recovered";
+    public final static String REASON_BASE = "base";
+
+    private final long mMinMillis;
+    private final long mMaxMillis;
+    private long mBaseMillis;
+    private long mIntervalMillis;
+    private String mReason = REASON_BASE;
+
+    /**
+     * @param minMillis lower bound of the interval, in milliseconds
+     * @param maxMillis upper bound of the interval, in milliseconds
+     * @param baseMillis interval under normal conditions, in milliseconds
+     */
+    public AdaptiveInterval(long minMillis, long maxMillis, long baseMillis) {
+        this.mMinMillis = minMillis;
+        this.mMaxMillis = maxMillis;
+        this.mBaseMillis = baseMillis;
+        this.mIntervalMillis = clamp(baseMillis);
+    }
+
+    /**
+     * Validate the bounds before constructing.
+     *
+     * @return null if valid, error description otherwise
+     */
+    public static String validate(long minMillis, long maxMillis) {
+        if (minMillis <= 0L) {
+            return "Invalid minimum interval: " + minMillis;
+        }
+        if (maxMillis < minMillis) {
+            return "Invalid maximum interval: " + maxMillis + " < " + minMillis;
+        }
+        return null;
+    }
+
+    public void setBaseInterval(long baseMillis) {
+        this.mBaseMillis = baseMillis;
+    }
+
+    public long getIntervalMillis() {
+        return mIntervalMillis;
+    }
+
+    /**
+     * @return the cause of the last change, one of REASON_XXX
+     */
+    @NonNull
+    public String getReason() {
+        return mReason;
+    }
+
+    /**
+     * Evaluate the current conditions.
+     *
+     * @param backlog the amount of work left behind since the last update
+     * @param batteryPercent battery level in percent, or negative if unknown
+     * @param isCharging true if the battery is charging
+     * @param thermalStatus one of THERMAL_STATUS_XXX
+     * @return true if the interval has changed
+     */
+    public boolean update(int backlog, int batteryPercent,
+                          boolean isCharging, int thermalStatus) {
+        long floorMillis = mBaseMillis;
+        String floorReason = REASON_BASE;
+
+        long thermalFactor = getThermalFactor(thermalStatus);
+        if (thermalFactor > 1L) {
+            floorMillis *= thermalFactor;
+            floorReason = REASON_THERMAL;
+        }
+        if (batteryPercent >= 0 && batteryPercent <= LOW_BATTERY_PERCENT && !isCharging) {
+            floorMillis *= 2L;
+            if (thermalFactor == 1L) {
+                floorReason = REASON_BATTERY;
+            }
+        }
+        floorMillis = clamp(floorMillis);
+
+        long nextMillis;
+        String nextReason;
+        if (backlog > 0) {
+            nextMillis = clamp(Math.max(floorMillis, mIntervalMillis * 2L));
+            nextReason = REASON_BACKLOG;
+        } else if (mIntervalMillis > floorMillis) {
+            nextMillis = Math.max(floorMillis, mIntervalMillis / 2L);
+            nextReason = floorReason.equals(REASON_BASE) ? REASON_RECOVERED : floorReason;
+        } else {
+            nextMillis = floorMillis;
+            nextReason = floorReason;
+        }
+
+        if (nextMillis == mIntervalMillis) {
+            return false;
+        }
+        mIntervalMillis = nextMillis;
+        mReason = nextReason;
+        return true;
+    }
+
+    private static long getThermalFactor(int thermalStatus) {
+        if (thermalStatus >= THERMAL_STATUS_CRITICAL) {
+            return 8L;
+        } else if (thermalStatus >= THERMAL_STATUS_SEVERE) {
+            return 4L;
+        } else if (thermalStatus >= THERMAL_STATUS_MODERATE) {
+            return 2L;
+        }
+        return 1L;
+    }
+
+    private long clamp(long millis) {
+        return Math.max(mMinMillis, Math.min(mMaxMillis, millis));
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright (C) 2026 National Institute of Informatics
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+
+package jp.ad.sinet.stream.android.helper.provider;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Split of a large string into chunks small enough for a single IPC
+ * transaction, and the reassembly of those on the receiving side.
+ * <p>
+ *     Chunks of a payload share a sequence number, and are expected to
+ *     arrive in order, as they do through a Messenger. A chunk of another
+ *     sequence or out of order discards the payload being reassembled,
+ *     which is counted as a drop.
+ * </p>
+ */
+public class ChunkAssembler {
+    private final StringBuilder mBuffer = new StringBuilder();
+    private int mSequence = 0;
+    private int mNextIndex = 0;
+    private long mDropCount = 0L;
+
+    /**
+     * @param length the length of the whole payload
+     * @param chunkSize the maximum length of each chunk
+     * @return the number of chunks needed
+     */
+    public static int getChunkCount(int length, int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Invalid chunk size: " + chunkSize);
+        }
+        return Math.max(1, (length + chunkSize - 1) / chunkSize);
+    }
+
+    /**
+     * @param payload the whole payload
+     * @param index the index of the chunk, from zero
+     * @param chunkSize the maximum length of each chunk
+     * @return the chunk at the index
+     */
+    @NonNull
+    public static String getChunk(@NonNull String payload, int index, int chunkSize) {
+        int from = index * chunkSize;
+        return payload.substring(from, Math.min(from + chunkSize, payload.length()));
+    }
+
+    /**
+     * Take a chunk in.
+     *
+     * @param sequence the sequence number shared by chunks of a payload
+     * @param index the index of this chunk, from zero
+     * @param count the number of chunks of the payload
+     * @param chunk the chunk
+     * @return the whole payload on the last chunk, otherwise null
+     */
+    @Nullable
+    public String add(int sequence, int index, int count, @NonNull String chunk) {
+        if (mNextIndex > 0 && (sequence != mSequence || index != mNextIndex)) {
+            /* The rest of the former payload will never come */
+            mDropCount++;
+            reset();
+        }
+        if (index != mNextIndex) {
+            /* Missed the head of this payload; wait for the next one */
+            return null;
+        }
+        mSequence = sequence;
+        mBuffer.append(chunk);
+        mNextIndex = index + 1;
+        if (mNextIndex < count) {
+            return null;
+        }
+        String payload = mBuffer.toString();
+        reset();
+        return payload;
+    }
+
+    /**
+     * @return the number of payloads discarded before completion
+     */
+    public long getDropCount() {
+        return mDropCount;
+    }
+
+    private void reset() {
+        mBuffer.setLength(0);
+        mNextIndex = 0;
+    }
+}
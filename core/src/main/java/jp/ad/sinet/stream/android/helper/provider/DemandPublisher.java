@@ -0,0 +1,332 @@
+/*
+ * Copyright (C) 2026 National Institute of Informatics
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+
+package jp.ad.sinet.stream.android.helper.provider;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * A {@link Flow.Publisher} which only hands over items to the subscribers
+ * which have asked for them by {@link Flow.Subscription#request}.
+ * <p>
+ *     Items are not queued for a subscriber without demand but dropped,
+ *     since the producer is told by {@link DemandListener} whether any
+ *     subscriber has demand, and is expected to stop producing otherwise.
+ *     Thus the drops are limited to the items already on the way.
+ * </p>
+ * <p>
+ *     Each subscriber is signalled on the {@link Executor} of its choice,
+ *     one signal at a time as required by the Reactive Streams rules.
+ *     Note that {@code java.util.concurrent.Flow} is available on
+ *     Android 11 (API level 30) or later.
+ * </p>
+ *
+ * @param <T> the type of published items
+ */
+public class DemandPublisher<T> implements Flow.Publisher<T> {
+    private final static String TAG = DemandPublisher.class.getSimpleName();
+    private final static Logger LOGGER = Logger.getLogger(TAG);
+
+    /**
+     * Notified when whether any subscriber has demand may have changed.
+     * Call {@link #hasDemand()} to tell the current state.
+     */
+    public interface DemandListener {
+        void onDemandChanged();
+    }
+
+    private final Executor mDefaultExecutor;
+    private final DemandListener mDemandListener;
+    private final List<DemandSubscription> mSubscriptions = new ArrayList<>();
+    private final AtomicLong mDropCount = new AtomicLong();
+    private boolean mHasDemand = false;
+
+    /**
+     * @param defaultExecutor the executor for {@link #subscribe(Flow.Subscriber)}
+     * @param demandListener the producer to be told of demand changes, or null
+     */
+    public DemandPublisher(@NonNull Executor defaultExecutor,
+                           @Nullable DemandListener demandListener) {
+        this.mDefaultExecutor = defaultExecutor;
+        this.mDemandListener = demandListener;
+    }
+
+    /**
+     * Subscribe with the default executor given on construction.
+     */
+    @Override
+    public void subscribe(Flow.Subscriber<? super T> subscriber) {
+        subscribe(subscriber, mDefaultExecutor);
+    }
+
+    /**
+     * Subscribe with an executor on which all signals to the subscriber run.
+     *
+     * @param subscriber the subscriber
+     * @param executor the executor of the subscriber
+     */
+    public void subscribe(Flow.Subscriber<? super T> subscriber, @NonNull Executor executor) {
+        if (subscriber == null) {
+            throw new NullPointerException("subscriber");
+        }
+        DemandSubscription subscription = new DemandSubscription(subscriber, executor);
+        synchronized (mSubscriptions) {
+            mSubscriptions.add(subscription);
+        }
+        subscription.signal(new Runnable() {
+            @Override
+            public void run() {
+                subscriber.onSubscribe(subscription);
+            }
+        });
+    }
+
+    /**
+     * Hand over an item to each subscriber with demand.
+     *
+     * @param item the item, which must not be modified afterwards
+     * @return the number of subscribers the item has been handed over to
+     */
+    public int offer(@NonNull T item) {
+        List<DemandSubscription> subscriptions = getSubscriptions();
+        int delivered = 0;
+        for (DemandSubscription subscription : subscriptions) {
+            if (subscription.onNext(item)) {
+                delivered++;
+            } else {
+                mDropCount.incrementAndGet();
+            }
+        }
+        if (! subscriptions.isEmpty()) {
+            updateDemand();
+        }
+        return delivered;
+    }
+
+    /**
+     * Complete all subscribers, such as on disconnection from the service.
+     * New subscribers may come afterwards.
+     */
+    public void complete() {
+        List<DemandSubscription> subscriptions = getSubscriptions();
+        for (DemandSubscription subscription : subscriptions) {
+            subscription.onComplete();
+        }
+        updateDemand();
+    }
+
+    /**
+     * @return true if any subscriber has outstanding demand
+     */
+    public boolean hasDemand() {
+        synchronized (mSubscriptions) {
+            return mHasDemand;
+        }
+    }
+
+    public boolean hasSubscribers() {
+        synchronized (mSubscriptions) {
+            return !mSubscriptions.isEmpty();
+        }
+    }
+
+    /**
+     * @return the number of items dropped for lack of demand
+     */
+    public long getDropCount() {
+        return mDropCount.get();
+    }
+
+    @NonNull
+    private List<DemandSubscription> getSubscriptions() {
+        synchronized (mSubscriptions) {
+            return new ArrayList<>(mSubscriptions);
+        }
+    }
+
+    private void remove(@NonNull DemandSubscription subscription) {
+        synchronized (mSubscriptions) {
+            mSubscriptions.remove(subscription);
+        }
+        updateDemand();
+    }
+
+    private void updateDemand() {
+        boolean changed;
+        synchronized (mSubscriptions) {
+            boolean hasDemand = false;
+            for (int i = 0, n = mSubscriptions.size(); i < n; i++) {
+                if (mSubscriptions.get(i).mDemand.get() > 0L) {
+                    hasDemand = true;
+                    break;
+                }
+            }
+            changed = (hasDemand != mHasDemand);
+            mHasDemand = hasDemand;
+        }
+        if (changed && mDemandListener != null) {
+            mDemandListener.onDemandChanged();
+        }
+    }
+
+    private class DemandSubscription implements Flow.Subscription {
+        private final Flow.Subscriber<? super T> mSubscriber;
+        private final Executor mExecutor;
+        private final AtomicLong mDemand = new AtomicLong();
+        private final Queue<Runnable> mSignals = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger mPending = new AtomicInteger();
+        /* No more items, either cancelled or completed */
+        private volatile boolean mIsDone = false;
+        /* Drop the signals not yet run, too */
+        private volatile boolean mIsCancelled = false;
+
+        DemandSubscription(@NonNull Flow.Subscriber<? super T> subscriber,
+                           @NonNull Executor executor) {
+            this.mSubscriber = subscriber;
+            this.mExecutor = executor;
+        }
+
+        @Override
+        public void request(long n) {
+            if (mIsDone) {
+                return;
+            }
+            if (n <= 0L) {
+                cancel();
+                signal(new Runnable() {
+                    @Override
+                    public void run() {
+                        mSubscriber.onError(new IllegalArgumentException(
+                                "non-positive subscription request: " + n));
+                    }
+                });
+                return;
+            }
+            long current;
+            long next;
+            do {
+                current = mDemand.get();
+                next = current + n;
+                if (next < 0L) {
+                    /* Effectively unbounded */
+                    next = Long.MAX_VALUE;
+                }
+            } while (! mDemand.compareAndSet(current, next));
+            if (current == 0L) {
+                updateDemand();
+            }
+        }
+
+        @Override
+        public void cancel() {
+            if (! mIsDone) {
+                mIsDone = true;
+                mIsCancelled = true;
+                mDemand.set(0L);
+                remove(this);
+            }
+        }
+
+        boolean onNext(@NonNull T item) {
+            long current;
+            do {
+                current = mDemand.get();
+                if (current <= 0L || mIsDone) {
+                    return false;
+                }
+            } while (current != Long.MAX_VALUE
+                    && ! mDemand.compareAndSet(current, current - 1L));
+            signal(new Runnable() {
+                @Override
+                public void run() {
+                    if (! mIsCancelled) {
+                        mSubscriber.onNext(item);
+                    }
+                }
+            });
+            return true;
+        }
+
+        void onComplete() {
+            if (! mIsDone) {
+                mIsDone = true;
+                mDemand.set(0L);
+                synchronized (mSubscriptions) {
+                    mSubscriptions.remove(this);
+                }
+                signal(new Runnable() {
+                    @Override
+                    public void run() {
+                        mSubscriber.onComplete();
+                    }
+                });
+            }
+        }
+
+        /**
+         * Run the signals in order on the executor, one at a time.
+         */
+        void signal(@NonNull Runnable signal) {
+            mSignals.add(signal);
+            if (mPending.getAndIncrement() == 0) {
+                try {
+                    mExecutor.execute(mDrainTask);
+                } catch (RuntimeException e) {
+                    LOGGER.warning("Executor.execute: " + e);
+                    mSignals.clear();
+                    mPending.set(0);
+                    cancel();
+                }
+            }
+        }
+
+        private final Runnable mDrainTask = new Runnable() {
+            @Override
+            public void run() {
+                int missed = 1;
+                do {
+                    Runnable signal;
+                    while ((signal = mSignals.poll()) != null) {
+                        try {
+                            signal.run();
+                        } catch (RuntimeException e) {
+                            /* A subscriber must not throw, see Rule 2.13 */
+                            LOGGER.warning("Subscriber: " + e);
+                            cancel();
+                        }
+                    }
+                    missed = mPending.addAndGet(-missed);
+                } while (missed != 0);
+            }
+        };
+    }
+}
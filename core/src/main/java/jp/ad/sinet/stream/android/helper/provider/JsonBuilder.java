@@ -21,11 +21,6 @@
 
 package jp.ad.sinet.stream.android.helper.provider;
 
-import android.hardware.Sensor;
-import android.hardware.SensorEvent;
-import android.os.Build;
-import android.util.Log;
-
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
@@ -35,29 +30,36 @@ import org.json.JSONObject;
 
 import java.util.ArrayList;
 import java.util.Locale;
+import java.util.logging.Logger;
 
 import jp.ad.sinet.stream.android.helper.constants.JsonTags;
 import jp.ad.sinet.stream.android.helper.constants.SensorTypes;
+import jp.ad.sinet.stream.android.helper.models.SensorDescriptor;
 import jp.ad.sinet.stream.android.helper.models.SensorHolder;
+import jp.ad.sinet.stream.android.helper.models.SensorSamples;
+import jp.ad.sinet.stream.android.helper.models.SysInfo;
 import jp.ad.sinet.stream.android.helper.util.DateTimeUtil;
 
 public class JsonBuilder {
     private final static String TAG = JsonBuilder.class.getSimpleName();
+    private final static Logger LOGGER = Logger.getLogger(TAG);
 
+    private final SysInfo mSysInfo;
     private final String mPublisher;
     private final String mUserNote;
     private final double mLatitude;
     private final double mLongitude;
     private final long mUtcTime;
 
-    private SensorTypes mSensorTypes = null;
     private final DateTimeUtil mDateTimeUtil = new DateTimeUtil();
     private JSONObject mExtraCellularData = null;
     private boolean mEnablePrettyPrint = false;
 
     public JsonBuilder(
+            @NonNull SysInfo sysInfo,
             @Nullable String publisher, @Nullable String note,
             double latitude, double longitude, long utcTime) {
+        this.mSysInfo = sysInfo;
         this.mPublisher = publisher;
         this.mUserNote = note;
         this.mLatitude = latitude;
@@ -65,6 +67,45 @@ public class JsonBuilder {
         this.mUtcTime = utcTime;
     }
 
+    /* Only for buildSensorsJsonString() */
+    private JsonBuilder() {
+        this.mSysInfo = null;
+        this.mPublisher = null;
+        this.mUserNote = null;
+        this.mLatitude = Double.NaN;
+        this.mLongitude = Double.NaN;
+        this.mUtcTime = -1L;
+    }
+
+    /**
+     * Build the {@code sensors} part of the JSON from typed samples, in the
+     * same layout as {@link #buildJsonString}, for the clients which take
+     * {@link SensorSamples} but still need text for some of them.
+     *
+     * @param samples the samples to be serialized
+     * @return the JSON string, or null on failure
+     */
+    @Nullable
+    public static String buildSensorsJsonString(@NonNull SensorSamples samples) {
+        JsonBuilder jsonBuilder = new JsonBuilder();
+        JSONObject rootObject = new JSONObject();
+        JSONArray jsonArrayObject = new JSONArray();
+        for (int i = 0, n = samples.size(); i < n; i++) {
+            if (! jsonBuilder.setSensor(jsonArrayObject, i, samples.getDescriptor(i),
+                    samples.getUnixTime(i), samples.getValues(i))) {
+                LOGGER.warning("buildSensorsJsonString FAILED");
+                return null;
+            }
+        }
+        try {
+            rootObject.put(JsonTags.JSON_TAGS_SENSORS.getName(), jsonArrayObject);
+        } catch (JSONException e) {
+            LOGGER.severe("buildSensorsJsonString: JSONObject.put: " + e);
+            return null;
+        }
+        return rootObject.toString();
+    }
+
     public void addExtraCellularData(@NonNull JSONObject jsonObject) {
         mExtraCellularData = jsonObject;
     }
@@ -80,7 +121,7 @@ public class JsonBuilder {
 
         if (! setDevice(rootObject)
                 || ! setSensorHolders(rootObject, sensorHolders)) {
-            Log.w(TAG, "buildJsonString FAILED");
+            LOGGER.warning("buildJsonString FAILED");
             rootObject = null;
         }
         if (rootObject != null) {
@@ -88,7 +129,7 @@ public class JsonBuilder {
                 try {
                     jsonString = rootObject.toString(4);
                 } catch (JSONException e) {
-                    Log.e(TAG, "JSONObject.toString: " + e);
+                    LOGGER.severe("JSONObject.toString: " + e);
                 }
             } else {
                 jsonString = rootObject.toString();
@@ -96,7 +137,7 @@ public class JsonBuilder {
         }
         /* DEBUG
         if (jsonString != null) {
-            Log.d(TAG, "JSON=" + jsonString);
+            LOGGER.fine("JSON=" + jsonString);
         }
          */
         return jsonString;
@@ -113,7 +154,7 @@ public class JsonBuilder {
                 jsonObject = null;
             }
         } catch (JSONException e) {
-            Log.e(TAG, "setDevice: JSONObject: " + e);
+            LOGGER.severe("setDevice: JSONObject: " + e);
             jsonObject = null;
         }
         return (jsonObject != null);
@@ -123,19 +164,11 @@ public class JsonBuilder {
         JSONObject jsonObject = new JSONObject();
         try {
             parentObject.put(JsonTags.JSON_TAGS_SYSINFO.getName(), jsonObject);
-            jsonObject.put("android", Build.VERSION.RELEASE);
-            // jsonObject.put("board", Build.BOARD);
-            // jsonObject.put("brand", Build.BRAND);
-            // jsonObject.put("device", Build.DEVICE);
-            // jsonObject.put("hardware", Build.HARDWARE);
-            // jsonObject.put("host", Build.HOST);
-            jsonObject.put("manufacturer", Build.MANUFACTURER);
-            jsonObject.put("model", Build.MODEL);
-            // jsonObject.put("product", Build.PRODUCT);
-            // jsonObject.put("tags", Build.TAGS);
-            // jsonObject.put("type", Build.TYPE);
+            jsonObject.put("android", mSysInfo.getRelease());
+            jsonObject.put("manufacturer", mSysInfo.getManufacturer());
+            jsonObject.put("model", mSysInfo.getModel());
         } catch (JSONException e) {
-            Log.e(TAG, "setSysInfo: JSONObject.put: " + e);
+            LOGGER.severe("setSysInfo: JSONObject.put: " + e);
             return false;
         }
         return true;
@@ -152,7 +185,7 @@ public class JsonBuilder {
                 jsonObject.put(JsonTags.JSON_TAGS_USERINFO_NOTE.getName(), this.mUserNote);
             }
         } catch (JSONException e) {
-            Log.e(TAG, "setUserInfo: JSONObject.put: " + e);
+            LOGGER.severe("setUserInfo: JSONObject.put: " + e);
             return false;
         }
         return true;
@@ -163,7 +196,7 @@ public class JsonBuilder {
             try {
                 parentObject.put(JsonTags.JSON_TAGS_CELLULAR.getName(), mExtraCellularData);
             } catch (JSONException e) {
-                Log.e(TAG, "setCellular: JSONObject.put: " + e);
+                LOGGER.severe("setCellular: JSONObject.put: " + e);
                 return false;
             }
         }
@@ -186,7 +219,7 @@ public class JsonBuilder {
                 }
             }
         } catch (JSONException e) {
-            Log.e(TAG, "setLocation: JSONObject.put: " + e);
+            LOGGER.severe("setLocation: JSONObject.put: " + e);
             jsonObject = null;
         }
         return (jsonObject != null);
@@ -197,201 +230,206 @@ public class JsonBuilder {
 
         for (int i = 0, n = sensorHolders.size(); i < n; i++) {
             SensorHolder sensorHolder = sensorHolders.get(i);
-            if (! setSensorHolder(jsonArrayObject, i, sensorHolder)) {
+            if (! setSensor(jsonArrayObject, i, sensorHolder.getDescriptor(),
+                    sensorHolder.getUnixTime(), sensorHolder.getValues())) {
                 jsonArrayObject = null;
                 break;
             }
         }
         try {
             if (jsonArrayObject != null) {
-                // Log.d(TAG, "SENSORS=" + jsonArrayObject.toString(4));
+                // LOGGER.fine("SENSORS=" + jsonArrayObject.toString(4));
                 parentObject.put(JsonTags.JSON_TAGS_SENSORS.getName(), jsonArrayObject);
             }
         } catch (JSONException e) {
-            Log.e(TAG, "setSensorHolders: JSONObject.put: " + e);
+            LOGGER.severe("setSensorHolders: JSONObject.put: " + e);
             jsonArrayObject = null;
         }
         return (jsonArrayObject != null);
     }
 
-    private boolean setSensorHolder(JSONArray parentArray, int idx, SensorHolder sensorHolder) {
+    private boolean setSensor(JSONArray parentArray, int idx,
+                              SensorDescriptor descriptor, long unixTime, float[] values) {
         JSONObject jsonObject = new JSONObject();
-        if (! setSensorType(jsonObject, sensorHolder)
-                || ! setSensorName(jsonObject, sensorHolder)
-                || ! setSensorId(jsonObject, sensorHolder)
-                || ! setTimeStamp(jsonObject, sensorHolder)
-                || ! setSensorValues(jsonObject, sensorHolder)) {
+        if (! setSensorType(jsonObject, descriptor)
+                || ! setSensorName(jsonObject, descriptor)
+                || ! setSensorId(jsonObject, descriptor)
+                || ! setSensorHandle(jsonObject, descriptor)
+                || ! setTimeStamp(jsonObject, unixTime)
+                || ! setSensorValues(jsonObject, descriptor, values)) {
             jsonObject = null;
         }
         if (jsonObject != null) {
             try {
                 parentArray.put(idx, jsonObject);
             } catch (JSONException e) {
-                Log.e(TAG, "setSensorHolder: JSONArray.put: " + e);
+                LOGGER.severe("setSensor: JSONArray.put: " + e);
                 jsonObject = null;
             }
         }
         return (jsonObject != null);
     }
 
-    private boolean setSensorType(JSONObject parentObject, SensorHolder sensorHolder) {
-        SensorEvent sensorEvent = sensorHolder.getSensorEvent();
-        Sensor sensor = sensorEvent.sensor;
-        String typeName;
-
-        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT_WATCH) {
-            String stringType = sensor.getStringType();
-
-            /*
-             * Sensor.getStringType() returns dot-separated symbol such like
-             * "android.sensor.accelerometer". Extract the last element.
-             */
-            String[] wkArray = stringType.split("\\.");
-            if (wkArray.length > 0) {
-                typeName = wkArray[wkArray.length - 1];
-            } else {
-                typeName = stringType;
-            }
-        } else {
-            if (mSensorTypes == null) {
-                mSensorTypes = new SensorTypes();
-            }
-            typeName = mSensorTypes.getName(sensor.getType());
-        }
-
+    private boolean setSensorType(JSONObject parentObject, SensorDescriptor descriptor) {
+        /*
+         * The symbolic type name has resolved once on sensor registration,
+         * see SensorStorage.getSensorTypeName() for details.
+         */
+        String typeName = descriptor.getTypeName();
         try {
             parentObject.put(JsonTags.JSON_TAGS_SENSOR_TYPE.getName(), typeName);
         } catch (JSONException e) {
-            Log.e(TAG, "setSensorType: JSONObject.put: " + e);
+            LOGGER.severe("setSensorType: JSONObject.put: " + e);
             parentObject = null;
         }
         return (parentObject != null);
     }
 
-    private boolean setSensorName(JSONObject parentObject, SensorHolder sensorHolder) {
-        SensorEvent sensorEvent = sensorHolder.getSensorEvent();
-        Sensor sensor = sensorEvent.sensor;
+    private boolean setSensorName(JSONObject parentObject, SensorDescriptor descriptor) {
         try {
-            parentObject.put(JsonTags.JSON_TAGS_SENSOR_NAME.getName(), sensor.getName());
+            parentObject.put(JsonTags.JSON_TAGS_SENSOR_NAME.getName(), descriptor.getName());
         } catch (JSONException e) {
-            Log.e(TAG, "setSensorName: JSONObject.put: " + e);
+            LOGGER.severe("setSensorName: JSONObject.put: " + e);
             return false;
         }
         return true;
     }
 
-    private boolean setSensorId(JSONObject parentObject, SensorHolder sensorHolder) {
-        SensorEvent sensorEvent = sensorHolder.getSensorEvent();
-        Sensor sensor = sensorEvent.sensor;
-
-        if (android.os.Build.VERSION.SDK_INT >= android.os.Build.VERSION_CODES.N) {
-            int sensorId = sensor.getId();
-            if (sensorId > 0) {
-                try {
-                    parentObject.put(JsonTags.JSON_TAGS_SENSOR_ID.getName(), sensorId);
-                } catch (JSONException e) {
-                    Log.e(TAG, "setSensorId: JSONObject.put: " + e);
-                    parentObject = null;
-                }
+    private boolean setSensorId(JSONObject parentObject, SensorDescriptor descriptor) {
+        int sensorId = descriptor.getSensorId();
+        if (sensorId > 0) {
+            try {
+                parentObject.put(JsonTags.JSON_TAGS_SENSOR_ID.getName(), sensorId);
+            } catch (JSONException e) {
+                LOGGER.severe("setSensorId: JSONObject.put: " + e);
+                parentObject = null;
             }
-        } else {
-            Log.e(TAG, "setSensorId: Sensor.getId() unsupported");
         }
         return (parentObject != null);
     }
 
-    private boolean setTimeStamp(JSONObject parentObject, SensorHolder sensorHolder) {
-        long unixTime = sensorHolder.getUnixTime();
+    private boolean setSensorHandle(JSONObject parentObject, SensorDescriptor descriptor) {
+        /*
+         * The handle tells apart the sensor instances of the same type,
+         * such like wake-up and non-wake-up variants.
+         */
+        try {
+            parentObject.put(JsonTags.JSON_TAGS_SENSOR_HANDLE.getName(), descriptor.getHandle());
+            if (descriptor.isWakeUp()) {
+                parentObject.put(JsonTags.JSON_TAGS_SENSOR_WAKEUP.getName(), true);
+            }
+        } catch (JSONException e) {
+            LOGGER.severe("setSensorHandle: JSONObject.put: " + e);
+            return false;
+        }
+        return true;
+    }
+
+    private boolean setTimeStamp(JSONObject parentObject, long unixTime) {
         String dateStr = mDateTimeUtil.toIso8601String(unixTime);
         try {
             parentObject.put(JsonTags.JSON_TAGS_SENSOR_TIMESTAMP.getName(), dateStr);
         } catch (JSONException e) {
-            Log.e(TAG, "setTimeStamp: JSONObject.put: " + e);
+            LOGGER.severe("setTimeStamp: JSONObject.put: " + e);
             return false;
         }
         return true;
     }
 
-    private boolean setSensorValues(JSONObject parentObject, SensorHolder sensorHolder) {
-        SensorEvent sensorEvent = sensorHolder.getSensorEvent();
-        Sensor sensor = sensorEvent.sensor;
+    private boolean setSensorValues(
+            JSONObject parentObject, SensorDescriptor descriptor, float[] values) {
         int dimensions = 0;
 
-        // Log.d(TAG, "XXX: SENSOR[id(" + sensor.getType() + "),name(" + sensor.getName() + ")]");
-        switch (sensor.getType()) {
-            case Sensor.TYPE_LIGHT:
-            case Sensor.TYPE_PRESSURE:
-            case Sensor.TYPE_PROXIMITY:
-            case Sensor.TYPE_RELATIVE_HUMIDITY:
-            case Sensor.TYPE_AMBIENT_TEMPERATURE:
-            case Sensor.TYPE_STATIONARY_DETECT:
-            case Sensor.TYPE_MOTION_DETECT:
-            case Sensor.TYPE_HEART_BEAT:
-            case Sensor.TYPE_LOW_LATENCY_OFFBODY_DETECT:
-            case Sensor.TYPE_HINGE_ANGLE:
+        // LOGGER.fine("XXX: SENSOR[id(" + descriptor.getSensorType() + "),name(" + descriptor.getName() + ")]");
+        switch (descriptor.getSensorType()) {
+            case SensorTypes.TYPE_LIGHT:
+            case SensorTypes.TYPE_PRESSURE:
+            case SensorTypes.TYPE_PROXIMITY:
+            case SensorTypes.TYPE_RELATIVE_HUMIDITY:
+            case SensorTypes.TYPE_AMBIENT_TEMPERATURE:
+            case SensorTypes.TYPE_STATIONARY_DETECT:
+            case SensorTypes.TYPE_MOTION_DETECT:
+            case SensorTypes.TYPE_HEART_BEAT:
+            case SensorTypes.TYPE_LOW_LATENCY_OFFBODY_DETECT:
+            case SensorTypes.TYPE_HINGE_ANGLE:
                 /*
                  * Following types are not mentioned in the developer document
                  * https://developer.android.com/reference/android/hardware/SensorEvent#values
                  * but we can safely say those outputs are scalar values.
                  */
-            case Sensor.TYPE_STEP_COUNTER:
-            case Sensor.TYPE_STEP_DETECTOR:
+            case SensorTypes.TYPE_STEP_COUNTER:
+            case SensorTypes.TYPE_STEP_DETECTOR:
                 dimensions = 1;
                 break;
 
-            case Sensor.TYPE_HEADING:
+            case SensorTypes.TYPE_HEADING:
                 dimensions = 2;
                 break;
 
-            case Sensor.TYPE_ACCELEROMETER:
-            case Sensor.TYPE_MAGNETIC_FIELD:
-            case Sensor.TYPE_GYROSCOPE:
-            case Sensor.TYPE_GRAVITY:
-            case Sensor.TYPE_LINEAR_ACCELERATION:
-            case Sensor.TYPE_ORIENTATION: /* Deprecated as of API 15 */
+            case SensorTypes.TYPE_ACCELEROMETER:
+            case SensorTypes.TYPE_MAGNETIC_FIELD:
+            case SensorTypes.TYPE_GYROSCOPE:
+            case SensorTypes.TYPE_GRAVITY:
+            case SensorTypes.TYPE_LINEAR_ACCELERATION:
+            case SensorTypes.TYPE_ORIENTATION: /* Deprecated as of API 15 */
                 dimensions = 3;
                 break;
 
-            case Sensor.TYPE_GAME_ROTATION_VECTOR:
+            case SensorTypes.TYPE_GAME_ROTATION_VECTOR:
                 dimensions = 4;
                 break;
 
-            case Sensor.TYPE_ROTATION_VECTOR:
-            case Sensor.TYPE_GEOMAGNETIC_ROTATION_VECTOR:
+            case SensorTypes.TYPE_ROTATION_VECTOR:
+            case SensorTypes.TYPE_GEOMAGNETIC_ROTATION_VECTOR:
                 dimensions = 5;
                 break;
 
-            case Sensor.TYPE_MAGNETIC_FIELD_UNCALIBRATED:
-            case Sensor.TYPE_GYROSCOPE_UNCALIBRATED:
-            case Sensor.TYPE_ACCELEROMETER_UNCALIBRATED:
-            case Sensor.TYPE_HEAD_TRACKER:
-            case Sensor.TYPE_ACCELEROMETER_LIMITED_AXES:
-            case Sensor.TYPE_GYROSCOPE_LIMITED_AXES:
+            case SensorTypes.TYPE_MAGNETIC_FIELD_UNCALIBRATED:
+            case SensorTypes.TYPE_GYROSCOPE_UNCALIBRATED:
+            case SensorTypes.TYPE_ACCELEROMETER_UNCALIBRATED:
+            case SensorTypes.TYPE_HEAD_TRACKER:
+            case SensorTypes.TYPE_ACCELEROMETER_LIMITED_AXES:
+            case SensorTypes.TYPE_GYROSCOPE_LIMITED_AXES:
                 dimensions = 6;
                 break;
 
-            case Sensor.TYPE_ACCELEROMETER_LIMITED_AXES_UNCALIBRATED:
-            case Sensor.TYPE_GYROSCOPE_LIMITED_AXES_UNCALIBRATED:
+            case SensorTypes.TYPE_ACCELEROMETER_LIMITED_AXES_UNCALIBRATED:
+            case SensorTypes.TYPE_GYROSCOPE_LIMITED_AXES_UNCALIBRATED:
                 dimensions = 9;
                 break;
 
-            case Sensor.TYPE_POSE_6DOF:
+            case SensorTypes.TYPE_POSE_6DOF:
                 dimensions = 15;
                 break;
 
             default:
-                Log.w(TAG, "SENSOR[id(" + sensor.getType() +
-                        "),name(" + sensor.getName() + ")]: Unknown type");
+                if (descriptor.getSensorType() >= SensorTypes.TYPE_DEVICE_PRIVATE_BASE) {
+                    /*
+                     * SensorService skips device private sensors on registration,
+                     * so that only synthetic samples come here. Take all values.
+                     */
+                    dimensions = values.length;
+                    break;
+                }
+                LOGGER.warning("SENSOR[id(" + descriptor.getSensorType() +
+                        "),name(" + descriptor.getName() + ")]: Unknown type");
                 /* Treat as Scalar value, as a conservative bet */
                 break;
         }
 
+        if (values.length == 0) {
+            LOGGER.warning("SENSOR[name(" + descriptor.getName() + ")]: No values");
+            return false;
+        }
+        /* A replayed sample may carry fewer values than expected */
+        dimensions = Math.min(dimensions, values.length);
+
         try {
             if (dimensions > 1) {
                 /* Vector values */
                 JSONArray jsonArray = new JSONArray();
                 for (int i = 0; i < dimensions; i++) {
-                    jsonArray.put(sensorEvent.values[i]);
+                    jsonArray.put(values[i]);
                 }
                 parentObject.put(
                         JsonTags.JSON_TAGS_SENSOR_VECTOR_VALUES.getName(),
@@ -400,10 +438,10 @@ public class JsonBuilder {
                 /* Scalar value */
                 parentObject.put(
                         JsonTags.JSON_TAGS_SENSOR_SCALAR_VALUE.getName(),
-                        sensorEvent.values[0]);
+                        values[0]);
             }
         } catch (JSONException e) {
-            Log.e(TAG, "setSensorValues: JSONObject.put: " + e);
+            LOGGER.severe("setSensorValues: JSONObject.put: " + e);
             parentObject = null;
         }
         return (parentObject != null);
@@ -0,0 +1,163 @@
+/*
+ * Copyright (C) 2026 National Institute of Informatics
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+
+package jp.ad.sinet.stream.android.helper.provider;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Tells whether the device is stationary or in motion, so that the
+ * high-rate sensors can be slowed down or paused while it stays still.
+ * <p>
+ *     The state is normally driven by the hardware detectors, such like
+ *     {@code TYPE_STATIONARY_DETECT} and {@code TYPE_MOTION_DETECT}.
+ *     If the device lacks them, accelerometer samples can be fed instead;
+ *     the device is taken as stationary once the magnitude of acceleration
+ *     has stayed close to its running mean for the still duration, and as
+ *     in motion as soon as it deviates.
+ * </p>
+ */
+public class MotionGate {
+    /* What to do with the high-rate sensors while stationary */
+    public final static int MODE_LOW_RATE = 0;
+    public final static int MODE_PAUSE = 1;
+
+    /* Sampling period of the high-rate sensors in MODE_LOW_RATE */
+    public final static long DEFAULT_IDLE_PERIOD = 1000L; /* milliseconds */
+
+    /* Time to stay still before taken as stationary, for accelerometer */
+    public final static long DEFAULT_STILL_DURATION = 10000L; /* milliseconds */
+
+    /* Deviation of the acceleration magnitude taken as still, in m/s^2 */
+    public final static float STILL_THRESHOLD = 0.3f;
+
+    /* Weight of a new sample for the running mean of magnitude */
+    private final static float MEAN_WEIGHT = 0.1f;
+
+    private final int mMode;
+    private final long mIdlePeriodMillis;
+    private final long mStillDurationNanos;
+    private boolean mIsStationary = false;
+
+    private float mMeanMagnitude = Float.NaN;
+    private long mStillSince = 0L;
+
+    /**
+     * @param mode one of {@code MODE_XXX}
+     * @param idlePeriodMillis sampling period while stationary in
+     *                         {@link #MODE_LOW_RATE}, in milliseconds
+     * @param stillDurationMillis time to stay still before taken as
+     *                            stationary, in milliseconds
+     */
+    public MotionGate(int mode, long idlePeriodMillis, long stillDurationMillis) {
+        this.mMode = mode;
+        this.mIdlePeriodMillis = idlePeriodMillis;
+        this.mStillDurationNanos = stillDurationMillis * 1000L * 1000L;
+    }
+
+    /**
+     * Validate the parameters before constructing.
+     *
+     * @return null if valid, error description otherwise
+     */
+    public static String validate(int mode, long idlePeriodMillis, long stillDurationMillis) {
+        if (mode != MODE_LOW_RATE && mode != MODE_PAUSE) {
+            return "Invalid mode: " + mode;
+        }
+        if (idlePeriodMillis <= 0L) {
+            return "Invalid idle period: " + idlePeriodMillis;
+        }
+        if (stillDurationMillis <= 0L) {
+            return "Invalid still duration: " + stillDurationMillis;
+        }
+        return null;
+    }
+
+    public int getMode() {
+        return mMode;
+    }
+
+    public long getIdlePeriodMillis() {
+        return mIdlePeriodMillis;
+    }
+
+    public boolean isStationary() {
+        return mIsStationary;
+    }
+
+    /**
+     * Set the state as reported by a hardware detector.
+     *
+     * @param isStationary true if the device has been detected stationary
+     * @return true if the state has changed
+     */
+    public boolean setStationary(boolean isStationary) {
+        if (mIsStationary == isStationary) {
+            return false;
+        }
+        mIsStationary = isStationary;
+        resetStillness();
+        return true;
+    }
+
+    /**
+     * Forget the accelerometer history, such like when the accelerometer
+     * has been re-registered after a pause.
+     */
+    public void resetStillness() {
+        mMeanMagnitude = Float.NaN;
+        mStillSince = 0L;
+    }
+
+    /**
+     * Feed an accelerometer sample, if no hardware detector is available.
+     *
+     * @param timestamp the sensor timestamp in nanoseconds
+     * @param values the acceleration along x, y and z axes, in m/s^2
+     * @return true if the state has changed
+     */
+    public boolean onAccelerometerSample(long timestamp, @NonNull float[] values) {
+        if (values.length < 3) {
+            return false;
+        }
+        float magnitude = (float) Math.sqrt(values[0] * values[0] +
+                values[1] * values[1] + values[2] * values[2]);
+        if (Float.isNaN(mMeanMagnitude)) {
+            mMeanMagnitude = magnitude;
+            mStillSince = timestamp;
+            return false;
+        }
+
+        boolean isStill = Math.abs(magnitude - mMeanMagnitude) < STILL_THRESHOLD;
+        mMeanMagnitude += (magnitude - mMeanMagnitude) * MEAN_WEIGHT;
+        if (! isStill) {
+            mStillSince = timestamp;
+            if (mIsStationary) {
+                mIsStationary = false;
+                return true;
+            }
+        } else if (! mIsStationary && timestamp - mStillSince >= mStillDurationNanos) {
+            mIsStationary = true;
+            return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,203 @@
+/*
+ * Copyright (C) 2026 National Institute of Informatics
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+
+package jp.ad.sinet.stream.android.helper.provider;
+
+import androidx.annotation.NonNull;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free ring of raw sensor samples from a single producer thread
+ * (such like the one {@code onSensorChanged} is called on) to a single
+ * consumer thread.
+ * <p>
+ *     All slots are preallocated as primitive arrays, so that neither side
+ *     allocates per sample. The producer owns the tail sequence and the
+ *     consumer owns the head sequence; each side publishes its own with
+ *     an ordered store after touching the slots.
+ * </p>
+ * <p>
+ *     Overflow policy: the producer never waits. If the ring is full,
+ *     or the sample has more values than a slot can hold, the new sample
+ *     is dropped and counted. Dropping the oldest one instead would need
+ *     the producer to move the head sequence, which belongs to the
+ *     consumer. Drops and the high watermark tell if the ring is too small.
+ * </p>
+ */
+public class SampleRing {
+    /* The number of values of any Android sensor fits in */
+    public final static int DEFAULT_MAX_DIMENSIONS = 16;
+
+    /**
+     * Callback of {@link #drain}.
+     */
+    public interface SampleConsumer {
+        /**
+         * @param sensorType the sensor type
+         * @param timestamp the sensor timestamp in nanoseconds
+         * @param eventNanos when the sample has occurred, in elapsed realtime
+         * @param values the sensor values; only valid during this call
+         */
+        void onSample(int sensorType, long timestamp, long eventNanos,
+                      @NonNull float[] values);
+    }
+
+    private final int mMask;
+    private final int mMaxDimensions;
+
+    private final int[] mSensorTypes;
+    private final long[] mTimestamps;
+    private final long[] mEventNanos;
+    private final int[] mLengths;
+    private final float[] mValues;
+
+    /* Per length, to hand over the values without allocation */
+    private final float[][] mScratch;
+
+    /* Next slot to be written by the producer */
+    private final AtomicLong mTail = new AtomicLong();
+    /* Next slot to be read by the consumer */
+    private final AtomicLong mHead = new AtomicLong();
+
+    private final AtomicLong mOfferCount = new AtomicLong();
+    private final AtomicLong mDropCount = new AtomicLong();
+    private final AtomicLong mHighWatermark = new AtomicLong();
+
+    /**
+     * @param capacity the number of slots, rounded up to a power of two
+     * @param maxDimensions the number of values a slot can hold
+     */
+    public SampleRing(int capacity, int maxDimensions) {
+        if (capacity <= 0 || capacity > (1 << 20)) {
+            throw new IllegalArgumentException("Invalid capacity: " + capacity);
+        }
+        if (maxDimensions <= 0) {
+            throw new IllegalArgumentException("Invalid dimensions: " + maxDimensions);
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        mMask = size - 1;
+        mMaxDimensions = maxDimensions;
+        mSensorTypes = new int[size];
+        mTimestamps = new long[size];
+        mEventNanos = new long[size];
+        mLengths = new int[size];
+        mValues = new float[size * maxDimensions];
+        mScratch = new float[maxDimensions + 1][];
+        for (int i = 0; i <= maxDimensions; i++) {
+            mScratch[i] = new float[i];
+        }
+    }
+
+    /**
+     * Producer side: append a sample, or drop it if the ring is full.
+     *
+     * @return true if appended
+     */
+    public boolean offer(int sensorType, long timestamp, long eventNanos,
+                         @NonNull float[] values) {
+        mOfferCount.lazySet(mOfferCount.get() + 1);
+        long tail = mTail.get();
+        long depth = tail - mHead.get();
+        if (depth > mMask || values.length > mMaxDimensions) {
+            mDropCount.lazySet(mDropCount.get() + 1);
+            return false;
+        }
+
+        int slot = (int) tail & mMask;
+        mSensorTypes[slot] = sensorType;
+        mTimestamps[slot] = timestamp;
+        mEventNanos[slot] = eventNanos;
+        mLengths[slot] = values.length;
+        System.arraycopy(values, 0, mValues, slot * mMaxDimensions, values.length);
+
+        /* The slot becomes visible to the consumer from here */
+        mTail.lazySet(tail + 1);
+        if (depth + 1 > mHighWatermark.get()) {
+            mHighWatermark.lazySet(depth + 1);
+        }
+        return true;
+    }
+
+    /**
+     * Consumer side: take out samples in order.
+     *
+     * @param consumer the receiver of samples
+     * @param maxSamples the upper limit of samples to take out at once
+     * @return the number of samples taken out
+     */
+    public int drain(@NonNull SampleConsumer consumer, int maxSamples) {
+        long head = mHead.get();
+        long available = mTail.get() - head;
+        int n = (int) Math.min(available, maxSamples);
+        for (int i = 0; i < n; i++) {
+            int slot = (int) (head + i) & mMask;
+            float[] values = mScratch[mLengths[slot]];
+            System.arraycopy(mValues, slot * mMaxDimensions, values, 0, values.length);
+            consumer.onSample(mSensorTypes[slot], mTimestamps[slot],
+                    mEventNanos[slot], values);
+        }
+
+        /* The slots become reusable by the producer from here */
+        mHead.lazySet(head + n);
+        return n;
+    }
+
+    /**
+     * Forget all samples not yet taken out. Consumer side only.
+     */
+    public void clear() {
+        mHead.lazySet(mTail.get());
+    }
+
+    public int capacity() {
+        return mMask + 1;
+    }
+
+    /**
+     * @return the number of samples not yet taken out; approximate unless
+     *         called from either side
+     */
+    public int size() {
+        return (int) (mTail.get() - mHead.get());
+    }
+
+    public long getOfferCount() {
+        return mOfferCount.get();
+    }
+
+    /**
+     * @return the number of samples dropped by the overflow policy
+     */
+    public long getDropCount() {
+        return mDropCount.get();
+    }
+
+    /**
+     * @return the largest number of samples ever queued at once
+     */
+    public long getHighWatermark() {
+        return mHighWatermark.get();
+    }
+}
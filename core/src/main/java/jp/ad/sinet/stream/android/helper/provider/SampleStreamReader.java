@@ -0,0 +1,176 @@
+/*
+ * Copyright (C) 2026 National Institute of Informatics
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+
+package jp.ad.sinet.stream.android.helper.provider;
+
+import androidx.annotation.NonNull;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import jp.ad.sinet.stream.android.helper.models.SensorDescriptor;
+import jp.ad.sinet.stream.android.helper.models.SensorSamples;
+
+/**
+ * Reader of the stream written by {@link SampleStreamWriter}.
+ * <p>
+ *     Meant to run on a thread of its own, as {@link #read} blocks
+ *     until the next samples arrive.
+ * </p>
+ */
+public class SampleStreamReader implements Closeable {
+    private final ReadableByteChannel mChannel;
+    private final Map<Integer, SensorDescriptor> mDescriptors = new HashMap<>();
+    private final ByteBuffer mHeader = ByteBuffer.allocate(4);
+    private ByteBuffer mBuffer = ByteBuffer.allocate(8 * 1024);
+    private float[] mValues = new float[16];
+
+    public SampleStreamReader(@NonNull ReadableByteChannel channel) {
+        this.mChannel = channel;
+    }
+
+    /**
+     * Refill the given samples with the next ones in the stream.
+     *
+     * @param samples the samples to be refilled
+     * @return true on success, false on the end of stream
+     * @throws IOException if the channel fails, or the stream is malformed
+     */
+    public boolean read(@NonNull SensorSamples samples) throws IOException {
+        while (true) {
+            mHeader.clear();
+            if (! readFully(mHeader)) {
+                return false;
+            }
+            int length = mHeader.getInt(0);
+            if (length < 1 || length > SampleStreamWriter.MAX_RECORD_LENGTH) {
+                throw new IOException("Invalid record length: " + length);
+            }
+            if (mBuffer.capacity() < length) {
+                mBuffer = ByteBuffer.allocate(Math.max(mBuffer.capacity() * 2, length));
+            }
+            mBuffer.clear();
+            mBuffer.limit(length);
+            if (! readFully(mBuffer)) {
+                throw new EOFException("Truncated record");
+            }
+            mBuffer.flip();
+
+            byte kind = mBuffer.get();
+            try {
+                switch (kind) {
+                    case SampleStreamWriter.KIND_DESCRIPTOR:
+                        getDescriptor();
+                        break;
+                    case SampleStreamWriter.KIND_SAMPLES:
+                        getSamples(samples);
+                        return true;
+                    default:
+                        throw new IOException("Unknown record kind: " + kind);
+                }
+            } catch (BufferUnderflowException | IllegalArgumentException e) {
+                throw new IOException("Malformed record", e);
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        mChannel.close();
+    }
+
+    private void getDescriptor() {
+        int handle = mBuffer.getInt();
+        int sensorType = mBuffer.getInt();
+        String typeName = getString();
+        String name = getString();
+        int sensorId = mBuffer.getInt();
+        boolean isWakeUp = (mBuffer.get() != 0);
+        mDescriptors.put(handle, new SensorDescriptor(
+                handle, sensorType, typeName, name, sensorId, isWakeUp));
+    }
+
+    private void getSamples(@NonNull SensorSamples samples) throws IOException {
+        int n = mBuffer.getInt();
+        int start = mBuffer.position();
+
+        /* Sum up the values first, to make room for all of them */
+        int valueCount = 0;
+        for (int i = 0; i < n; i++) {
+            mBuffer.position(mBuffer.position() + 4 + 8 + 8);
+            int count = mBuffer.getInt();
+            if (count < 0 || 4 * count > mBuffer.remaining()) {
+                throw new IOException("Invalid value count: " + count);
+            }
+            mBuffer.position(mBuffer.position() + 4 * count);
+            valueCount += count;
+        }
+
+        mBuffer.position(start);
+        samples.reset(n, valueCount);
+        for (int i = 0; i < n; i++) {
+            int handle = mBuffer.getInt();
+            long timestamp = mBuffer.getLong();
+            long unixTime = mBuffer.getLong();
+            int count = mBuffer.getInt();
+            SensorDescriptor descriptor = mDescriptors.get(handle);
+            if (descriptor == null) {
+                throw new IOException("Undescribed sensor handle: " + handle);
+            }
+            if (mValues.length < count) {
+                mValues = new float[count];
+            }
+            for (int j = 0; j < count; j++) {
+                mValues[j] = mBuffer.getFloat();
+            }
+            samples.add(descriptor, timestamp, unixTime, mValues, 0, count);
+        }
+    }
+
+    @NonNull
+    private String getString() {
+        byte[] bytes = new byte[mBuffer.getShort()];
+        mBuffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return false if the stream ends before anything is read
+     */
+    private boolean readFully(@NonNull ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (mChannel.read(buffer) < 0) {
+                if (buffer.position() > 0) {
+                    throw new EOFException("Truncated record");
+                }
+                return false;
+            }
+        }
+        return true;
+    }
+}
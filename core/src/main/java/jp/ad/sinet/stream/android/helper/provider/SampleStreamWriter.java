@@ -0,0 +1,153 @@
+/*
+ * Copyright (C) 2026 National Institute of Informatics
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+
+package jp.ad.sinet.stream.android.helper.provider;
+
+import androidx.annotation.NonNull;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Set;
+
+import jp.ad.sinet.stream.android.helper.models.SensorDescriptor;
+import jp.ad.sinet.stream.android.helper.models.SensorSamples;
+
+/**
+ * Writer of {@link SensorSamples} as a continuous stream of binary records,
+ * read back by {@link SampleStreamReader}.
+ * <p>
+ *     Each record is prefixed by its length, followed by its kind.
+ *     A sensor is described once by a descriptor record, on its first
+ *     appearance in the stream; samples records refer to it by handle.
+ *     All records of a {@link #write} go to the channel at once.
+ * </p>
+ * <pre>
+ *     record     := length(int) kind(byte) payload
+ *     DESCRIPTOR := handle(int) type(int) typeName(str) name(str) id(int) wakeUp(byte)
+ *     SAMPLES    := count(int) { handle(int) timestamp(long) unixTime(long)
+ *                                valueCount(int) values(float * valueCount) } * count
+ *     str        := length(short) UTF-8 bytes
+ * </pre>
+ * All numbers are big-endian.
+ */
+public class SampleStreamWriter implements Closeable {
+    final static byte KIND_DESCRIPTOR = 1;
+    final static byte KIND_SAMPLES = 2;
+    final static int MAX_RECORD_LENGTH = 16 * 1024 * 1024;
+
+    private final WritableByteChannel mChannel;
+    private final Set<Integer> mDescribedHandles = new HashSet<>();
+    private ByteBuffer mBuffer = ByteBuffer.allocate(8 * 1024);
+
+    public SampleStreamWriter(@NonNull WritableByteChannel channel) {
+        this.mChannel = channel;
+    }
+
+    /**
+     * Write the samples, blocking until all of them go to the channel.
+     *
+     * @param samples the samples to be written
+     * @throws IOException if the channel fails, such like the reader has gone
+     */
+    public void write(@NonNull SensorSamples samples) throws IOException {
+        mBuffer.clear();
+        for (int i = 0, n = samples.size(); i < n; i++) {
+            SensorDescriptor descriptor = samples.getDescriptor(i);
+            if (mDescribedHandles.add(descriptor.getHandle())) {
+                putDescriptor(descriptor);
+            }
+        }
+        putSamples(samples);
+
+        mBuffer.flip();
+        while (mBuffer.hasRemaining()) {
+            mChannel.write(mBuffer);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        mChannel.close();
+    }
+
+    private void putDescriptor(@NonNull SensorDescriptor descriptor) {
+        byte[] typeName = toUtf8(descriptor.getTypeName());
+        byte[] name = toUtf8(descriptor.getName());
+        int length = 1 + 4 + 4 + (2 + typeName.length) + (2 + name.length) + 4 + 1;
+        ensureRemaining(4 + length);
+        mBuffer.putInt(length);
+        mBuffer.put(KIND_DESCRIPTOR);
+        mBuffer.putInt(descriptor.getHandle());
+        mBuffer.putInt(descriptor.getSensorType());
+        mBuffer.putShort((short) typeName.length);
+        mBuffer.put(typeName);
+        mBuffer.putShort((short) name.length);
+        mBuffer.put(name);
+        mBuffer.putInt(descriptor.getSensorId());
+        mBuffer.put((byte) (descriptor.isWakeUp() ? 1 : 0));
+    }
+
+    private void putSamples(@NonNull SensorSamples samples) {
+        int n = samples.size();
+        int length = 1 + 4;
+        for (int i = 0; i < n; i++) {
+            length += 4 + 8 + 8 + 4 + 4 * samples.getValueCount(i);
+        }
+        ensureRemaining(4 + length);
+        mBuffer.putInt(length);
+        mBuffer.put(KIND_SAMPLES);
+        mBuffer.putInt(n);
+        for (int i = 0; i < n; i++) {
+            int valueCount = samples.getValueCount(i);
+            mBuffer.putInt(samples.getDescriptor(i).getHandle());
+            mBuffer.putLong(samples.getTimestamp(i));
+            mBuffer.putLong(samples.getUnixTime(i));
+            mBuffer.putInt(valueCount);
+            for (int j = 0; j < valueCount; j++) {
+                mBuffer.putFloat(samples.getValue(i, j));
+            }
+        }
+    }
+
+    private void ensureRemaining(int size) {
+        if (mBuffer.remaining() < size) {
+            ByteBuffer buffer = ByteBuffer.allocate(
+                    Math.max(mBuffer.capacity() * 2, mBuffer.position() + size));
+            mBuffer.flip();
+            buffer.put(mBuffer);
+            mBuffer = buffer;
+        }
+    }
+
+    @NonNull
+    private static byte[] toUtf8(@NonNull String s) {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > Short.MAX_VALUE) {
+            /* Never be the case for sensor names */
+            throw new IllegalArgumentException("Too long string: " + bytes.length);
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,646 @@
+/*
+ * Copyright (C) 2026 National Institute of Informatics
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+
+package jp.ad.sinet.stream.android.helper.provider;
+
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.logging.Logger;
+
+/**
+ * A segmented on-device store for the JSON records exported by the
+ * {@code SensorService}.
+ *
+ * <p>
+ *     Records are appended to a sequence of segment files. Each segment
+ *     has a companion index file which holds one sparse entry per block
+ *     of consecutive records: the file offset and length of the block,
+ *     the min/max unix time of the sensor readings in it, and a bitmap
+ *     of the sensor types appeared. A time-range and sensor-type query
+ *     only reads those blocks whose index entry matches, by positional
+ *     {@link FileChannel} reads, and streams the matching records back
+ *     in chunks.
+ * </p>
+ *
+ * <p>
+ *     <em>NOTE:</em>
+ *     This class is not thread-safe. The caller must confine all method
+ *     calls to a single (worker) thread.
+ * </p>
+ */
+public class SensorDataStore {
+    private final static String TAG = SensorDataStore.class.getSimpleName();
+    private final static Logger LOGGER = Logger.getLogger(TAG);
+
+    private final static String SEGMENT_PREFIX = "segment_";
+    private final static String DATA_SUFFIX = ".dat";
+    private final static String INDEX_SUFFIX = ".idx";
+
+    /* Record header: length(4) + minTime(8) + maxTime(8) + typeMask(8) */
+    private final static int RECORD_HEADER_SIZE = 28;
+
+    /* Index entry: offset(8) + length(4) + minTime(8) + maxTime(8) + typeMask(8) + count(4) */
+    private final static int INDEX_ENTRY_SIZE = 40;
+
+    /* A block gets closed when either of these limits has reached */
+    private final static int MAX_RECORDS_PER_BLOCK = 64;
+    private final static int MAX_BYTES_PER_BLOCK = 64 * 1024;
+
+    /* Query results are delivered in chunks of this size (UTF-8 bytes) */
+    private final static int MAX_BYTES_PER_CHUNK = 128 * 1024;
+
+    public final static long DEFAULT_MAX_SEGMENT_SIZE = 4L * 1024 * 1024;
+    public final static int DEFAULT_MAX_SEGMENTS = 16;
+
+    /* Sensor types out of the bitmap range share the lowest bit */
+    private final static int TYPE_MASK_OVERFLOW_BIT = 0;
+
+    private final File mDirectory;
+    private final long mMaxSegmentSize;
+    private final int mMaxSegments;
+
+    private final List<Segment> mSegments = new ArrayList<>();
+    private Segment mActiveSegment = null;
+    private boolean mIsOpen = false;
+
+    public SensorDataStore(@NonNull File directory) {
+        this(directory, DEFAULT_MAX_SEGMENT_SIZE, DEFAULT_MAX_SEGMENTS);
+    }
+
+    public SensorDataStore(
+            @NonNull File directory, long maxSegmentSize, int maxSegments) {
+        this.mDirectory = directory;
+        this.mMaxSegmentSize = maxSegmentSize;
+        this.mMaxSegments = Math.max(maxSegments, 1);
+    }
+
+    /**
+     * Converts a sensor type to the corresponding bit of the type bitmap.
+     *
+     * @param sensorType Sensor type (Sensor.TYPE_XXX)
+     * @return the bit set for the given sensor type
+     */
+    public static long toTypeMask(int sensorType) {
+        if (sensorType > 0 && sensorType < Long.SIZE) {
+            return (1L << sensorType);
+        }
+        return (1L << TYPE_MASK_OVERFLOW_BIT);
+    }
+
+    /**
+     * Converts a list of sensor types to the type bitmap.
+     *
+     * @param sensorTypes List of sensor types, or null for ALL types
+     * @return the type bitmap
+     */
+    public static long toTypeMask(@Nullable List<Integer> sensorTypes) {
+        if (sensorTypes == null) {
+            return -1L;
+        }
+        long typeMask = 0L;
+        for (int i = 0, n = sensorTypes.size(); i < n; i++) {
+            typeMask |= toTypeMask(sensorTypes.get(i));
+        }
+        return typeMask;
+    }
+
+    /**
+     * Opens the store and loads the existing segments, if any.
+     *
+     * @return true on success
+     */
+    public boolean open() {
+        if (mIsOpen) {
+            return true;
+        }
+        if (!mDirectory.isDirectory() && !mDirectory.mkdirs()) {
+            LOGGER.severe("Cannot create directory: " + mDirectory);
+            return false;
+        }
+
+        File[] files = mDirectory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                String name = file.getName();
+                if (name.startsWith(SEGMENT_PREFIX) && name.endsWith(DATA_SUFFIX)) {
+                    try {
+                        long seq = Long.parseLong(name.substring(
+                                SEGMENT_PREFIX.length(),
+                                name.length() - DATA_SUFFIX.length()));
+                        mSegments.add(new Segment(seq));
+                    } catch (NumberFormatException e) {
+                        LOGGER.warning("Skip unknown file: " + name);
+                    }
+                }
+            }
+        }
+        Collections.sort(mSegments, new Comparator<>() {
+            @Override
+            public int compare(Segment a, Segment b) {
+                return Long.compare(a.mSeq, b.mSeq);
+            }
+        });
+
+        for (int i = 0; i < mSegments.size(); i++) {
+            Segment segment = mSegments.get(i);
+            try {
+                segment.load();
+            } catch (IOException e) {
+                LOGGER.warning("Drop broken segment(" + segment.mSeq + "): " + e);
+                segment.delete();
+                mSegments.remove(i--);
+            }
+        }
+        mIsOpen = true;
+        return true;
+    }
+
+    /**
+     * Flushes the pending index entry and releases all file handles.
+     */
+    public void close() {
+        if (!mIsOpen) {
+            return;
+        }
+        if (mActiveSegment != null) {
+            try {
+                mActiveSegment.seal();
+            } catch (IOException e) {
+                LOGGER.warning("Segment(" + mActiveSegment.mSeq + ").seal: " + e);
+            }
+            mActiveSegment = null;
+        }
+        for (int i = 0, n = mSegments.size(); i < n; i++) {
+            mSegments.get(i).closeChannel();
+        }
+        mSegments.clear();
+        mIsOpen = false;
+    }
+
+    /**
+     * Appends a record to the store.
+     *
+     * @param minTime the oldest unix time of sensor readings in the record
+     * @param maxTime the newest unix time of sensor readings in the record
+     * @param typeMask bitmap of sensor types in the record
+     * @param jsonString the record itself
+     * @return true on success
+     */
+    public boolean append(long minTime, long maxTime, long typeMask,
+                          @NonNull String jsonString) {
+        if (!mIsOpen && !open()) {
+            return false;
+        }
+        byte[] payload = jsonString.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer = ByteBuffer.allocate(RECORD_HEADER_SIZE + payload.length);
+        buffer.putInt(payload.length);
+        buffer.putLong(minTime);
+        buffer.putLong(maxTime);
+        buffer.putLong(typeMask);
+        buffer.put(payload);
+        buffer.flip();
+
+        try {
+            Segment segment = getActiveSegment();
+            segment.append(buffer, minTime, maxTime, typeMask);
+            if (segment.mDataSize >= mMaxSegmentSize) {
+                segment.seal();
+                mActiveSegment = null;
+            }
+        } catch (IOException e) {
+            LOGGER.severe("append: " + e);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Looks up records which have sensor readings within the given time
+     * range and the given sensor types, and delivers them in chunks.
+     *
+     * @param fromTime lower bound of the unix time (inclusive)
+     * @param toTime upper bound of the unix time (inclusive)
+     * @param typeMask bitmap of target sensor types, see {@link #toTypeMask}
+     * @param listener the receiver of query results
+     */
+    public void query(long fromTime, long toTime, long typeMask,
+                      @NonNull SensorDataStoreListener listener) {
+        if (!mIsOpen && !open()) {
+            listener.onError(TAG + ": Cannot open " + mDirectory);
+            return;
+        }
+
+        ArrayList<String> chunk = new ArrayList<>();
+        int chunkBytes = 0;
+        int total = 0;
+        ByteBuffer buffer = null;
+
+        for (int i = 0, n = mSegments.size(); i < n; i++) {
+            Segment segment = mSegments.get(i);
+            if (!segment.matches(fromTime, toTime, typeMask)) {
+                continue;
+            }
+            List<IndexEntry> entries = segment.getEntries();
+            for (int j = 0, m = entries.size(); j < m; j++) {
+                IndexEntry entry = entries.get(j);
+                if (!entry.matches(fromTime, toTime, typeMask)) {
+                    continue;
+                }
+                if (buffer == null || buffer.capacity() < entry.mLength) {
+                    buffer = ByteBuffer.allocate(
+                            Math.max(entry.mLength, MAX_BYTES_PER_BLOCK));
+                }
+                buffer.clear();
+                buffer.limit(entry.mLength);
+                try {
+                    segment.read(buffer, entry.mOffset);
+                } catch (IOException e) {
+                    listener.onError(TAG + ": Segment(" + segment.mSeq + ").read: " + e);
+                    return;
+                }
+                buffer.flip();
+
+                while (buffer.remaining() >= RECORD_HEADER_SIZE) {
+                    int length = buffer.getInt();
+                    long minTime = buffer.getLong();
+                    long maxTime = buffer.getLong();
+                    long recordMask = buffer.getLong();
+                    if (length < 0 || length > buffer.remaining()) {
+                        LOGGER.warning("Segment(" + segment.mSeq + "): Broken record?");
+                        break;
+                    }
+                    if (maxTime >= fromTime && minTime <= toTime
+                            && (recordMask & typeMask) != 0) {
+                        chunk.add(new String(buffer.array(),
+                                buffer.arrayOffset() + buffer.position(),
+                                length, StandardCharsets.UTF_8));
+                        chunkBytes += length;
+                        total++;
+                        if (chunkBytes >= MAX_BYTES_PER_CHUNK) {
+                            listener.onRecords(chunk);
+                            chunk = new ArrayList<>();
+                            chunkBytes = 0;
+                        }
+                    }
+                    buffer.position(buffer.position() + length);
+                }
+            }
+        }
+        if (!chunk.isEmpty()) {
+            listener.onRecords(chunk);
+        }
+        listener.onCompleted(total);
+    }
+
+    @NonNull
+    private Segment getActiveSegment() throws IOException {
+        if (mActiveSegment == null) {
+            long seq = mSegments.isEmpty() ?
+                    0 : mSegments.get(mSegments.size() - 1).mSeq + 1;
+            Segment segment = new Segment(seq);
+            segment.create();
+            mSegments.add(segment);
+            mActiveSegment = segment;
+
+            /* Retention control: drop the oldest ones */
+            while (mSegments.size() > mMaxSegments) {
+                Segment oldest = mSegments.remove(0);
+                LOGGER.fine("Retire segment(" + oldest.mSeq + ")");
+                oldest.delete();
+            }
+        }
+        return mActiveSegment;
+    }
+
+    /**
+     * A sparse index entry which covers a block of consecutive records.
+     */
+    private static class IndexEntry {
+        private final long mOffset;
+        private int mLength = 0;
+        private long mMinTime = Long.MAX_VALUE;
+        private long mMaxTime = Long.MIN_VALUE;
+        private long mTypeMask = 0L;
+        private int mCount = 0;
+
+        IndexEntry(long offset) {
+            this.mOffset = offset;
+        }
+
+        void add(int recordSize, long minTime, long maxTime, long typeMask) {
+            mLength += recordSize;
+            mMinTime = Math.min(mMinTime, minTime);
+            mMaxTime = Math.max(mMaxTime, maxTime);
+            mTypeMask |= typeMask;
+            mCount++;
+        }
+
+        boolean isFull() {
+            return (mCount >= MAX_RECORDS_PER_BLOCK || mLength >= MAX_BYTES_PER_BLOCK);
+        }
+
+        boolean matches(long fromTime, long toTime, long typeMask) {
+            return (mCount > 0 && mMaxTime >= fromTime && mMinTime <= toTime
+                    && (mTypeMask & typeMask) != 0);
+        }
+
+        void writeTo(@NonNull ByteBuffer buffer) {
+            buffer.putLong(mOffset);
+            buffer.putInt(mLength);
+            buffer.putLong(mMinTime);
+            buffer.putLong(mMaxTime);
+            buffer.putLong(mTypeMask);
+            buffer.putInt(mCount);
+        }
+
+        @NonNull
+        static IndexEntry readFrom(@NonNull ByteBuffer buffer) {
+            IndexEntry entry = new IndexEntry(buffer.getLong());
+            entry.mLength = buffer.getInt();
+            entry.mMinTime = buffer.getLong();
+            entry.mMaxTime = buffer.getLong();
+            entry.mTypeMask = buffer.getLong();
+            entry.mCount = buffer.getInt();
+            return entry;
+        }
+    }
+
+    /**
+     * A pair of data file and its index file.
+     */
+    private class Segment {
+        private final long mSeq;
+        private final File mDataFile;
+        private final File mIndexFile;
+        private final List<IndexEntry> mEntries = new ArrayList<>();
+        private IndexEntry mOpenEntry = null;
+        private FileChannel mChannel = null;
+        private long mDataSize = 0L;
+
+        /* Segment-wide summary of index entries */
+        private long mMinTime = Long.MAX_VALUE;
+        private long mMaxTime = Long.MIN_VALUE;
+        private long mTypeMask = 0L;
+
+        Segment(long seq) {
+            this.mSeq = seq;
+            String baseName = SEGMENT_PREFIX + String.format(
+                    Locale.US, "%010d", seq);
+            this.mDataFile = new File(mDirectory, baseName + DATA_SUFFIX);
+            this.mIndexFile = new File(mDirectory, baseName + INDEX_SUFFIX);
+        }
+
+        void create() throws IOException {
+            mChannel = new RandomAccessFile(mDataFile, "rw").getChannel();
+            mChannel.truncate(0);
+            mDataSize = 0L;
+            if (mIndexFile.exists() && !mIndexFile.delete()) {
+                LOGGER.warning("Cannot delete stale " + mIndexFile);
+            }
+        }
+
+        void load() throws IOException {
+            mDataSize = mDataFile.length();
+            long indexedSize = 0L;
+            long indexFileSize = 0L;
+
+            if (mIndexFile.exists()) {
+                try (RandomAccessFile raf = new RandomAccessFile(mIndexFile, "r")) {
+                    FileChannel channel = raf.getChannel();
+                    indexFileSize = channel.size();
+                    int numEntries = (int) (channel.size() / INDEX_ENTRY_SIZE);
+                    ByteBuffer buffer = ByteBuffer.allocate(numEntries * INDEX_ENTRY_SIZE);
+                    readFully(channel, buffer, 0L);
+                    buffer.flip();
+                    for (int i = 0; i < numEntries; i++) {
+                        IndexEntry entry = IndexEntry.readFrom(buffer);
+                        if (entry.mOffset + entry.mLength > mDataSize) {
+                            /* Data file has truncated; drop the rest */
+                            break;
+                        }
+                        addEntry(entry);
+                        indexedSize = entry.mOffset + entry.mLength;
+                    }
+                }
+            }
+
+            if (indexedSize < mDataSize) {
+                /* Records written after the last index entry (e.g. crash) */
+                recoverTail(indexedSize);
+            } else if (indexFileSize != (long) mEntries.size() * INDEX_ENTRY_SIZE) {
+                /* Drop stale or torn entries, not to match the next appends */
+                writeIndex();
+            }
+        }
+
+        private void recoverTail(long position) throws IOException {
+            LOGGER.fine("Segment(" + mSeq + "): Recover records from " + position);
+            FileChannel channel = getChannel();
+            ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER_SIZE);
+            IndexEntry entry = null;
+
+            while (position + RECORD_HEADER_SIZE <= mDataSize) {
+                header.clear();
+                readFully(channel, header, position);
+                header.flip();
+                int length = header.getInt();
+                long minTime = header.getLong();
+                long maxTime = header.getLong();
+                long typeMask = header.getLong();
+                int recordSize = RECORD_HEADER_SIZE + length;
+                if (length < 0 || position + recordSize > mDataSize) {
+                    break;
+                }
+                if (entry == null) {
+                    entry = new IndexEntry(position);
+                }
+                entry.add(recordSize, minTime, maxTime, typeMask);
+                if (entry.isFull()) {
+                    addEntry(entry);
+                    entry = null;
+                }
+                position += recordSize;
+            }
+            if (entry != null) {
+                addEntry(entry);
+            }
+
+            /* Rewrite the index file to cover the recovered records */
+            if (position < mDataSize) {
+                channel.truncate(position);
+                mDataSize = position;
+            }
+            writeIndex();
+        }
+
+        void append(@NonNull ByteBuffer record,
+                    long minTime, long maxTime, long typeMask) throws IOException {
+            int recordSize = record.remaining();
+            FileChannel channel = getChannel();
+            long position = mDataSize;
+            while (record.hasRemaining()) {
+                position += channel.write(record, position);
+            }
+
+            if (mOpenEntry == null) {
+                mOpenEntry = new IndexEntry(mDataSize);
+            }
+            mOpenEntry.add(recordSize, minTime, maxTime, typeMask);
+            mDataSize += recordSize;
+            updateSummary(minTime, maxTime, typeMask);
+
+            if (mOpenEntry.isFull()) {
+                flushOpenEntry();
+            }
+        }
+
+        void seal() throws IOException {
+            if (mOpenEntry != null) {
+                flushOpenEntry();
+            }
+            closeChannel();
+        }
+
+        private void flushOpenEntry() throws IOException {
+            IndexEntry entry = mOpenEntry;
+            mOpenEntry = null;
+            mEntries.add(entry);
+
+            ByteBuffer buffer = ByteBuffer.allocate(INDEX_ENTRY_SIZE);
+            entry.writeTo(buffer);
+            buffer.flip();
+            try (RandomAccessFile raf = new RandomAccessFile(mIndexFile, "rw")) {
+                FileChannel channel = raf.getChannel();
+                long position = (long) (mEntries.size() - 1) * INDEX_ENTRY_SIZE;
+                while (buffer.hasRemaining()) {
+                    position += channel.write(buffer, position);
+                }
+            }
+        }
+
+        private void writeIndex() throws IOException {
+            ByteBuffer buffer = ByteBuffer.allocate(mEntries.size() * INDEX_ENTRY_SIZE);
+            for (int i = 0, n = mEntries.size(); i < n; i++) {
+                mEntries.get(i).writeTo(buffer);
+            }
+            buffer.flip();
+            try (RandomAccessFile raf = new RandomAccessFile(mIndexFile, "rw")) {
+                FileChannel channel = raf.getChannel();
+                channel.truncate(0);
+                long position = 0L;
+                while (buffer.hasRemaining()) {
+                    position += channel.write(buffer, position);
+                }
+            }
+        }
+
+        private void addEntry(@NonNull IndexEntry entry) {
+            mEntries.add(entry);
+            updateSummary(entry.mMinTime, entry.mMaxTime, entry.mTypeMask);
+        }
+
+        private void updateSummary(long minTime, long maxTime, long typeMask) {
+            mMinTime = Math.min(mMinTime, minTime);
+            mMaxTime = Math.max(mMaxTime, maxTime);
+            mTypeMask |= typeMask;
+        }
+
+        boolean matches(long fromTime, long toTime, long typeMask) {
+            return (mMaxTime >= fromTime && mMinTime <= toTime
+                    && (mTypeMask & typeMask) != 0);
+        }
+
+        @NonNull
+        List<IndexEntry> getEntries() {
+            if (mOpenEntry == null) {
+                return mEntries;
+            }
+            /* Records in the open block are already on the data file */
+            List<IndexEntry> entries = new ArrayList<>(mEntries);
+            entries.add(mOpenEntry);
+            return entries;
+        }
+
+        void read(@NonNull ByteBuffer buffer, long position) throws IOException {
+            readFully(getChannel(), buffer, position);
+        }
+
+        @NonNull
+        private FileChannel getChannel() throws IOException {
+            if (mChannel == null) {
+                mChannel = new RandomAccessFile(mDataFile, "rw").getChannel();
+            }
+            return mChannel;
+        }
+
+        void closeChannel() {
+            if (mChannel != null) {
+                try {
+                    mChannel.close();
+                } catch (IOException e) {
+                    LOGGER.warning("Segment(" + mSeq + ").close: " + e);
+                }
+                mChannel = null;
+            }
+        }
+
+        void delete() {
+            closeChannel();
+            if (mDataFile.exists() && !mDataFile.delete()) {
+                LOGGER.warning("Cannot delete " + mDataFile);
+            }
+            if (mIndexFile.exists() && !mIndexFile.delete()) {
+                LOGGER.warning("Cannot delete " + mIndexFile);
+            }
+        }
+    }
+
+    private static void readFully(@NonNull FileChannel channel,
+                                  @NonNull ByteBuffer buffer,
+                                  long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int nread = channel.read(buffer, position);
+            if (nread < 0) {
+                throw new IOException("Unexpected EOF at " + position);
+            }
+            position += nread;
+        }
+    }
+
+    public interface SensorDataStoreListener {
+        void onRecords(@NonNull ArrayList<String> jsonRecords);
+        void onCompleted(int totalRecords);
+        void onError(@NonNull String description);
+    }
+}
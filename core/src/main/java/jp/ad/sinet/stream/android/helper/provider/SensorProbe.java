@@ -0,0 +1,113 @@
+/*
+ * Copyright (C) 2026 National Institute of Informatics
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+
+package jp.ad.sinet.stream.android.helper.provider;
+
+import androidx.annotation.NonNull;
+
+import jp.ad.sinet.stream.android.helper.models.SensorProbeReport;
+
+/**
+ * Accumulates the samples of a sensor during a probe window, and
+ * summarizes them into a {@link SensorProbeReport.Result}.
+ * <p>
+ *     Samples delivered back to back, within {@link #BATCH_GAP_NANOS} of
+ *     arrival time, are counted as a batch, as a sensor hub flushes its
+ *     FIFO at once. The interval statistics are taken from the sample
+ *     timestamps, so that they are not affected by batching.
+ * </p>
+ * <p>
+ *     <em>NOTE:</em>
+ *     This class is not thread-safe. The caller must confine all method
+ *     calls to a single thread, or hand it over with a happens-before edge.
+ * </p>
+ */
+public class SensorProbe {
+    public final static long BATCH_GAP_NANOS = 500_000L;
+
+    private int mSamples = 0;
+    private long mFirstTimestamp = 0L;
+    private long mLastTimestamp = 0L;
+    private long mLastArrivalNanos = 0L;
+
+    /* Welford's online algorithm for mean and variance of the intervals */
+    private int mIntervals = 0;
+    private double mIntervalMean = 0.0;
+    private double mIntervalM2 = 0.0;
+    private long mIntervalMax = 0L;
+
+    private int mBatches = 0;
+    private int mBatchSize = 0;
+    private int mMaxBatchSize = 0;
+    private int mNonMonotonicCount = 0;
+
+    /**
+     * @param timestamp the sensor timestamp in nanoseconds
+     * @param arrivalNanos when the sample has arrived, in nanoseconds
+     */
+    public void onSample(long timestamp, long arrivalNanos) {
+        if (mSamples == 0) {
+            mFirstTimestamp = timestamp;
+            mLastTimestamp = timestamp;
+            mBatches = 1;
+            mBatchSize = 1;
+        } else {
+            if (timestamp <= mLastTimestamp) {
+                /* Not counted as an interval */
+                mNonMonotonicCount++;
+            } else {
+                long interval = timestamp - mLastTimestamp;
+                mIntervals++;
+                double delta = interval - mIntervalMean;
+                mIntervalMean += delta / mIntervals;
+                mIntervalM2 += delta * (interval - mIntervalMean);
+                mIntervalMax = Math.max(mIntervalMax, interval);
+                mLastTimestamp = timestamp;
+            }
+
+            if (arrivalNanos - mLastArrivalNanos <= BATCH_GAP_NANOS) {
+                mBatchSize++;
+            } else {
+                mBatches++;
+                mBatchSize = 1;
+            }
+        }
+        mMaxBatchSize = Math.max(mMaxBatchSize, mBatchSize);
+        mLastArrivalNanos = arrivalNanos;
+        mSamples++;
+    }
+
+    public int getSamples() {
+        return mSamples;
+    }
+
+    @NonNull
+    public SensorProbeReport.Result toResult(int handle, int sensorType, @NonNull String typeName,
+                                             int requestedPeriodMicros, long windowNanos) {
+        long stdDev = (mIntervals > 1)
+                ? (long) Math.sqrt(mIntervalM2 / (mIntervals - 1)) : 0L;
+        return new SensorProbeReport.Result(handle, sensorType, typeName,
+                requestedPeriodMicros, windowNanos,
+                mSamples, mLastTimestamp - mFirstTimestamp,
+                (long) mIntervalMean, stdDev, mIntervalMax,
+                mBatches, mMaxBatchSize, mNonMonotonicCount);
+    }
+}
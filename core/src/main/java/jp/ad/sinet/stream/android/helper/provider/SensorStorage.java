@@ -0,0 +1,249 @@
+/*
+ * Copyright (C) 2020-2021 National Institute of Informatics
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+
+package jp.ad.sinet.stream.android.helper.provider;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+
+import jp.ad.sinet.stream.android.helper.constants.SensorTypes;
+import jp.ad.sinet.stream.android.helper.models.SensorDescriptor;
+import jp.ad.sinet.stream.android.helper.models.SensorHolder;
+
+public class SensorStorage {
+    private final String TAG = SensorStorage.class.getSimpleName();
+
+    private final SensorTypes mSensorTypes = new SensorTypes();
+
+    /**
+     * {@link SensorDescriptor} objects indexed by handle. Entries are
+     * resolved once, either on {@link #registerDescriptor} or on the first
+     * sample of a sensor type unknown to this device.
+     */
+    private final ArrayList<SensorDescriptor> mDescriptors = new ArrayList<>();
+
+    /**
+     * Handle of the default sensor instance per sensor type, for those
+     * which only know the sensor type, such like a recorded trace.
+     */
+    private final Map<Integer, Integer> mDefaultHandleMap = new HashMap<>();
+
+    /**
+     * @return the handle to be given to the next {@link SensorDescriptor}
+     */
+    public int getNextHandle() {
+        return mDescriptors.size();
+    }
+
+    /**
+     * Register a sensor instance. The first instance of a sensor type
+     * becomes the default one, unless it is a wake-up variant.
+     *
+     * @param descriptor the descriptor, whose handle is either the one
+     *                   registered before or {@link #getNextHandle}
+     */
+    public void registerDescriptor(@NonNull SensorDescriptor descriptor) {
+        int handle = descriptor.getHandle();
+        if (handle == mDescriptors.size()) {
+            mDescriptors.add(descriptor);
+            mHolders.add(null);
+        } else if (handle >= 0 && handle < mDescriptors.size()) {
+            mDescriptors.set(handle, descriptor);
+        } else {
+            throw new IllegalArgumentException("Invalid handle: " + handle);
+        }
+
+        int sensorType = descriptor.getSensorType();
+        Integer defaultHandle = mDefaultHandleMap.get(sensorType);
+        if (defaultHandle == null
+                || (mDescriptors.get(defaultHandle).isWakeUp() && ! descriptor.isWakeUp())) {
+            mDefaultHandleMap.put(sensorType, handle);
+        }
+    }
+
+    /**
+     * Unregister a sensor instance, such like a disconnected dynamic sensor.
+     * Its sample not exported yet is discarded, and another instance of
+     * the same sensor type, if any, becomes the default one. The handle is
+     * never given to another sensor instance.
+     *
+     * @param handle the handle of a registered sensor instance
+     */
+    public void unregisterDescriptor(int handle) {
+        SensorDescriptor descriptor = getSensorDescriptor(handle);
+        if (descriptor == null) {
+            return;
+        }
+        mDescriptors.set(handle, null);
+        mHolders.set(handle, null);
+
+        int sensorType = descriptor.getSensorType();
+        Integer defaultHandle = mDefaultHandleMap.get(sensorType);
+        if (defaultHandle != null && defaultHandle == handle) {
+            mDefaultHandleMap.remove(sensorType);
+            for (int i = 0, n = mDescriptors.size(); i < n; i++) {
+                SensorDescriptor other = mDescriptors.get(i);
+                if (other != null && other.getSensorType() == sensorType) {
+                    defaultHandle = mDefaultHandleMap.get(sensorType);
+                    if (defaultHandle == null
+                            || (mDescriptors.get(defaultHandle).isWakeUp()
+                            && ! other.isWakeUp())) {
+                        mDefaultHandleMap.put(sensorType, i);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @param handle the handle of a sensor instance
+     * @return the descriptor, or null if not registered
+     */
+    @Nullable
+    public SensorDescriptor getSensorDescriptor(int handle) {
+        if (handle < 0 || handle >= mDescriptors.size()) {
+            return null;
+        }
+        return mDescriptors.get(handle);
+    }
+
+    /**
+     * @param sensorType the sensor type
+     * @return the handle of the default sensor instance of the type
+     */
+    public int getHandle(int sensorType) {
+        Integer handle = mDefaultHandleMap.get(sensorType);
+        if (handle == null) {
+            /*
+             * Samples from a recorded trace may contain sensor types
+             * which are not available on this device.
+             */
+            String typeName = mSensorTypes.getName(sensorType);
+            handle = getNextHandle();
+            registerDescriptor(new SensorDescriptor(
+                    handle, sensorType, typeName, typeName, 0, false));
+        }
+        return handle;
+    }
+
+    /**
+     * The latest sample per sensor instance, indexed by handle.
+     * Allocated on the first sample.
+     */
+    private final ArrayList<SensorHolder> mHolders = new ArrayList<>();
+
+    /* Number of samples overwritten before being exported */
+    private long mOverwriteCount = 0L;
+
+    /**
+     * Keep the given sensor values along with timestamp.
+     * The values are copied, so that the caller can reuse them.
+     *
+     * @param handle the handle of a registered sensor instance
+     * @param timestamp the sensor timestamp in nanoseconds
+     * @param values the sensor values
+     * @param unixTime timestamp of the notification
+     */
+    public void setSensorSample(
+            int handle, long timestamp, @NonNull float[] values, long unixTime) {
+        setSensorSample(handle, timestamp, values, unixTime, timestamp, timestamp);
+    }
+
+    /**
+     * Same as {@link #setSensorSample(int, long, float[], long)}, along with
+     * the times for end-to-end latency tracking.
+     *
+     * @param handle the handle of a registered sensor instance
+     * @param timestamp the sensor timestamp in nanoseconds
+     * @param values the sensor values
+     * @param unixTime timestamp of the notification
+     * @param eventNanos when the sample has occurred, in elapsed realtime
+     * @param ingestNanos when the sample has arrived, in elapsed realtime
+     */
+    public void setSensorSample(int handle, long timestamp, @NonNull float[] values,
+                                long unixTime, long eventNanos, long ingestNanos) {
+        SensorHolder sensorHolder = mHolders.get(handle);
+        if (sensorHolder == null) {
+            if (mDescriptors.get(handle) == null) {
+                /* A sample queued before the sensor got unregistered */
+                return;
+            }
+            /* allocate new entry */
+            sensorHolder = new SensorHolder(mDescriptors.get(handle));
+            mHolders.set(handle, sensorHolder);
+        } else if (sensorHolder.isUpdated()) {
+            mOverwriteCount++;
+        }
+        sensorHolder.setSample(timestamp, values, unixTime);
+        sensorHolder.setLatencyStamps(eventNanos, ingestNanos);
+        sensorHolder.setUpdated(true);
+    }
+
+    /**
+     * Generate an ArrayList of {@link SensorHolder} objects as the
+     * latest collection of sensor values and timestamp, which have
+     * been updated since the last {@link #clearSensorEvent}.
+     *
+     * @return ArrayList of {@link SensorHolder} objects
+     */
+    public ArrayList<SensorHolder> getSensorHolders() {
+        ArrayList<SensorHolder> objArray = new ArrayList<>();
+        for (int i = 0, n = mHolders.size(); i < n; i++) {
+            SensorHolder sensorHolder = mHolders.get(i);
+            if (sensorHolder != null && sensorHolder.isUpdated()) {
+                objArray.add(sensorHolder);
+            }
+        }
+        return objArray;
+    }
+
+    /**
+     * A sample is overwritten when the next sample of the same sensor
+     * arrives before export. Such samples never reach the client.
+     *
+     * @return the number of overwritten samples since the last reset
+     */
+    public long getOverwriteCount() {
+        return mOverwriteCount;
+    }
+
+    public void resetOverwriteCount() {
+        mOverwriteCount = 0L;
+    }
+
+    /**
+     * Mark all kept samples as exported.
+     * Holders are kept for reuse, so that no allocation happens
+     * per sensor event in the steady state.
+     */
+    public void clearSensorEvent() {
+        for (int i = 0, n = mHolders.size(); i < n; i++) {
+            SensorHolder sensorHolder = mHolders.get(i);
+            if (sensorHolder != null) {
+                sensorHolder.setUpdated(false);
+            }
+        }
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright (C) 2026 National Institute of Informatics
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+
+package jp.ad.sinet.stream.android.helper.provider;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import jp.ad.sinet.stream.android.helper.models.SensorHolder;
+import jp.ad.sinet.stream.android.helper.models.SensorSnapshot;
+
+/**
+ * Lock-free handoff of {@link SensorSnapshot} from a single writer
+ * (the ingest thread) to a single reader (the serializer thread).
+ * <p>
+ *     A fixed set of snapshot buffers is allocated up front. On each export
+ *     boundary, the writer copies the samples into a free buffer and
+ *     publishes it atomically. If the reader has not taken the former one
+ *     yet, the writer takes it back and merges the new samples into it,
+ *     so that the writer never waits for the reader and no sample of a
+ *     sensor gets lost but overwritten by a newer one.
+ * </p>
+ * <p>
+ *     Since the reader holds at most one snapshot between
+ *     {@link #acquire} and {@link #release}, two buffers are enough;
+ *     a third one gives slack for the reader to release late.
+ * </p>
+ */
+public class SnapshotExchange {
+    public final static int DEFAULT_BUFFER_COUNT = 2;
+
+    /* Published but not yet acquired, if any */
+    private final AtomicReference<SensorSnapshot> mReady = new AtomicReference<>();
+
+    /* Neither published nor owned by the reader */
+    private final AtomicReferenceArray<SensorSnapshot> mFree;
+
+    /* Touched by the writer only */
+    private long mSequence = 0L;
+
+    private final AtomicLong mPublishCount = new AtomicLong();
+    private final AtomicLong mMergeCount = new AtomicLong();
+
+    public SnapshotExchange() {
+        this(DEFAULT_BUFFER_COUNT);
+    }
+
+    /**
+     * @param bufferCount the number of snapshot buffers, 2 or more
+     */
+    public SnapshotExchange(int bufferCount) {
+        if (bufferCount < 2) {
+            throw new IllegalArgumentException("Invalid buffer count: " + bufferCount);
+        }
+        mFree = new AtomicReferenceArray<>(bufferCount);
+        for (int i = 0; i < bufferCount; i++) {
+            mFree.set(i, new SensorSnapshot());
+        }
+    }
+
+    /**
+     * Writer side: publish the samples of an export boundary.
+     *
+     * @param sensorHolders the samples updated since the last boundary
+     * @param attachment the context of this boundary, passed to the reader
+     * @return true if merged into the former snapshot not yet acquired
+     */
+    public boolean publish(@NonNull List<SensorHolder> sensorHolders,
+                           @Nullable Object attachment) {
+        SensorSnapshot snapshot = mReady.getAndSet(null);
+        boolean isMerged = (snapshot != null);
+        if (isMerged) {
+            snapshot.incrementMergedCount();
+            mMergeCount.incrementAndGet();
+        } else {
+            snapshot = takeFree();
+        }
+
+        for (int i = 0, n = sensorHolders.size(); i < n; i++) {
+            snapshot.put(sensorHolders.get(i));
+        }
+        snapshot.setAttachment(attachment);
+        snapshot.setSequence(++mSequence);
+        mPublishCount.incrementAndGet();
+
+        /* Samples copied above become visible to the reader from here */
+        mReady.set(snapshot);
+        return isMerged;
+    }
+
+    @NonNull
+    private SensorSnapshot takeFree() {
+        for (int i = 0, n = mFree.length(); i < n; i++) {
+            SensorSnapshot snapshot = mFree.getAndSet(i, null);
+            if (snapshot != null) {
+                return snapshot;
+            }
+        }
+        /* Only if the reader holds more than one snapshot */
+        throw new IllegalStateException("No free snapshot buffer");
+    }
+
+    /**
+     * Reader side: take the latest snapshot, if any.
+     * It must be given back by {@link #release} before the next call.
+     *
+     * @return the snapshot, or null if nothing has been published since
+     */
+    @Nullable
+    public SensorSnapshot acquire() {
+        return mReady.getAndSet(null);
+    }
+
+    /**
+     * Reader side: give back the snapshot taken by {@link #acquire}.
+     *
+     * @param snapshot the snapshot done with
+     */
+    public void release(@NonNull SensorSnapshot snapshot) {
+        snapshot.clear();
+        for (int i = 0, n = mFree.length(); i < n; i++) {
+            if (mFree.compareAndSet(i, null, snapshot)) {
+                return;
+            }
+        }
+        throw new IllegalStateException("Snapshot released twice?");
+    }
+
+    /**
+     * @return the number of export boundaries published so far
+     */
+    public long getPublishCount() {
+        return mPublishCount.get();
+    }
+
+    /**
+     * @return the number of export boundaries merged into the former
+     *         one, because the reader lagged behind
+     */
+    public long getMergeCount() {
+        return mMergeCount.get();
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright (C) 2026 National Institute of Informatics
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+
+package jp.ad.sinet.stream.android.helper.source;
+
+import androidx.annotation.NonNull;
+
+/**
+ * An alternative source of sensor samples, which runs on its own thread
+ * and feeds a {@link SensorIngest} until the end or {@link #stop()}.
+ */
+public interface SampleSource extends Runnable {
+    /**
+     * Request to stop feeding samples. Can be called from any thread.
+     */
+    void stop();
+
+    interface SampleSourceListener {
+        /**
+         * Called on the source thread when no more samples will be fed.
+         *
+         * @param samples the number of samples delivered
+         * @param isStopped true if stopped by {@link #stop()} before the end
+         */
+        void onFinished(int samples, boolean isStopped);
+
+        /**
+         * Called on the source thread when the source cannot continue.
+         * @param description Error description message
+         */
+        void onError(@NonNull String description);
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright (C) 2026 National Institute of Informatics
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+
+package jp.ad.sinet.stream.android.helper.source;
+
+import androidx.annotation.NonNull;
+
+/**
+ * The entry point of sensor samples into the export pipeline.
+ * <p>
+ *     Alternative sources such like {@link TraceReplaySource} feed their
+ *     samples through this interface. SensorService queues them into the
+ *     same ingest stage as the samples from SensorManager callbacks.
+ * </p>
+ */
+public interface SensorIngest {
+    /**
+     * Called when a new sample has arrived.
+     * <p>
+     *     The implementation must not hold the given values array,
+     *     as the caller may reuse it for the next sample.
+     * </p>
+     *
+     * @param sensorType the sensor type, as defined in android.hardware.Sensor
+     * @param timestamp the sensor timestamp in nanoseconds
+     * @param values the sensor values
+     */
+    void onSensorSample(int sensorType, long timestamp, @NonNull float[] values);
+}
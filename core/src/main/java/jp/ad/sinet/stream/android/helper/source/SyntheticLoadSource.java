@@ -0,0 +1,134 @@
+/*
+ * Copyright (C) 2026 National Institute of Informatics
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+
+package jp.ad.sinet.stream.android.helper.source;
+
+import androidx.annotation.NonNull;
+
+import java.util.Random;
+import java.util.concurrent.locks.LockSupport;
+
+import jp.ad.sinet.stream.android.helper.models.SyntheticLoadParams;
+
+/**
+ * Generates synthetic sensor samples into a {@link SensorIngest}, to put
+ * the export pipeline under a load which real sensors cannot produce.
+ * <p>
+ *     Each synthetic sensor has its own sampling schedule, deviated by
+ *     the jitter, and accelerated by the burst factor while in a burst.
+ *     Sensor types are taken from the device private range, so that they
+ *     never collide with the real sensors.
+ * </p>
+ * <p>
+ *     This class does not depend on the Android framework, so that it can
+ *     be run on a plain JVM as well.
+ * </p>
+ */
+public class SyntheticLoadSource implements SampleSource {
+    /* Same as android.hardware.Sensor.TYPE_DEVICE_PRIVATE_BASE */
+    public final static int SENSOR_TYPE_BASE = 0x10000;
+
+    private final SyntheticLoadParams mParams;
+    private final SensorIngest mSensorIngest;
+    private final SampleSourceListener mListener;
+    private final Random mRandom = new Random(0L);
+
+    private volatile boolean mIsStopped = false;
+
+    public SyntheticLoadSource(
+            @NonNull SyntheticLoadParams params,
+            @NonNull SensorIngest sensorIngest,
+            @NonNull SampleSourceListener listener) {
+        String errmsg = params.validate();
+        if (errmsg != null) {
+            throw new IllegalArgumentException(errmsg);
+        }
+        this.mParams = params;
+        this.mSensorIngest = sensorIngest;
+        this.mListener = listener;
+    }
+
+    @Override
+    public void stop() {
+        mIsStopped = true;
+    }
+
+    @Override
+    public void run() {
+        int sensorCount = mParams.getSensorCount();
+        long period = (long) (1e9 / mParams.getRateHz());
+        long burstPeriod = mParams.getBurstPeriodMillis() * 1000000L;
+        long burstLength = mParams.getBurstLengthMillis() * 1000000L;
+        float burstFactor = mParams.getBurstFactor();
+        float jitter = mParams.getJitter();
+
+        float[] values = new float[mParams.getDimensions()];
+        long[] deadlines = new long[sensorCount];
+        int samples = 0;
+
+        long baseNanoTime = System.nanoTime();
+        long endNanoTime = baseNanoTime + mParams.getDurationMillis() * 1000000L;
+        for (int i = 0; i < sensorCount; i++) {
+            /* Spread the first samples over a period */
+            deadlines[i] = baseNanoTime + (period * i) / sensorCount;
+        }
+
+        while (! mIsStopped) {
+            int next = 0;
+            for (int i = 1; i < sensorCount; i++) {
+                if (deadlines[i] < deadlines[next]) {
+                    next = i;
+                }
+            }
+            long deadline = deadlines[next];
+            if (deadline >= endNanoTime) {
+                break;
+            }
+
+            long delay;
+            while (! mIsStopped
+                    && (delay = deadline - System.nanoTime()) > 0L) {
+                LockSupport.parkNanos(delay);
+            }
+            if (mIsStopped) {
+                break;
+            }
+
+            double phase = (deadline - baseNanoTime) * 1e-9;
+            for (int j = 0; j < values.length; j++) {
+                values[j] = (float) Math.sin(phase * (next + 1) + j);
+            }
+            mSensorIngest.onSensorSample(SENSOR_TYPE_BASE + next, deadline, values);
+            samples++;
+
+            long interval = period;
+            if (burstPeriod > 0L
+                    && (deadline - baseNanoTime) % burstPeriod < burstLength) {
+                interval = (long) (period / burstFactor);
+            }
+            if (jitter > 0.0f) {
+                interval += (long) (interval * jitter * (mRandom.nextFloat() * 2.0f - 1.0f));
+            }
+            deadlines[next] = deadline + Math.max(interval, 1L);
+        }
+        mListener.onFinished(samples, mIsStopped);
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright (C) 2026 National Institute of Informatics
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+
+package jp.ad.sinet.stream.android.helper.source;
+
+import androidx.annotation.NonNull;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Replays a recorded sensor trace into a {@link SensorIngest}.
+ * <p>
+ *     The trace is a text file, one sample per line, in the form of
+ *     "sensorType,timestampNanos,value0[,value1...]".
+ *     Empty lines and lines starting with '#' are ignored.
+ * </p>
+ * <p>
+ *     Samples are paced by the difference of recorded timestamps divided
+ *     by the speed factor; 1.0 replays at the original speed, and
+ *     {@link #SPEED_MAX} replays as fast as possible.
+ *     This class does not depend on the Android framework, so that it can
+ *     be run on a plain JVM as well.
+ * </p>
+ */
+public class TraceReplaySource implements SampleSource {
+    public final static float SPEED_MAX = Float.POSITIVE_INFINITY;
+
+    private final Reader mReader;
+    private final float mSpeed;
+    private final SensorIngest mSensorIngest;
+    private final SampleSourceListener mListener;
+
+    private volatile boolean mIsStopped = false;
+    private volatile Thread mThread = null;
+
+    public TraceReplaySource(
+            @NonNull Reader reader,
+            float speed,
+            @NonNull SensorIngest sensorIngest,
+            @NonNull SampleSourceListener listener) {
+        if (! (speed > 0.0f)) {
+            throw new IllegalArgumentException("Invalid speed: " + speed);
+        }
+        this.mReader = reader;
+        this.mSpeed = speed;
+        this.mSensorIngest = sensorIngest;
+        this.mListener = listener;
+    }
+
+    /**
+     * Request to stop the replay. The current sample, if any, is the last
+     * one to be delivered. Can be called from any thread.
+     */
+    @Override
+    public void stop() {
+        mIsStopped = true;
+        Thread thread = mThread;
+        if (thread != null) {
+            /* Wake it up from a long gap between samples */
+            LockSupport.unpark(thread);
+        }
+    }
+
+    @Override
+    public void run() {
+        int samples = 0;
+        int lineNumber = 0;
+        long baseTimestamp = 0L;
+        long baseNanoTime = 0L;
+        float[] values = new float[0];
+        mThread = Thread.currentThread();
+
+        try (BufferedReader reader = new BufferedReader(mReader)) {
+            String line;
+            while (! mIsStopped && (line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty() || line.charAt(0) == '#') {
+                    continue;
+                }
+
+                String[] fields = line.split(",");
+                if (fields.length < 3) {
+                    mListener.onError("Line " + lineNumber + ": Too few fields");
+                    return;
+                }
+                int sensorType;
+                long timestamp;
+                try {
+                    sensorType = Integer.parseInt(fields[0].trim());
+                    timestamp = Long.parseLong(fields[1].trim());
+                    if (values.length != fields.length - 2) {
+                        values = new float[fields.length - 2];
+                    }
+                    for (int i = 0; i < values.length; i++) {
+                        values[i] = Float.parseFloat(fields[i + 2].trim());
+                    }
+                } catch (NumberFormatException e) {
+                    mListener.onError("Line " + lineNumber + ": " + e);
+                    return;
+                }
+
+                if (samples == 0) {
+                    baseTimestamp = timestamp;
+                    baseNanoTime = System.nanoTime();
+                } else if (mSpeed != SPEED_MAX) {
+                    long deadline = baseNanoTime +
+                            (long) ((timestamp - baseTimestamp) / (double) mSpeed);
+                    long delay;
+                    while (! mIsStopped
+                            && (delay = deadline - System.nanoTime()) > 0L) {
+                        LockSupport.parkNanos(delay);
+                    }
+                }
+                mSensorIngest.onSensorSample(sensorType, timestamp, values);
+                samples++;
+            }
+        } catch (IOException e) {
+            mListener.onError("TraceReplay: " + e);
+            return;
+        } finally {
+            mThread = null;
+        }
+        mListener.onFinished(samples, mIsStopped);
+    }
+}
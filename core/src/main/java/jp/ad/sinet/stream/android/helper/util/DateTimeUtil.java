@@ -21,15 +21,16 @@
 
 package jp.ad.sinet.stream.android.helper.util;
 
-import android.util.Log;
 
 import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.Locale;
 import java.util.TimeZone;
+import java.util.logging.Logger;
 
 public class DateTimeUtil {
     private final static String TAG = DateTimeUtil.class.getSimpleName();
+    private final static Logger LOGGER = Logger.getLogger(TAG);
 
     private final SimpleDateFormat mSimpleDateFormat;
 
@@ -52,7 +53,7 @@ public class DateTimeUtil {
         try {
             dstDateString = mSimpleDateFormat.format(new Date(unixTime));
         } catch (NumberFormatException e) {
-            Log.w(TAG, "Invalid unixTime(" + unixTime + "): " + e.getMessage());
+            LOGGER.warning("Invalid unixTime(" + unixTime + "): " + e.getMessage());
             dstDateString = "" + unixTime; /* Fallback to raw value */
         }
         return dstDateString;
@@ -0,0 +1,92 @@
+/*
+ * Copyright (C) 2026 National Institute of Informatics
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+
+package jp.ad.sinet.stream.android.helper.models;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit test of {@link SensorSamples}, run on the host.
+ */
+public class SensorSamplesTest {
+    private final static SensorDescriptor ACCEL =
+            new SensorDescriptor(0, 1, "accelerometer", "accel", 0, false);
+    private final static SensorDescriptor LIGHT =
+            new SensorDescriptor(1, 5, "light", "light", 0, false);
+
+    @Test
+    public void holders_arePackedInOrder() {
+        ArrayList<SensorHolder> sensorHolders = new ArrayList<>();
+        SensorHolder accel = new SensorHolder(ACCEL);
+        accel.setSample(100L, new float[] { 1.0f, 2.0f, 3.0f }, 1000L);
+        SensorHolder light = new SensorHolder(LIGHT);
+        light.setSample(200L, new float[] { 42.0f }, 2000L);
+        sensorHolders.add(accel);
+        sensorHolders.add(light);
+
+        SensorSamples samples = new SensorSamples();
+        samples.setSensorHolders(sensorHolders);
+        assertEquals(2, samples.size());
+        assertSame(ACCEL, samples.getDescriptor(0));
+        assertEquals(100L, samples.getTimestamp(0));
+        assertEquals(1000L, samples.getUnixTime(0));
+        assertArrayEquals(new float[] { 1.0f, 2.0f, 3.0f }, samples.getValues(0), 0.0f);
+        assertEquals(1, samples.getValueCount(1));
+        assertEquals(42.0f, samples.getValue(1, 0), 0.0f);
+        assertEquals(1, samples.indexOf(LIGHT.getHandle()));
+        assertEquals(-1, samples.indexOf(99));
+    }
+
+    @Test
+    public void reset_dropsFormerSamples() {
+        SensorSamples samples = new SensorSamples();
+        samples.reset(2, 4);
+        samples.add(ACCEL, 1L, 1L, new float[] { 1.0f, 2.0f, 3.0f }, 0, 3);
+        samples.add(LIGHT, 2L, 2L, new float[] { 4.0f }, 0, 1);
+
+        samples.reset(1, 2);
+        samples.add(ACCEL, 3L, 3L, new float[] { 0.0f, 5.0f, 6.0f }, 1, 2);
+        assertEquals(1, samples.size());
+        float[] dst = new float[3];
+        assertEquals(2, samples.copyValues(0, dst, 1));
+        assertArrayEquals(new float[] { 0.0f, 5.0f, 6.0f }, dst, 0.0f);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void add_beyondRoom_fails() {
+        SensorSamples samples = new SensorSamples();
+        samples.reset(1, 1);
+        samples.add(ACCEL, 1L, 1L, new float[] { 1.0f, 2.0f, 3.0f }, 0, 3);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void getValue_outOfSample_fails() {
+        SensorSamples samples = new SensorSamples();
+        samples.reset(2, 4);
+        samples.add(ACCEL, 1L, 1L, new float[] { 1.0f, 2.0f, 3.0f }, 0, 3);
+        samples.add(LIGHT, 2L, 2L, new float[] { 4.0f }, 0, 1);
+        samples.getValue(0, 3);
+    }
+}
@@ -0,0 +1,204 @@
+/*
+ * Copyright (C) 2026 National Institute of Informatics
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+
+package jp.ad.sinet.stream.android.helper.provider;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit test of {@link AdaptiveInterval}, run on the host.
+ */
+public class AdaptiveIntervalTest {
+    private static final int UNKNOWN_BATTERY = -1;
+
+    private static boolean backlog(AdaptiveInterval interval) {
+        return interval.update(1, UNKNOWN_BATTERY, false,
+                AdaptiveInterval.THERMAL_STATUS_NONE);
+    }
+
+    private static boolean idle(AdaptiveInterval interval) {
+        return interval.update(0, UNKNOWN_BATTERY, false,
+                AdaptiveInterval.THERMAL_STATUS_NONE);
+    }
+
+    @Test
+    public void validate() {
+        assertNull(AdaptiveInterval.validate(100L, 100L));
+        assertNull(AdaptiveInterval.validate(100L, 10000L));
+        assertNotNull(AdaptiveInterval.validate(0L, 10000L));
+        assertNotNull(AdaptiveInterval.validate(-1L, 10000L));
+        assertNotNull(AdaptiveInterval.validate(200L, 100L));
+    }
+
+    @Test
+    public void startsFromClampedBase() {
+        AdaptiveInterval interval = new AdaptiveInterval(100L, 10000L, 1000L);
+        assertEquals(1000L, interval.getIntervalMillis());
+        assertEquals(AdaptiveInterval.REASON_BASE, interval.getReason());
+
+        assertEquals(100L, new AdaptiveInterval(100L, 10000L, 50L).getIntervalMillis());
+        assertEquals(10000L, new AdaptiveInterval(100L, 10000L, 20000L).getIntervalMillis());
+    }
+
+    @Test
+    public void noChangeAtBase() {
+        AdaptiveInterval interval = new AdaptiveInterval(100L, 10000L, 1000L);
+        assertFalse(idle(interval));
+        assertEquals(1000L, interval.getIntervalMillis());
+        assertEquals(AdaptiveInterval.REASON_BASE, interval.getReason());
+    }
+
+    @Test
+    public void backlog_doublesUpToMax() {
+        AdaptiveInterval interval = new AdaptiveInterval(100L, 10000L, 1000L);
+        long[] expected = { 2000L, 4000L, 8000L, 10000L };
+        for (long millis : expected) {
+            assertTrue(backlog(interval));
+            assertEquals(millis, interval.getIntervalMillis());
+            assertEquals(AdaptiveInterval.REASON_BACKLOG, interval.getReason());
+        }
+        assertFalse(backlog(interval));
+        assertEquals(10000L, interval.getIntervalMillis());
+    }
+
+    @Test
+    public void idle_halvesBackToBase() {
+        AdaptiveInterval interval = new AdaptiveInterval(100L, 10000L, 1000L);
+        for (int i = 0; i < 3; i++) {
+            backlog(interval);
+        }
+        assertEquals(8000L, interval.getIntervalMillis());
+
+        long[] expected = { 4000L, 2000L, 1000L };
+        for (long millis : expected) {
+            assertTrue(idle(interval));
+            assertEquals(millis, interval.getIntervalMillis());
+            assertEquals(AdaptiveInterval.REASON_RECOVERED, interval.getReason());
+        }
+        assertFalse(idle(interval));
+        assertEquals(1000L, interval.getIntervalMillis());
+    }
+
+    @Test
+    public void lowBattery_doublesFloor() {
+        AdaptiveInterval interval = new AdaptiveInterval(100L, 10000L, 1000L);
+        assertTrue(interval.update(0, AdaptiveInterval.LOW_BATTERY_PERCENT, false,
+                AdaptiveInterval.THERMAL_STATUS_NONE));
+        assertEquals(2000L, interval.getIntervalMillis());
+        assertEquals(AdaptiveInterval.REASON_BATTERY, interval.getReason());
+
+        /* Charging lifts the floor, and the interval recovers */
+        assertTrue(interval.update(0, AdaptiveInterval.LOW_BATTERY_PERCENT, true,
+                AdaptiveInterval.THERMAL_STATUS_NONE));
+        assertEquals(1000L, interval.getIntervalMillis());
+        assertEquals(AdaptiveInterval.REASON_RECOVERED, interval.getReason());
+
+        /* Above the threshold is not low */
+        assertFalse(interval.update(0, AdaptiveInterval.LOW_BATTERY_PERCENT + 1, false,
+                AdaptiveInterval.THERMAL_STATUS_NONE));
+        assertEquals(1000L, interval.getIntervalMillis());
+    }
+
+    @Test
+    public void thermal_multipliesFloor() {
+        int[] statuses = {
+                AdaptiveInterval.THERMAL_STATUS_MODERATE,
+                AdaptiveInterval.THERMAL_STATUS_SEVERE,
+                AdaptiveInterval.THERMAL_STATUS_CRITICAL,
+        };
+        long[] expected = { 2000L, 4000L, 8000L };
+        for (int i = 0; i < statuses.length; i++) {
+            AdaptiveInterval interval = new AdaptiveInterval(100L, 10000L, 1000L);
+            assertTrue(interval.update(0, UNKNOWN_BATTERY, false, statuses[i]));
+            assertEquals(expected[i], interval.getIntervalMillis());
+            assertEquals(AdaptiveInterval.REASON_THERMAL, interval.getReason());
+        }
+
+        AdaptiveInterval interval = new AdaptiveInterval(100L, 10000L, 1000L);
+        assertFalse(interval.update(0, UNKNOWN_BATTERY, false,
+                AdaptiveInterval.THERMAL_STATUS_LIGHT));
+        assertEquals(1000L, interval.getIntervalMillis());
+    }
+
+    @Test
+    public void thermalAndBattery_combineWithThermalReason() {
+        AdaptiveInterval interval = new AdaptiveInterval(100L, 10000L, 1000L);
+        assertTrue(interval.update(0, 5, false, AdaptiveInterval.THERMAL_STATUS_MODERATE));
+        assertEquals(4000L, interval.getIntervalMillis());
+        assertEquals(AdaptiveInterval.REASON_THERMAL, interval.getReason());
+    }
+
+    @Test
+    public void idle_halvesBackToRaisedFloor() {
+        AdaptiveInterval interval = new AdaptiveInterval(100L, 10000L, 1000L);
+        for (int i = 0; i < 3; i++) {
+            backlog(interval);
+        }
+        assertEquals(8000L, interval.getIntervalMillis());
+
+        /* Low battery: the floor is 2000 */
+        long[] expected = { 4000L, 2000L };
+        for (long millis : expected) {
+            assertTrue(interval.update(0, 10, false, AdaptiveInterval.THERMAL_STATUS_NONE));
+            assertEquals(millis, interval.getIntervalMillis());
+            assertEquals(AdaptiveInterval.REASON_BATTERY, interval.getReason());
+        }
+        assertFalse(interval.update(0, 10, false, AdaptiveInterval.THERMAL_STATUS_NONE));
+        assertEquals(2000L, interval.getIntervalMillis());
+    }
+
+    @Test
+    public void backlog_neverBelowFloor() {
+        AdaptiveInterval interval = new AdaptiveInterval(100L, 10000L, 1000L);
+        /* The severe floor 4000 is above twice the current interval */
+        assertTrue(interval.update(1, UNKNOWN_BATTERY, false,
+                AdaptiveInterval.THERMAL_STATUS_SEVERE));
+        assertEquals(4000L, interval.getIntervalMillis());
+        assertEquals(AdaptiveInterval.REASON_BACKLOG, interval.getReason());
+    }
+
+    @Test
+    public void floor_clampedToMax() {
+        AdaptiveInterval interval = new AdaptiveInterval(100L, 3000L, 1000L);
+        assertTrue(interval.update(0, UNKNOWN_BATTERY, false,
+                AdaptiveInterval.THERMAL_STATUS_CRITICAL));
+        assertEquals(3000L, interval.getIntervalMillis());
+        assertEquals(AdaptiveInterval.REASON_THERMAL, interval.getReason());
+    }
+
+    @Test
+    public void setBaseInterval_clampedAndApplied() {
+        AdaptiveInterval interval = new AdaptiveInterval(100L, 10000L, 1000L);
+        interval.setBaseInterval(500L);
+        assertTrue(idle(interval));
+        assertEquals(500L, interval.getIntervalMillis());
+
+        interval.setBaseInterval(10L);
+        assertTrue(idle(interval));
+        assertEquals(250L, interval.getIntervalMillis());
+        assertTrue(idle(interval));
+        assertTrue(idle(interval));
+        assertEquals(100L, interval.getIntervalMillis());
+        assertFalse(idle(interval));
+    }
+}
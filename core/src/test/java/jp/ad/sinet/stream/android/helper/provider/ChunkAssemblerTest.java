@@ -0,0 +1,83 @@
+/*
+ * Copyright (C) 2026 National Institute of Informatics
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+
+package jp.ad.sinet.stream.android.helper.provider;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit test of {@link ChunkAssembler}, run on the host.
+ */
+public class ChunkAssemblerTest {
+    private static String payload(int length) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            sb.append((char) ('a' + (i % 26)));
+        }
+        return sb.toString();
+    }
+
+    @Test
+    public void splitsAndReassembles() {
+        String payload = payload(1000);
+        int count = ChunkAssembler.getChunkCount(payload.length(), 300);
+        assertEquals(4, count);
+
+        ChunkAssembler assembler = new ChunkAssembler();
+        String result = null;
+        for (int i = 0; i < count; i++) {
+            assertNull(result);
+            result = assembler.add(7, i, count, ChunkAssembler.getChunk(payload, i, 300));
+        }
+        assertEquals(payload, result);
+        assertEquals(0L, assembler.getDropCount());
+    }
+
+    @Test
+    public void singleChunk() {
+        assertEquals(1, ChunkAssembler.getChunkCount(0, 300));
+        ChunkAssembler assembler = new ChunkAssembler();
+        assertEquals("abc", assembler.add(1, 0, 1, "abc"));
+    }
+
+    @Test
+    public void dropsIncompletePayload() {
+        String first = payload(600);
+        String second = payload(500);
+        ChunkAssembler assembler = new ChunkAssembler();
+
+        assertNull(assembler.add(1, 0, 2, ChunkAssembler.getChunk(first, 0, 300)));
+        /* The last chunk of the first payload is lost */
+        assertNull(assembler.add(2, 0, 2, ChunkAssembler.getChunk(second, 0, 300)));
+        assertEquals(second,
+                assembler.add(2, 1, 2, ChunkAssembler.getChunk(second, 1, 300)));
+        assertEquals(1L, assembler.getDropCount());
+    }
+
+    @Test
+    public void ignoresPayloadWithoutHead() {
+        ChunkAssembler assembler = new ChunkAssembler();
+        assertNull(assembler.add(3, 1, 2, "tail"));
+        assertEquals("whole", assembler.add(4, 0, 1, "whole"));
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright (C) 2026 National Institute of Informatics
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+
+package jp.ad.sinet.stream.android.helper.provider;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit test of {@link DemandPublisher}, run on the host.
+ */
+public class DemandPublisherTest {
+    private static class TestSubscriber implements Flow.Subscriber<Integer> {
+        final List<Integer> items = new ArrayList<>();
+        Flow.Subscription subscription;
+        Throwable error;
+        boolean completed;
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(Integer item) {
+            items.add(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error = throwable;
+        }
+
+        @Override
+        public void onComplete() {
+            completed = true;
+        }
+    }
+
+    @Test
+    public void items_areDeliveredUpToDemand() {
+        AtomicInteger changes = new AtomicInteger();
+        DemandPublisher<Integer> publisher = new DemandPublisher<>(Runnable::run,
+                new DemandPublisher.DemandListener() {
+                    @Override
+                    public void onDemandChanged() {
+                        changes.incrementAndGet();
+                    }
+                });
+        TestSubscriber subscriber = new TestSubscriber();
+        publisher.subscribe(subscriber);
+        assertFalse(publisher.hasDemand());
+
+        subscriber.subscription.request(2);
+        assertTrue(publisher.hasDemand());
+        for (int i = 0; i < 5; i++) {
+            publisher.offer(i);
+        }
+        assertEquals(List.of(0, 1), subscriber.items);
+        assertFalse(publisher.hasDemand());
+        assertEquals(3L, publisher.getDropCount());
+        assertEquals(2, changes.get());
+    }
+
+    @Test
+    public void nonPositiveRequest_isAnError() {
+        DemandPublisher<Integer> publisher = new DemandPublisher<>(Runnable::run, null);
+        TestSubscriber subscriber = new TestSubscriber();
+        publisher.subscribe(subscriber);
+        subscriber.subscription.request(0);
+        assertTrue(subscriber.error instanceof IllegalArgumentException);
+        assertFalse(publisher.hasSubscribers());
+    }
+
+    @Test
+    public void cancel_andComplete_removeSubscribers() {
+        DemandPublisher<Integer> publisher = new DemandPublisher<>(Runnable::run, null);
+        TestSubscriber cancelled = new TestSubscriber();
+        TestSubscriber completed = new TestSubscriber();
+        publisher.subscribe(cancelled);
+        publisher.subscribe(completed);
+        cancelled.subscription.request(Long.MAX_VALUE);
+        completed.subscription.request(Long.MAX_VALUE);
+        cancelled.subscription.cancel();
+        publisher.offer(1);
+        publisher.complete();
+        publisher.offer(2);
+
+        assertTrue(cancelled.items.isEmpty());
+        assertFalse(cancelled.completed);
+        assertEquals(List.of(1), completed.items);
+        assertTrue(completed.completed);
+        assertFalse(publisher.hasSubscribers());
+    }
+
+    @Test
+    public void signals_areSerializedOnExecutor() throws InterruptedException {
+        final int count = 10000;
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        DemandPublisher<Integer> publisher = new DemandPublisher<>(executor, null);
+        final CountDownLatch done = new CountDownLatch(1);
+        final AtomicInteger active = new AtomicInteger();
+        final List<Integer> items = new ArrayList<>();
+        final boolean[] overlapped = { false };
+        publisher.subscribe(new Flow.Subscriber<Integer>() {
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                subscription.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(Integer item) {
+                if (active.incrementAndGet() != 1) {
+                    overlapped[0] = true;
+                }
+                items.add(item);
+                active.decrementAndGet();
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+            }
+
+            @Override
+            public void onComplete() {
+                done.countDown();
+            }
+        });
+        /* Wait for onSubscribe() */
+        while (! publisher.hasDemand()) {
+            Thread.sleep(1L);
+        }
+        for (int i = 0; i < count; i++) {
+            publisher.offer(i);
+        }
+        publisher.complete();
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        executor.shutdown();
+
+        assertFalse(overlapped[0]);
+        assertEquals(count, items.size());
+        for (int i = 0; i < count; i++) {
+            assertEquals(i, (int) items.get(i));
+        }
+    }
+}
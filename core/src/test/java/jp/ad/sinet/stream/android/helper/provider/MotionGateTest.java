@@ -0,0 +1,140 @@
+/*
+ * Copyright (C) 2026 National Institute of Informatics
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+
+package jp.ad.sinet.stream.android.helper.provider;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit test of {@link MotionGate}, run on the host.
+ */
+public class MotionGateTest {
+    private static final long MILLIS = 1000L * 1000L; /* in nanoseconds */
+
+    private static final float[] STILL = { 0.0f, 0.0f, 9.8f };
+    private static final float[] SHAKEN = { 3.0f, 0.0f, 12.0f };
+
+    private static MotionGate newGate() {
+        return new MotionGate(MotionGate.MODE_PAUSE, 500L, 1000L);
+    }
+
+    @Test
+    public void validate() {
+        assertNull(MotionGate.validate(MotionGate.MODE_LOW_RATE, 1L, 1L));
+        assertNull(MotionGate.validate(MotionGate.MODE_PAUSE,
+                MotionGate.DEFAULT_IDLE_PERIOD, MotionGate.DEFAULT_STILL_DURATION));
+        assertNotNull(MotionGate.validate(2, 1L, 1L));
+        assertNotNull(MotionGate.validate(MotionGate.MODE_LOW_RATE, 0L, 1L));
+        assertNotNull(MotionGate.validate(MotionGate.MODE_LOW_RATE, 1L, 0L));
+    }
+
+    @Test
+    public void accessors() {
+        MotionGate gate = new MotionGate(MotionGate.MODE_LOW_RATE, 500L, 1000L);
+        assertEquals(MotionGate.MODE_LOW_RATE, gate.getMode());
+        assertEquals(500L, gate.getIdlePeriodMillis());
+        assertFalse(gate.isStationary());
+    }
+
+    @Test
+    public void setStationary_reportsChangeOnly() {
+        MotionGate gate = newGate();
+        assertFalse(gate.setStationary(false));
+        assertTrue(gate.setStationary(true));
+        assertTrue(gate.isStationary());
+        assertFalse(gate.setStationary(true));
+        assertTrue(gate.setStationary(false));
+        assertFalse(gate.isStationary());
+    }
+
+    @Test
+    public void stillForDuration_becomesStationary() {
+        MotionGate gate = newGate();
+        long timestamp = 0L;
+        for (; timestamp < 1000L * MILLIS; timestamp += 100L * MILLIS) {
+            assertFalse(gate.onAccelerometerSample(timestamp, STILL));
+            assertFalse(gate.isStationary());
+        }
+        assertTrue(gate.onAccelerometerSample(timestamp, STILL));
+        assertTrue(gate.isStationary());
+
+        /* Stays stationary without reporting a change */
+        assertFalse(gate.onAccelerometerSample(timestamp + 100L * MILLIS, STILL));
+        assertTrue(gate.isStationary());
+    }
+
+    @Test
+    public void smallJitter_countsAsStill() {
+        MotionGate gate = newGate();
+        float[] jitter = { 0.0f, 0.1f, 9.9f };
+        long timestamp = 0L;
+        boolean changed = false;
+        for (int i = 0; i <= 10; i++, timestamp += 100L * MILLIS) {
+            changed = gate.onAccelerometerSample(timestamp, (i % 2 == 0) ? STILL : jitter);
+        }
+        assertTrue(changed);
+        assertTrue(gate.isStationary());
+    }
+
+    @Test
+    public void motion_restartsStillDuration() {
+        MotionGate gate = newGate();
+        assertFalse(gate.onAccelerometerSample(0L, STILL));
+        assertFalse(gate.onAccelerometerSample(900L * MILLIS, STILL));
+        /* A deviation just before the duration has elapsed */
+        assertFalse(gate.onAccelerometerSample(950L * MILLIS, SHAKEN));
+        assertFalse(gate.onAccelerometerSample(1000L * MILLIS, STILL));
+        assertFalse(gate.isStationary());
+    }
+
+    @Test
+    public void motion_endsStationary() {
+        MotionGate gate = newGate();
+        assertFalse(gate.onAccelerometerSample(0L, STILL));
+        assertTrue(gate.onAccelerometerSample(1000L * MILLIS, STILL));
+        assertTrue(gate.isStationary());
+
+        assertTrue(gate.onAccelerometerSample(1100L * MILLIS, SHAKEN));
+        assertFalse(gate.isStationary());
+    }
+
+    @Test
+    public void resetStillness_forgetsHistory() {
+        MotionGate gate = newGate();
+        assertFalse(gate.onAccelerometerSample(0L, STILL));
+        gate.resetStillness();
+        /* The first sample after reset only seeds the mean */
+        assertFalse(gate.onAccelerometerSample(1000L * MILLIS, STILL));
+        assertFalse(gate.isStationary());
+        assertTrue(gate.onAccelerometerSample(2000L * MILLIS, STILL));
+    }
+
+    @Test
+    public void shortSample_isIgnored() {
+        MotionGate gate = newGate();
+        assertFalse(gate.onAccelerometerSample(0L, new float[] { 9.8f }));
+        /* Not seeded by the short sample */
+        assertFalse(gate.onAccelerometerSample(1000L * MILLIS, STILL));
+        assertFalse(gate.isStationary());
+    }
+}
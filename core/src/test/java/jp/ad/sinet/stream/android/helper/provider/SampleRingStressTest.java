@@ -0,0 +1,127 @@
+/*
+ * Copyright (C) 2026 National Institute of Informatics
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+
+package jp.ad.sinet.stream.android.helper.provider;
+
+import androidx.annotation.NonNull;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+/**
+ * Concurrency stress test of {@link SampleRing}, run on the host.
+ */
+public class SampleRingStressTest {
+    private final static int SAMPLES = 1000000;
+
+    @Test
+    public void capacity_isPowerOfTwo() {
+        assertEquals(1024, new SampleRing(1000, 3).capacity());
+        assertEquals(1, new SampleRing(1, 3).capacity());
+    }
+
+    @Test
+    public void overflow_dropsNewest() {
+        SampleRing ring = new SampleRing(4, 3);
+        for (int i = 0; i < 6; i++) {
+            assertEquals(i < 4, ring.offer(1, i, i, new float[] { i, 0, 0 }));
+        }
+        assertFalse("Oversize sample", ring.offer(1, 6, 6, new float[4]));
+        assertEquals(4, ring.getHighWatermark());
+        assertEquals(3, ring.getDropCount());
+        assertEquals(7, ring.getOfferCount());
+
+        final long[] next = new long[1];
+        assertEquals(4, ring.drain(new SampleRing.SampleConsumer() {
+            @Override
+            public void onSample(int sensorType, long timestamp, long eventNanos,
+                                 @NonNull float[] values) {
+                assertEquals(next[0]++, timestamp);
+            }
+        }, 100));
+        assertEquals(0, ring.size());
+        assertTrue(ring.offer(1, 7, 7, new float[] { 7, 0, 0 }));
+    }
+
+    @Test
+    public void producerConsumer_keepsOrderAndContents() throws Exception {
+        final SampleRing ring = new SampleRing(256, 8);
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        final long[] accepted = new long[1];
+
+        Thread producer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                float[] values = new float[8];
+                for (int i = 1; i <= SAMPLES; i++) {
+                    /* Vary the length to catch mixed up slots */
+                    int length = 1 + (i % 8);
+                    float[] v = (length == values.length) ? values : new float[length];
+                    for (int j = 0; j < length; j++) {
+                        v[j] = i + j;
+                    }
+                    if (ring.offer(length, i, -i, v)) {
+                        accepted[0]++;
+                    }
+                }
+            }
+        }, "Producer");
+
+        final long[] received = new long[1];
+        final long[] lastTimestamp = new long[1];
+        SampleRing.SampleConsumer consumer = new SampleRing.SampleConsumer() {
+            @Override
+            public void onSample(int sensorType, long timestamp, long eventNanos,
+                                 @NonNull float[] values) {
+                assertTrue("Out of order", timestamp > lastTimestamp[0]);
+                assertEquals(-timestamp, eventNanos);
+                assertEquals(sensorType, values.length);
+                for (int j = 0; j < values.length; j++) {
+                    assertEquals((float) (timestamp + j), values[j], 0.0f);
+                }
+                lastTimestamp[0] = timestamp;
+                received[0]++;
+            }
+        };
+
+        producer.start();
+        try {
+            while (producer.isAlive() || ring.size() > 0) {
+                if (ring.drain(consumer, 64) == 0) {
+                    Thread.yield();
+                }
+            }
+        } catch (Throwable t) {
+            failure.set(t);
+        }
+        producer.join(60000L);
+
+        if (failure.get() != null) {
+            throw new AssertionError(failure.get());
+        }
+        assertEquals(accepted[0], received[0]);
+        assertEquals(SAMPLES, received[0] + ring.getDropCount());
+        assertTrue(ring.getHighWatermark() <= ring.capacity());
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright (C) 2026 National Institute of Informatics
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+
+package jp.ad.sinet.stream.android.helper.provider;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.channels.Channels;
+
+import jp.ad.sinet.stream.android.helper.models.SensorDescriptor;
+import jp.ad.sinet.stream.android.helper.models.SensorSamples;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit test of {@link SampleStreamWriter} and {@link SampleStreamReader}, run on the host.
+ */
+public class SampleStreamTest {
+    private final SensorDescriptor mAccel = new SensorDescriptor(
+            3, 1, "accelerometer", "Accel Sensor", 0, false);
+    private final SensorDescriptor mLight = new SensorDescriptor(
+            7, 5, "light", "Light Sensor", 0, true);
+
+    private static SensorSamples samples(Object... args) {
+        SensorSamples samples = new SensorSamples();
+        samples.reset(args.length / 2, 16);
+        for (int i = 0; i < args.length; i += 2) {
+            float[] values = (float[]) args[i + 1];
+            samples.add((SensorDescriptor) args[i], 1000L + i, 2000L + i,
+                    values, 0, values.length);
+        }
+        return samples;
+    }
+
+    @Test
+    public void roundTrip() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        SampleStreamWriter writer = new SampleStreamWriter(Channels.newChannel(out));
+        writer.write(samples(mAccel, new float[] { 0.1f, 9.8f, -0.2f }));
+        writer.write(samples(mAccel, new float[] { 0.3f, 9.7f, 0.0f },
+                mLight, new float[] { 120.0f }));
+        int written = out.size();
+        writer.write(samples());
+        assertTrue("No descriptor again", out.size() - written < 16);
+
+        SampleStreamReader reader = new SampleStreamReader(
+                Channels.newChannel(new ByteArrayInputStream(out.toByteArray())));
+        SensorSamples samples = new SensorSamples();
+        assertTrue(reader.read(samples));
+        assertEquals(1, samples.size());
+        assertEquals(3, samples.getDescriptor(0).getHandle());
+        assertEquals(9.8f, samples.getValue(0, 1), 0.0f);
+
+        assertTrue(reader.read(samples));
+        assertEquals(2, samples.size());
+        assertEquals("Light Sensor", samples.getDescriptor(1).getName());
+        assertTrue(samples.getDescriptor(1).isWakeUp());
+        assertEquals(1002L, samples.getTimestamp(1));
+        assertEquals(2002L, samples.getUnixTime(1));
+        assertArrayEquals(new float[] { 120.0f }, samples.getValues(1), 0.0f);
+
+        assertTrue(reader.read(samples));
+        assertEquals(0, samples.size());
+        assertFalse(reader.read(samples));
+    }
+
+    @Test(expected = EOFException.class)
+    public void truncatedRecord() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new SampleStreamWriter(Channels.newChannel(out))
+                .write(samples(mAccel, new float[] { 1.0f, 2.0f, 3.0f }));
+        byte[] bytes = out.toByteArray();
+
+        SampleStreamReader reader = new SampleStreamReader(Channels.newChannel(
+                new ByteArrayInputStream(bytes, 0, bytes.length - 1)));
+        reader.read(new SensorSamples());
+    }
+}
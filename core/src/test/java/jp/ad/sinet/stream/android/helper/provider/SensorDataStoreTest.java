@@ -0,0 +1,276 @@
+/*
+ * Copyright (C) 2026 National Institute of Informatics
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+
+package jp.ad.sinet.stream.android.helper.provider;
+
+import androidx.annotation.NonNull;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit test of {@link SensorDataStore}, run on the host.
+ */
+public class SensorDataStoreTest {
+    private final static int TYPE_ACCELEROMETER = 1;
+    private final static int TYPE_GYROSCOPE = 4;
+
+    /* Header(28) + payload(10) */
+    private final static int RECORD_SIZE = 38;
+    private final static int INDEX_ENTRY_SIZE = 40;
+    private final static int RECORDS_PER_BLOCK = 64;
+
+    @Rule
+    public TemporaryFolder mFolder = new TemporaryFolder();
+
+    @NonNull
+    private static String record(int n) {
+        return String.format(Locale.US, "{\"n\":%04d}", n);
+    }
+
+    /* Record n covers the unix time [10n, 10n + 5] */
+    private static void append(@NonNull SensorDataStore store, int n, int sensorType) {
+        assertTrue(store.append(10L * n, 10L * n + 5,
+                SensorDataStore.toTypeMask(sensorType), record(n)));
+    }
+
+    @NonNull
+    private static List<String> query(@NonNull SensorDataStore store,
+                                      long fromTime, long toTime, long typeMask) {
+        final List<String> records = new ArrayList<>();
+        final int[] total = {-1};
+        store.query(fromTime, toTime, typeMask,
+                new SensorDataStore.SensorDataStoreListener() {
+                    @Override
+                    public void onRecords(@NonNull ArrayList<String> jsonRecords) {
+                        records.addAll(jsonRecords);
+                    }
+
+                    @Override
+                    public void onCompleted(int totalRecords) {
+                        total[0] = totalRecords;
+                    }
+
+                    @Override
+                    public void onError(@NonNull String description) {
+                        fail(description);
+                    }
+                });
+        assertEquals(records.size(), total[0]);
+        return records;
+    }
+
+    @NonNull
+    private File[] listFiles(@NonNull final String suffix) {
+        File[] files = mFolder.getRoot().listFiles(new FilenameFilter() {
+            @Override
+            public boolean accept(File dir, String name) {
+                return name.endsWith(suffix);
+            }
+        });
+        assertNotNull(files);
+        Arrays.sort(files);
+        return files;
+    }
+
+    private static void truncate(@NonNull File file, long length) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.getChannel().truncate(length);
+        }
+    }
+
+    @Test
+    public void queriesTimeRangeAndTypesAcrossSegments() {
+        SensorDataStore store = new SensorDataStore(mFolder.getRoot(), 2048, 100);
+        for (int i = 0; i < 200; i++) {
+            append(store, i, (i % 2 == 0) ? TYPE_ACCELEROMETER : TYPE_GYROSCOPE);
+        }
+        assertTrue(listFiles(".dat").length > 2);
+
+        /* Records 50..149 overlap the range, of which the even ones are accelerometer */
+        List<String> expected = new ArrayList<>();
+        for (int i = 50; i < 150; i += 2) {
+            expected.add(record(i));
+        }
+        assertEquals(expected, query(store, 500, 1499,
+                SensorDataStore.toTypeMask(TYPE_ACCELEROMETER)));
+
+        assertEquals(200, query(store, Long.MIN_VALUE, Long.MAX_VALUE, -1L).size());
+        assertEquals(100, query(store, 0, 995,
+                SensorDataStore.toTypeMask(Arrays.asList(
+                        TYPE_ACCELEROMETER, TYPE_GYROSCOPE))).size());
+        assertTrue(query(store, 2000, 3000, -1L).isEmpty());
+        store.close();
+
+        /* Same results from the index files after reopen */
+        store = new SensorDataStore(mFolder.getRoot(), 2048, 100);
+        assertEquals(expected, query(store, 500, 1499,
+                SensorDataStore.toTypeMask(TYPE_ACCELEROMETER)));
+        store.close();
+    }
+
+    @Test
+    public void foldsTypesOutOfBitmapIntoLowestBit() {
+        assertEquals(Long.MIN_VALUE, SensorDataStore.toTypeMask(63));
+        assertEquals(1L, SensorDataStore.toTypeMask(64));
+        assertEquals(1L, SensorDataStore.toTypeMask(65536));
+        assertEquals(1L, SensorDataStore.toTypeMask(0));
+        assertEquals(-1L, SensorDataStore.toTypeMask((List<Integer>) null));
+
+        SensorDataStore store = new SensorDataStore(mFolder.getRoot());
+        append(store, 0, TYPE_ACCELEROMETER);
+        append(store, 1, 63);
+        append(store, 2, 64);
+        append(store, 3, 100);
+
+        /* Types beyond the bitmap cannot be told apart by the index */
+        assertEquals(Arrays.asList(record(2), record(3)),
+                query(store, 0, 100, SensorDataStore.toTypeMask(100)));
+        assertEquals(Arrays.asList(record(1)),
+                query(store, 0, 100, SensorDataStore.toTypeMask(63)));
+        assertEquals(Arrays.asList(record(0), record(1)),
+                query(store, 0, 100, SensorDataStore.toTypeMask(
+                        Arrays.asList(TYPE_ACCELEROMETER, 63))));
+        assertTrue(query(store, 0, 100,
+                SensorDataStore.toTypeMask(TYPE_GYROSCOPE)).isEmpty());
+        store.close();
+    }
+
+    @Test
+    public void rolloverRetiresOldestSegments() {
+        SensorDataStore store = new SensorDataStore(mFolder.getRoot(), 1024, 3);
+        for (int i = 0; i < 500; i++) {
+            append(store, i, TYPE_ACCELEROMETER);
+        }
+        File[] segments = listFiles(".dat");
+        assertEquals(3, segments.length);
+        for (File segment : segments) {
+            assertTrue(segment.length() <= 1024 + RECORD_SIZE);
+        }
+
+        /* Only the newest records remain, in order */
+        List<String> records = query(store, Long.MIN_VALUE, Long.MAX_VALUE, -1L);
+        assertFalse(records.isEmpty());
+        assertTrue(records.size() < 500);
+        int first = 500 - records.size();
+        for (int i = 0; i < records.size(); i++) {
+            assertEquals(record(first + i), records.get(i));
+        }
+        store.close();
+
+        store = new SensorDataStore(mFolder.getRoot(), 1024, 3);
+        assertEquals(records, query(store, Long.MIN_VALUE, Long.MAX_VALUE, -1L));
+        append(store, 500, TYPE_ACCELEROMETER);
+        List<String> appended = query(store, Long.MIN_VALUE, Long.MAX_VALUE, -1L);
+        assertEquals(record(500), appended.get(appended.size() - 1));
+        store.close();
+    }
+
+    @Test
+    public void recoversFromTruncatedRecord() throws IOException {
+        SensorDataStore store = new SensorDataStore(mFolder.getRoot());
+        for (int i = 0; i < 10; i++) {
+            append(store, i, TYPE_ACCELEROMETER);
+        }
+        store.close();
+
+        /* Torn write of the last record; the index entry now overruns the data */
+        File data = listFiles(".dat")[0];
+        truncate(data, 10 * RECORD_SIZE - 5);
+
+        store = new SensorDataStore(mFolder.getRoot());
+        List<String> records = query(store, Long.MIN_VALUE, Long.MAX_VALUE, -1L);
+        assertEquals(9, records.size());
+        assertEquals(record(8), records.get(8));
+        assertEquals(9 * RECORD_SIZE, data.length());
+        assertEquals(INDEX_ENTRY_SIZE, listFiles(".idx")[0].length());
+
+        /* The next record follows the recovered ones */
+        append(store, 10, TYPE_ACCELEROMETER);
+        store.close();
+        store = new SensorDataStore(mFolder.getRoot());
+        records = query(store, Long.MIN_VALUE, Long.MAX_VALUE, -1L);
+        assertEquals(10, records.size());
+        assertEquals(record(10), records.get(9));
+        store.close();
+    }
+
+    @Test
+    public void recoversRecordsMissingFromIndex() throws IOException {
+        SensorDataStore store = new SensorDataStore(mFolder.getRoot());
+        for (int i = 0; i < 100; i++) {
+            append(store, i, TYPE_GYROSCOPE);
+        }
+        /* No close: only the first block has got its index entry */
+        File index = listFiles(".idx")[0];
+        assertEquals(INDEX_ENTRY_SIZE, index.length());
+
+        /* Torn write of the index entry as well */
+        truncate(index, INDEX_ENTRY_SIZE / 2);
+
+        SensorDataStore recovered = new SensorDataStore(mFolder.getRoot());
+        List<String> records = query(recovered, 500, 599,
+                SensorDataStore.toTypeMask(TYPE_GYROSCOPE));
+        assertEquals(10, records.size());
+        assertEquals(record(50), records.get(0));
+        assertEquals(100, query(recovered, Long.MIN_VALUE, Long.MAX_VALUE, -1L).size());
+        assertEquals(2 * INDEX_ENTRY_SIZE, index.length());
+        recovered.close();
+        store.close();
+    }
+
+    @Test
+    public void rewritesIndexOverrunningTruncatedData() throws IOException {
+        SensorDataStore store = new SensorDataStore(mFolder.getRoot());
+        for (int i = 0; i < 2 * RECORDS_PER_BLOCK; i++) {
+            append(store, i, TYPE_ACCELEROMETER);
+        }
+        store.close();
+        File index = listFiles(".idx")[0];
+        assertEquals(2 * INDEX_ENTRY_SIZE, index.length());
+
+        /* Data lost exactly at the block boundary */
+        truncate(listFiles(".dat")[0], RECORDS_PER_BLOCK * RECORD_SIZE);
+
+        store = new SensorDataStore(mFolder.getRoot());
+        assertEquals(RECORDS_PER_BLOCK,
+                query(store, Long.MIN_VALUE, Long.MAX_VALUE, -1L).size());
+        assertEquals(INDEX_ENTRY_SIZE, index.length());
+
+        /* A stale entry must not describe the records appended from now on */
+        append(store, 1000, TYPE_GYROSCOPE);
+        assertEquals(Arrays.asList(record(1000)), query(store, 0, 100000,
+                SensorDataStore.toTypeMask(TYPE_GYROSCOPE)));
+        store.close();
+    }
+}
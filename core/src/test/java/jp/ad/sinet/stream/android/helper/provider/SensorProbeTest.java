@@ -0,0 +1,78 @@
+/*
+ * Copyright (C) 2026 National Institute of Informatics
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+
+package jp.ad.sinet.stream.android.helper.provider;
+
+import org.junit.Test;
+
+import jp.ad.sinet.stream.android.helper.models.SensorProbeReport;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit test of {@link SensorProbe}, run on the host.
+ */
+public class SensorProbeTest {
+    private final static long PERIOD = 10_000_000L; /* 100Hz */
+
+    @Test
+    public void regularSamples_haveNoJitter() {
+        SensorProbe probe = new SensorProbe();
+        for (int i = 0; i < 101; i++) {
+            probe.onSample(i * PERIOD, i * PERIOD);
+        }
+        SensorProbeReport.Result result = probe.toResult(0, 1, "accelerometer", 0, 1_000_000_000L);
+        assertEquals(101, result.getSamples());
+        assertEquals(100.0, result.getAchievedRateHz(), 1e-6);
+        assertEquals(PERIOD, result.getIntervalMeanNanos());
+        assertEquals(0L, result.getIntervalStdDevNanos());
+        assertEquals(101, result.getBatches());
+        assertEquals(1, result.getMaxBatchSize());
+        assertEquals(0, result.getNonMonotonicCount());
+    }
+
+    @Test
+    public void batchedSamples_areCountedPerDelivery() {
+        SensorProbe probe = new SensorProbe();
+        /* 10 samples delivered at once, every 100ms */
+        for (int i = 0; i < 100; i++) {
+            long arrival = (i / 10 + 1) * 10 * PERIOD + (i % 10) * 1000L;
+            probe.onSample(i * PERIOD, arrival);
+        }
+        SensorProbeReport.Result result = probe.toResult(0, 1, "accelerometer", 0, 1_000_000_000L);
+        assertEquals(10, result.getBatches());
+        assertEquals(10, result.getMaxBatchSize());
+        assertEquals(10.0, result.getMeanBatchSize(), 1e-6);
+        assertEquals(PERIOD, result.getIntervalMeanNanos());
+    }
+
+    @Test
+    public void nonMonotonicTimestamps_areCounted() {
+        SensorProbe probe = new SensorProbe();
+        probe.onSample(2 * PERIOD, 2 * PERIOD);
+        probe.onSample(PERIOD, 3 * PERIOD);
+        probe.onSample(2 * PERIOD, 4 * PERIOD);
+        probe.onSample(3 * PERIOD, 5 * PERIOD);
+        SensorProbeReport.Result result = probe.toResult(0, 1, "accelerometer", 0, 1_000_000_000L);
+        assertEquals(2, result.getNonMonotonicCount());
+        assertEquals(PERIOD, result.getIntervalMaxNanos());
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright (C) 2026 National Institute of Informatics
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+
+package jp.ad.sinet.stream.android.helper.provider;
+
+import androidx.annotation.NonNull;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+
+import jp.ad.sinet.stream.android.helper.models.SensorDescriptor;
+import jp.ad.sinet.stream.android.helper.models.SensorHolder;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit test of {@link SensorStorage}, run on the host.
+ */
+public class SensorStorageTest {
+    private final static int TYPE_ACCELEROMETER = 1;
+    private final static int TYPE_GYROSCOPE = 4;
+
+    private static int register(@NonNull SensorStorage storage, int sensorType,
+                                @NonNull String name, boolean isWakeUp) {
+        int handle = storage.getNextHandle();
+        storage.registerDescriptor(new SensorDescriptor(
+                handle, sensorType, "type" + sensorType, name, 0, isWakeUp));
+        return handle;
+    }
+
+    @Test
+    public void unregisterDescriptor_discardsPendingSample() {
+        SensorStorage storage = new SensorStorage();
+        int accel = register(storage, TYPE_ACCELEROMETER, "accel", false);
+        int dynamic = register(storage, TYPE_GYROSCOPE, "dynamic", false);
+        storage.setSensorSample(accel, 1L, new float[] {1, 2, 3}, 1L);
+        storage.setSensorSample(dynamic, 1L, new float[] {4, 5, 6}, 1L);
+
+        storage.unregisterDescriptor(dynamic);
+        assertNull(storage.getSensorDescriptor(dynamic));
+        ArrayList<SensorHolder> holders = storage.getSensorHolders();
+        assertEquals(1, holders.size());
+        assertEquals(accel, holders.get(0).getDescriptor().getHandle());
+
+        /* A sample still queued for the removed handle is ignored */
+        storage.setSensorSample(dynamic, 2L, new float[] {4, 5, 6}, 2L);
+        assertEquals(1, storage.getSensorHolders().size());
+
+        /* Handles are not reused */
+        assertEquals(2, storage.getNextHandle());
+    }
+
+    @Test
+    public void unregisterDescriptor_picksNewDefault() {
+        SensorStorage storage = new SensorStorage();
+        int wakeUp = register(storage, TYPE_GYROSCOPE, "wakeup", true);
+        int first = register(storage, TYPE_GYROSCOPE, "first", false);
+        int second = register(storage, TYPE_GYROSCOPE, "second", false);
+        assertEquals(first, storage.getHandle(TYPE_GYROSCOPE));
+
+        /* Non wake-up instances come first */
+        storage.unregisterDescriptor(first);
+        assertEquals(second, storage.getHandle(TYPE_GYROSCOPE));
+        storage.unregisterDescriptor(second);
+        assertEquals(wakeUp, storage.getHandle(TYPE_GYROSCOPE));
+
+        /* Without any instance, the type falls back to a new descriptor */
+        storage.unregisterDescriptor(wakeUp);
+        int fallback = storage.getHandle(TYPE_GYROSCOPE);
+        assertEquals(3, fallback);
+        assertEquals(TYPE_GYROSCOPE, storage.getSensorDescriptor(fallback).getSensorType());
+
+        /* Unknown handles are ignored */
+        storage.unregisterDescriptor(wakeUp);
+        storage.unregisterDescriptor(100);
+    }
+}
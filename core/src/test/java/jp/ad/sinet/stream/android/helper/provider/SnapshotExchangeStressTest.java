@@ -0,0 +1,199 @@
+/*
+ * Copyright (C) 2026 National Institute of Informatics
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+
+package jp.ad.sinet.stream.android.helper.provider;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import jp.ad.sinet.stream.android.helper.models.SensorDescriptor;
+import jp.ad.sinet.stream.android.helper.models.SensorHolder;
+import jp.ad.sinet.stream.android.helper.models.SensorSnapshot;
+
+import static org.junit.Assert.*;
+
+/**
+ * Concurrency stress test of {@link SnapshotExchange}, run on the host.
+ * <p>
+ *     The writer publishes samples whose values are derived from their
+ *     sequence number, so that the reader can detect a torn or stale copy.
+ * </p>
+ */
+public class SnapshotExchangeStressTest {
+    private final static int SENSOR_COUNT = 8;
+    private final static int BOUNDARIES = 200000;
+
+    @Test
+    public void doubleBuffered_isConsistent() throws Exception {
+        runStress(2);
+    }
+
+    @Test
+    public void tripleBuffered_isConsistent() throws Exception {
+        runStress(3);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void singleBuffer_isRejected() {
+        new SnapshotExchange(1);
+    }
+
+    @Test
+    public void unacquired_isMerged() {
+        SnapshotExchange exchange = new SnapshotExchange();
+        ArrayList<SensorHolder> holders = newHolders();
+        setSamples(holders, 0, 1);
+        assertFalse(exchange.publish(holders.subList(0, 1), "first"));
+        setSamples(holders, 1, 2);
+        assertTrue(exchange.publish(holders.subList(1, 2), "second"));
+
+        SensorSnapshot snapshot = exchange.acquire();
+        assertNotNull(snapshot);
+        assertEquals(2, snapshot.getSensorHolders().size());
+        assertEquals(1, snapshot.getMergedCount());
+        assertEquals(2L, snapshot.getSequence());
+        assertEquals("second", snapshot.getAttachment());
+        assertNull(exchange.acquire());
+        exchange.release(snapshot);
+        assertEquals(1L, exchange.getMergeCount());
+    }
+
+    private void runStress(int bufferCount) throws Exception {
+        final SnapshotExchange exchange = new SnapshotExchange(bufferCount);
+        final CountDownLatch start = new CountDownLatch(1);
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        final long[] lastSeen = new long[SENSOR_COUNT];
+        final long[] acquired = new long[1];
+
+        Thread writer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                ArrayList<SensorHolder> holders = newHolders();
+                try {
+                    start.await();
+                    for (int seq = 1; seq <= BOUNDARIES; seq++) {
+                        /* Update a varying subset of sensor types */
+                        int from = seq % SENSOR_COUNT;
+                        int to = Math.min(SENSOR_COUNT, from + 1 + (seq % 3));
+                        setSamples(holders, from, to, seq);
+                        exchange.publish(holders.subList(from, to), seq);
+                    }
+                    /* Make sure every sensor type ends with the last one */
+                    setSamples(holders, 0, SENSOR_COUNT, BOUNDARIES + 1);
+                    exchange.publish(holders, BOUNDARIES + 1);
+                } catch (Throwable t) {
+                    failure.compareAndSet(null, t);
+                }
+            }
+        }, "Writer");
+
+        Thread reader = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    start.await();
+                    long lastSequence = 0L;
+                    while (lastSequence < BOUNDARIES + 1 && failure.get() == null) {
+                        SensorSnapshot snapshot = exchange.acquire();
+                        if (snapshot == null) {
+                            Thread.yield();
+                            continue;
+                        }
+                        acquired[0]++;
+                        lastSequence = verify(snapshot, lastSequence, lastSeen);
+                        if ((acquired[0] & 0x3f) == 0) {
+                            /* Lag behind from time to time to force merges */
+                            Thread.sleep(1);
+                        }
+                        exchange.release(snapshot);
+                    }
+                } catch (Throwable t) {
+                    failure.compareAndSet(null, t);
+                }
+            }
+        }, "Reader");
+
+        writer.start();
+        reader.start();
+        start.countDown();
+        writer.join(60000L);
+        reader.join(60000L);
+
+        if (failure.get() != null) {
+            throw new AssertionError(failure.get());
+        }
+        assertFalse("Writer hung", writer.isAlive());
+        assertFalse("Reader hung", reader.isAlive());
+        for (int i = 0; i < SENSOR_COUNT; i++) {
+            assertEquals("Sensor " + i, BOUNDARIES + 1, lastSeen[i]);
+        }
+        assertEquals(BOUNDARIES + 1, exchange.getPublishCount());
+        assertEquals(exchange.getPublishCount(), acquired[0] + exchange.getMergeCount());
+    }
+
+    private static long verify(SensorSnapshot snapshot, long lastSequence, long[] lastSeen) {
+        long sequence = snapshot.getSequence();
+        assertTrue("Sequence went back", sequence > lastSequence);
+        assertEquals(sequence, ((Number) snapshot.getAttachment()).longValue());
+        assertFalse(snapshot.isEmpty());
+
+        ArrayList<SensorHolder> holders = snapshot.getSensorHolders();
+        for (int i = 0, n = holders.size(); i < n; i++) {
+            SensorHolder holder = holders.get(i);
+            int sensorType = holder.getSensorType();
+            long timestamp = holder.getTimestamp();
+            float[] values = holder.getValues();
+            assertTrue("Sample from the future", timestamp <= sequence);
+            assertTrue("Stale sample", timestamp > lastSeen[sensorType]);
+            assertEquals("Torn sample", (float) timestamp, values[0], 0.0f);
+            assertEquals("Torn sample", (float) sensorType, values[1], 0.0f);
+            assertEquals("Torn sample", timestamp, holder.getEventNanos());
+            lastSeen[sensorType] = timestamp;
+        }
+        return sequence;
+    }
+
+    private static ArrayList<SensorHolder> newHolders() {
+        ArrayList<SensorHolder> holders = new ArrayList<>();
+        for (int i = 0; i < SENSOR_COUNT; i++) {
+            holders.add(new SensorHolder(
+                    new SensorDescriptor(i, i, "type" + i, "sensor" + i, 0, false)));
+        }
+        return holders;
+    }
+
+    private static void setSamples(ArrayList<SensorHolder> holders, int from, int to) {
+        setSamples(holders, from, to, 1L);
+    }
+
+    private static void setSamples(
+            ArrayList<SensorHolder> holders, int from, int to, long seq) {
+        for (int i = from; i < to; i++) {
+            SensorHolder holder = holders.get(i);
+            holder.setSample(seq, new float[] { (float) seq, (float) i }, seq);
+            holder.setLatencyStamps(seq, seq);
+            holder.setUpdated(true);
+        }
+    }
+}
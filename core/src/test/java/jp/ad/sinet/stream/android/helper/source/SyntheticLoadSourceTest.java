@@ -0,0 +1,204 @@
+/*
+ * Copyright (C) 2026 National Institute of Informatics
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+
+package jp.ad.sinet.stream.android.helper.source;
+
+import androidx.annotation.NonNull;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import jp.ad.sinet.stream.android.helper.models.SensorDescriptor;
+import jp.ad.sinet.stream.android.helper.models.SyntheticLoadParams;
+import jp.ad.sinet.stream.android.helper.models.SysInfo;
+import jp.ad.sinet.stream.android.helper.provider.JsonBuilder;
+import jp.ad.sinet.stream.android.helper.provider.SampleRing;
+import jp.ad.sinet.stream.android.helper.provider.SensorStorage;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit test of {@link SyntheticLoadSource}, run on the host.
+ * <p>
+ *     Samples go through the same path as in SensorService: a
+ *     {@link SampleRing} from the source thread, drained into
+ *     {@link SensorStorage} and exported by {@link JsonBuilder}.
+ * </p>
+ */
+public class SyntheticLoadSourceTest {
+    private final static int SENSOR_COUNT = 4;
+    private final static int DIMENSIONS = 6;
+
+    /* Collects the outcome of a source run */
+    private static class FinishListener implements SampleSource.SampleSourceListener {
+        final CountDownLatch latch = new CountDownLatch(1);
+        final AtomicInteger samples = new AtomicInteger(-1);
+        volatile boolean isStopped = false;
+        volatile String error = null;
+
+        @Override
+        public void onFinished(int samples, boolean isStopped) {
+            this.samples.set(samples);
+            this.isStopped = isStopped;
+            latch.countDown();
+        }
+
+        @Override
+        public void onError(@NonNull String description) {
+            error = description;
+            latch.countDown();
+        }
+    }
+
+    /* Producer side of the ingest path, as SensorService.SampleStage */
+    private static class RingIngest implements SensorIngest {
+        final SampleRing ring = new SampleRing(4096, SampleRing.DEFAULT_MAX_DIMENSIONS);
+
+        @Override
+        public void onSensorSample(int sensorType, long timestamp, @NonNull float[] values) {
+            ring.offer(sensorType, timestamp, System.nanoTime(), values);
+        }
+    }
+
+    /* Consumer side of the ingest path, which checks each sample on the way */
+    private static class StorageConsumer implements SampleRing.SampleConsumer {
+        final SensorStorage storage = new SensorStorage();
+        final long[] lastTimestamps = new long[SENSOR_COUNT];
+        int samples = 0;
+
+        @Override
+        public void onSample(int sensorType, long timestamp, long eventNanos,
+                             @NonNull float[] values) {
+            int index = sensorType - SyntheticLoadSource.SENSOR_TYPE_BASE;
+            assertTrue("Sensor type: " + sensorType, index >= 0 && index < SENSOR_COUNT);
+            assertTrue(timestamp > lastTimestamps[index]);
+            assertEquals(DIMENSIONS, values.length);
+            lastTimestamps[index] = timestamp;
+            storage.setSensorSample(storage.getHandle(sensorType),
+                    timestamp, values, System.currentTimeMillis());
+            samples++;
+        }
+    }
+
+    @NonNull
+    private static SyntheticLoadParams newParams(long durationMillis) {
+        SyntheticLoadParams params = new SyntheticLoadParams();
+        params.setSensorCount(SENSOR_COUNT);
+        params.setRateHz(500.0f);
+        params.setDimensions(DIMENSIONS);
+        params.setJitter(0.2f);
+        params.setBurstPeriodMillis(50L);
+        params.setBurstLengthMillis(10L);
+        params.setBurstFactor(4.0f);
+        params.setDurationMillis(durationMillis);
+        return params;
+    }
+
+    @Test
+    public void feedsSamplesThroughIngestPath() throws Exception {
+        RingIngest ingest = new RingIngest();
+        FinishListener listener = new FinishListener();
+        Thread thread = new Thread(
+                new SyntheticLoadSource(newParams(200L), ingest, listener), "SyntheticLoad");
+        thread.start();
+
+        StorageConsumer consumer = new StorageConsumer();
+        JsonBuilder jsonBuilder = new JsonBuilder(
+                new SysInfo("15", "NII", "Test"), null, null, Double.NaN, Double.NaN, -1L);
+        String lastJson = null;
+        boolean isFinished = false;
+        while (! isFinished) {
+            isFinished = listener.latch.await(5L, TimeUnit.MILLISECONDS);
+            /* Drain all after the finish, as SensorService does */
+            while (ingest.ring.drain(consumer, 256) > 0) {
+                String jsonString = jsonBuilder.buildJsonString(
+                        consumer.storage.getSensorHolders());
+                assertNotNull(jsonString);
+                lastJson = jsonString;
+                consumer.storage.clearSensorEvent();
+            }
+        }
+        thread.join();
+
+        assertNull(listener.error);
+        assertFalse(listener.isStopped);
+        /* At least the base rate over the duration, less the jitter */
+        assertTrue(listener.samples.get() >= SENSOR_COUNT * 500 * 0.2 * 0.8);
+        assertEquals(listener.samples.get(), consumer.samples);
+        assertEquals(listener.samples.get(), ingest.ring.getOfferCount());
+        assertEquals(0L, ingest.ring.getDropCount());
+
+        /* One descriptor per synthetic sensor, resolved on the first sample */
+        for (int i = 0; i < SENSOR_COUNT; i++) {
+            int handle = consumer.storage.getHandle(SyntheticLoadSource.SENSOR_TYPE_BASE + i);
+            SensorDescriptor descriptor = consumer.storage.getSensorDescriptor(handle);
+            assertNotNull(descriptor);
+            assertEquals(SyntheticLoadSource.SENSOR_TYPE_BASE + i, descriptor.getSensorType());
+        }
+        assertEquals(SENSOR_COUNT, consumer.storage.getNextHandle());
+
+        /* Synthetic samples are exported with all of their values */
+        assertNotNull(lastJson);
+        JSONArray sensors = new JSONObject(lastJson).getJSONArray("sensors");
+        assertTrue(sensors.length() > 0);
+        for (int i = 0; i < sensors.length(); i++) {
+            JSONObject sensor = sensors.getJSONObject(i);
+            assertEquals(sensor.toString(),
+                    DIMENSIONS, sensor.getJSONArray("values").length());
+        }
+    }
+
+    @Test
+    public void stopsOnRequest() throws Exception {
+        final AtomicReference<SyntheticLoadSource> source = new AtomicReference<>();
+        final CountDownLatch firstSample = new CountDownLatch(1);
+        FinishListener listener = new FinishListener();
+        source.set(new SyntheticLoadSource(newParams(60000L), new SensorIngest() {
+            @Override
+            public void onSensorSample(int sensorType, long timestamp,
+                                       @NonNull float[] values) {
+                firstSample.countDown();
+            }
+        }, listener));
+        Thread thread = new Thread(source.get(), "SyntheticLoad");
+        thread.start();
+
+        assertTrue(firstSample.await(5L, TimeUnit.SECONDS));
+        source.get().stop();
+        assertTrue(listener.latch.await(5L, TimeUnit.SECONDS));
+        thread.join();
+        assertTrue(listener.isStopped);
+        assertTrue(listener.samples.get() > 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsInvalidParams() {
+        SyntheticLoadParams params = newParams(1000L);
+        params.setRateHz(0.0f);
+        new SyntheticLoadSource(params, new RingIngest(), new FinishListener());
+    }
+}
@@ -0,0 +1,231 @@
+/*
+ * Copyright (C) 2026 National Institute of Informatics
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+
+package jp.ad.sinet.stream.android.helper.source;
+
+import androidx.annotation.NonNull;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit test of {@link TraceReplaySource}, run on the host.
+ */
+public class TraceReplaySourceTest {
+    /* Keeps a copy of each sample, as the source reuses the values array */
+    private static class RecordingIngest implements SensorIngest {
+        final List<Integer> sensorTypes = new ArrayList<>();
+        final List<Long> timestamps = new ArrayList<>();
+        final List<float[]> values = new ArrayList<>();
+        final CountDownLatch firstSample = new CountDownLatch(1);
+
+        @Override
+        public synchronized void onSensorSample(
+                int sensorType, long timestamp, @NonNull float[] values) {
+            this.sensorTypes.add(sensorType);
+            this.timestamps.add(timestamp);
+            this.values.add(values.clone());
+            firstSample.countDown();
+        }
+    }
+
+    /* Collects the outcome of a source run */
+    private static class RecordingListener implements SampleSource.SampleSourceListener {
+        final CountDownLatch latch = new CountDownLatch(1);
+        volatile int samples = -1;
+        volatile boolean isStopped = false;
+        volatile String error = null;
+
+        @Override
+        public void onFinished(int samples, boolean isStopped) {
+            this.samples = samples;
+            this.isStopped = isStopped;
+            latch.countDown();
+        }
+
+        @Override
+        public void onError(@NonNull String description) {
+            error = description;
+            latch.countDown();
+        }
+    }
+
+    private static void replay(@NonNull String trace, float speed,
+                               @NonNull RecordingIngest ingest,
+                               @NonNull RecordingListener listener) {
+        new TraceReplaySource(new StringReader(trace), speed, ingest, listener).run();
+        assertEquals(0L, listener.latch.getCount());
+    }
+
+    @Test
+    public void skipsCommentsAndBlankLines() {
+        String trace = "# type,timestamp,values...\n" +
+                "\n" +
+                "1,1000,0.5,-1.0,9.8\n" +
+                "   \n" +
+                "  # indented comment\n" +
+                " 4 , 2000 , 1 , 2 , 3 \n" +
+                "5,3000,42\n";
+        RecordingIngest ingest = new RecordingIngest();
+        RecordingListener listener = new RecordingListener();
+        replay(trace, TraceReplaySource.SPEED_MAX, ingest, listener);
+
+        assertNull(listener.error);
+        assertEquals(3, listener.samples);
+        assertFalse(listener.isStopped);
+        assertEquals(Arrays.asList(1, 4, 5), ingest.sensorTypes);
+        assertEquals(Arrays.asList(1000L, 2000L, 3000L), ingest.timestamps);
+        assertArrayEquals(new float[] {0.5f, -1.0f, 9.8f}, ingest.values.get(0), 0.0f);
+        assertArrayEquals(new float[] {1.0f, 2.0f, 3.0f}, ingest.values.get(1), 0.0f);
+        assertArrayEquals(new float[] {42.0f}, ingest.values.get(2), 0.0f);
+    }
+
+    @Test
+    public void emptyTrace() {
+        RecordingIngest ingest = new RecordingIngest();
+        RecordingListener listener = new RecordingListener();
+        replay("# nothing\n\n", 1.0f, ingest, listener);
+        assertNull(listener.error);
+        assertEquals(0, listener.samples);
+    }
+
+    @Test
+    public void tooFewFields() {
+        RecordingIngest ingest = new RecordingIngest();
+        RecordingListener listener = new RecordingListener();
+        replay("1,1000,0.1\n# comment\n1,2000\n1,3000,0.3\n",
+                TraceReplaySource.SPEED_MAX, ingest, listener);
+        assertEquals("Line 3: Too few fields", listener.error);
+        assertEquals(-1, listener.samples);
+        /* Samples before the broken line have been delivered */
+        assertEquals(Arrays.asList(1000L), ingest.timestamps);
+    }
+
+    @Test
+    public void numberFormatError() {
+        RecordingIngest ingest = new RecordingIngest();
+        RecordingListener listener = new RecordingListener();
+        replay("1,1000,abc\n", TraceReplaySource.SPEED_MAX, ingest, listener);
+        assertNotNull(listener.error);
+        assertTrue(listener.error, listener.error.startsWith("Line 1: "));
+        assertTrue(listener.error, listener.error.contains("NumberFormatException"));
+        assertTrue(ingest.timestamps.isEmpty());
+
+        listener = new RecordingListener();
+        replay("accel,1000,1.0\n", TraceReplaySource.SPEED_MAX, ingest, listener);
+        assertTrue(listener.error, listener.error.startsWith("Line 1: "));
+    }
+
+    @Test
+    public void readError() {
+        Reader reader = new Reader() {
+            @Override
+            public int read(@NonNull char[] buffer, int offset, int length) throws IOException {
+                throw new IOException("Broken");
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        RecordingListener listener = new RecordingListener();
+        new TraceReplaySource(reader, 1.0f, new RecordingIngest(), listener).run();
+        assertNotNull(listener.error);
+        assertTrue(listener.error, listener.error.startsWith("TraceReplay: "));
+    }
+
+    @Test
+    public void speedMax_doesNotPace() {
+        /* An hour of recorded time */
+        StringBuilder trace = new StringBuilder();
+        for (int i = 0; i <= 60; i++) {
+            trace.append("1,").append(i * 60000000000L).append(",1.0\n");
+        }
+        RecordingIngest ingest = new RecordingIngest();
+        RecordingListener listener = new RecordingListener();
+        long start = System.nanoTime();
+        replay(trace.toString(), TraceReplaySource.SPEED_MAX, ingest, listener);
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5L));
+        assertEquals(61, listener.samples);
+    }
+
+    @Test
+    public void pacedBySpeed() {
+        /* 200 milliseconds of recorded time, replayed at twice the speed */
+        String trace = "1,0,1.0\n1,100000000,1.0\n1,200000000,1.0\n";
+        RecordingIngest ingest = new RecordingIngest();
+        RecordingListener listener = new RecordingListener();
+        long start = System.nanoTime();
+        replay(trace, 2.0f, ingest, listener);
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(100L));
+        assertEquals(3, listener.samples);
+    }
+
+    @Test
+    public void stop_endsWaitingReplay() throws Exception {
+        /* The second sample is an hour later */
+        String trace = "1,0,1.0\n1,3600000000000,2.0\n1,7200000000000,3.0\n";
+        RecordingIngest ingest = new RecordingIngest();
+        RecordingListener listener = new RecordingListener();
+        TraceReplaySource source =
+                new TraceReplaySource(new StringReader(trace), 1.0f, ingest, listener);
+        Thread thread = new Thread(source, "TraceReplay");
+        thread.start();
+
+        assertTrue(ingest.firstSample.await(5L, TimeUnit.SECONDS));
+        source.stop();
+        assertTrue(listener.latch.await(5L, TimeUnit.SECONDS));
+        thread.join();
+
+        assertNull(listener.error);
+        assertTrue(listener.isStopped);
+        /* Stopped either before reading the second line, or while waiting for it */
+        assertTrue(listener.samples == 1 || listener.samples == 2);
+        synchronized (ingest) {
+            assertEquals(Arrays.asList(0L, 3600000000000L).subList(0, listener.samples),
+                    ingest.timestamps);
+        }
+    }
+
+    @Test
+    public void rejectsInvalidSpeed() {
+        float[] speeds = {0.0f, -1.0f, Float.NaN};
+        for (float speed : speeds) {
+            try {
+                new TraceReplaySource(new StringReader(""), speed,
+                        new RecordingIngest(), new RecordingListener());
+                fail("Speed accepted: " + speed);
+            } catch (IllegalArgumentException e) {
+                /* Expected */
+            }
+        }
+    }
+}
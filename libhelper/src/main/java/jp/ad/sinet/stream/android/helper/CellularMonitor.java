@@ -25,6 +25,7 @@ import android.content.ComponentName;
 import android.content.Context;
 import android.content.Intent;
 import android.content.ServiceConnection;
+import android.os.Build;
 import android.os.Bundle;
 import android.os.Handler;
 import android.os.IBinder;
@@ -37,14 +38,23 @@ import android.util.Log;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.annotation.RequiresApi;
 import androidx.appcompat.app.AppCompatActivity;
 
 import java.lang.ref.WeakReference;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
 
 import jp.ad.sinet.stream.android.helper.constants.BundleKeys;
 import jp.ad.sinet.stream.android.helper.constants.IpcType;
 import jp.ad.sinet.stream.android.helper.constants.NetworkTypes;
 import jp.ad.sinet.stream.android.helper.provider.CellularParser;
+import jp.ad.sinet.stream.android.helper.provider.DemandPublisher;
+import jp.ad.sinet.stream.android.helper.util.LocalBinder;
+import jp.ad.sinet.stream.android.helper.util.PendingCommands;
+import jp.ad.sinet.stream.android.helper.util.StatsBundleUtil;
+import jp.ad.sinet.stream.android.helper.util.TraceUtil;
 
 public class CellularMonitor {
     private static final String TAG = CellularMonitor.class.getSimpleName();
@@ -54,12 +64,48 @@ public class CellularMonitor {
      */
     private Messenger mService = null;
 
+    /* Non-null if the service runs in the same process */
+    private LocalBinder mLocalBinder = null;
+
+    private DemandPublisher<Bundle> mCellularPublisher = null;
+
     private boolean mIsBound = false;
     private final CellularMonitorListener mListener;
     private final Context mContext;
     private final int mClientId;
 
+    private ServiceStatsListener mStatsListener = null;
+
+    /* Commands issued while the bind is in progress */
+    private final static int MAX_PENDING_COMMANDS = 16;
+    private final static long PENDING_COMMAND_TIMEOUT = 10000L; /* 10 seconds */
+    private final PendingCommands mPendingCommands;
+
     public CellularMonitor(@NonNull AppCompatActivity activity, int clientId) {
+        this(activity, clientId, Looper.getMainLooper());
+    }
+
+    /**
+     * Constructs a CellularMonitor instance, whose callbacks on service messages
+     * run on the given {@link Looper} instead of the main thread.
+     * <p>
+     *     This lets heavy processing on each cellular data stay off the
+     *     UI thread, without another hop from the main thread.
+     *     Calls to this instance are still expected on the main thread.
+     * </p>
+     *
+     * @param activity the Activity which implements {@link CellularMonitorListener}
+     * @param clientId the client ID which distinguishes myself from
+     *                 other clients bound to {@link CellularService}
+     * @param looper the Looper to run listener callbacks on,
+     *               such as the one of a {@link android.os.HandlerThread}
+     */
+    public CellularMonitor(
+            @NonNull AppCompatActivity activity, int clientId, @NonNull Looper looper) {
+        mCallbackHandler = new Handler(looper);
+        mPendingCommands = new PendingCommands(MAX_PENDING_COMMANDS,
+                PENDING_COMMAND_TIMEOUT, mCallbackHandler, mDropListener);
+        mMessenger = new Messenger(new CellularMonitor.IncomingHandler(looper, this));
         mClientId = clientId;
         if (activity instanceof CellularMonitorListener) {
             mContext = activity;
@@ -127,7 +173,8 @@ public class CellularMonitor {
      * Binds the cellular service to open a communication line.
      * <p>
      *     Once the connection has established, we can send/receive IPC messages
-     *     with the cellular service.
+     *     with the cellular service. Requests issued before that are kept, and
+     *     sent in a batch as soon as the service gets connected.
      * </p>
      */
     public void bindCellularService() {
@@ -142,7 +189,7 @@ public class CellularMonitor {
             Intent intent = new Intent(mContext, CellularService.class);
             try {
                 mIsBound = mContext.bindService(
-                        intent,
+                        LocalBinder.toBindIntent(mContext, intent),
                         mConnection,
                         Context.BIND_AUTO_CREATE);
                 if (!mIsBound) {
@@ -159,6 +206,7 @@ public class CellularMonitor {
      */
     public void unbindCellularService() {
         Log.d(TAG, "unbindCellularService");
+        mPendingCommands.drop("Service unbound");
 
         // If we have received the service, and hence registered with
         // it, then now is the time to unregister.
@@ -172,10 +220,21 @@ public class CellularMonitor {
             } catch (RemoteException e) {
                 mListener.onError(TAG + ": unbindCellularService: " + e.getMessage());
             }
+            if (mLocalBinder != null) {
+                mLocalBinder.unregisterLocalClient(mMessenger);
+                mLocalBinder = null;
+            }
+            if (mCellularPublisher != null) {
+                mCellularPublisher.complete();
+            }
 
             // Detach out existing connection.
             mContext.unbindService(mConnection);
             mIsBound = false;
+        } else if (mIsBound) {
+            // Still waiting for the connection; detach it all the same.
+            mContext.unbindService(mConnection);
+            mIsBound = false;
         }
     }
 
@@ -383,12 +442,86 @@ public class CellularMonitor {
         parser.parse(networkType, ss);
     }
 
+    /**
+     * Get a {@link Flow.Publisher} view of the cellular data, as given to
+     * {@link CellularMonitorListener#onCellularDataReceived}.
+     * <p>
+     *     Items are handed over to the subscribers with outstanding demand
+     *     only, and dropped for the others. Subscribers are signalled on the
+     *     callback Looper, or on the executor given to
+     *     {@link DemandPublisher#subscribe(Flow.Subscriber, Executor)}.
+     *     They are completed when this client unbinds from {@link CellularService}.
+     * </p>
+     *
+     * @return the publisher of cellular data
+     */
+    @RequiresApi(api = Build.VERSION_CODES.R)
+    @NonNull
+    public DemandPublisher<Bundle> getCellularPublisher() {
+        if (mCellularPublisher == null) {
+            mCellularPublisher = new DemandPublisher<>(new Executor() {
+                @Override
+                public void execute(Runnable command) {
+                    mCallbackHandler.post(command);
+                }
+            }, null);
+        }
+        return mCellularPublisher;
+    }
+
+    private void onCellularReceived(@NonNull Bundle bundle) {
+        mListener.onCellularDataReceived(bundle);
+        if (mCellularPublisher != null) {
+            mCellularPublisher.offer(bundle);
+        }
+    }
+
+    /**
+     * Ask {@link CellularService} for its runtime metrics.
+     * <p>
+     *     The result will be notified by
+     *     {@link ServiceStatsListener#onStatsReceived}.
+     *     If called again before the reply, the latest listener takes it.
+     * </p>
+     *
+     * @param listener the receiver of the metrics
+     */
+    public void getStats(@NonNull ServiceStatsListener listener) {
+        if (mIsBound) {
+            mStatsListener = listener;
+            sendMessage(IpcType.MSG_GET_STATS);
+        } else {
+            mListener.onError(TAG + ": Service not yet bound");
+        }
+    }
+
     /**
      * IPC endpoint to send messages to Service.
      */
-    private final Messenger mMessenger =
-            new Messenger(new CellularMonitor.IncomingHandler(
-                    Looper.getMainLooper(),this));
+    private final Messenger mMessenger;
+
+    /* On the Looper of listener callbacks */
+    private final Handler mCallbackHandler;
+
+    /**
+     * Data path from {@link CellularService} in the same process.
+     */
+    private final LocalCellularClient mLocalClient = new LocalCellularClient() {
+        @Override
+        public void onCellularData(@NonNull final Bundle bundle) {
+            /* Called on the main thread of the service */
+            if (mCallbackHandler.getLooper() == Looper.myLooper()) {
+                onCellularReceived(bundle);
+            } else {
+                mCallbackHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        onCellularReceived(bundle);
+                    }
+                });
+            }
+        }
+    };
 
     /**
      * Handler for incoming messages from Service.
@@ -417,7 +550,12 @@ public class CellularMonitor {
         public void handleMessage(@NonNull Message msg) {
             CellularMonitor cellularMonitor = weakReference.get();
             if (cellularMonitor != null) {
-                cellularMonitor.onServerMessageReceived(msg);
+                boolean traced = TraceUtil.beginSection("CellularMonitor.handleMessage");
+                try {
+                    cellularMonitor.onServerMessageReceived(msg);
+                } finally {
+                    TraceUtil.endSection(traced);
+                }
             } else {
                 Log.w(TAG, "handleMessage: CellularMonitor has gone");
             }
@@ -439,11 +577,18 @@ public class CellularMonitor {
                 break;
             case IpcType.MSG_CELLULAR_DATA:
                 if (bundle != null) {
-                    mListener.onCellularDataReceived(bundle);
+                    onCellularReceived(bundle);
                 } else {
                     Log.w(TAG, "MSG_CELLULAR_DATA: No bundle?");
                 }
                 break;
+            case IpcType.MSG_GET_STATS:
+                if (bundle != null) {
+                    onStatsReceived(bundle);
+                } else {
+                    Log.w(TAG, "MSG_GET_STATS: No bundle?");
+                }
+                break;
             case IpcType.MSG_ERROR:
                 if (bundle != null) {
                     String errmsg = bundle.getString(BundleKeys.BUNDLE_KEY_ERROR_MESSAGE);
@@ -462,6 +607,15 @@ public class CellularMonitor {
         }
     }
 
+    private void onStatsReceived(@NonNull Bundle bundle) {
+        ServiceStatsListener listener = mStatsListener;
+        if (listener != null) {
+            listener.onStatsReceived(StatsBundleUtil.fromBundle(bundle));
+        } else {
+            Log.w(TAG, "MSG_GET_STATS: No listener?");
+        }
+    }
+
     /**
      * Callback interfaces for Service connection management.
      */
@@ -474,7 +628,15 @@ public class CellularMonitor {
             // service through an IDL interface, so get a client-side
             // representation of that from the raw service object.
             Log.d(TAG, "ServiceConnection.onServiceConnected: " + name.toString());
-            mService = new Messenger(service);
+            if (service instanceof LocalBinder) {
+                // The service runs in the same process, so that we can
+                // take the cellular data without Message and Bundle.
+                mLocalBinder = (LocalBinder) service;
+                mLocalBinder.registerLocalClient(mMessenger, mLocalClient);
+                mService = mLocalBinder.getMessenger();
+            } else {
+                mService = new Messenger(service);
+            }
 
             // We want to monitor the service for as long as we are
             // connected to it.
@@ -493,6 +655,9 @@ public class CellularMonitor {
             }
 
             mIsBound = true;
+
+            // Requests issued while binding, if any.
+            mPendingCommands.flush(mService);
         }
 
         @Override
@@ -501,6 +666,7 @@ public class CellularMonitor {
             // unexpectedly disconnected -- that is, its process crashed.
             Log.d(TAG, "ServiceConnection.onServiceDisconnected: " + name.toString());
             mService = null;
+            mLocalBinder = null;
 
             mIsBound = false;
         }
@@ -519,11 +685,29 @@ public class CellularMonitor {
     private void sendMessage(int ipcType) {
         Message msg = Message.obtain(null, ipcType, 0, mClientId);
         msg.replyTo = mMessenger;
+        Messenger service = mService;
+        if (service == null) {
+            /* The bind is still in progress */
+            if (! mPendingCommands.offer(msg)) {
+                mListener.onError(TAG + ": Too many requests before connected");
+            }
+            return;
+        }
         try {
-            mService.send(msg);
+            service.send(msg);
         } catch (RemoteException e) {
             Log.e(TAG, "Messenger.send: " + e.getMessage());
             mListener.onError("Cannot send message: " + e.getMessage());
         }
     }
+
+    private final PendingCommands.DropListener mDropListener =
+            new PendingCommands.DropListener() {
+        @Override
+        public void onCommandsDropped(@NonNull List<Message> commands, @NonNull String reason) {
+            for (Message msg : commands) {
+                mListener.onError(TAG + ": IpcType(" + msg.what + "): " + reason);
+            }
+        }
+    };
 }
@@ -53,6 +53,10 @@ import java.util.concurrent.Executor;
 import jp.ad.sinet.stream.android.helper.constants.BundleKeys;
 import jp.ad.sinet.stream.android.helper.constants.IpcType;
 import jp.ad.sinet.stream.android.helper.constants.NetworkTypes;
+import jp.ad.sinet.stream.android.helper.metrics.ServiceMetrics;
+import jp.ad.sinet.stream.android.helper.util.LocalBinder;
+import jp.ad.sinet.stream.android.helper.util.StatsBundleUtil;
+import jp.ad.sinet.stream.android.helper.util.TraceUtil;
 
 public class CellularService extends Service {
     private final String TAG = CellularService.class.getSimpleName();
@@ -60,6 +64,9 @@ public class CellularService extends Service {
     /* Keep track of all current registered clients */
     private final List<Messenger> mClients = new ArrayList<>();
 
+    /* Runtime metrics, always on and reported by IpcType.MSG_GET_STATS */
+    private final ServiceMetrics mMetrics = new ServiceMetrics(TAG);
+
     private TelephonyManager mTelephonyManager = null;
     private CustomTelephonyCallback mCustomTelephonyCallback = null;
     private PhoneStateListener mPhoneStateListener = null;
@@ -153,6 +160,9 @@ public class CellularService extends Service {
     public IBinder onBind(Intent intent) {
         Log.d(TAG, "onBind: Intent="
                 + (intent != null ? intent.toString() : ""));
+        if (LocalBinder.isLocalBind(intent)) {
+            return mLocalBinder;
+        }
         return mMessenger.getBinder();
     }
 
@@ -315,11 +325,19 @@ public class CellularService extends Service {
     }
 
     private void handleSignalStrength(@NonNull SignalStrength signalStrength) {
-        Log.d(TAG, signalStrength.toString());
-        int networkType = getNetworkType();
-        String networkOperator = mTelephonyManager.getNetworkOperatorName();
-
-        reportSignalStrength(networkType, networkOperator, signalStrength);
+        long startNanos = System.nanoTime();
+        boolean traced = TraceUtil.beginSection("CellularService.handleSignalStrength");
+        try {
+            Log.d(TAG, signalStrength.toString());
+            int networkType = getNetworkType();
+            String networkOperator = mTelephonyManager.getNetworkOperatorName();
+            mMetrics.onEventReceived(networkType);
+
+            reportSignalStrength(networkType, networkOperator, signalStrength);
+        } finally {
+            TraceUtil.endSection(traced);
+        }
+        mMetrics.recordLatency(System.nanoTime() - startNanos);
     }
 
     private void startMonitoringPhoneState() {
@@ -383,6 +401,12 @@ public class CellularService extends Service {
             new Messenger(new IncomingHandler(
                     Looper.getMainLooper(),this));
 
+    /**
+     * Target we publish for clients in the same process, which also
+     * lets them receive the cellular data without Message and Bundle.
+     */
+    private final LocalBinder mLocalBinder = new LocalBinder(mMessenger);
+
     /**
      * Handler for incoming messages from clients.
      */
@@ -411,7 +435,12 @@ public class CellularService extends Service {
         public void handleMessage(@NonNull Message msg) {
             CellularService cellularService = weakReference.get();
             if (cellularService != null) {
-                cellularService.onClientMessageReceived(msg);
+                boolean traced = TraceUtil.beginSection("CellularService.handleMessage");
+                try {
+                    cellularService.onClientMessageReceived(msg);
+                } finally {
+                    TraceUtil.endSection(traced);
+                }
             } else {
                 Log.w(TAG_HANDLER, "handleMessage: CellularService has gone");
             }
@@ -429,6 +458,7 @@ public class CellularService extends Service {
             case IpcType.MSG_UNREGISTER_CLIENT:
                 Log.d(TAG, "RX: UNREGISTER_CLIENT");
                 mClients.remove(msg.replyTo);
+                mLocalBinder.unregisterLocalClient(msg.replyTo);
                 successReply(msg.replyTo, msg.what);
                 break;
             case IpcType.MSG_CELLULAR_START_UPDATES:
@@ -439,6 +469,11 @@ public class CellularService extends Service {
                 Log.d(TAG, "RX: CELLULAR_STOP_UPDATES");
                 stopMonitoringPhoneState();
                 break;
+            case IpcType.MSG_GET_STATS:
+                Log.d(TAG, "RX: GET_STATS");
+                sendToClient(msg.replyTo, msg.what, 0,
+                        StatsBundleUtil.toBundle(mMetrics.snapshot(mClients.size())));
+                break;
             default:
                 Log.w(TAG, "Unknown IPC message: " + msg.what);
                 errorReply(msg.replyTo, TAG + ": Unknown IPC message: " + msg.what);
@@ -459,14 +494,17 @@ public class CellularService extends Service {
             }
             if (client != null) {
                 client.send(msg);
+                mMetrics.onMessageSent();
             } else {
                 for (int i = mClients.size() - 1; i >= 0; i--) {
                     Messenger client2 = mClients.get(i);
                     client2.send(msg);
+                    mMetrics.onMessageSent();
                 }
             }
         } catch (RemoteException e) {
             Log.e(TAG, "Messenger.send: " + e.getMessage());
+            mMetrics.onSendFailed();
         }
     }
 
@@ -479,7 +517,16 @@ public class CellularService extends Service {
             bundle.putString(BundleKeys.BUNDLE_KEY_CELLULAR_NETWORK_OPERATOR, networkOperator);
         }
         bundle.putParcelable(BundleKeys.BUNDLE_KEY_CELLULAR_PARCELABLE, ss);
-        sendToClient(null, IpcType.MSG_CELLULAR_DATA, 0, bundle);
+        for (int i = mClients.size() - 1; i >= 0; i--) {
+            Messenger client = mClients.get(i);
+            Object localClient = mLocalBinder.getLocalClient(client);
+            if (localClient instanceof LocalCellularClient) {
+                ((LocalCellularClient) localClient).onCellularData(bundle);
+                mMetrics.onMessageSent();
+            } else {
+                sendToClient(client, IpcType.MSG_CELLULAR_DATA, 0, bundle);
+            }
+        }
     }
 
     private void successReply(@Nullable Messenger client, int ipcType) {
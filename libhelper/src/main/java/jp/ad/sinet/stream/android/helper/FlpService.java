@@ -39,6 +39,7 @@ import android.os.Looper;
 import android.os.Message;
 import android.os.Messenger;
 import android.os.RemoteException;
+import android.os.SystemClock;
 import android.util.Log;
 
 import androidx.annotation.NonNull;
@@ -72,6 +73,10 @@ import java.util.function.Consumer;
 
 import jp.ad.sinet.stream.android.helper.constants.BundleKeys;
 import jp.ad.sinet.stream.android.helper.constants.IpcType;
+import jp.ad.sinet.stream.android.helper.metrics.ServiceMetrics;
+import jp.ad.sinet.stream.android.helper.util.LocalBinder;
+import jp.ad.sinet.stream.android.helper.util.StatsBundleUtil;
+import jp.ad.sinet.stream.android.helper.util.TraceUtil;
 
 public class FlpService extends Service implements Executor {
     private static final String TAG = FlpService.class.getSimpleName();
@@ -79,6 +84,9 @@ public class FlpService extends Service implements Executor {
     /** Keep track of all current registered clients */
     private final List<Messenger> mClients = new ArrayList<>();
 
+    /* Runtime metrics, always on and reported by IpcType.MSG_GET_STATS */
+    private final ServiceMetrics mMetrics = new ServiceMetrics(TAG);
+
     private static final String FLP_NOTIFICATION_CHANNEL_ID =
             TAG + ".notification_channel";
     private final int NOTIFICATION_ID = R.string.service_name_flp;
@@ -199,6 +207,9 @@ public class FlpService extends Service implements Executor {
     public IBinder onBind(Intent intent) {
         Log.d(TAG, "onBind: Intent="
                 + (intent != null ? intent.toString() : ""));
+        if (LocalBinder.isLocalBind(intent)) {
+            return mLocalBinder;
+        }
         return mMessenger.getBinder();
     }
 
@@ -395,11 +406,16 @@ public class FlpService extends Service implements Executor {
                 super.onLocationResult(locationResult);
                 Log.d(TAG, "onLocationResult: " + locationResult);
 
-                Location lastLocation = locationResult.getLastLocation();
-                if (lastLocation != null) {
-                    reportNewLocation(lastLocation);
-                } else {
-                    Log.d(TAG, "Last location unavailable...");
+                boolean traced = TraceUtil.beginSection("FlpService.onLocationResult");
+                try {
+                    Location lastLocation = locationResult.getLastLocation();
+                    if (lastLocation != null) {
+                        reportNewLocation(lastLocation);
+                    } else {
+                        Log.d(TAG, "Last location unavailable...");
+                    }
+                } finally {
+                    TraceUtil.endSection(traced);
                 }
             }
 
@@ -582,6 +598,12 @@ public class FlpService extends Service implements Executor {
             new Messenger(new FlpService.IncomingHandler(
                     Looper.getMainLooper(),this));
 
+    /**
+     * Target we publish for clients in the same process, which also
+     * lets them receive the location data without Message and Bundle.
+     */
+    private final LocalBinder mLocalBinder = new LocalBinder(mMessenger);
+
     /**
      * Handler for incoming messages from clients.
      */
@@ -610,7 +632,12 @@ public class FlpService extends Service implements Executor {
         public void handleMessage(@NonNull Message msg) {
             FlpService FlpService = weakReference.get();
             if (FlpService != null) {
-                FlpService.onClientMessageReceived(msg);
+                boolean traced = TraceUtil.beginSection("FlpService.handleMessage");
+                try {
+                    FlpService.onClientMessageReceived(msg);
+                } finally {
+                    TraceUtil.endSection(traced);
+                }
             } else {
                 Log.w(TAG_HANDLER, "handleMessage: FlpService has gone");
             }
@@ -628,6 +655,7 @@ public class FlpService extends Service implements Executor {
             case IpcType.MSG_UNREGISTER_CLIENT:
                 Log.d(TAG, "RX: UNREGISTER_CLIENT");
                 mClients.remove(msg.replyTo);
+                mLocalBinder.unregisterLocalClient(msg.replyTo);
                 successReply(msg.replyTo, msg.what);
                 break;
             case IpcType.MSG_LOCATION_PROVIDER_STATUS:
@@ -655,6 +683,11 @@ public class FlpService extends Service implements Executor {
                 mLocationSettingsProblemCode = null;
                 checkLocationSettings();
                 break;
+            case IpcType.MSG_GET_STATS:
+                Log.d(TAG, "RX: GET_STATS");
+                sendToClient(msg.replyTo, msg.what, 0,
+                        StatsBundleUtil.toBundle(mMetrics.snapshot(mClients.size())));
+                break;
             default:
                 Log.w(TAG, "Unknown IPC message: " + msg.what);
                 break;
@@ -674,14 +707,17 @@ public class FlpService extends Service implements Executor {
             }
             if (client != null) {
                 client.send(msg);
+                mMetrics.onMessageSent();
             } else {
                 for (int i = mClients.size() - 1; i >= 0; i--) {
                     Messenger client2 = mClients.get(i);
                     client2.send(msg);
+                    mMetrics.onMessageSent();
                 }
             }
         } catch (RemoteException e) {
             Log.e(TAG, "Messenger.send: " + e.getMessage());
+            mMetrics.onSendFailed();
         }
     }
 
@@ -742,9 +778,26 @@ public class FlpService extends Service implements Executor {
     }
 
     private void reportNewLocation(@NonNull Location location) {
-        Bundle bundle = new Bundle();
-        bundle.putParcelable(BundleKeys.BUNDLE_KEY_LOCATION_PARCELABLE, location);
-        sendToClient(null, IpcType.MSG_LOCATION_DATA, 0, bundle);
+        mMetrics.onEventReceived(ServiceMetrics.EVENT_TYPE_ANY);
+        /* Age of the location fix on delivery */
+        mMetrics.recordLatency(
+                SystemClock.elapsedRealtimeNanos() - location.getElapsedRealtimeNanos());
+
+        Bundle bundle = null;
+        for (int i = mClients.size() - 1; i >= 0; i--) {
+            Messenger client = mClients.get(i);
+            Object localClient = mLocalBinder.getLocalClient(client);
+            if (localClient instanceof LocalLocationClient) {
+                ((LocalLocationClient) localClient).onLocationData(location);
+                mMetrics.onMessageSent();
+                continue;
+            }
+            if (bundle == null) {
+                bundle = new Bundle();
+                bundle.putParcelable(BundleKeys.BUNDLE_KEY_LOCATION_PARCELABLE, location);
+            }
+            sendToClient(client, IpcType.MSG_LOCATION_DATA, 0, bundle);
+        }
     }
 
     private void successReply(@Nullable Messenger client, int ipcType) {
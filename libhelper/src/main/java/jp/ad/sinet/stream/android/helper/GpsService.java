@@ -41,6 +41,7 @@ import android.os.Looper;
 import android.os.Message;
 import android.os.Messenger;
 import android.os.RemoteException;
+import android.os.SystemClock;
 import android.util.Log;
 
 import androidx.annotation.NonNull;
@@ -54,6 +55,10 @@ import java.util.function.Consumer;
 
 import jp.ad.sinet.stream.android.helper.constants.BundleKeys;
 import jp.ad.sinet.stream.android.helper.constants.IpcType;
+import jp.ad.sinet.stream.android.helper.metrics.ServiceMetrics;
+import jp.ad.sinet.stream.android.helper.util.LocalBinder;
+import jp.ad.sinet.stream.android.helper.util.StatsBundleUtil;
+import jp.ad.sinet.stream.android.helper.util.TraceUtil;
 
 public class GpsService extends Service {
     private static final String TAG = GpsService.class.getSimpleName();
@@ -61,6 +66,9 @@ public class GpsService extends Service {
     /** Keep track of all current registered clients */
     private final List<Messenger> mClients = new ArrayList<>();
 
+    /* Runtime metrics, always on and reported by IpcType.MSG_GET_STATS */
+    private final ServiceMetrics mMetrics = new ServiceMetrics(TAG);
+
     private LocationManager mLocationManager = null;
     private final GpsListener mGpsListener = new GpsListener();
 
@@ -131,6 +139,9 @@ public class GpsService extends Service {
     public IBinder onBind(Intent intent) {
         Log.d(TAG, "onBind: Intent="
                 + (intent != null ? intent.toString() : ""));
+        if (LocalBinder.isLocalBind(intent)) {
+            return mLocalBinder;
+        }
         return mMessenger.getBinder();
     }
 
@@ -261,10 +272,15 @@ public class GpsService extends Service {
         public void onLocationChanged(@NonNull Location location) {
             Log.d(TAG, "onLocationChanged: " + location);
 
-            if (mClients.size() > 0) {
-                reportNewLocation(location);
-            } else {
-                Log.d(TAG, "No clients for now");
+            boolean traced = TraceUtil.beginSection("GpsService.onLocationChanged");
+            try {
+                if (mClients.size() > 0) {
+                    reportNewLocation(location);
+                } else {
+                    Log.d(TAG, "No clients for now");
+                }
+            } finally {
+                TraceUtil.endSection(traced);
             }
         }
 
@@ -414,6 +430,12 @@ public class GpsService extends Service {
             new Messenger(new GpsService.IncomingHandler(
                     Looper.getMainLooper(),this));
 
+    /**
+     * Target we publish for clients in the same process, which also
+     * lets them receive the location data without Message and Bundle.
+     */
+    private final LocalBinder mLocalBinder = new LocalBinder(mMessenger);
+
     /**
      * Handler for incoming messages from clients.
      */
@@ -442,7 +464,12 @@ public class GpsService extends Service {
         public void handleMessage(@NonNull Message msg) {
             GpsService GpsService = weakReference.get();
             if (GpsService != null) {
-                GpsService.onClientMessageReceived(msg);
+                boolean traced = TraceUtil.beginSection("GpsService.handleMessage");
+                try {
+                    GpsService.onClientMessageReceived(msg);
+                } finally {
+                    TraceUtil.endSection(traced);
+                }
             } else {
                 Log.w(TAG_HANDLER, "handleMessage: GpsService has gone");
             }
@@ -460,6 +487,7 @@ public class GpsService extends Service {
             case IpcType.MSG_UNREGISTER_CLIENT:
                 Log.d(TAG, "RX: UNREGISTER_CLIENT");
                 mClients.remove(msg.replyTo);
+                mLocalBinder.unregisterLocalClient(msg.replyTo);
                 successReply(msg.replyTo, msg.what);
                 break;
             case IpcType.MSG_LOCATION_PROVIDER_STATUS:
@@ -473,10 +501,16 @@ public class GpsService extends Service {
                 break;
             case IpcType.MSG_LOCATION_STOP_UPDATES:
                 Log.d(TAG, "RX: LOCATION_STOP_UPDATES");
+                cancelLocationUpdates();
                 break;
             case IpcType.MSG_LOCATION_RESOLUTION_CORRECTED:
                 Log.d(TAG, "RX: LOCATION_RESOLUTION_CORRECTED");
                 break;
+            case IpcType.MSG_GET_STATS:
+                Log.d(TAG, "RX: GET_STATS");
+                sendToClient(msg.replyTo, msg.what, 0,
+                        StatsBundleUtil.toBundle(mMetrics.snapshot(mClients.size())));
+                break;
             default:
                 Log.w(TAG, "Unknown IPC message: " + msg.what);
                 break;
@@ -496,14 +530,17 @@ public class GpsService extends Service {
             }
             if (client != null) {
                 client.send(msg);
+                mMetrics.onMessageSent();
             } else {
                 for (int i = mClients.size() - 1; i >= 0; i--) {
                     Messenger client2 = mClients.get(i);
                     client2.send(msg);
+                    mMetrics.onMessageSent();
                 }
             }
         } catch (RemoteException e) {
             Log.e(TAG, "Messenger.send: " + e.getMessage());
+            mMetrics.onSendFailed();
         }
     }
 
@@ -518,9 +555,26 @@ public class GpsService extends Service {
     }
 
     private void reportNewLocation(@NonNull Location location) {
-        Bundle bundle = new Bundle();
-        bundle.putParcelable(BundleKeys.BUNDLE_KEY_LOCATION_PARCELABLE, location);
-        sendToClient(null, IpcType.MSG_LOCATION_DATA, 0, bundle);
+        mMetrics.onEventReceived(ServiceMetrics.EVENT_TYPE_ANY);
+        /* Age of the location fix on delivery */
+        mMetrics.recordLatency(
+                SystemClock.elapsedRealtimeNanos() - location.getElapsedRealtimeNanos());
+
+        Bundle bundle = null;
+        for (int i = mClients.size() - 1; i >= 0; i--) {
+            Messenger client = mClients.get(i);
+            Object localClient = mLocalBinder.getLocalClient(client);
+            if (localClient instanceof LocalLocationClient) {
+                ((LocalLocationClient) localClient).onLocationData(location);
+                mMetrics.onMessageSent();
+                continue;
+            }
+            if (bundle == null) {
+                bundle = new Bundle();
+                bundle.putParcelable(BundleKeys.BUNDLE_KEY_LOCATION_PARCELABLE, location);
+            }
+            sendToClient(client, IpcType.MSG_LOCATION_DATA, 0, bundle);
+        }
     }
 
     private void successReply(@Nullable Messenger client, int ipcType) {
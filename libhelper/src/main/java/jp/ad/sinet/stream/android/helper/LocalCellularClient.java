@@ -0,0 +1,41 @@
+/*
+ * Copyright (C) 2026 National Institute of Informatics
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+
+package jp.ad.sinet.stream.android.helper;
+
+import android.os.Bundle;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Data path from {@link CellularService} to a {@link CellularMonitor}
+ * in the same process, registered to
+ * {@link jp.ad.sinet.stream.android.helper.util.LocalBinder}.
+ */
+interface LocalCellularClient {
+    /**
+     * Called on the main thread, instead of {@code IpcType.MSG_CELLULAR_DATA}.
+     *
+     * @param bundle the cellular data, as given to
+     *               {@link CellularMonitorListener#onCellularDataReceived}
+     */
+    void onCellularData(@NonNull Bundle bundle);
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright (C) 2026 National Institute of Informatics
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+
+package jp.ad.sinet.stream.android.helper;
+
+import androidx.annotation.NonNull;
+
+import jp.ad.sinet.stream.android.helper.models.SensorSamples;
+
+/**
+ * Data path from {@link SensorService} to a {@link SensorController}
+ * in the same process, registered to
+ * {@link jp.ad.sinet.stream.android.helper.util.LocalBinder}.
+ */
+interface LocalSensorClient {
+    /**
+     * Called on the export thread of the service, instead of
+     * {@code IpcType.MSG_SENSOR_DATA}.
+     *
+     * @param jsonString the exported sensor data
+     * @param sensorTypes the sensor types in the export
+     * @param eventNanos when each sample has occurred
+     * @param ingestNanos when each sample has arrived
+     * @param serializeNanos when the JSON has been built
+     */
+    void onSensorData(@NonNull String jsonString, @NonNull int[] sensorTypes,
+                      @NonNull long[] eventNanos, @NonNull long[] ingestNanos,
+                      long serializeNanos);
+
+    /**
+     * Called on the export thread of the service, instead of
+     * {@code IpcType.MSG_SENSOR_SAMPLES}.
+     *
+     * @param samples the exported sensor samples, not to be modified
+     * @param sensorTypes the sensor types in the export
+     * @param eventNanos when each sample has occurred
+     * @param ingestNanos when each sample has arrived
+     * @param serializeNanos when the samples have been packed
+     */
+    void onSensorSamples(@NonNull SensorSamples samples, @NonNull int[] sensorTypes,
+                         @NonNull long[] eventNanos, @NonNull long[] ingestNanos,
+                         long serializeNanos);
+}
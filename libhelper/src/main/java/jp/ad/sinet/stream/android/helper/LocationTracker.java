@@ -48,16 +48,25 @@ import androidx.activity.result.ActivityResultLauncher;
 import androidx.activity.result.contract.ActivityResultContracts;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.annotation.RequiresApi;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.core.app.ActivityCompat;
 
 import java.lang.ref.WeakReference;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
 
 import jp.ad.sinet.stream.android.helper.constants.BundleKeys;
 import jp.ad.sinet.stream.android.helper.constants.IpcType;
 import jp.ad.sinet.stream.android.helper.constants.LocationProviderType;
+import jp.ad.sinet.stream.android.helper.provider.DemandPublisher;
 import jp.ad.sinet.stream.android.helper.util.AppInfo;
 import jp.ad.sinet.stream.android.helper.util.DialogUtil;
+import jp.ad.sinet.stream.android.helper.util.LocalBinder;
+import jp.ad.sinet.stream.android.helper.util.PendingCommands;
+import jp.ad.sinet.stream.android.helper.util.StatsBundleUtil;
+import jp.ad.sinet.stream.android.helper.util.TraceUtil;
 
 public class LocationTracker {
     private static final String TAG = LocationTracker.class.getSimpleName();
@@ -67,6 +76,11 @@ public class LocationTracker {
      */
     private Messenger mService = null;
 
+    /* Non-null if the service runs in the same process */
+    private LocalBinder mLocalBinder = null;
+
+    private DemandPublisher<Location> mLocationPublisher = null;
+
     private boolean mIsBound = false;
     private final AppCompatActivity mActivity;
     private final LocationTrackerListener mListener;
@@ -78,10 +92,45 @@ public class LocationTracker {
 
     private final LocationProviderType mLocationProviderType;
 
+    private ServiceStatsListener mStatsListener = null;
+
+    /* Commands issued while the bind is in progress */
+    private final static int MAX_PENDING_COMMANDS = 16;
+    private final static long PENDING_COMMAND_TIMEOUT = 10000L; /* 10 seconds */
+    private final PendingCommands mPendingCommands;
+
     public LocationTracker(
             @NonNull AppCompatActivity activity,
             @NonNull LocationProviderType locationProviderType,
             int clientId) {
+        this(activity, locationProviderType, clientId, Looper.getMainLooper());
+    }
+
+    /**
+     * Constructs a LocationTracker instance, whose callbacks on service messages
+     * run on the given {@link Looper} instead of the main thread.
+     * <p>
+     *     This lets heavy processing on each location stay off the
+     *     UI thread, without another hop from the main thread.
+     *     Calls to this instance are still expected on the main thread.
+     * </p>
+     *
+     * @param activity the Activity which implements {@link LocationTrackerListener}
+     * @param locationProviderType the location service to use
+     * @param clientId the client ID which distinguishes myself from
+     *                 other clients bound to the same location service
+     * @param looper the Looper to run listener callbacks on,
+     *               such as the one of a {@link android.os.HandlerThread}
+     */
+    public LocationTracker(
+            @NonNull AppCompatActivity activity,
+            @NonNull LocationProviderType locationProviderType,
+            int clientId,
+            @NonNull Looper looper) {
+        mCallbackHandler = new Handler(looper);
+        mPendingCommands = new PendingCommands(MAX_PENDING_COMMANDS,
+                PENDING_COMMAND_TIMEOUT, mCallbackHandler, mDropListener);
+        mMessenger = new Messenger(new LocationTracker.IncomingHandler(looper, this));
         if (activity instanceof LocationTrackerListener) {
             mContext = activity;
             mListener = (LocationTrackerListener) activity;
@@ -314,7 +363,8 @@ public class LocationTracker {
      * Binds the location service to open a communication line.
      * <p>
      *     Once the connection has established, we can send/receive IPC messages
-     *     with the location service.
+     *     with the location service. Requests issued before that are kept, and
+     *     sent in a batch as soon as the service gets connected.
      * </p>
      */
     public void bindLocationService() {
@@ -333,7 +383,7 @@ public class LocationTracker {
             }
             try {
                 mIsBound = mContext.bindService(
-                        intent,
+                        LocalBinder.toBindIntent(mContext, intent),
                         mConnection,
                         Context.BIND_AUTO_CREATE);
                 if (!mIsBound) {
@@ -350,6 +400,7 @@ public class LocationTracker {
      */
     public void unbindLocationService() {
         Log.d(TAG, "unbindLocationService");
+        mPendingCommands.drop("Service unbound");
 
         // If we have received the service, and hence registered with
         // it, then now is the time to unregister.
@@ -363,19 +414,127 @@ public class LocationTracker {
             } catch (RemoteException e) {
                 mListener.onError(TAG + ": unbindLocationService: " + e.getMessage());
             }
+            if (mLocalBinder != null) {
+                mLocalBinder.unregisterLocalClient(mMessenger);
+                mLocalBinder = null;
+            }
+            if (mLocationPublisher != null) {
+                mLocationPublisher.complete();
+            }
 
             // Detach out existing connection.
             mContext.unbindService(mConnection);
             mIsBound = false;
+        } else if (mIsBound) {
+            // Still waiting for the connection; detach it all the same.
+            mContext.unbindService(mConnection);
+            mIsBound = false;
+        }
+    }
+
+    /**
+     * Get a {@link Flow.Publisher} view of the locations.
+     * <p>
+     *     Items are handed over to the subscribers with outstanding demand
+     *     only, and dropped for the others. Subscribers are signalled on the
+     *     callback Looper, or on the executor given to
+     *     {@link DemandPublisher#subscribe(Flow.Subscriber, Executor)}.
+     *     They are completed when this client unbinds from the location service.
+     * </p>
+     *
+     * @return the publisher of locations
+     */
+    @RequiresApi(api = Build.VERSION_CODES.R)
+    @NonNull
+    public DemandPublisher<Location> getLocationPublisher() {
+        if (mLocationPublisher == null) {
+            mLocationPublisher = new DemandPublisher<>(new Executor() {
+                @Override
+                public void execute(Runnable command) {
+                    mCallbackHandler.post(command);
+                }
+            }, null);
+        }
+        return mLocationPublisher;
+    }
+
+    private void onLocationReceived(@NonNull Location location) {
+        mListener.onLocationDataReceived(location);
+        if (mLocationPublisher != null) {
+            mLocationPublisher.offer(location);
+        }
+    }
+
+    /**
+     * Ask {@link GpsService} or {@link FlpService}, whichever in use, for its runtime metrics.
+     * <p>
+     *     The result will be notified by
+     *     {@link ServiceStatsListener#onStatsReceived}.
+     *     If called again before the reply, the latest listener takes it.
+     * </p>
+     *
+     * @param listener the receiver of the metrics
+     */
+    public void getStats(@NonNull ServiceStatsListener listener) {
+        if (mIsBound) {
+            mStatsListener = listener;
+            sendMessage(IpcType.MSG_GET_STATS);
+        } else {
+            mListener.onError(TAG + ": Service not yet bound");
+        }
+    }
+
+    /**
+     * Temporarily stop location updates while keeping the service bound,
+     * such like while the device is stationary.
+     * See {@link SensorMotionListener}.
+     */
+    public void pauseLocationUpdates() {
+        if (mIsBound) {
+            requestLocationStopUpdate();
+        } else {
+            mListener.onError(TAG + ": Service not yet bound");
+        }
+    }
+
+    /**
+     * Restart location updates stopped by {@link #pauseLocationUpdates}.
+     */
+    public void resumeLocationUpdates() {
+        if (mIsBound) {
+            requestLocationStartUpdate();
+        } else {
+            mListener.onError(TAG + ": Service not yet bound");
         }
     }
 
     /**
      * IPC endpoint to send messages to Service.
      */
-    private final Messenger mMessenger =
-            new Messenger(new LocationTracker.IncomingHandler(
-                    Looper.getMainLooper(),this));
+    private final Messenger mMessenger;
+
+    /* On the Looper of listener callbacks */
+    private final Handler mCallbackHandler;
+
+    /**
+     * Data path from {@link GpsService} or {@link FlpService} in the same process.
+     */
+    private final LocalLocationClient mLocalClient = new LocalLocationClient() {
+        @Override
+        public void onLocationData(@NonNull final Location location) {
+            /* Called on the main thread of the service */
+            if (mCallbackHandler.getLooper() == Looper.myLooper()) {
+                onLocationReceived(location);
+            } else {
+                mCallbackHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        onLocationReceived(location);
+                    }
+                });
+            }
+        }
+    };
 
     /**
      * Handler for incoming messages from Service.
@@ -404,7 +563,12 @@ public class LocationTracker {
         public void handleMessage(@NonNull Message msg) {
             LocationTracker LocationTracker = weakReference.get();
             if (LocationTracker != null) {
-                LocationTracker.onServerMessageReceived(msg);
+                boolean traced = TraceUtil.beginSection("LocationTracker.handleMessage");
+                try {
+                    LocationTracker.onServerMessageReceived(msg);
+                } finally {
+                    TraceUtil.endSection(traced);
+                }
             } else {
                 Log.w(TAG, "handleMessage: LocationTracker has gone");
             }
@@ -448,7 +612,7 @@ public class LocationTracker {
                     Location location = bundle.getParcelable(
                             BundleKeys.BUNDLE_KEY_LOCATION_PARCELABLE);
                     if (location != null) {
-                        mListener.onLocationDataReceived(location);
+                        onLocationReceived(location);
                     } else {
                         Log.w(TAG, "MSG_LOCATION_DATA: Invalid bundle: " + bundle);
                     }
@@ -475,6 +639,13 @@ public class LocationTracker {
                             }
                         });
                 break;
+            case IpcType.MSG_GET_STATS:
+                if (bundle != null) {
+                    onStatsReceived(bundle);
+                } else {
+                    Log.w(TAG, "MSG_GET_STATS: No bundle?");
+                }
+                break;
             case IpcType.MSG_ERROR:
                 if (bundle != null) {
                     String errmsg = bundle.getString(BundleKeys.BUNDLE_KEY_ERROR_MESSAGE);
@@ -493,6 +664,15 @@ public class LocationTracker {
         }
     }
 
+    private void onStatsReceived(@NonNull Bundle bundle) {
+        ServiceStatsListener listener = mStatsListener;
+        if (listener != null) {
+            listener.onStatsReceived(StatsBundleUtil.fromBundle(bundle));
+        } else {
+            Log.w(TAG, "MSG_GET_STATS: No listener?");
+        }
+    }
+
     /**
      * Callback interfaces for Service connection management.
      */
@@ -505,7 +685,15 @@ public class LocationTracker {
             // service through an IDL interface, so get a client-side
             // representation of that from the raw service object.
             Log.d(TAG, "ServiceConnection.onServiceConnected: " + name.toString());
-            mService = new Messenger(service);
+            if (service instanceof LocalBinder) {
+                // The service runs in the same process, so that we can
+                // take the location data without Message and Bundle.
+                mLocalBinder = (LocalBinder) service;
+                mLocalBinder.registerLocalClient(mMessenger, mLocalClient);
+                mService = mLocalBinder.getMessenger();
+            } else {
+                mService = new Messenger(service);
+            }
 
             // We want to monitor the service for as long as we are
             // connected to it.
@@ -524,6 +712,9 @@ public class LocationTracker {
             }
 
             mIsBound = true;
+
+            // Requests issued while binding, if any.
+            mPendingCommands.flush(mService);
         }
 
         @Override
@@ -532,6 +723,7 @@ public class LocationTracker {
             // unexpectedly disconnected -- that is, its process crashed.
             Log.d(TAG, "ServiceConnection.onServiceDisconnected: " + name.toString());
             mService = null;
+            mLocalBinder = null;
 
             mIsBound = false;
         }
@@ -560,11 +752,29 @@ public class LocationTracker {
     private void sendMessage(int ipcType) {
         Message msg = Message.obtain(null, ipcType, 0, mClientId);
         msg.replyTo = mMessenger;
+        Messenger service = mService;
+        if (service == null) {
+            /* The bind is still in progress */
+            if (! mPendingCommands.offer(msg)) {
+                mListener.onError(TAG + ": Too many requests before connected");
+            }
+            return;
+        }
         try {
-            mService.send(msg);
+            service.send(msg);
         } catch (RemoteException e) {
             Log.e(TAG, "Messenger.send: " + e.getMessage());
             mListener.onError("Cannot send message: " + e.getMessage());
         }
     }
+
+    private final PendingCommands.DropListener mDropListener =
+            new PendingCommands.DropListener() {
+        @Override
+        public void onCommandsDropped(@NonNull List<Message> commands, @NonNull String reason) {
+            for (Message msg : commands) {
+                mListener.onError(TAG + ": IpcType(" + msg.what + "): " + reason);
+            }
+        }
+    };
 }
@@ -26,23 +26,55 @@ import android.content.ComponentName;
 import android.content.Context;
 import android.content.Intent;
 import android.content.ServiceConnection;
+import android.os.Build;
 import android.os.Bundle;
 import android.os.Handler;
 import android.os.IBinder;
 import android.os.Looper;
 import android.os.Message;
 import android.os.Messenger;
+import android.os.ParcelFileDescriptor;
 import android.os.RemoteException;
+import android.os.SystemClock;
 import android.util.Log;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.annotation.RequiresApi;
 
+import java.io.IOException;
 import java.lang.ref.WeakReference;
+import java.nio.channels.ClosedByInterruptException;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import jp.ad.sinet.stream.android.helper.constants.BundleKeys;
 import jp.ad.sinet.stream.android.helper.constants.IpcType;
+import jp.ad.sinet.stream.android.helper.constants.SensorDataFormat;
+import jp.ad.sinet.stream.android.helper.metrics.DeliveryLatencyTracker;
+import jp.ad.sinet.stream.android.helper.models.DeliveryLatencyReport;
+import jp.ad.sinet.stream.android.helper.models.SensorSamples;
+import jp.ad.sinet.stream.android.helper.models.SensorSessionConfig;
+import jp.ad.sinet.stream.android.helper.models.SyntheticLoadParams;
+import jp.ad.sinet.stream.android.helper.models.SyntheticLoadReport;
+import jp.ad.sinet.stream.android.helper.provider.ChunkAssembler;
+import jp.ad.sinet.stream.android.helper.provider.DemandPublisher;
+import jp.ad.sinet.stream.android.helper.provider.SampleStreamReader;
+import jp.ad.sinet.stream.android.helper.util.LocalBinder;
+import jp.ad.sinet.stream.android.helper.util.PendingCommands;
+import jp.ad.sinet.stream.android.helper.util.ProbeBundleUtil;
+import jp.ad.sinet.stream.android.helper.util.SamplesBundleUtil;
+import jp.ad.sinet.stream.android.helper.util.SensorBundleUtil;
+import jp.ad.sinet.stream.android.helper.util.SessionConfigBundleUtil;
+import jp.ad.sinet.stream.android.helper.util.StatsBundleUtil;
+import jp.ad.sinet.stream.android.helper.util.TraceUtil;
 
 
 /**
@@ -76,11 +108,17 @@ public class SensorController {
 
     private final static long MIN_INTERVAL_TIMER = 100L; /* 100 milliseconds */
 
+    private final static int MAX_PENDING_COMMANDS = 64;
+    private final static long PENDING_COMMAND_TIMEOUT = 10000L; /* 10 seconds */
+
     /**
      * Messenger for communicating with the service.
      */
     private Messenger mService = null;
 
+    /* Non-null if SensorService runs in the same process */
+    private LocalBinder mLocalBinder = null;
+
     private boolean mIsBound = false;
     private final SensorListener mListener;
     private final Context mContext;
@@ -88,6 +126,46 @@ public class SensorController {
 
     private ArrayList<Integer> mExcludeSensorTypes = null;
 
+    /* Pending queries to the on-device data store */
+    private final Map<Integer, SensorQueryListener> mQueryListeners = new HashMap<>();
+    private int mNextQueryId = 1;
+
+    /* Pipelined requests awaiting the reply, keyed by request id */
+    private final Map<Integer, PendingRequest> mPendingRequests = new ConcurrentHashMap<>();
+    private final AtomicInteger mNextRequestId = new AtomicInteger(1);
+
+    /* Commands issued while the bind is in progress */
+    private final PendingCommands mPendingCommands;
+
+    private SensorReplayListener mReplayListener = null;
+    private SensorLoadListener mLoadListener = null;
+    private ServiceStatsListener mStatsListener = null;
+    private SensorIntervalListener mIntervalListener = null;
+    private SensorMotionListener mMotionListener = null;
+    private SensorInventoryListener mInventoryListener = null;
+    private SensorProbeListener mProbeListener = null;
+    private SensorSamplesListener mSamplesListener = null;
+    private boolean mSamplesWithJson = true;
+    private DemandPublisher<SensorSamples> mSamplesPublisher = null;
+
+    /* Sample stream through a pipe, read on a thread of its own */
+    private SensorSamplesListener mStreamListener = null;
+    private boolean mStreamWithJson = true;
+    private Thread mStreamThread = null;
+
+    /* SensorDataFormat as told to the service */
+    private int mSensorDataFormat = SensorDataFormat.JSON;
+
+    /* Reassembles MSG_SENSOR_DATA_CHUNK */
+    private final ChunkAssembler mChunkAssembler = new ChunkAssembler();
+
+    /* Refilled on each MSG_SENSOR_SAMPLES */
+    private final SensorSamples mSamples = new SensorSamples();
+
+    /* End-to-end latency of received sensor data */
+    private final DeliveryLatencyTracker mDeliveryLatencyTracker =
+            new DeliveryLatencyTracker();
+
     /**
      * Constructs a SensorController instance.
      *
@@ -102,6 +180,29 @@ public class SensorController {
      *                          the required listener.
      */
     public SensorController(@NonNull Context context, int clientId) {
+        this(context, clientId, Looper.getMainLooper());
+    }
+
+    /**
+     * Constructs a SensorController instance, whose listener callbacks
+     * run on the given {@link Looper} instead of the main thread.
+     * <p>
+     *     This lets heavy processing on each sensor data stay off the
+     *     UI thread, without another hop from the main thread.
+     *     Calls to this instance are still expected on the main thread.
+     * </p>
+     *
+     * @param context the Application context which implements
+     *                {@link SensorListener}.
+     * @param clientId the client ID which distinguishes myself from
+     *                 other clients bound to the same {@link SensorService}.
+     * @param looper the Looper to run listener callbacks on,
+     *               such as the one of a {@link android.os.HandlerThread}.
+     *
+     * @throws RuntimeException if given context does not implement
+     *                          the required listener.
+     */
+    public SensorController(@NonNull Context context, int clientId, @NonNull Looper looper) {
         if (context instanceof SensorListener) {
             this.mContext = context;
             this.mListener = (SensorListener)context;
@@ -110,6 +211,10 @@ public class SensorController {
             throw new RuntimeException(context
                     + " must implement SensorListener");
         }
+        this.mCallbackHandler = new Handler(looper);
+        this.mMessenger = new Messenger(new IncomingHandler(looper, this));
+        this.mPendingCommands = new PendingCommands(MAX_PENDING_COMMANDS,
+                PENDING_COMMAND_TIMEOUT, mCallbackHandler, mDropListener);
     }
 
     /*
@@ -124,6 +229,13 @@ public class SensorController {
      *     {@link SensorListener#onSensorEngaged}, otherwise
      *     notified by {@link SensorListener#onError}.
      * </p>
+     * <p>
+     *     Caller DON'T have to wait for the notification before issuing
+     *     other requests. Requests issued in the meantime are kept, and sent
+     *     in a batch as soon as the service gets connected. Those are dropped
+     *     with {@link SensorListener#onError} if too many, or if the
+     *     service does not get connected within 10 seconds.
+     * </p>
      *
      * @see <a href="https://developer.android.com/guide/components/bound-services">Bound services overview</a>
      */
@@ -138,7 +250,8 @@ public class SensorController {
         } else {
             try {
                 mIsBound = mContext.bindService(
-                        new Intent(mContext, SensorService.class),
+                        LocalBinder.toBindIntent(mContext,
+                                new Intent(mContext, SensorService.class)),
                         mConnection,
                         Context.BIND_AUTO_CREATE);
                 if (!mIsBound) {
@@ -165,6 +278,8 @@ public class SensorController {
     public void unbindSensorService() {
         Log.d(TAG, "unbindSensorService");
 
+        mPendingCommands.drop("Service unbound");
+
         // If we have received the service, and hence registered with
         // it, then now is the time to unregister.
         if (mService != null) {
@@ -177,10 +292,25 @@ public class SensorController {
             } catch (RemoteException e) {
                 mListener.onError(TAG + ": unbindSensorService: " + e);
             }
+            if (mLocalBinder != null) {
+                mLocalBinder.unregisterLocalClient(mMessenger);
+                mLocalBinder = null;
+            }
+            mService = null;
+            if (mSamplesPublisher != null) {
+                mSamplesPublisher.complete();
+            }
+            failPendingRequests(TAG + ": Service unbound");
+            mStreamListener = null;
+            stopStreamReader();
 
             // Detach out existing connection.
             mContext.unbindService(mConnection);
             mIsBound = false;
+        } else if (mIsBound) {
+            // Still waiting for the connection; detach it all the same.
+            mContext.unbindService(mConnection);
+            mIsBound = false;
         }
     }
 
@@ -226,7 +356,7 @@ public class SensorController {
             }
             msg.replyTo = mMessenger;
             try {
-                mService.send(msg);
+                sendToService(msg);
             } catch (RemoteException e) {
                 mListener.onError(TAG + ": Messenger.send: " + e);
             }
@@ -266,7 +396,7 @@ public class SensorController {
             msg.setData(bundle);
             msg.replyTo = mMessenger;
             try {
-                mService.send(msg);
+                sendToService(msg);
             } catch (RemoteException e) {
                 mListener.onError(TAG + ": Messenger.send: " + e);
             }
@@ -305,7 +435,75 @@ public class SensorController {
             msg.setData(bundle);
             msg.replyTo = mMessenger;
             try {
-                mService.send(msg);
+                sendToService(msg);
+            } catch (RemoteException e) {
+                mListener.onError(TAG + ": Messenger.send: " + e);
+            }
+        } else {
+            mListener.onError(TAG + ": Service not yet bound");
+        }
+    }
+
+    /**
+     * Ask {@link SensorService} for the list of sensor instances, so that
+     * the caller can tell apart the sensors of the same type.
+     * <p>
+     *     The result will be notified by
+     *     {@link SensorInventoryListener#onSensorsReceived}.
+     *     If called again before the reply, the latest listener takes it.
+     * </p>
+     * <p>
+     *     The listener is kept, and notified again with the
+     *     updated list whenever a sensor is attached or detached at runtime
+     *     (Android 7.0 or later, if the device supports it).
+     * </p>
+     *
+     * @param listener the receiver of the list
+     */
+    public void getAvailableSensors(@NonNull SensorInventoryListener listener) {
+        if (mIsBound) {
+            Message msg = Message.obtain(null, IpcType.MSG_LIST_SENSORS, 0, mClientId);
+            msg.replyTo = mMessenger;
+            try {
+                sendToService(msg);
+                mInventoryListener = listener;
+            } catch (RemoteException e) {
+                mListener.onError(TAG + ": Messenger.send: " + e);
+            }
+        } else {
+            mListener.onError(TAG + ": Service not yet bound");
+        }
+    }
+
+    /**
+     * Same as {@link #enableSensors}, but the target sensors are specified
+     * by handle, as notified by {@link SensorInventoryListener}.
+     *
+     * @param handles ArrayList of target sensor handles
+     */
+    public void enableSensorsByHandle(@NonNull ArrayList<Integer> handles) {
+        sendSensorHandles(IpcType.MSG_ENABLE_SENSORS, handles);
+    }
+
+    /**
+     * Same as {@link #disableSensors}, but the target sensors are specified
+     * by handle, as notified by {@link SensorInventoryListener}.
+     *
+     * @param handles ArrayList of target sensor handles
+     */
+    public void disableSensorsByHandle(@NonNull ArrayList<Integer> handles) {
+        sendSensorHandles(IpcType.MSG_DISABLE_SENSORS, handles);
+    }
+
+    private void sendSensorHandles(int ipcType, @NonNull ArrayList<Integer> handles) {
+        if (mIsBound) {
+            Message msg = Message.obtain(null, ipcType, 0, mClientId);
+            Bundle bundle = new Bundle();
+            bundle.putIntegerArrayList(BundleKeys.BUNDLE_KEY_SENSOR_HANDLES, handles);
+            msg.setData(bundle);
+            msg.replyTo = mMessenger;
+            try {
+                sendToService(msg);
             } catch (RemoteException e) {
                 mListener.onError(TAG + ": Messenger.send: " + e);
             }
@@ -342,7 +540,7 @@ public class SensorController {
             msg.setData(bundle);
             msg.replyTo = mMessenger;
             try {
-                mService.send(msg);
+                sendToService(msg);
             } catch (RemoteException e) {
                 mListener.onError(TAG + ": Messenger.send: " + e);
             }
@@ -385,7 +583,7 @@ public class SensorController {
             msg.setData(bundle);
             msg.replyTo = mMessenger;
             try {
-                mService.send(msg);
+                sendToService(msg);
             } catch (RemoteException e) {
                 mListener.onError(TAG + ": Messenger.send: " + e);
             }
@@ -409,7 +607,7 @@ public class SensorController {
                     null, IpcType.MSG_RESET_LOCATION, 0, mClientId);
             msg.replyTo = mMessenger;
             try {
-                mService.send(msg);
+                sendToService(msg);
             } catch (RemoteException e) {
                 mListener.onError(TAG + ": Messenger.send: " + e);
             }
@@ -425,7 +623,7 @@ public class SensorController {
             msg.setData(bundle);
             msg.replyTo = mMessenger;
             try {
-                mService.send(msg);
+                sendToService(msg);
             } catch (RemoteException e) {
                 mListener.onError(TAG + ": Messenger.send: " + e);
             }
@@ -463,7 +661,7 @@ public class SensorController {
             msg.setData(bundle);
             msg.replyTo = mMessenger;
             try {
-                mService.send(msg);
+                sendToService(msg);
             } catch (RemoteException e) {
                 mListener.onError(TAG + ": Messenger.send: " + e);
             }
@@ -473,155 +671,1533 @@ public class SensorController {
     }
 
     /**
-     * IPC endpoint to send messages to Service.
+     * Ask {@link SensorService} to apply all the settings of a session
+     * at once, instead of {@link #setIntervalTimer}, {@link #setLocation},
+     * {@link #setUserData} and {@link #enableSensors} one by one.
+     *
+     * <p>
+     *     The settings are validated before any of them takes effect, and
+     *     the service replies once for all. Unlike {@link #enableSensors},
+     *     the sensors given by the config become the whole enabled set:
+     *     others get disabled, and those already enabled are left as is.
+     *     If something goes bad, {@link SensorListener#onError} will
+     *     be notified, and none of the settings is changed.
+     * </p>
+     *
+     * @param config the settings of the session, unset ones are kept as is
      */
-    private final Messenger mMessenger =
-            new Messenger(new IncomingHandler(
-                    Looper.getMainLooper(),this));
+    public void applySessionConfig(@NonNull SensorSessionConfig config) {
+        String errmsg = validateSessionConfig(config);
+        if (errmsg != null) {
+            mListener.onError(errmsg);
+            return;
+        }
+        if (mIsBound) {
+            Message msg = Message.obtain(
+                    null, IpcType.MSG_APPLY_SESSION_CONFIG, 0, mClientId);
+            msg.setData(SessionConfigBundleUtil.toBundle(config));
+            msg.replyTo = mMessenger;
+            try {
+                sendToService(msg);
+            } catch (RemoteException e) {
+                mListener.onError(TAG + ": Messenger.send: " + e);
+            }
+        } else {
+            mListener.onError(TAG + ": Service not yet bound");
+        }
+    }
 
     /**
-     * Handler for incoming messages from Service.
+     * Pipelined variant of {@link #applySessionConfig}.
+     *
+     * @param config the settings of the session, unset ones are kept as is
+     * @return the future completed on the reply of {@link SensorService}
+     * @see #enableSensorsAsync
      */
-    private static class IncomingHandler extends Handler {
-        final WeakReference<SensorController> weakReference;
-
-        /*
-         * Default constructor in android.os.Handler is deprecated.
-         * We need to use an Executor or specify the Looper explicitly.
-         */
-        IncomingHandler(
-                @NonNull Looper looper, @NonNull SensorController sensorController) {
-            super(looper);
-
-            /* Keep the enclosing class object as weak-reference to prevent leaks */
-            weakReference = new WeakReference<>(sensorController);
+    @RequiresApi(api = Build.VERSION_CODES.N)
+    @NonNull
+    public CompletableFuture<Void> applySessionConfigAsync(@NonNull SensorSessionConfig config) {
+        String errmsg = validateSessionConfig(config);
+        if (errmsg != null) {
+            return failedRequest(IpcType.MSG_APPLY_SESSION_CONFIG, errmsg);
         }
+        return sendRequest(IpcType.MSG_APPLY_SESSION_CONFIG,
+                SessionConfigBundleUtil.toBundle(config));
+    }
 
-        /**
-         * Subclasses must implement this to receive messages.
-         *
-         * @param msg A Message object containing a bundle of data
-         */
-        @Override
-        public void handleMessage(@NonNull Message msg) {
-            SensorController sensorController = weakReference.get();
-            if (sensorController != null) {
-                sensorController.onServerMessageReceived(msg);
-            } else {
-                Log.w(TAG, "handleMessage: SensorController has gone");
-            }
-            super.handleMessage(msg);
+    @Nullable
+    private static String validateSessionConfig(@NonNull SensorSessionConfig config) {
+        long milliseconds = config.getIntervalMillis();
+        if (milliseconds > 0L && milliseconds < MIN_INTERVAL_TIMER) {
+            return TAG + ": IntervalTimer(" + milliseconds + ") too small";
         }
+        String errmsg = config.validate();
+        return (errmsg != null) ? TAG + ": " + errmsg : null;
     }
 
-    private void onServerMessageReceived(@NonNull Message msg) {
-        int result_code = msg.arg1;
-        Bundle bundle = msg.getData();
-
-        switch (msg.what) {
-            case IpcType.MSG_LIST_SENSOR_TYPES:
-                if (bundle != null) {
-                    ArrayList<Integer> sensorTypes =
-                            bundle.getIntegerArrayList(BundleKeys.BUNDLE_KEY_SENSOR_TYPES);
-                    ArrayList<String> sensorTypeNames =
-                            bundle.getStringArrayList(BundleKeys.BUNDLE_KEY_SENSOR_TYPE_NAMES);
+    /**
+     * Pipelined variant of {@link #enableSensors}.
+     * <p>
+     *     Unlike the original, the result is told by the returned future,
+     *     so that the caller can issue several requests in a row and
+     *     await them together. Errors of the request complete the future
+     *     exceptionally with {@link ServiceRequestException}, instead of
+     *     being notified by {@link SensorListener#onError}.
+     * </p>
+     *
+     * @param sensorTypes ArrayList of target sensor types
+     * @return the future completed on the reply of {@link SensorService}
+     */
+    @RequiresApi(api = Build.VERSION_CODES.N)
+    @NonNull
+    public CompletableFuture<Void> enableSensorsAsync(@NonNull ArrayList<Integer> sensorTypes) {
+        Bundle bundle = new Bundle();
+        bundle.putIntegerArrayList(BundleKeys.BUNDLE_KEY_SENSOR_TYPES, sensorTypes);
+        return sendRequest(IpcType.MSG_ENABLE_SENSORS, bundle);
+    }
 
-                    /* Null check for fail-safe */
-                    if (sensorTypes != null && sensorTypeNames != null) {
-                        mListener.onSensorTypesReceived(sensorTypes, sensorTypeNames);
-                    } else {
-                        Log.w(TAG, "Null sensorTypes?");
-                    }
-                } else {
-                    Log.w(TAG, "MSG_LIST_SENSOR_TYPES: No bundle?");
-                }
-                break;
-            case IpcType.MSG_SENSOR_DATA:
-                if (bundle != null) {
-                    String sensorData = bundle.getString(BundleKeys.BUNDLE_KEY_SENSOR_VALUES);
-                    if (sensorData != null) {
-                        mListener.onSensorDataReceived(sensorData);
-                    } else {
-                        Log.w(TAG, "MSG_SENSOR_DATA: Invalid bundle: " + bundle);
-                    }
-                } else {
-                    Log.w(TAG, "MSG_SENSOR_DATA: No bundle?");
-                }
-                break;
-            case IpcType.MSG_SET_INTERVAL_TIMER:
-            case IpcType.MSG_CELLULAR_DATA:
-            case IpcType.MSG_SET_LOCATION:
-            case IpcType.MSG_RESET_LOCATION:
-            case IpcType.MSG_SET_USER_DATA:
-                /* These cases are meant to be an ACK */
-                if (result_code != 0) {
-                    /* Any error will be notified by IpcType.MSG_ERROR, actually */
-                    Log.w(TAG, "IpcType(" + msg.what + "): Failed to set value");
-                }
-                break;
-            case IpcType.MSG_ERROR:
-                if (bundle != null) {
-                    String errmsg = bundle.getString(BundleKeys.BUNDLE_KEY_ERROR_MESSAGE);
-                    if (errmsg != null) {
-                        mListener.onError(errmsg);
-                    } else {
-                        Log.w(TAG, "MSG_ERROR: Invalid bundle: " + bundle);
-                    }
-                } else {
-                    Log.w(TAG, "MSG_ERROR: No bundle?");
-                }
-                break;
-            default:
-                Log.e(TAG, "Unknown IpcType: " + msg.what);
-                break;
-        }
+    /**
+     * Pipelined variant of {@link #disableSensors}.
+     *
+     * @param sensorTypes ArrayList of target sensor types
+     * @return the future completed on the reply of {@link SensorService}
+     * @see #enableSensorsAsync
+     */
+    @RequiresApi(api = Build.VERSION_CODES.N)
+    @NonNull
+    public CompletableFuture<Void> disableSensorsAsync(@NonNull ArrayList<Integer> sensorTypes) {
+        Bundle bundle = new Bundle();
+        bundle.putIntegerArrayList(BundleKeys.BUNDLE_KEY_SENSOR_TYPES, sensorTypes);
+        return sendRequest(IpcType.MSG_DISABLE_SENSORS, bundle);
     }
 
     /**
-     * Callback interfaces for Service connection management.
+     * Pipelined variant of {@link #enableSensorsByHandle}.
+     *
+     * @param handles ArrayList of target sensor handles
+     * @return the future completed on the reply of {@link SensorService}
+     * @see #enableSensorsAsync
      */
-    private final ServiceConnection mConnection = new ServiceConnection() {
-        @Override
-        public void onServiceConnected(ComponentName name, IBinder service) {
-            // This is called when the connection with the service has been
-            // established, giving us the service object we can use to
-            // interact with the service. We are communicating with our
-            // service through an IDL interface, so get a client-side
-            // representation of that from the raw service object.
-            Log.d(TAG, "ServiceConnection.onServiceConnected: " + name.toString());
-            mService = new Messenger(service);
+    @RequiresApi(api = Build.VERSION_CODES.N)
+    @NonNull
+    public CompletableFuture<Void> enableSensorsByHandleAsync(@NonNull ArrayList<Integer> handles) {
+        Bundle bundle = new Bundle();
+        bundle.putIntegerArrayList(BundleKeys.BUNDLE_KEY_SENSOR_HANDLES, handles);
+        return sendRequest(IpcType.MSG_ENABLE_SENSORS, bundle);
+    }
 
-            // We want to monitor the service for as long as we are
-            // connected to it.
-            Message msg = Message.obtain(
-                    null, IpcType.MSG_REGISTER_CLIENT, 0, mClientId);
-            msg.replyTo = mMessenger;
-            try {
-                mService.send(msg);
-            } catch (RemoteException e) {
-                // In this case the service has crashed before we could even
-                // do anything with it; we can count on soon being
-                // disconnected (an then reconnected if it can be restarted)
-                // so there is no need to do anything here.
-                Log.e(TAG, "ServiceConnection.onServiceConnected: " + e);
-                return;
-            }
+    /**
+     * Pipelined variant of {@link #disableSensorsByHandle}.
+     *
+     * @param handles ArrayList of target sensor handles
+     * @return the future completed on the reply of {@link SensorService}
+     * @see #enableSensorsAsync
+     */
+    @RequiresApi(api = Build.VERSION_CODES.N)
+    @NonNull
+    public CompletableFuture<Void> disableSensorsByHandleAsync(@NonNull ArrayList<Integer> handles) {
+        Bundle bundle = new Bundle();
+        bundle.putIntegerArrayList(BundleKeys.BUNDLE_KEY_SENSOR_HANDLES, handles);
+        return sendRequest(IpcType.MSG_DISABLE_SENSORS, bundle);
+    }
 
-            mIsBound = true;
-            mListener.onSensorEngaged(
-                    mContext.getString(R.string.sensor_service_connected));
+    /**
+     * Pipelined variant of {@link #setIntervalTimer}.
+     *
+     * @param milliseconds interval timer
+     * @return the future completed on the reply of {@link SensorService}
+     * @see #enableSensorsAsync
+     */
+    @RequiresApi(api = Build.VERSION_CODES.N)
+    @NonNull
+    public CompletableFuture<Void> setIntervalTimerAsync(long milliseconds) {
+        if (milliseconds < MIN_INTERVAL_TIMER) {
+            return failedRequest(IpcType.MSG_SET_INTERVAL_TIMER,
+                    TAG + ": IntervalTimer(" + milliseconds + ") too small");
         }
+        Bundle bundle = new Bundle();
+        bundle.putLong(BundleKeys.BUNDLE_KEY_INTERVAL_TIMER, milliseconds);
+        return sendRequest(IpcType.MSG_SET_INTERVAL_TIMER, bundle);
+    }
 
-        @Override
-        public void onServiceDisconnected(ComponentName name) {
-            // This is called when the connection with the service has been
-            // unexpectedly disconnected -- that is, its process crashed.
-            Log.d(TAG, "ServiceConnection.onServiceDisconnected: " + name.toString());
-            mService = null;
+    /**
+     * Pipelined variant of {@link #setLocation}.
+     *
+     * @param latitude latitude of this device, where {-90.0 <= latitude <= 90.0}
+     * @param longitude longitude of this device, where {-180.0 <= longitude <= 180.0}
+     * @param utcTime the UTC time of the location fix, in milliseconds since epoch.
+     * @return the future completed on the reply of {@link SensorService}
+     * @see #enableSensorsAsync
+     */
+    @RequiresApi(api = Build.VERSION_CODES.N)
+    @NonNull
+    public CompletableFuture<Void> setLocationAsync(
+            double latitude, double longitude, long utcTime) {
+        if ((latitude < -90 || 90.0 < latitude)
+        ||  (longitude < -180.0 || 180.0 < longitude)) {
+            return failedRequest(IpcType.MSG_SET_LOCATION,
+                    TAG + ": Location{" + latitude + ", " + longitude + "} out of range");
+        }
+        Bundle bundle = new Bundle();
+        bundle.putDouble(BundleKeys.BUNDLE_KEY_LOCATION_LATITUDE, latitude);
+        bundle.putDouble(BundleKeys.BUNDLE_KEY_LOCATION_LONGITUDE, longitude);
+        bundle.putLong(BundleKeys.BUNDLE_KEY_LOCATION_TIMESTAMP, utcTime);
+        return sendRequest(IpcType.MSG_SET_LOCATION, bundle);
+    }
+
+    /**
+     * Pipelined variant of {@link #resetLocation}.
+     *
+     * @return the future completed on the reply of {@link SensorService}
+     * @see #enableSensorsAsync
+     */
+    @RequiresApi(api = Build.VERSION_CODES.N)
+    @NonNull
+    public CompletableFuture<Void> resetLocationAsync() {
+        return sendRequest(IpcType.MSG_RESET_LOCATION, new Bundle());
+    }
+
+    /**
+     * Pipelined variant of {@link #setUserData}.
+     *
+     * @param publisher user descriptions, if any
+     * @param note additional comment, if any
+     * @return the future completed on the reply of {@link SensorService}
+     * @see #enableSensorsAsync
+     */
+    @RequiresApi(api = Build.VERSION_CODES.N)
+    @NonNull
+    public CompletableFuture<Void> setUserDataAsync(
+            @Nullable String publisher, @Nullable String note) {
+        Bundle bundle = new Bundle();
+        if (publisher != null) {
+            bundle.putString(BundleKeys.BUNDLE_KEY_USERINFO_PUBLISHER, publisher);
+        }
+        if (note != null) {
+            bundle.putString(BundleKeys.BUNDLE_KEY_USERINFO_NOTE, note);
+        }
+        return sendRequest(IpcType.MSG_SET_USER_DATA, bundle);
+    }
+
+    @RequiresApi(api = Build.VERSION_CODES.N)
+    @NonNull
+    private CompletableFuture<Void> sendRequest(int ipcType, @NonNull Bundle bundle) {
+        if (! mIsBound) {
+            return failedRequest(ipcType, TAG + ": Service not yet bound");
+        }
+        int requestId;
+        do {
+            /* Zero is reserved for the replies to plain requests */
+            requestId = mNextRequestId.getAndIncrement();
+        } while (requestId == 0);
+
+        PendingRequest request = new PendingRequest(ipcType);
+        Message msg = Message.obtain(null, ipcType, 0, mClientId);
+        bundle.putInt(BundleKeys.BUNDLE_KEY_REQUEST_ID, requestId);
+        msg.setData(bundle);
+        msg.replyTo = mMessenger;
+        mPendingRequests.put(requestId, request);
+        try {
+            sendToService(msg);
+        } catch (RemoteException e) {
+            mPendingRequests.remove(requestId);
+            request.mFuture.completeExceptionally(
+                    new ServiceRequestException(ipcType, TAG + ": Messenger.send: " + e));
+        }
+        return request.mFuture;
+    }
+
+    @RequiresApi(api = Build.VERSION_CODES.N)
+    @NonNull
+    private static CompletableFuture<Void> failedRequest(int ipcType, @NonNull String errmsg) {
+        /* CompletableFuture.failedFuture() is not available until Java 9 */
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        future.completeExceptionally(new ServiceRequestException(ipcType, errmsg));
+        return future;
+    }
+
+    @RequiresApi(api = Build.VERSION_CODES.N)
+    private void onRequestReplied(int requestId, int what, int result_code, @NonNull Bundle bundle) {
+        PendingRequest request = mPendingRequests.remove(requestId);
+        if (request == null) {
+            Log.w(TAG, "IpcType(" + what + "): No pending request(" + requestId + ")");
+            return;
+        }
+        if (what == IpcType.MSG_ERROR) {
+            request.mFuture.completeExceptionally(new ServiceRequestException(
+                    request.mIpcType,
+                    bundle.getString(BundleKeys.BUNDLE_KEY_ERROR_MESSAGE)));
+        } else if (result_code != 0) {
+            request.mFuture.completeExceptionally(new ServiceRequestException(
+                    request.mIpcType,
+                    TAG + ": IpcType(" + what + "): Failed to set value"));
+        } else {
+            request.mFuture.complete(null);
+        }
+    }
+
+    private void failPendingRequests(@NonNull String errmsg) {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.N) {
+            /* No pipelined request could have been made */
+            return;
+        }
+        for (Integer requestId : new ArrayList<>(mPendingRequests.keySet())) {
+            failPendingRequest(requestId, errmsg);
+        }
+    }
+
+    @RequiresApi(api = Build.VERSION_CODES.N)
+    private void failPendingRequest(int requestId, @NonNull String errmsg) {
+        PendingRequest request = mPendingRequests.remove(requestId);
+        if (request != null) {
+            request.mFuture.completeExceptionally(
+                    new ServiceRequestException(request.mIpcType, errmsg));
+        }
+    }
+
+    /*
+     * Send a command to the service, or keep it until the service gets
+     * connected if the bind is still in progress.
+     */
+    private void sendToService(@NonNull Message msg) throws RemoteException {
+        Messenger service = mService;
+        if (service != null) {
+            service.send(msg);
+        } else if (! mPendingCommands.offer(msg)) {
+            throw new RemoteException("Too many requests before connected");
+        }
+    }
+
+    private final PendingCommands.DropListener mDropListener =
+            new PendingCommands.DropListener() {
+        @Override
+        public void onCommandsDropped(@NonNull List<Message> commands, @NonNull String reason) {
+            for (Message msg : commands) {
+                int requestId = msg.getData().getInt(BundleKeys.BUNDLE_KEY_REQUEST_ID, 0);
+                if (requestId != 0 && Build.VERSION.SDK_INT >= Build.VERSION_CODES.N) {
+                    failPendingRequest(requestId, reason);
+                } else {
+                    mListener.onError(TAG + ": IpcType(" + msg.what + "): " + reason);
+                }
+            }
+        }
+    };
+
+    /**
+     * Ask {@link SensorService} to keep the exported sensor data in the
+     * on-device data store, so that those can be retrieved later by
+     * {@link #querySensorData}.
+     *
+     * <p>
+     *     Calling of this method is optional.
+     *     If omitted, exported sensor data will not be stored.
+     * </p>
+     */
+    public void enableDataStore() {
+        sendDataStoreCommand(IpcType.MSG_ENABLE_DATA_STORE);
+    }
+
+    /**
+     * Ask {@link SensorService} to stop storing the exported sensor data.
+     * <p>
+     *     Records already stored are kept, and can still be retrieved by
+     *     {@link #querySensorData}.
+     * </p>
+     */
+    public void disableDataStore() {
+        sendDataStoreCommand(IpcType.MSG_DISABLE_DATA_STORE);
+    }
+
+    private void sendDataStoreCommand(int ipcType) {
+        if (mIsBound) {
+            Message msg = Message.obtain(null, ipcType, 0, mClientId);
+            msg.replyTo = mMessenger;
+            try {
+                sendToService(msg);
+            } catch (RemoteException e) {
+                mListener.onError(TAG + ": Messenger.send: " + e);
+            }
+        } else {
+            mListener.onError(TAG + ": Service not yet bound");
+        }
+    }
+
+    /**
+     * Ask {@link SensorService} for the stored records which contain
+     * readings of the given sensor types within the given time range.
+     *
+     * <p>
+     *     This is an asynchronous request and thus caller should wait
+     *     for notifications to know the operation result.
+     *     Matching records will be delivered in chunks by
+     *     {@link SensorQueryListener#onQueryRecordsReceived}, followed by
+     *     {@link SensorQueryListener#onQueryCompleted}.
+     *     If something goes bad, {@link SensorQueryListener#onQueryError}
+     *     will be notified.
+     * </p>
+     *
+     * @param fromTime lower bound of the sensor timestamp, in milliseconds since epoch
+     * @param toTime upper bound of the sensor timestamp, in milliseconds since epoch
+     * @param sensorTypes ArrayList of target sensor types, or null for ALL types
+     * @param listener the receiver of query results
+     */
+    public void querySensorData(long fromTime, long toTime,
+                                @Nullable ArrayList<Integer> sensorTypes,
+                                @NonNull SensorQueryListener listener) {
+        if (fromTime > toTime) {
+            listener.onQueryError(TAG + ": Invalid time range [" +
+                    fromTime + ", " + toTime + "]");
+            return;
+        }
+        if (mIsBound) {
+            int queryId = mNextQueryId++;
+            Message msg = Message.obtain(
+                    null, IpcType.MSG_QUERY_SENSOR_DATA, 0, mClientId);
+            Bundle bundle = new Bundle();
+            bundle.putInt(BundleKeys.BUNDLE_KEY_QUERY_ID, queryId);
+            bundle.putLong(BundleKeys.BUNDLE_KEY_QUERY_FROM_TIME, fromTime);
+            bundle.putLong(BundleKeys.BUNDLE_KEY_QUERY_TO_TIME, toTime);
+            if (sensorTypes != null) {
+                bundle.putIntegerArrayList(BundleKeys.BUNDLE_KEY_SENSOR_TYPES, sensorTypes);
+            }
+            msg.setData(bundle);
+            msg.replyTo = mMessenger;
+            try {
+                sendToService(msg);
+                mQueryListeners.put(queryId, listener);
+            } catch (RemoteException e) {
+                listener.onQueryError(TAG + ": Messenger.send: " + e);
+            }
+        } else {
+            listener.onQueryError(TAG + ": Service not yet bound");
+        }
+    }
+
+    /**
+     * Ask {@link SensorService} to replay a recorded trace file, instead of
+     * reading the real sensors.
+     *
+     * <p>
+     *     The trace file is a text file, one sample per line, in the form
+     *     of "sensorType,timestampNanos,value0[,value1...]".
+     *     Replayed samples go through the same export path as real ones,
+     *     and will be notified by {@link SensorListener#onSensorDataReceived}.
+     * </p>
+     * <p>
+     *     Sensors must be disabled before calling this method.
+     *     On completion, {@link SensorReplayListener#onReplayFinished}
+     *     will be notified.
+     * </p>
+     *
+     * @param tracePath absolute path of the trace file, readable by this application
+     * @param speed replay speed factor; 1.0 for the original speed,
+     *              {@link Float#POSITIVE_INFINITY} for as fast as possible
+     * @param listener the receiver of the replay result
+     */
+    public void startTraceReplay(@NonNull String tracePath, float speed,
+                                 @NonNull SensorReplayListener listener) {
+        if (! (speed > 0.0f)) {
+            listener.onReplayError(TAG + ": Invalid replay speed: " + speed);
+            return;
+        }
+        if (mIsBound) {
+            Message msg = Message.obtain(
+                    null, IpcType.MSG_START_TRACE_REPLAY, 0, mClientId);
+            Bundle bundle = new Bundle();
+            bundle.putString(BundleKeys.BUNDLE_KEY_REPLAY_PATH, tracePath);
+            bundle.putFloat(BundleKeys.BUNDLE_KEY_REPLAY_SPEED, speed);
+            msg.setData(bundle);
+            msg.replyTo = mMessenger;
+            try {
+                sendToService(msg);
+                mReplayListener = listener;
+            } catch (RemoteException e) {
+                listener.onReplayError(TAG + ": Messenger.send: " + e);
+            }
+        } else {
+            listener.onReplayError(TAG + ": Service not yet bound");
+        }
+    }
+
+    /**
+     * Ask {@link SensorService} to stop the ongoing trace replay, if any.
+     */
+    public void stopTraceReplay() {
+        if (mIsBound) {
+            Message msg = Message.obtain(
+                    null, IpcType.MSG_STOP_TRACE_REPLAY, 0, mClientId);
+            msg.replyTo = mMessenger;
+            try {
+                sendToService(msg);
+            } catch (RemoteException e) {
+                mListener.onError(TAG + ": Messenger.send: " + e);
+            }
+        } else {
+            mListener.onError(TAG + ": Service not yet bound");
+        }
+    }
+
+    /**
+     * Ask {@link SensorService} to feed synthetic sensor samples, instead
+     * of reading the real sensors, to measure the export pipeline under
+     * a given load.
+     *
+     * <p>
+     *     Synthetic samples go through the same export path as real ones,
+     *     and will be notified by {@link SensorListener#onSensorDataReceived}.
+     * </p>
+     * <p>
+     *     Sensors must be disabled before calling this method.
+     *     On completion, {@link SensorLoadListener#onLoadFinished} will be
+     *     notified along with the measured throughput, export latency and
+     *     the number of dropped samples.
+     * </p>
+     *
+     * @param params the shape of synthetic load
+     * @param listener the receiver of the load report
+     */
+    public void startSyntheticLoad(@NonNull SyntheticLoadParams params,
+                                   @NonNull SensorLoadListener listener) {
+        String errmsg = params.validate();
+        if (errmsg != null) {
+            listener.onLoadError(TAG + ": " + errmsg);
+            return;
+        }
+        if (mIsBound) {
+            Message msg = Message.obtain(
+                    null, IpcType.MSG_START_SYNTHETIC_LOAD, 0, mClientId);
+            Bundle bundle = new Bundle();
+            bundle.putInt(BundleKeys.BUNDLE_KEY_LOAD_SENSOR_COUNT, params.getSensorCount());
+            bundle.putFloat(BundleKeys.BUNDLE_KEY_LOAD_RATE_HZ, params.getRateHz());
+            bundle.putInt(BundleKeys.BUNDLE_KEY_LOAD_DIMENSIONS, params.getDimensions());
+            bundle.putFloat(BundleKeys.BUNDLE_KEY_LOAD_JITTER, params.getJitter());
+            bundle.putLong(BundleKeys.BUNDLE_KEY_LOAD_BURST_PERIOD, params.getBurstPeriodMillis());
+            bundle.putLong(BundleKeys.BUNDLE_KEY_LOAD_BURST_LENGTH, params.getBurstLengthMillis());
+            bundle.putFloat(BundleKeys.BUNDLE_KEY_LOAD_BURST_FACTOR, params.getBurstFactor());
+            bundle.putLong(BundleKeys.BUNDLE_KEY_LOAD_DURATION, params.getDurationMillis());
+            msg.setData(bundle);
+            msg.replyTo = mMessenger;
+            try {
+                sendToService(msg);
+                mLoadListener = listener;
+            } catch (RemoteException e) {
+                listener.onLoadError(TAG + ": Messenger.send: " + e);
+            }
+        } else {
+            listener.onLoadError(TAG + ": Service not yet bound");
+        }
+    }
+
+    /**
+     * Ask {@link SensorService} to measure what the sensors actually deliver,
+     * by enabling each of them at each of the requested sampling periods
+     * for a short window in turn.
+     *
+     * <p>
+     *     The achieved rate, the jitter of sample intervals, the batch sizes
+     *     and the number of non-monotonic timestamps are measured, which
+     *     often differ from the nominal values of the sensor.
+     * </p>
+     * <p>
+     *     Sensors must be disabled before calling this method.
+     *     On completion, {@link SensorProbeListener#onProbeFinished} will be
+     *     notified along with the report.
+     * </p>
+     *
+     * @param handles target sensor handles, or null for all sensors
+     * @param periodsMicros requested sampling periods in microseconds,
+     *                      zero for the fastest
+     * @param maxReportLatencyMicros the maximum report latency in microseconds,
+     *                               to let sensors batch; zero for no batching
+     * @param windowMillis measurement window per sensor and period
+     * @param listener the receiver of the probe report
+     */
+    public void startSensorProbe(@Nullable ArrayList<Integer> handles,
+                                 @NonNull int[] periodsMicros, int maxReportLatencyMicros,
+                                 long windowMillis, @NonNull SensorProbeListener listener) {
+        if (periodsMicros.length == 0) {
+            listener.onProbeError(TAG + ": No sampling period given");
+            return;
+        }
+        if (mIsBound) {
+            Message msg = Message.obtain(
+                    null, IpcType.MSG_START_SENSOR_PROBE, 0, mClientId);
+            Bundle bundle = new Bundle();
+            if (handles != null) {
+                bundle.putIntegerArrayList(BundleKeys.BUNDLE_KEY_SENSOR_HANDLES, handles);
+            }
+            bundle.putIntArray(BundleKeys.BUNDLE_KEY_PROBE_PERIODS, periodsMicros);
+            bundle.putInt(BundleKeys.BUNDLE_KEY_PROBE_REPORT_LATENCY, maxReportLatencyMicros);
+            bundle.putLong(BundleKeys.BUNDLE_KEY_PROBE_WINDOW, windowMillis);
+            msg.setData(bundle);
+            msg.replyTo = mMessenger;
+            try {
+                sendToService(msg);
+                mProbeListener = listener;
+            } catch (RemoteException e) {
+                listener.onProbeError(TAG + ": Messenger.send: " + e);
+            }
+        } else {
+            listener.onProbeError(TAG + ": Service not yet bound");
+        }
+    }
+
+    /**
+     * Ask {@link SensorService} to stop the ongoing capability probe, if any.
+     * The results measured so far will be notified.
+     */
+    public void stopSensorProbe() {
+        if (mIsBound) {
+            Message msg = Message.obtain(
+                    null, IpcType.MSG_STOP_SENSOR_PROBE, 0, mClientId);
+            msg.replyTo = mMessenger;
+            try {
+                sendToService(msg);
+            } catch (RemoteException e) {
+                mListener.onError(TAG + ": Messenger.send: " + e);
+            }
+        } else {
+            mListener.onError(TAG + ": Service not yet bound");
+        }
+    }
+
+    /**
+     * Ask {@link SensorService} to stop the ongoing synthetic load, if any.
+     */
+    public void stopSyntheticLoad() {
+        if (mIsBound) {
+            Message msg = Message.obtain(
+                    null, IpcType.MSG_STOP_SYNTHETIC_LOAD, 0, mClientId);
+            msg.replyTo = mMessenger;
+            try {
+                sendToService(msg);
+            } catch (RemoteException e) {
+                mListener.onError(TAG + ": Messenger.send: " + e);
+            }
+        } else {
+            mListener.onError(TAG + ": Service not yet bound");
+        }
+    }
+
+    /**
+     * Let {@link SensorService} adjust the export interval by itself.
+     * <p>
+     *     The interval set by {@link #setIntervalTimer} is taken as the
+     *     base. It will be widened while exports back up, the battery is low
+     *     or the device is thermally throttled, and narrowed again when
+     *     conditions recover, within the given bounds.
+     *     Each change will be notified by
+     *     {@link SensorIntervalListener#onIntervalChanged}.
+     * </p>
+     *
+     * @param minMillis lower bound of the interval, in milliseconds
+     * @param maxMillis upper bound of the interval, in milliseconds
+     * @param listener the receiver of interval changes
+     */
+    public void enableAdaptiveInterval(long minMillis, long maxMillis,
+                                       @NonNull SensorIntervalListener listener) {
+        if (mIsBound) {
+            Message msg = Message.obtain(
+                    null, IpcType.MSG_ENABLE_ADAPTIVE_INTERVAL, 0, mClientId);
+            Bundle bundle = new Bundle();
+            bundle.putLong(BundleKeys.BUNDLE_KEY_INTERVAL_MIN, minMillis);
+            bundle.putLong(BundleKeys.BUNDLE_KEY_INTERVAL_MAX, maxMillis);
+            msg.setData(bundle);
+            msg.replyTo = mMessenger;
+            try {
+                sendToService(msg);
+                mIntervalListener = listener;
+            } catch (RemoteException e) {
+                mListener.onError(TAG + ": Messenger.send: " + e);
+            }
+        } else {
+            mListener.onError(TAG + ": Service not yet bound");
+        }
+    }
+
+    /**
+     * Get back to the fixed export interval set by {@link #setIntervalTimer}.
+     */
+    public void disableAdaptiveInterval() {
+        if (mIsBound) {
+            Message msg = Message.obtain(
+                    null, IpcType.MSG_DISABLE_ADAPTIVE_INTERVAL, 0, mClientId);
+            msg.replyTo = mMessenger;
+            try {
+                sendToService(msg);
+                mIntervalListener = null;
+            } catch (RemoteException e) {
+                mListener.onError(TAG + ": Messenger.send: " + e);
+            }
+        } else {
+            mListener.onError(TAG + ": Service not yet bound");
+        }
+    }
+
+    /**
+     * Take the sensor data as {@link SensorSamples}, that is, descriptors,
+     * timestamps and values in primitive arrays, instead of JSON string.
+     * <p>
+     *     This saves {@link SensorService} building JSON and the caller
+     *     parsing it back into numbers. Unless {@code withJson} is set,
+     *     {@link SensorListener#onSensorDataReceived} will not be called
+     *     any more; use {@code JsonBuilder.buildSensorsJsonString} to get
+     *     text for some of the samples if needed.
+     *     Give null listener to get back to JSON only.
+     * </p>
+     *
+     * @param listener the receiver of sensor samples, or null
+     * @param withJson true to keep receiving JSON string as well
+     */
+    public void setSensorSamplesListener(
+            @Nullable SensorSamplesListener listener, boolean withJson) {
+        if (mIsBound) {
+            mSamplesListener = listener;
+            mSamplesWithJson = (listener == null || withJson);
+            updateSensorDataFormat();
+        } else {
+            mListener.onError(TAG + ": Service not yet bound");
+        }
+    }
+
+    /**
+     * Get a {@link Flow.Publisher} view of the sensor data as
+     * {@link SensorSamples}, for which each item is a distinct object.
+     * <p>
+     *     The demand of subscribers is honoured up to {@link SensorService}:
+     *     while no subscriber has outstanding demand, the service stops
+     *     packing samples for this client, and skips building JSON as well
+     *     if nobody needs it. Items arrived without demand are dropped.
+     *     Subscribers are signalled on the callback Looper, or on the executor
+     *     given to {@link DemandPublisher#subscribe(Flow.Subscriber, Executor)}.
+     *     They are completed when this client unbinds from the service.
+     * </p>
+     *
+     * @return the publisher of sensor samples
+     */
+    @RequiresApi(api = Build.VERSION_CODES.R)
+    @NonNull
+    public DemandPublisher<SensorSamples> getSensorSamplesPublisher() {
+        if (mSamplesPublisher == null) {
+            mSamplesPublisher = new DemandPublisher<>(mCallbackExecutor,
+                    new DemandPublisher.DemandListener() {
+                        @Override
+                        public void onDemandChanged() {
+                            /* May be called on any thread, while we talk to the service on main */
+                            mMainHandler.post(new Runnable() {
+                                @Override
+                                public void run() {
+                                    updateSensorDataFormat();
+                                }
+                            });
+                        }
+                    });
+        }
+        return mSamplesPublisher;
+    }
+
+    /**
+     * Ask {@link SensorService} to stream the sensor data through a pipe,
+     * as an alternative to {@link #setSensorSamplesListener} for high rates.
+     *
+     * <p>
+     *     The service writes each export as a length-prefixed binary record
+     *     to the pipe, and this client reads them on a thread of its own.
+     *     The per-sample overhead is much lower than that of Messages,
+     *     and the listener is called directly on the reading thread,
+     *     NOT on the callback Looper. As with
+     *     {@link SensorSamplesListener#onSensorSamplesReceived}, the given
+     *     object is reused for the next read.
+     * </p>
+     * <p>
+     *     If the reader falls behind, the service drops samples rather than
+     *     slowing down the others. The stream ends on
+     *     {@link #closeSensorStream} or on unbind; if the service has crashed,
+     *     {@link SensorListener#onError} will be notified.
+     * </p>
+     *
+     * @param listener the receiver of sensor samples, called on the reading thread
+     * @param withJson true to keep receiving JSON string as well
+     */
+    public void openSensorStream(@NonNull SensorSamplesListener listener, boolean withJson) {
+        if (mIsBound) {
+            Message msg = Message.obtain(
+                    null, IpcType.MSG_OPEN_SENSOR_STREAM, 0, mClientId);
+            msg.replyTo = mMessenger;
+            try {
+                sendToService(msg);
+                mStreamListener = listener;
+                mStreamWithJson = withJson;
+                updateSensorDataFormat();
+            } catch (RemoteException e) {
+                mListener.onError(TAG + ": Messenger.send: " + e);
+            }
+        } else {
+            mListener.onError(TAG + ": Service not yet bound");
+        }
+    }
+
+    /**
+     * Ask {@link SensorService} to stop the stream opened by
+     * {@link #openSensorStream}. Samples already in the pipe are still
+     * delivered before the reading thread finishes.
+     */
+    public void closeSensorStream() {
+        if (mStreamListener == null) {
+            return;
+        }
+        mStreamListener = null;
+        if (mIsBound) {
+            Message msg = Message.obtain(
+                    null, IpcType.MSG_CLOSE_SENSOR_STREAM, 0, mClientId);
+            msg.replyTo = mMessenger;
+            try {
+                sendToService(msg);
+            } catch (RemoteException e) {
+                mListener.onError(TAG + ": Messenger.send: " + e);
+            }
+            updateSensorDataFormat();
+        }
+    }
+
+    private void startStreamReader(@NonNull final ParcelFileDescriptor readEnd) {
+        stopStreamReader();
+        final SensorSamplesListener listener = mStreamListener;
+        mStreamThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                SampleStreamReader reader = new SampleStreamReader(
+                        new ParcelFileDescriptor.AutoCloseInputStream(readEnd).getChannel());
+                SensorSamples samples = new SensorSamples();
+                try {
+                    while (reader.read(samples)) {
+                        listener.onSensorSamplesReceived(samples);
+                    }
+                    /* Tells whether the service has closed the stream or crashed */
+                    readEnd.checkError();
+                } catch (ClosedByInterruptException e) {
+                    Log.d(TAG, "SensorStream: stopped");
+                } catch (IOException e) {
+                    final String errmsg = TAG + ": SensorStream: " + e;
+                    mCallbackHandler.post(new Runnable() {
+                        @Override
+                        public void run() {
+                            mListener.onError(errmsg);
+                        }
+                    });
+                } finally {
+                    try {
+                        reader.close();
+                    } catch (IOException e) {
+                        Log.w(TAG, "SensorStream: close: " + e);
+                    }
+                }
+            }
+        }, TAG + ".Stream");
+        mStreamThread.start();
+    }
+
+    private void stopStreamReader() {
+        if (mStreamThread != null) {
+            /* A FileChannel gets closed on interrupt, so that read() returns */
+            mStreamThread.interrupt();
+            mStreamThread = null;
+        }
+    }
+
+    private int getSensorDataFormat() {
+        return toSensorDataFormat(mSamplesListener != null, mSamplesWithJson,
+                mSamplesPublisher != null && mSamplesPublisher.hasDemand(),
+                mStreamListener != null, mStreamWithJson);
+    }
+
+    /**
+     * Tell which forms of the sensor data this client consumes.
+     * A client only with the sample stream still gets a valid format,
+     * with neither JSON nor SensorSamples sent through the Messenger.
+     *
+     * @param hasSamplesListener true if SensorSamplesListener is set
+     * @param samplesWithJson true if JSON is wanted along with it
+     * @param hasSamplesDemand true if the publisher has outstanding demand
+     * @param hasStream true if the sample stream is open
+     * @param streamWithJson true if JSON is wanted along with the stream
+     * @return the SensorDataFormat, never zero
+     */
+    static int toSensorDataFormat(boolean hasSamplesListener, boolean samplesWithJson,
+                                  boolean hasSamplesDemand,
+                                  boolean hasStream, boolean streamWithJson) {
+        int format = 0;
+        boolean withJson;
+        if (! hasStream) {
+            withJson = samplesWithJson;
+        } else if (! hasSamplesListener) {
+            withJson = streamWithJson;
+        } else {
+            withJson = samplesWithJson || streamWithJson;
+        }
+        if (withJson) {
+            format |= SensorDataFormat.JSON;
+        }
+        if (hasSamplesListener || hasSamplesDemand) {
+            format |= SensorDataFormat.SAMPLES;
+        }
+        if (hasStream) {
+            format |= SensorDataFormat.STREAM;
+        }
+        if (format == 0) {
+            /* Same as the default of the service */
+            format = SensorDataFormat.JSON;
+        }
+        return format;
+    }
+
+    private void updateSensorDataFormat() {
+        int format = getSensorDataFormat();
+        if (mService == null || format == mSensorDataFormat) {
+            return;
+        }
+        Message msg = Message.obtain(
+                null, IpcType.MSG_SET_SENSOR_DATA_FORMAT, 0, mClientId);
+        Bundle bundle = new Bundle();
+        bundle.putInt(BundleKeys.BUNDLE_KEY_SENSOR_DATA_FORMAT, format);
+        msg.setData(bundle);
+        msg.replyTo = mMessenger;
+        try {
+            mService.send(msg);
+            mSensorDataFormat = format;
+        } catch (RemoteException e) {
+            mListener.onError(TAG + ": Messenger.send: " + e);
+        }
+    }
+
+    /**
+     * Let {@link SensorService} slow down or pause the high-rate sensors
+     * while the device is stationary.
+     * <p>
+     *     The stationary and motion detectors of the device are used if
+     *     available, or the accelerometer otherwise. Sensors of continuous
+     *     reporting mode are sampled with the idle period
+     *     ({@code MotionGate.MODE_LOW_RATE}), or not at all
+     *     ({@code MotionGate.MODE_PAUSE}), until the device moves again.
+     *     Each change will be notified by
+     *     {@link SensorMotionListener#onMotionStateChanged}.
+     * </p>
+     *
+     * @param mode one of {@code MotionGate.MODE_XXX}
+     * @param idlePeriodMillis sampling period while stationary, in milliseconds
+     * @param stillDurationMillis time to stay still before taken as
+     *                            stationary, in milliseconds; only for the
+     *                            accelerometer
+     * @param listener the receiver of motion state changes
+     */
+    public void enableMotionGating(int mode, long idlePeriodMillis, long stillDurationMillis,
+                                   @NonNull SensorMotionListener listener) {
+        if (mIsBound) {
+            Message msg = Message.obtain(
+                    null, IpcType.MSG_ENABLE_MOTION_GATING, 0, mClientId);
+            Bundle bundle = new Bundle();
+            bundle.putInt(BundleKeys.BUNDLE_KEY_GATING_MODE, mode);
+            bundle.putLong(BundleKeys.BUNDLE_KEY_GATING_IDLE_PERIOD, idlePeriodMillis);
+            bundle.putLong(BundleKeys.BUNDLE_KEY_GATING_STILL_DURATION, stillDurationMillis);
+            msg.setData(bundle);
+            msg.replyTo = mMessenger;
+            try {
+                sendToService(msg);
+                mMotionListener = listener;
+            } catch (RemoteException e) {
+                mListener.onError(TAG + ": Messenger.send: " + e);
+            }
+        } else {
+            mListener.onError(TAG + ": Service not yet bound");
+        }
+    }
+
+    /**
+     * Get back to sample the high-rate sensors in full rate regardless
+     * of motion.
+     */
+    public void disableMotionGating() {
+        if (mIsBound) {
+            Message msg = Message.obtain(
+                    null, IpcType.MSG_DISABLE_MOTION_GATING, 0, mClientId);
+            msg.replyTo = mMessenger;
+            try {
+                sendToService(msg);
+                mMotionListener = null;
+            } catch (RemoteException e) {
+                mListener.onError(TAG + ": Messenger.send: " + e);
+            }
+        } else {
+            mListener.onError(TAG + ": Service not yet bound");
+        }
+    }
+
+    /**
+     * Ask {@link SensorService} for its runtime metrics, such like the
+     * number of events per sensor type, exports, bytes sent, JSON build
+     * time percentiles, send failures and the number of clients.
+     * <p>
+     *     The result will be notified by
+     *     {@link ServiceStatsListener#onStatsReceived}.
+     *     If called again before the reply, the latest listener takes it.
+     * </p>
+     *
+     * @param listener the receiver of the metrics
+     */
+    public void getStats(@NonNull ServiceStatsListener listener) {
+        if (mIsBound) {
+            Message msg = Message.obtain(null, IpcType.MSG_GET_STATS, 0, mClientId);
+            msg.replyTo = mMessenger;
+            try {
+                sendToService(msg);
+                mStatsListener = listener;
+            } catch (RemoteException e) {
+                mListener.onError(TAG + ": Messenger.send: " + e);
+            }
+        } else {
+            mListener.onError(TAG + ": Service not yet bound");
+        }
+    }
+
+    /**
+     * Get the end-to-end latency of sensor data received so far, from the
+     * sensor event to {@link SensorListener#onSensorDataReceived}, per sensor
+     * type, along with its breakdown per pipeline stage.
+     *
+     * @return the latency percentiles (p50/p99/max)
+     */
+    @NonNull
+    public DeliveryLatencyReport getDeliveryLatency() {
+        return mDeliveryLatencyTracker.getReport();
+    }
+
+    /**
+     * Clear the latency samples collected so far.
+     */
+    public void resetDeliveryLatency() {
+        mDeliveryLatencyTracker.reset();
+    }
+
+    /**
+     * IPC endpoint to send messages to Service.
+     */
+    private final Messenger mMessenger;
+
+    /* On the Looper of listener callbacks */
+    private final Handler mCallbackHandler;
+
+    private final Handler mMainHandler = new Handler(Looper.getMainLooper());
+
+    /* Default executor of the publishers */
+    private final Executor mCallbackExecutor = new Executor() {
+        @Override
+        public void execute(Runnable command) {
+            mCallbackHandler.post(command);
+        }
+    };
+
+    /**
+     * Data path from {@link SensorService} in the same process.
+     * Called on the export thread of the service, and thus we hand
+     * the data over to the callback Looper as {@link IncomingHandler} does.
+     */
+    private final LocalSensorClient mLocalClient = new LocalSensorClient() {
+        @Override
+        public void onSensorData(@NonNull final String jsonString,
+                                 @NonNull final int[] sensorTypes,
+                                 @NonNull final long[] eventNanos,
+                                 @NonNull final long[] ingestNanos,
+                                 final long serializeNanos) {
+            mCallbackHandler.post(new Runnable() {
+                @Override
+                public void run() {
+                    mDeliveryLatencyTracker.record(sensorTypes, eventNanos, ingestNanos,
+                            serializeNanos, SystemClock.elapsedRealtimeNanos());
+                    mListener.onSensorDataReceived(jsonString);
+                }
+            });
+        }
+
+        @Override
+        public void onSensorSamples(@NonNull final SensorSamples samples,
+                                    @NonNull final int[] sensorTypes,
+                                    @NonNull final long[] eventNanos,
+                                    @NonNull final long[] ingestNanos,
+                                    final long serializeNanos) {
+            mCallbackHandler.post(new Runnable() {
+                @Override
+                public void run() {
+                    mDeliveryLatencyTracker.record(sensorTypes, eventNanos, ingestNanos,
+                            serializeNanos, SystemClock.elapsedRealtimeNanos());
+                    onSensorSamplesReceived(samples);
+                }
+            });
+        }
+    };
+
+    /**
+     * Handler for incoming messages from Service.
+     */
+    private static class IncomingHandler extends Handler {
+        final WeakReference<SensorController> weakReference;
+
+        /*
+         * Default constructor in android.os.Handler is deprecated.
+         * We need to use an Executor or specify the Looper explicitly.
+         */
+        IncomingHandler(
+                @NonNull Looper looper, @NonNull SensorController sensorController) {
+            super(looper);
+
+            /* Keep the enclosing class object as weak-reference to prevent leaks */
+            weakReference = new WeakReference<>(sensorController);
+        }
+
+        /**
+         * Subclasses must implement this to receive messages.
+         *
+         * @param msg A Message object containing a bundle of data
+         */
+        @Override
+        public void handleMessage(@NonNull Message msg) {
+            SensorController sensorController = weakReference.get();
+            if (sensorController != null) {
+                boolean traced = TraceUtil.beginSection("SensorController.handleMessage");
+                try {
+                    sensorController.onServerMessageReceived(msg);
+                } finally {
+                    TraceUtil.endSection(traced);
+                }
+            } else {
+                Log.w(TAG, "handleMessage: SensorController has gone");
+            }
+            super.handleMessage(msg);
+        }
+    }
+
+    private void onServerMessageReceived(@NonNull Message msg) {
+        int result_code = msg.arg1;
+        Bundle bundle = msg.getData();
+
+        /* A reply to a pipelined request carries its id in arg2 */
+        if (msg.arg2 != 0 && Build.VERSION.SDK_INT >= Build.VERSION_CODES.N) {
+            onRequestReplied(msg.arg2, msg.what, result_code, bundle);
+            return;
+        }
+
+        switch (msg.what) {
+            case IpcType.MSG_LIST_SENSOR_TYPES:
+                if (bundle != null) {
+                    ArrayList<Integer> sensorTypes =
+                            bundle.getIntegerArrayList(BundleKeys.BUNDLE_KEY_SENSOR_TYPES);
+                    ArrayList<String> sensorTypeNames =
+                            bundle.getStringArrayList(BundleKeys.BUNDLE_KEY_SENSOR_TYPE_NAMES);
+
+                    /* Null check for fail-safe */
+                    if (sensorTypes != null && sensorTypeNames != null) {
+                        mListener.onSensorTypesReceived(sensorTypes, sensorTypeNames);
+                    } else {
+                        Log.w(TAG, "Null sensorTypes?");
+                    }
+                } else {
+                    Log.w(TAG, "MSG_LIST_SENSOR_TYPES: No bundle?");
+                }
+                break;
+            case IpcType.MSG_SENSOR_DATA:
+                if (bundle != null) {
+                    String sensorData = bundle.getString(BundleKeys.BUNDLE_KEY_SENSOR_VALUES);
+                    if (sensorData != null) {
+                        recordDeliveryLatency(bundle);
+                        mListener.onSensorDataReceived(sensorData);
+                    } else {
+                        Log.w(TAG, "MSG_SENSOR_DATA: Invalid bundle: " + bundle);
+                    }
+                } else {
+                    Log.w(TAG, "MSG_SENSOR_DATA: No bundle?");
+                }
+                break;
+            case IpcType.MSG_SENSOR_DATA_CHUNK:
+                if (bundle != null) {
+                    String chunk = bundle.getString(BundleKeys.BUNDLE_KEY_SENSOR_VALUES);
+                    if (chunk != null) {
+                        String sensorData = mChunkAssembler.add(
+                                bundle.getInt(BundleKeys.BUNDLE_KEY_CHUNK_SEQUENCE),
+                                bundle.getInt(BundleKeys.BUNDLE_KEY_CHUNK_INDEX),
+                                bundle.getInt(BundleKeys.BUNDLE_KEY_CHUNK_COUNT),
+                                chunk);
+                        if (sensorData != null) {
+                            /* The last chunk carries the latency stamps */
+                            recordDeliveryLatency(bundle);
+                            mListener.onSensorDataReceived(sensorData);
+                        }
+                    } else {
+                        Log.w(TAG, "MSG_SENSOR_DATA_CHUNK: Invalid bundle: " + bundle);
+                    }
+                } else {
+                    Log.w(TAG, "MSG_SENSOR_DATA_CHUNK: No bundle?");
+                }
+                break;
+            case IpcType.MSG_OPEN_SENSOR_STREAM:
+                if (bundle != null) {
+                    ParcelFileDescriptor readEnd =
+                            bundle.getParcelable(BundleKeys.BUNDLE_KEY_STREAM_DESCRIPTOR);
+                    if (readEnd == null) {
+                        Log.w(TAG, "MSG_OPEN_SENSOR_STREAM: Invalid bundle: " + bundle);
+                    } else if (mStreamListener != null) {
+                        startStreamReader(readEnd);
+                    } else {
+                        /* Closed before the reply */
+                        try {
+                            readEnd.close();
+                        } catch (IOException e) {
+                            Log.w(TAG, "MSG_OPEN_SENSOR_STREAM: " + e);
+                        }
+                    }
+                } else {
+                    Log.w(TAG, "MSG_OPEN_SENSOR_STREAM: No bundle?");
+                }
+                break;
+            case IpcType.MSG_SENSOR_SAMPLES:
+                if (bundle != null) {
+                    /* Subscribers may keep items, so that they need their own */
+                    boolean toPublish = (mSamplesPublisher != null
+                            && mSamplesPublisher.hasDemand());
+                    SensorSamples samples = toPublish ? new SensorSamples() : mSamples;
+                    if (SamplesBundleUtil.fromBundle(bundle, samples)) {
+                        recordDeliveryLatency(bundle);
+                        onSensorSamplesReceived(samples);
+                    } else {
+                        Log.w(TAG, "MSG_SENSOR_SAMPLES: Invalid bundle: " + bundle);
+                    }
+                } else {
+                    Log.w(TAG, "MSG_SENSOR_SAMPLES: No bundle?");
+                }
+                break;
+            case IpcType.MSG_QUERY_SENSOR_DATA:
+                if (bundle != null) {
+                    onQueryResultReceived(result_code, bundle);
+                } else {
+                    Log.w(TAG, "MSG_QUERY_SENSOR_DATA: No bundle?");
+                }
+                break;
+            case IpcType.MSG_TRACE_REPLAY_FINISHED:
+                if (bundle != null) {
+                    onTraceReplayFinished(result_code, bundle);
+                } else {
+                    Log.w(TAG, "MSG_TRACE_REPLAY_FINISHED: No bundle?");
+                }
+                break;
+            case IpcType.MSG_SYNTHETIC_LOAD_FINISHED:
+                if (bundle != null) {
+                    onSyntheticLoadFinished(result_code, bundle);
+                } else {
+                    Log.w(TAG, "MSG_SYNTHETIC_LOAD_FINISHED: No bundle?");
+                }
+                break;
+            case IpcType.MSG_LIST_SENSORS:
+            case IpcType.MSG_SENSOR_INVENTORY_CHANGED:
+                if (bundle != null) {
+                    onSensorsReceived(bundle);
+                } else {
+                    Log.w(TAG, "MSG_LIST_SENSORS: No bundle?");
+                }
+                break;
+            case IpcType.MSG_SENSOR_PROBE_FINISHED:
+                if (bundle != null) {
+                    onSensorProbeFinished(result_code, bundle);
+                } else {
+                    Log.w(TAG, "MSG_SENSOR_PROBE_FINISHED: No bundle?");
+                }
+                break;
+            case IpcType.MSG_GET_STATS:
+                if (bundle != null) {
+                    onStatsReceived(bundle);
+                } else {
+                    Log.w(TAG, "MSG_GET_STATS: No bundle?");
+                }
+                break;
+            case IpcType.MSG_INTERVAL_CHANGED:
+                if (bundle != null) {
+                    onIntervalChanged(bundle);
+                } else {
+                    Log.w(TAG, "MSG_INTERVAL_CHANGED: No bundle?");
+                }
+                break;
+            case IpcType.MSG_MOTION_STATE_CHANGED:
+                if (bundle != null) {
+                    onMotionStateChanged(bundle);
+                } else {
+                    Log.w(TAG, "MSG_MOTION_STATE_CHANGED: No bundle?");
+                }
+                break;
+            case IpcType.MSG_SET_INTERVAL_TIMER:
+            case IpcType.MSG_CELLULAR_DATA:
+            case IpcType.MSG_SET_LOCATION:
+            case IpcType.MSG_RESET_LOCATION:
+            case IpcType.MSG_SET_USER_DATA:
+            case IpcType.MSG_ENABLE_DATA_STORE:
+            case IpcType.MSG_DISABLE_DATA_STORE:
+            case IpcType.MSG_START_TRACE_REPLAY:
+            case IpcType.MSG_STOP_TRACE_REPLAY:
+            case IpcType.MSG_START_SYNTHETIC_LOAD:
+            case IpcType.MSG_STOP_SYNTHETIC_LOAD:
+            case IpcType.MSG_ENABLE_ADAPTIVE_INTERVAL:
+            case IpcType.MSG_DISABLE_ADAPTIVE_INTERVAL:
+            case IpcType.MSG_ENABLE_MOTION_GATING:
+            case IpcType.MSG_DISABLE_MOTION_GATING:
+            case IpcType.MSG_START_SENSOR_PROBE:
+            case IpcType.MSG_STOP_SENSOR_PROBE:
+            case IpcType.MSG_SET_SENSOR_DATA_FORMAT:
+            case IpcType.MSG_APPLY_SESSION_CONFIG:
+            case IpcType.MSG_CLOSE_SENSOR_STREAM:
+                /* These cases are meant to be an ACK */
+                if (result_code != 0) {
+                    /* Any error will be notified by IpcType.MSG_ERROR, actually */
+                    Log.w(TAG, "IpcType(" + msg.what + "): Failed to set value");
+                }
+                break;
+            case IpcType.MSG_ERROR:
+                if (bundle != null) {
+                    String errmsg = bundle.getString(BundleKeys.BUNDLE_KEY_ERROR_MESSAGE);
+                    if (errmsg != null) {
+                        mListener.onError(errmsg);
+                    } else {
+                        Log.w(TAG, "MSG_ERROR: Invalid bundle: " + bundle);
+                    }
+                } else {
+                    Log.w(TAG, "MSG_ERROR: No bundle?");
+                }
+                break;
+            default:
+                Log.e(TAG, "Unknown IpcType: " + msg.what);
+                break;
+        }
+    }
+
+    private void onQueryResultReceived(int result_code, @NonNull Bundle bundle) {
+        int queryId = bundle.getInt(BundleKeys.BUNDLE_KEY_QUERY_ID, 0);
+        SensorQueryListener listener = mQueryListeners.get(queryId);
+        if (listener == null) {
+            Log.w(TAG, "MSG_QUERY_SENSOR_DATA: Unknown query(" + queryId + ")");
+            return;
+        }
+
+        ArrayList<String> jsonRecords =
+                bundle.getStringArrayList(BundleKeys.BUNDLE_KEY_QUERY_RECORDS);
+        if (jsonRecords != null) {
+            listener.onQueryRecordsReceived(jsonRecords);
+        }
+        if (bundle.getBoolean(BundleKeys.BUNDLE_KEY_QUERY_COMPLETED, false)) {
+            mQueryListeners.remove(queryId);
+            if (result_code == 0) {
+                listener.onQueryCompleted(
+                        bundle.getInt(BundleKeys.BUNDLE_KEY_QUERY_TOTAL, 0));
+            } else {
+                String errmsg = bundle.getString(BundleKeys.BUNDLE_KEY_ERROR_MESSAGE);
+                listener.onQueryError((errmsg != null) ? errmsg : TAG + ": Query failed");
+            }
+        }
+    }
+
+    private void onTraceReplayFinished(int result_code, @NonNull Bundle bundle) {
+        SensorReplayListener listener = mReplayListener;
+        if (listener == null) {
+            Log.w(TAG, "MSG_TRACE_REPLAY_FINISHED: No listener?");
+            return;
+        }
+        mReplayListener = null;
+
+        if (result_code == 0) {
+            listener.onReplayFinished(
+                    bundle.getInt(BundleKeys.BUNDLE_KEY_REPLAY_SAMPLES, 0),
+                    bundle.getBoolean(BundleKeys.BUNDLE_KEY_REPLAY_STOPPED, false));
+        } else {
+            String errmsg = bundle.getString(BundleKeys.BUNDLE_KEY_ERROR_MESSAGE);
+            listener.onReplayError((errmsg != null) ? errmsg : TAG + ": Replay failed");
+        }
+    }
+
+    private void onSyntheticLoadFinished(int result_code, @NonNull Bundle bundle) {
+        SensorLoadListener listener = mLoadListener;
+        if (listener == null) {
+            Log.w(TAG, "MSG_SYNTHETIC_LOAD_FINISHED: No listener?");
+            return;
+        }
+        mLoadListener = null;
+
+        if (result_code == 0) {
+            SyntheticLoadReport report = new SyntheticLoadReport(
+                    bundle.getInt(BundleKeys.BUNDLE_KEY_REPLAY_SAMPLES, 0),
+                    bundle.getLong(BundleKeys.BUNDLE_KEY_LOAD_ELAPSED, 0L),
+                    bundle.getInt(BundleKeys.BUNDLE_KEY_LOAD_EXPORTS, 0),
+                    bundle.getLong(BundleKeys.BUNDLE_KEY_LOAD_EXPORT_LATENCY_AVG, 0L),
+                    bundle.getLong(BundleKeys.BUNDLE_KEY_LOAD_EXPORT_LATENCY_MAX, 0L),
+                    bundle.getLong(BundleKeys.BUNDLE_KEY_LOAD_DROPS, 0L));
+            listener.onLoadFinished(report,
+                    bundle.getBoolean(BundleKeys.BUNDLE_KEY_REPLAY_STOPPED, false));
+        } else {
+            String errmsg = bundle.getString(BundleKeys.BUNDLE_KEY_ERROR_MESSAGE);
+            listener.onLoadError((errmsg != null) ? errmsg : TAG + ": Synthetic load failed");
+        }
+    }
+
+    private void onSensorProbeFinished(int result_code, @NonNull Bundle bundle) {
+        SensorProbeListener listener = mProbeListener;
+        if (listener == null) {
+            Log.w(TAG, "MSG_SENSOR_PROBE_FINISHED: No listener?");
+            return;
+        }
+        mProbeListener = null;
+
+        if (result_code == 0) {
+            listener.onProbeFinished(ProbeBundleUtil.fromBundle(bundle),
+                    bundle.getBoolean(BundleKeys.BUNDLE_KEY_PROBE_STOPPED, false));
+        } else {
+            String errmsg = bundle.getString(BundleKeys.BUNDLE_KEY_ERROR_MESSAGE);
+            listener.onProbeError((errmsg != null) ? errmsg : TAG + ": Sensor probe failed");
+        }
+    }
+
+    private void onSensorSamplesReceived(@NonNull SensorSamples samples) {
+        SensorSamplesListener listener = mSamplesListener;
+        if (listener != null) {
+            listener.onSensorSamplesReceived(samples);
+        }
+        if (mSamplesPublisher != null) {
+            mSamplesPublisher.offer(samples);
+        }
+    }
+
+    private void recordDeliveryLatency(@NonNull Bundle bundle) {
+        long receiveNanos = SystemClock.elapsedRealtimeNanos();
+        int[] sensorTypes = bundle.getIntArray(BundleKeys.BUNDLE_KEY_LATENCY_SENSOR_TYPES);
+        long[] eventNanos = bundle.getLongArray(BundleKeys.BUNDLE_KEY_LATENCY_EVENT_TIMES);
+        long[] ingestNanos = bundle.getLongArray(BundleKeys.BUNDLE_KEY_LATENCY_INGEST_TIMES);
+        long serializeNanos = bundle.getLong(BundleKeys.BUNDLE_KEY_LATENCY_SERIALIZE_TIME, 0L);
+        if (sensorTypes != null && eventNanos != null && ingestNanos != null
+                && serializeNanos > 0L) {
+            mDeliveryLatencyTracker.record(
+                    sensorTypes, eventNanos, ingestNanos, serializeNanos, receiveNanos);
+        }
+    }
+
+    private void onIntervalChanged(@NonNull Bundle bundle) {
+        SensorIntervalListener listener = mIntervalListener;
+        if (listener != null) {
+            String reason = bundle.getString(BundleKeys.BUNDLE_KEY_INTERVAL_REASON);
+            listener.onIntervalChanged(
+                    bundle.getLong(BundleKeys.BUNDLE_KEY_INTERVAL_TIMER, 0L),
+                    (reason != null) ? reason : "");
+        } else {
+            Log.w(TAG, "MSG_INTERVAL_CHANGED: No listener?");
+        }
+    }
+
+    private void onMotionStateChanged(@NonNull Bundle bundle) {
+        SensorMotionListener listener = mMotionListener;
+        if (listener != null) {
+            listener.onMotionStateChanged(
+                    bundle.getBoolean(BundleKeys.BUNDLE_KEY_MOTION_STATIONARY, false));
+        } else {
+            Log.w(TAG, "MSG_MOTION_STATE_CHANGED: No listener?");
+        }
+    }
+
+    private void onSensorsReceived(@NonNull Bundle bundle) {
+        SensorInventoryListener listener = mInventoryListener;
+        if (listener != null) {
+            listener.onSensorsReceived(SensorBundleUtil.fromBundle(bundle));
+        } else {
+            Log.d(TAG, "SensorInventory: No listener");
+        }
+    }
+
+    private void onStatsReceived(@NonNull Bundle bundle) {
+        ServiceStatsListener listener = mStatsListener;
+        if (listener != null) {
+            listener.onStatsReceived(StatsBundleUtil.fromBundle(bundle));
+        } else {
+            Log.w(TAG, "MSG_GET_STATS: No listener?");
+        }
+    }
+
+    /**
+     * Callback interfaces for Service connection management.
+     */
+    private final ServiceConnection mConnection = new ServiceConnection() {
+        @Override
+        public void onServiceConnected(ComponentName name, IBinder service) {
+            // This is called when the connection with the service has been
+            // established, giving us the service object we can use to
+            // interact with the service. We are communicating with our
+            // service through an IDL interface, so get a client-side
+            // representation of that from the raw service object.
+            Log.d(TAG, "ServiceConnection.onServiceConnected: " + name.toString());
+            if (service instanceof LocalBinder) {
+                // The service runs in the same process, so that we can
+                // take the sensor data without Message and Bundle.
+                mLocalBinder = (LocalBinder) service;
+                mLocalBinder.registerLocalClient(mMessenger, mLocalClient);
+                mService = mLocalBinder.getMessenger();
+            } else {
+                mService = new Messenger(service);
+            }
+
+            // We want to monitor the service for as long as we are
+            // connected to it.
+            Message msg = Message.obtain(
+                    null, IpcType.MSG_REGISTER_CLIENT, 0, mClientId);
+            msg.replyTo = mMessenger;
+            try {
+                mService.send(msg);
+            } catch (RemoteException e) {
+                // In this case the service has crashed before we could even
+                // do anything with it; we can count on soon being
+                // disconnected (an then reconnected if it can be restarted)
+                // so there is no need to do anything here.
+                Log.e(TAG, "ServiceConnection.onServiceConnected: " + e);
+                return;
+            }
+
+            mIsBound = true;
+
+            // The service takes a new client as of JSON only.
+            mSensorDataFormat = SensorDataFormat.JSON;
+            updateSensorDataFormat();
+
+            // Requests issued while binding, if any.
+            mPendingCommands.flush(mService);
+
+            mListener.onSensorEngaged(
+                    mContext.getString(R.string.sensor_service_connected));
+        }
+
+        @Override
+        public void onServiceDisconnected(ComponentName name) {
+            // This is called when the connection with the service has been
+            // unexpectedly disconnected -- that is, its process crashed.
+            Log.d(TAG, "ServiceConnection.onServiceDisconnected: " + name.toString());
+            mService = null;
+            mLocalBinder = null;
+            failPendingRequests(TAG + ": Service disconnected");
+            // The stream reader sees the pipe broken by itself.
+            mStreamListener = null;
 
             mIsBound = false;
             mListener.onSensorDisengaged(
                     mContext.getString(R.string.sensor_service_disconnected));
         }
     };
+
+    /* A pipelined request, created on Android 7.0 or later only */
+    private static class PendingRequest {
+        private final int mIpcType;
+        private final CompletableFuture<Void> mFuture;
+
+        @RequiresApi(api = Build.VERSION_CODES.N)
+        PendingRequest(int ipcType) {
+            mIpcType = ipcType;
+            mFuture = new CompletableFuture<>();
+        }
+    }
 }
@@ -0,0 +1,38 @@
+/*
+ * Copyright (C) 2026 National Institute of Informatics
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+
+package jp.ad.sinet.stream.android.helper;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Public interface for the user of {@link SensorController#enableAdaptiveInterval}.
+ */
+public interface SensorIntervalListener {
+    /**
+     * Called when {@link SensorService} has changed the export interval.
+     *
+     * @param milliseconds the export interval in effect
+     * @param reason the cause of change, one of
+     *               {@code AdaptiveInterval.REASON_XXX} such like "thermal"
+     */
+    void onIntervalChanged(long milliseconds, @NonNull String reason);
+}
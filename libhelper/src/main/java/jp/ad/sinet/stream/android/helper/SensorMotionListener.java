@@ -0,0 +1,42 @@
+/*
+ * Copyright (C) 2026 National Institute of Informatics
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+
+package jp.ad.sinet.stream.android.helper;
+
+/**
+ * Public interface for the user of {@link SensorController#enableMotionGating}.
+ */
+public interface SensorMotionListener {
+    /**
+     * Called when {@link SensorService} has detected the device became
+     * stationary, or in motion again.
+     * <p>
+     *     Location updates are not gated by {@link SensorService}.
+     *     If desired, call {@link LocationTracker#pauseLocationUpdates} and
+     *     {@link LocationTracker#resumeLocationUpdates} from here.
+     * </p>
+     *
+     * @param isStationary true if the high-rate sensors have been slowed
+     *                     down or paused as per the gating mode,
+     *                     false if they are back in full rate
+     */
+    void onMotionStateChanged(boolean isStationary);
+}
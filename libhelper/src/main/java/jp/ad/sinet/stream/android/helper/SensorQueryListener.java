@@ -0,0 +1,56 @@
+/*
+ * Copyright (C) 2026 National Institute of Informatics
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+
+package jp.ad.sinet.stream.android.helper;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayList;
+
+/**
+ * Public interface for the user of {@link SensorController#querySensorData}.
+ */
+public interface SensorQueryListener {
+    /**
+     * Called when a chunk of stored records has found.
+     * <p>
+     *     Each record is a JSON string, in the same format as notified by
+     *     {@link SensorListener#onSensorDataReceived}.
+     *     A query result may be split into multiple chunks.
+     * </p>
+     *
+     * @param jsonRecords ArrayList of JSON formatted records
+     */
+    void onQueryRecordsReceived(@NonNull ArrayList<String> jsonRecords);
+
+    /**
+     * Called when all records have delivered.
+     *
+     * @param totalRecords the number of records delivered for this query
+     */
+    void onQueryCompleted(int totalRecords);
+
+    /**
+     * Called when the query has failed.
+     * @param description Error description message
+     */
+    void onQueryError(@NonNull String description);
+}
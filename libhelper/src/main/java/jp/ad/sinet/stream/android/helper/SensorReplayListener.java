@@ -0,0 +1,49 @@
+/*
+ * Copyright (C) 2026 National Institute of Informatics
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+
+package jp.ad.sinet.stream.android.helper;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Public interface for the user of {@link SensorController#startTraceReplay}.
+ */
+public interface SensorReplayListener {
+    /**
+     * Called when the replay has reached the end of trace, or has been
+     * stopped by {@link SensorController#stopTraceReplay}.
+     * <p>
+     *     Replayed samples are notified by
+     *     {@link SensorListener#onSensorDataReceived} in the same way as
+     *     samples from the real sensors.
+     * </p>
+     *
+     * @param samples the number of samples replayed
+     * @param isStopped true if stopped before the end of trace
+     */
+    void onReplayFinished(int samples, boolean isStopped);
+
+    /**
+     * Called when the trace cannot be read.
+     * @param description Error description message
+     */
+    void onReplayError(@NonNull String description);
+}
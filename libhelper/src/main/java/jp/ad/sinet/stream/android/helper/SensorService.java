@@ -27,6 +27,7 @@ import android.app.NotificationManager;
 import android.app.Service;
 import android.content.Context;
 import android.content.Intent;
+import android.content.IntentFilter;
 import android.content.pm.ServiceInfo;
 import android.hardware.Sensor;
 import android.hardware.SensorEvent;
@@ -35,35 +36,84 @@ import android.hardware.SensorManager;
 import android.hardware.TriggerEvent;
 import android.hardware.TriggerEventListener;
 import android.os.AsyncTask;
+import android.os.BatteryManager;
+import android.os.Binder;
 import android.os.Build;
 import android.os.Bundle;
 import android.os.Handler;
+import android.os.HandlerThread;
 import android.os.IBinder;
 import android.os.Looper;
 import android.os.Message;
 import android.os.Messenger;
+import android.os.ParcelFileDescriptor;
+import android.os.PowerManager;
 import android.os.RemoteException;
+import android.os.SystemClock;
+import android.os.TransactionTooLargeException;
 import android.telephony.SignalStrength;
 import android.util.Log;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.RequiresApi;
 
 import org.json.JSONObject;
 
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileReader;
+import java.io.IOException;
 import java.lang.ref.WeakReference;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import jp.ad.sinet.stream.android.helper.constants.BundleKeys;
 import jp.ad.sinet.stream.android.helper.constants.IpcType;
+import jp.ad.sinet.stream.android.helper.constants.SensorDataFormat;
+import jp.ad.sinet.stream.android.helper.constants.SensorTypes;
+import jp.ad.sinet.stream.android.helper.metrics.ServiceMetrics;
+import jp.ad.sinet.stream.android.helper.models.SensorDescriptor;
 import jp.ad.sinet.stream.android.helper.models.SensorHolder;
+import jp.ad.sinet.stream.android.helper.models.SensorProbeReport;
+import jp.ad.sinet.stream.android.helper.models.SensorSamples;
+import jp.ad.sinet.stream.android.helper.models.SensorSnapshot;
+import jp.ad.sinet.stream.android.helper.models.ServiceStats;
+import jp.ad.sinet.stream.android.helper.models.SensorSessionConfig;
+import jp.ad.sinet.stream.android.helper.models.SyntheticLoadParams;
+import jp.ad.sinet.stream.android.helper.models.SysInfo;
+import jp.ad.sinet.stream.android.helper.provider.AdaptiveInterval;
 import jp.ad.sinet.stream.android.helper.provider.CellularStorage;
+import jp.ad.sinet.stream.android.helper.provider.ChunkAssembler;
 import jp.ad.sinet.stream.android.helper.provider.JsonBuilder;
 import jp.ad.sinet.stream.android.helper.provider.JsonBuilderForCellular;
 import jp.ad.sinet.stream.android.helper.provider.LocationStorage;
+import jp.ad.sinet.stream.android.helper.provider.MotionGate;
+import jp.ad.sinet.stream.android.helper.provider.SampleRing;
+import jp.ad.sinet.stream.android.helper.provider.SensorDataStore;
+import jp.ad.sinet.stream.android.helper.provider.SensorProbe;
+import jp.ad.sinet.stream.android.helper.provider.SensorRegistry;
 import jp.ad.sinet.stream.android.helper.provider.SensorStorage;
+import jp.ad.sinet.stream.android.helper.provider.SnapshotExchange;
 import jp.ad.sinet.stream.android.helper.provider.UserDataStorage;
+import jp.ad.sinet.stream.android.helper.source.SensorIngest;
+import jp.ad.sinet.stream.android.helper.source.SampleSource;
+import jp.ad.sinet.stream.android.helper.source.SyntheticLoadSource;
+import jp.ad.sinet.stream.android.helper.source.TraceReplaySource;
 import jp.ad.sinet.stream.android.helper.util.DateTimeUtil;
+import jp.ad.sinet.stream.android.helper.util.LocalBinder;
+import jp.ad.sinet.stream.android.helper.util.ProbeBundleUtil;
+import jp.ad.sinet.stream.android.helper.util.SampleStreamSender;
+import jp.ad.sinet.stream.android.helper.util.SamplesBundleUtil;
+import jp.ad.sinet.stream.android.helper.util.SensorBundleUtil;
+import jp.ad.sinet.stream.android.helper.util.SessionConfigBundleUtil;
+import jp.ad.sinet.stream.android.helper.util.StatsBundleUtil;
+import jp.ad.sinet.stream.android.helper.util.TraceUtil;
 
 /**
  * As the back-end element of the SINETStreamHelper library, this class
@@ -73,11 +123,26 @@ public class SensorService extends Service
         implements SensorEventListener {
     private final static String TAG = SensorService.class.getSimpleName();
 
-    /** Keep track of all current registered clients */
-    private final List<Messenger> mClients = new ArrayList<>();
+    /** Keep track of all current registered clients, iterated on the export thread as well */
+    private final List<Messenger> mClients = new CopyOnWriteArrayList<>();
+
+    /* SensorDataFormat of each client, keyed by the binder of its Messenger */
+    private final Map<IBinder, Integer> mSensorDataFormats = new ConcurrentHashMap<>();
+
+    /* Sample streams of clients, keyed by the binder of their Messenger */
+    private final static int MAX_STREAM_BACKLOG = 64;
+    private final ConcurrentHashMap<IBinder, SampleStreamSender> mSampleStreams =
+            new ConcurrentHashMap<>();
+
+    /* The client request on hand, touched on the main thread only */
+    private Messenger mRequestReplyTo = null;
+    private int mRequestId = 0;
 
     private SensorManager mSensorManager = null;
+    private final SensorRegistry mSensorRegistry = new SensorRegistry();
     private final SensorStorage mSensorStorage = new SensorStorage();
+    private final SysInfo mSysInfo =
+            new SysInfo(Build.VERSION.RELEASE, Build.MANUFACTURER, Build.MODEL);
     private final CellularStorage mCellularStorage = new CellularStorage();
     private final LocationStorage mLocationStorage = new LocationStorage();
     private final UserDataStorage mUserDataStorage = new UserDataStorage();
@@ -87,10 +152,96 @@ public class SensorService extends Service
     /* Rate control parameters */
     private long mTimeStamp = 0;
     private long mInterval = ms2ns(1000L);
+    private long mBaseIntervalMillis = 1000L;
+
+    /* Opt-in adaptive export interval, evaluated periodically */
+    private final static long ADAPTIVE_INTERVAL_PERIOD = 5000L; /* milliseconds */
+    private AdaptiveInterval mAdaptiveInterval = null;
+    private Messenger mAdaptiveIntervalClient = null;
+    private long mLastSendFailureCount = 0L;
+    private long mLastMergeCount = 0L;
+
+    /* Opt-in motion gating of the high-rate sensors */
+    private MotionGate mMotionGate = null;
+    private Messenger mMotionGateClient = null;
+    private Sensor mStationaryDetector = null;
+    private Sensor mMotionDetector = null;
+    private boolean mMotionAccelerometerActive = false;
 
     /* Make sure ALL sensor listener gets unregistered on unbind */
     private boolean mSensorListenerActive = false;
 
+    /* Notified of hot-plugged sensors, if supported */
+    private SensorManager.DynamicSensorCallback mDynamicSensorCallback = null;
+
+    /* Capability probe of the sensors, if running */
+    private final static long DEFAULT_PROBE_WINDOW = 2000L; /* milliseconds */
+    private final static long MIN_PROBE_WINDOW = 100L;
+    private final static long MAX_PROBE_WINDOW = 60000L;
+    private ProbeRun mProbeRun = null;
+
+    /* Prebuilt sensor lists for the list requests, null if outdated */
+    private ArrayList<Integer> mSensorTypes = null;
+    private ArrayList<String> mSensorTypeNames = null;
+    private ArrayList<SensorDescriptor> mSensorDescriptors = null;
+
+    /* Handles of sensors enabled by clients, except one-shot ones */
+    private final ArrayList<Integer> mEnabledHandles = new ArrayList<>();
+
+    /* Handles of one-shot sensors armed by clients, until triggered */
+    private final ArrayList<Integer> mArmedOneShotHandles = new ArrayList<>();
+
+    /* On-device store of exported records, confined to its own thread */
+    private final static String DATA_STORE_DIRECTORY = "sensor_data_store";
+    private HandlerThread mDataStoreThread = null;
+    private Handler mDataStoreHandler = null;
+    private SensorDataStore mSensorDataStore = null;
+    private volatile boolean mDataStoreEnabled = false;
+
+    /* Serialization runs on its own thread, fed by snapshots of SensorStorage */
+    private HandlerThread mExportThread = null;
+    private Handler mExportHandler = null;
+    private final SnapshotExchange mSnapshotExchange = new SnapshotExchange();
+
+    /*
+     * A String goes into Parcel as UTF-16, while a binder transaction is
+     * limited to 1 MB shared by the whole process. Larger JSON is sent in
+     * chunks of this length, numbered on the export thread.
+     */
+    private final static int MAX_CHUNK_CHARS = 128 * 1024;
+    private int mChunkSequence = 0;
+
+    /* SensorManager callbacks come on their own thread, queued for the ingest stage */
+    private final static int SENSOR_RING_CAPACITY = 1024;
+    private final static int SOURCE_RING_CAPACITY = 4096;
+    private final static int DRAIN_BATCH_SIZE = 256;
+    private HandlerThread mSensorThread = null;
+    private Handler mSensorHandler = null;
+    private final SampleStage mSensorStage = new SampleStage(
+            new SampleRing(SENSOR_RING_CAPACITY, SampleRing.DEFAULT_MAX_DIMENSIONS), -1);
+    private SampleStage mSourceStage = null;
+
+    /* Alternative source of samples instead of SensorManager, if any */
+    private final Handler mMainHandler = new Handler(Looper.getMainLooper());
+    private SampleSource mSampleSource = null;
+    private int mSampleSourceGeneration = 0;
+    private long mSampleSourceStartTime = 0L;
+
+    /* Export statistics, reported on finish of a SampleSource */
+    private final Object mExportStatsLock = new Object();
+    private int mExportCount = 0;
+    private long mExportNanosTotal = 0L;
+    private long mExportNanosMax = 0L;
+
+    /* Runtime metrics, always on and reported by IpcType.MSG_GET_STATS */
+    private final ServiceMetrics mMetrics = new ServiceMetrics(TAG);
+
+    /* Queue depths, shown as trace counters if TraceUtil is enabled */
+    private final static String COUNTER_SAMPLE_QUEUE = TAG + ".sampleQueue";
+    private final static String COUNTER_DATA_STORE_QUEUE = TAG + ".dataStoreQueue";
+    private final static String COUNTER_PENDING_SENSORS = TAG + ".pendingSensors";
+    private final AtomicInteger mDataStoreQueueDepth = new AtomicInteger();
+
     private final static String NOTIFICATION_CHANNEL_ID =
             TAG + ".notification_channel";
 
@@ -126,12 +277,16 @@ public class SensorService extends Service
      *               as given to {@link Context#bindService
      *               Context.bindService}.  Note that any extras that were included with
      *               the Intent at that point will <em>not</em> be seen here.
-     * @return Return {@link IBinder} object used by {@link Messenger}.
+     * @return Return {@link IBinder} object used by {@link Messenger},
+     * or the {@link LocalBinder} for a client in the same process.
      */
     @Override
     public IBinder onBind(Intent intent) {
         Log.d(TAG, "onBind: Intent="
                 + (intent != null ? intent.toString() : ""));
+        if (LocalBinder.isLocalBind(intent)) {
+            return mLocalBinder;
+        }
         return mMessenger.getBinder();
     }
 
@@ -152,11 +307,14 @@ public class SensorService extends Service
         Log.d(TAG, "onUnbind: Intent="
                 + (intent != null ? intent.toString() : ""));
 
+        disableMotionGating();
         if (mSensorListenerActive) {
             Log.w(TAG, "Forcibly disable ALL sensors");
-            ArrayList<Integer> sensorTypes = mSensorStorage.getSensorTypes();
-            disableSensors(sensorTypes);
+            disableSensors(mSensorRegistry.getHandles());
         }
+        stopSampleSource();
+        stopSensorProbe(false);
+        disableAdaptiveInterval();
         return super.onUnbind(intent);
     }
 
@@ -224,63 +382,218 @@ public class SensorService extends Service
     }
 
     private void onServiceStarted() {
+        mSensorThread = new HandlerThread(TAG + ".Sensor");
+        mSensorThread.start();
+        mSensorHandler = new Handler(mSensorThread.getLooper());
+
         mSensorManager = (SensorManager)getSystemService(SENSOR_SERVICE);
         if (mSensorManager != null) {
             List<Sensor> sensorList = mSensorManager.getSensorList(Sensor.TYPE_ALL);
             for (int i = 0, n = sensorList.size(); i < n; i++) {
-                Sensor sensor = sensorList.get(i);
-
-                String attr = "";
-                attr += "[";
-                if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N) {
-                    attr += "id(" + sensor.getId() + "),";
-                }
-                attr += "type(" + sensor.getType() + "),";
-                attr += "name(" + sensor.getName() + ")";
-                attr += "]";
-                Log.d(TAG, "Register SENSOR" + attr);
-
-                if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
-                    int reportingMode = sensor.getReportingMode();
-                    String modeName = "Unknown";
-                    switch (reportingMode) {
-                        case Sensor.REPORTING_MODE_CONTINUOUS:
-                            modeName = "CONTINUOUS";
-                            break;
-                        case Sensor.REPORTING_MODE_ON_CHANGE:
-                            modeName = "ON_CHANGE";
-                            break;
-                        case Sensor.REPORTING_MODE_ONE_SHOT:
-                            modeName = "ONE_SHOT";
-                            break;
-                        case Sensor.REPORTING_MODE_SPECIAL_TRIGGER:
-                            /* Step detectors, etc. */
-                            modeName = "SPECIAL_TRIGGER";
-                            break;
-                        default:
-                            break;
-                    }
-                    Log.d(TAG, "ReportingMode(" + reportingMode + "): " + modeName);
+                registerSensor(sensorList.get(i));
+            }
+
+            /* Sensors may be attached later, such like USB or Bluetooth ones */
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N
+                    && mSensorManager.isDynamicSensorDiscoverySupported()) {
+                mDynamicSensorCallback = newDynamicSensorCallback();
+                mSensorManager.registerDynamicSensorCallback(
+                        mDynamicSensorCallback, mMainHandler);
+            }
+        } else {
+            Log.w(TAG, "SENSOR_SERVICE unavailable?");
+        }
+
+        mDataStoreThread = new HandlerThread(TAG + ".DataStore");
+        mDataStoreThread.start();
+        mDataStoreHandler = new Handler(mDataStoreThread.getLooper());
+        mSensorDataStore = new SensorDataStore(
+                new File(getFilesDir(), DATA_STORE_DIRECTORY));
+
+        mExportThread = new HandlerThread(TAG + ".Export");
+        mExportThread.start();
+        mExportHandler = new Handler(mExportThread.getLooper());
+    }
+
+    /**
+     * Give a handle to the sensor, so that it can be enabled by clients.
+     *
+     * @param sensor the {@link Sensor} object
+     * @return true if registered
+     */
+    private boolean registerSensor(@NonNull Sensor sensor) {
+        String attr = "";
+        attr += "[";
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N) {
+            attr += "id(" + sensor.getId() + "),";
+        }
+        attr += "type(" + sensor.getType() + "),";
+        attr += "name(" + sensor.getName() + ")";
+        attr += "]";
+        Log.d(TAG, "Register SENSOR" + attr);
+
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
+            int reportingMode = sensor.getReportingMode();
+            String modeName = "Unknown";
+            switch (reportingMode) {
+                case Sensor.REPORTING_MODE_CONTINUOUS:
+                    modeName = "CONTINUOUS";
+                    break;
+                case Sensor.REPORTING_MODE_ON_CHANGE:
+                    modeName = "ON_CHANGE";
+                    break;
+                case Sensor.REPORTING_MODE_ONE_SHOT:
+                    modeName = "ONE_SHOT";
+                    break;
+                case Sensor.REPORTING_MODE_SPECIAL_TRIGGER:
+                    /* Step detectors, etc. */
+                    modeName = "SPECIAL_TRIGGER";
+                    break;
+                default:
+                    break;
+            }
+            Log.d(TAG, "ReportingMode(" + reportingMode + "): " + modeName);
+        }
+
+        if (sensor.getType() >= Sensor.TYPE_DEVICE_PRIVATE_BASE) {
+            /* We don't know how to handle this sensor. */
+            Log.d(TAG, "Skip device private sensor" +
+                    "[type(" + sensor.getType() +
+                    "),name(" + sensor.getName() + ")]");
+            return false;
+        }
+
+        /* Sensors of the same type are told apart by handle */
+        int handle = mSensorStorage.getNextHandle();
+        mSensorStorage.registerDescriptor(
+                mSensorRegistry.toSensorDescriptor(sensor, handle));
+        mSensorRegistry.registerSensor(sensor, handle);
+        invalidateSensorReplies();
+        return true;
+    }
+
+    /**
+     * Keep the sensor registry up to date with hot-plugged sensors, and
+     * let the clients know without rescanning.
+     */
+    @RequiresApi(api = Build.VERSION_CODES.N)
+    @NonNull
+    private SensorManager.DynamicSensorCallback newDynamicSensorCallback() {
+        return new SensorManager.DynamicSensorCallback() {
+            @Override
+            public void onDynamicSensorConnected(@NonNull Sensor sensor) {
+                Log.d(TAG, "onDynamicSensorConnected: " + sensor.getName());
+                if (mSensorRegistry.getHandle(sensor) < 0 && registerSensor(sensor)) {
+                    sendToClients(IpcType.MSG_SENSOR_INVENTORY_CHANGED, 0,
+                            getSensorInventoryReply());
                 }
+            }
 
-                if (sensor.getType() >= Sensor.TYPE_DEVICE_PRIVATE_BASE) {
-                    /* We don't know how to handle this sensor. */
-                    Log.d(TAG, "Skip device private sensor" +
-                            "[type(" + sensor.getType() +
-                            "),name(" + sensor.getName() + ")]");
-                    continue;
+            @Override
+            public void onDynamicSensorDisconnected(@NonNull Sensor sensor) {
+                Log.d(TAG, "onDynamicSensorDisconnected: " + sensor.getName());
+                int handle = mSensorRegistry.getHandle(sensor);
+                if (handle < 0) {
+                    return;
                 }
+                if (mEnabledHandles.remove(Integer.valueOf(handle))) {
+                    mSensorManager.unregisterListener(SensorService.this, sensor);
+                }
+                mArmedOneShotHandles.remove(Integer.valueOf(handle));
+                /* The handle is not reused; a reconnected sensor gets a new one */
+                mSensorRegistry.unregisterSensor(sensor);
+                mSensorStorage.unregisterDescriptor(handle);
+                invalidateSensorReplies();
+                sendToClients(IpcType.MSG_SENSOR_INVENTORY_CHANGED, 0,
+                        getSensorInventoryReply());
+            }
+        };
+    }
+
+    /**
+     * The sensor lists are built once and kept until the set of sensors
+     * changes. Each reply still gets a fresh Bundle of copies, since a
+     * client in the same process receives the very objects put into it.
+     */
+    private void invalidateSensorReplies() {
+        mSensorTypes = null;
+        mSensorTypeNames = null;
+        mSensorDescriptors = null;
+    }
+
+    @NonNull
+    private Bundle getSensorTypesReply() {
+        if (mSensorTypes == null) {
+            mSensorTypes = mSensorRegistry.getSensorTypes();
+            mSensorTypeNames = mSensorRegistry.getSensorTypeNames(mSensorTypes);
+        }
+
+        Bundle bundle = new Bundle();
+        bundle.putIntegerArrayList(
+                BundleKeys.BUNDLE_KEY_SENSOR_TYPES, new ArrayList<>(mSensorTypes));
+        bundle.putStringArrayList(
+                BundleKeys.BUNDLE_KEY_SENSOR_TYPE_NAMES, new ArrayList<>(mSensorTypeNames));
+        return bundle;
+    }
 
-                mSensorStorage.registerSensor(sensor);
+    @NonNull
+    private Bundle getSensorInventoryReply() {
+        if (mSensorDescriptors == null) {
+            ArrayList<SensorDescriptor> descriptors = new ArrayList<>();
+            ArrayList<Integer> handles = mSensorRegistry.getHandles();
+            for (int i = 0, n = handles.size(); i < n; i++) {
+                SensorDescriptor descriptor =
+                        mSensorStorage.getSensorDescriptor(handles.get(i));
+                if (descriptor != null) {
+                    descriptors.add(descriptor);
+                }
             }
-        } else {
-            Log.w(TAG, "SENSOR_SERVICE unavailable?");
+            mSensorDescriptors = descriptors;
         }
+        /* Descriptors are immutable; the arrays and lists are made anew */
+        return SensorBundleUtil.toBundle(mSensorDescriptors);
     }
 
     private void onServiceStopped() {
+        disableMotionGating();
         if (mSensorManager != null) {
             mSensorManager.unregisterListener(this);
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N
+                    && mDynamicSensorCallback != null) {
+                mSensorManager.unregisterDynamicSensorCallback(mDynamicSensorCallback);
+                mDynamicSensorCallback = null;
+            }
+        }
+        mEnabledHandles.clear();
+        mArmedOneShotHandles.clear();
+        if (mSensorThread != null) {
+            mSensorThread.quitSafely();
+            mSensorThread = null;
+            mSensorHandler = null;
+        }
+        stopSampleSource();
+        stopSensorProbe(false);
+        disableAdaptiveInterval();
+
+        if (mDataStoreThread != null) {
+            final SensorDataStore sensorDataStore = mSensorDataStore;
+            mDataStoreHandler.post(new Runnable() {
+                @Override
+                public void run() {
+                    sensorDataStore.close();
+                }
+            });
+            mDataStoreThread.quitSafely();
+            mDataStoreThread = null;
+        }
+
+        if (mExportThread != null) {
+            mExportThread.quitSafely();
+            mExportThread = null;
+            mExportHandler = null;
+        }
+        for (IBinder binder : mSampleStreams.keySet()) {
+            closeSampleStream(binder);
         }
     }
 
@@ -347,6 +660,12 @@ public class SensorService extends Service
             new Messenger(new IncomingHandler(
                     Looper.getMainLooper(),this));
 
+    /**
+     * Target we publish for clients in the same process, which also
+     * lets them receive the sensor data without Message and Bundle.
+     */
+    private final LocalBinder mLocalBinder = new LocalBinder(mMessenger);
+
     /**
      * Handler for incoming messages from clients.
      */
@@ -374,7 +693,12 @@ public class SensorService extends Service
         public void handleMessage(@NonNull Message msg) {
             SensorService sensorService = weakReference.get();
             if (sensorService != null) {
-                sensorService.onClientMessageReceived(msg);
+                boolean traced = TraceUtil.beginSection("SensorService.handleMessage");
+                try {
+                    sensorService.onClientMessageReceived(msg);
+                } finally {
+                    TraceUtil.endSection(traced);
+                }
             } else {
                 Log.w(TAG, "handleMessage: SensorService has gone");
             }
@@ -383,6 +707,23 @@ public class SensorService extends Service
     }
 
     private void onClientMessageReceived(Message msg) {
+        /*
+         * Replies to this message carry the request id in Message.arg2,
+         * so that the client can match those against its pending requests.
+         */
+        Bundle bundle_req = msg.getData();
+        mRequestReplyTo = msg.replyTo;
+        mRequestId = (bundle_req != null) ?
+                bundle_req.getInt(BundleKeys.BUNDLE_KEY_REQUEST_ID, 0) : 0;
+        try {
+            dispatchClientMessage(msg);
+        } finally {
+            mRequestReplyTo = null;
+            mRequestId = 0;
+        }
+    }
+
+    private void dispatchClientMessage(Message msg) {
         Bundle bundle_req = msg.getData();
         Bundle bundle_rsp;
         int result_code = -1; /* Error if non-zero */
@@ -393,14 +734,16 @@ public class SensorService extends Service
                 break;
             case IpcType.MSG_UNREGISTER_CLIENT:
                 mClients.remove(msg.replyTo);
+                mLocalBinder.unregisterLocalClient(msg.replyTo);
+                mSensorDataFormats.remove(msg.replyTo.getBinder());
+                closeSampleStream(msg.replyTo.getBinder());
                 break;
             case IpcType.MSG_SET_INTERVAL_TIMER:
                 if (bundle_req != null) {
                     long milliseconds = bundle_req.getLong(
                             BundleKeys.BUNDLE_KEY_INTERVAL_TIMER, -1L);
                     if (milliseconds > 0L) {
-                        Log.d(TAG, "Set interval timer to " + milliseconds + " (milliseconds)");
-                        mInterval = ms2ns(milliseconds);
+                        setBaseInterval(milliseconds);
                         result_code = 0;
                     } else {
                         errorReply(msg.replyTo, "Invalid interval timer: " + milliseconds);
@@ -480,6 +823,33 @@ public class SensorService extends Service
                     break;
                 }
 
+                /* Send back process result */
+                sendToClient(msg.replyTo, msg.what, result_code, null);
+                break;
+            case IpcType.MSG_APPLY_SESSION_CONFIG:
+                if (bundle_req != null) {
+                    if (applySessionConfig(msg.replyTo, bundle_req)) {
+                        result_code = 0;
+                    }
+                } else {
+                    errorReply(msg.replyTo, "SESSION_CONFIG: Bundle data is missing?");
+                }
+                if (result_code != 0) {
+                    /* ErrorReply has sent; avoid calling sendToClient() again */
+                    break;
+                }
+
+                /* Send back process result */
+                sendToClient(msg.replyTo, msg.what, result_code, null);
+                break;
+            case IpcType.MSG_OPEN_SENSOR_STREAM:
+                /* Replied with the read end of the pipe */
+                openSampleStream(msg.replyTo);
+                break;
+            case IpcType.MSG_CLOSE_SENSOR_STREAM:
+                closeSampleStream(msg.replyTo.getBinder());
+                result_code = 0;
+
                 /* Send back process result */
                 sendToClient(msg.replyTo, msg.what, result_code, null);
                 break;
@@ -494,171 +864,1194 @@ public class SensorService extends Service
                     }
                 }
                 /* Send back available sensor types */
-                ArrayList<Integer> availableSensorTypes =
-                        mSensorStorage.getSensorTypes();
-                ArrayList<String> sensorTypeNames =
-                        mSensorStorage.getSensorTypeNames(availableSensorTypes);
-
-                bundle_rsp = new Bundle();
-                bundle_rsp.putIntegerArrayList(
-                        BundleKeys.BUNDLE_KEY_SENSOR_TYPES, availableSensorTypes);
-                bundle_rsp.putStringArrayList(
-                        BundleKeys.BUNDLE_KEY_SENSOR_TYPE_NAMES, sensorTypeNames);
+                bundle_rsp = getSensorTypesReply();
+                result_code = 0;
+
+                sendToClient(msg.replyTo, msg.what, result_code, bundle_rsp);
+                break;
+            case IpcType.MSG_LIST_SENSORS:
+                /* Send back available sensor instances, including wake-up variants */
+                bundle_rsp = getSensorInventoryReply();
                 result_code = 0;
 
                 sendToClient(msg.replyTo, msg.what, result_code, bundle_rsp);
                 break;
             case IpcType.MSG_ENABLE_SENSORS:
                 if (bundle_req != null) {
-                    ArrayList<Integer> sensorTypes =
-                            bundle_req.getIntegerArrayList(BundleKeys.BUNDLE_KEY_SENSOR_TYPES);
-                    if (sensorTypes == null) {
+                    ArrayList<Integer> handles = toSensorHandles(bundle_req);
+                    if (handles == null) {
                         Log.d(TAG, "Going to enable ALL sensor types");
-                        sensorTypes = mSensorStorage.getSensorTypes();
+                        handles = toSensorHandles(mSensorRegistry.getSensorTypes());
+                    }
+                    if (enableSensors(msg.replyTo, handles) && mRequestId != 0) {
+                        /* Only a pipelined request takes an ACK */
+                        sendToClient(msg.replyTo, msg.what, 0, null);
                     }
-                    enableSensors(msg, sensorTypes);
                 } else {
                     errorReply(msg.replyTo, "SENSOR_TYPES: Bundle data is missing?");
                 }
                 break;
             case IpcType.MSG_DISABLE_SENSORS:
                 if (bundle_req != null) {
-                    ArrayList<Integer> sensorTypes =
-                            bundle_req.getIntegerArrayList(BundleKeys.BUNDLE_KEY_SENSOR_TYPES);
-                    if (sensorTypes == null) {
-                        Log.d(TAG, "Going to disable ALL sensor types");
-                        sensorTypes = mSensorStorage.getSensorTypes();
+                    ArrayList<Integer> handles = toSensorHandles(bundle_req);
+                    if (handles == null) {
+                        Log.d(TAG, "Going to disable ALL sensors");
+                        handles = mSensorRegistry.getHandles();
+                    }
+                    disableSensors(handles);
+                    if (mRequestId != 0) {
+                        /* Only a pipelined request takes an ACK */
+                        sendToClient(msg.replyTo, msg.what, 0, null);
                     }
-                    disableSensors(sensorTypes);
                 } else {
                     errorReply(msg.replyTo, "SENSOR_TYPES: Bundle data is missing?");
                 }
-            default:
                 break;
-        }
-    }
+            case IpcType.MSG_ENABLE_DATA_STORE:
+            case IpcType.MSG_DISABLE_DATA_STORE:
+                mDataStoreEnabled = (msg.what == IpcType.MSG_ENABLE_DATA_STORE);
+                Log.d(TAG, "DataStore: " + (mDataStoreEnabled ? "ENABLED" : "DISABLED"));
+                result_code = 0;
 
-    private void excludeSensors(Message msg, ArrayList<Integer> sensorTypes) {
-        if (mSensorListenerActive) {
-            Log.w(TAG, "ExcludeSensors: Invalid calling sequence");
-            return;
-        }
-        for (int i = 0, n = sensorTypes.size(); i < n; i++) {
-            int sensorType = sensorTypes.get(i);
+                /* Send back process result */
+                sendToClient(msg.replyTo, msg.what, result_code, null);
+                break;
+            case IpcType.MSG_QUERY_SENSOR_DATA:
+                if (bundle_req != null) {
+                    querySensorData(msg.replyTo, bundle_req);
+                } else {
+                    errorReply(msg.replyTo, "QUERY: Bundle data is missing?");
+                }
+                break;
+            case IpcType.MSG_START_TRACE_REPLAY:
+                if (bundle_req != null) {
+                    if (startTraceReplay(msg.replyTo, bundle_req)) {
+                        /* Send back process result */
+                        sendToClient(msg.replyTo, msg.what, 0, null);
+                    }
+                } else {
+                    errorReply(msg.replyTo, "TRACE_REPLAY: Bundle data is missing?");
+                }
+                break;
+            case IpcType.MSG_STOP_TRACE_REPLAY:
+                stopSampleSource();
+                result_code = 0;
 
-            Sensor sensor = mSensorStorage.lookupSensor(sensorType);
-            if (sensor != null) {
-                Log.d(TAG, "XXX: " + "[" + (i+1) + "/" + n + "]" +
-                        "Going to EXCLUDE: " + sensor.getName());
+                /* Send back process result */
+                sendToClient(msg.replyTo, msg.what, result_code, null);
+                break;
+            case IpcType.MSG_START_SYNTHETIC_LOAD:
+                if (bundle_req != null) {
+                    if (startSyntheticLoad(msg.replyTo, bundle_req)) {
+                        /* Send back process result */
+                        sendToClient(msg.replyTo, msg.what, 0, null);
+                    }
+                } else {
+                    errorReply(msg.replyTo, "SYNTHETIC_LOAD: Bundle data is missing?");
+                }
+                break;
+            case IpcType.MSG_STOP_SYNTHETIC_LOAD:
+                stopSampleSource();
+                result_code = 0;
 
-                mSensorStorage.unregisterSensor(sensor);
-            } else {
-                Log.w(TAG, "Unsupported sensor type: " + sensorType);
-            }
-        }
-    }
+                /* Send back process result */
+                sendToClient(msg.replyTo, msg.what, result_code, null);
+                break;
+            case IpcType.MSG_GET_STATS:
+                bundle_rsp = StatsBundleUtil.toBundle(getStats());
 
-    private void enableSensors(Message msg, ArrayList<Integer> sensorTypes) {
-        for (int i = 0, n = sensorTypes.size(); i < n; i++) {
-            int sensorType = sensorTypes.get(i);
-            String typeName = mSensorStorage.getSensorTypeName(sensorType);
+                /* Send back process result */
+                sendToClient(msg.replyTo, msg.what, 0, bundle_rsp);
+                break;
+            case IpcType.MSG_ENABLE_ADAPTIVE_INTERVAL:
+                if (bundle_req != null) {
+                    if (enableAdaptiveInterval(msg.replyTo, bundle_req)) {
+                        /* Send back process result */
+                        sendToClient(msg.replyTo, msg.what, 0, null);
+                    }
+                } else {
+                    errorReply(msg.replyTo, "ADAPTIVE_INTERVAL: Bundle data is missing?");
+                }
+                break;
+            case IpcType.MSG_DISABLE_ADAPTIVE_INTERVAL:
+                disableAdaptiveInterval();
 
-            Sensor sensor = mSensorStorage.lookupSensor(sensorType);
-            if (sensor != null) {
-                Log.d(TAG, "XXX: " + "[" + (i+1) + "/" + n + "]" +
-                        "Going to enable: " + sensor.getName());
+                /* Send back process result */
+                sendToClient(msg.replyTo, msg.what, 0, null);
+                break;
+            case IpcType.MSG_ENABLE_MOTION_GATING:
+                if (bundle_req != null) {
+                    if (enableMotionGating(msg.replyTo, bundle_req)) {
+                        /* Send back process result */
+                        sendToClient(msg.replyTo, msg.what, 0, null);
+                    }
+                } else {
+                    errorReply(msg.replyTo, "MOTION_GATING: Bundle data is missing?");
+                }
+                break;
+            case IpcType.MSG_DISABLE_MOTION_GATING:
+                disableMotionGating();
 
-                if (isOneshot(sensor)) {
-                    try {
-                        if (! mSensorManager.requestTriggerSensor(
-                                mTriggerEventListener, sensor)) {
-                            errorReply(msg.replyTo, TAG +
-                                    ": requestTriggerSensor(" + typeName + "): FAILED?");
-                            break;
-                        }
-                    } catch (IllegalArgumentException e) {
-                        errorReply(msg.replyTo, TAG +
-                                ": requestTriggerSensor(" + typeName + "): " +
-                                e);
-                        break;
+                /* Send back process result */
+                sendToClient(msg.replyTo, msg.what, 0, null);
+                break;
+            case IpcType.MSG_START_SENSOR_PROBE:
+                if (bundle_req != null) {
+                    if (startSensorProbe(msg.replyTo, bundle_req)) {
+                        /* Send back process result */
+                        sendToClient(msg.replyTo, msg.what, 0, null);
                     }
                 } else {
-                    if (! mSensorManager.registerListener(
-                            this, sensor, SensorManager.SENSOR_DELAY_NORMAL)) {
-                        errorReply(msg.replyTo, TAG +
-                                ": registerListener(" + typeName + "): FAILED?");
-                        break;
+                    errorReply(msg.replyTo, "SENSOR_PROBE: Bundle data is missing?");
+                }
+                break;
+            case IpcType.MSG_STOP_SENSOR_PROBE:
+                stopSensorProbe(true);
+
+                /* Send back process result */
+                sendToClient(msg.replyTo, msg.what, 0, null);
+                break;
+            case IpcType.MSG_SET_SENSOR_DATA_FORMAT:
+                if (bundle_req != null) {
+                    int format = bundle_req.getInt(BundleKeys.BUNDLE_KEY_SENSOR_DATA_FORMAT, 0);
+                    if (SensorDataFormat.isValid(format)) {
+                        mSensorDataFormats.put(msg.replyTo.getBinder(), format);
+                        Log.d(TAG, "SensorDataFormat(" + msg.arg2 + "): " + format);
+
+                        /* Send back process result */
+                        sendToClient(msg.replyTo, msg.what, 0, null);
+                    } else {
+                        errorReply(msg.replyTo, "SENSOR_DATA_FORMAT: Invalid format: " + format);
                     }
+                } else {
+                    errorReply(msg.replyTo, "SENSOR_DATA_FORMAT: Bundle data is missing?");
                 }
-                mSensorListenerActive = true;
-            } else {
-                Log.w(TAG, "Unsupported sensor type: " + sensorType);
-            }
+                break;
+            default:
+                break;
         }
     }
 
-    private void disableSensors(ArrayList<Integer> sensorTypes) {
-        for (int i = 0, n = sensorTypes.size(); i < n; i++) {
-            int sensorType = sensorTypes.get(i);
-            String typeName = mSensorStorage.getSensorTypeName(sensorType);
+    @NonNull
+    private ServiceStats getStats() {
+        long highWatermark = mSensorStage.ring.getHighWatermark();
+        long dropCount = mSensorStage.ring.getDropCount();
+        if (mSourceStage != null) {
+            highWatermark = Math.max(highWatermark, mSourceStage.ring.getHighWatermark());
+            dropCount += mSourceStage.ring.getDropCount();
+        }
+        return mMetrics.snapshot(mClients.size(), highWatermark, dropCount);
+    }
 
-            Sensor sensor = mSensorStorage.lookupSensor(sensorType);
-            if (sensor != null) {
-                Log.d(TAG, "XXX: " + "[" + (i+1) + "/" + n + "]" +
-                        "Going to disable: " + sensor.getName());
+    private boolean enableAdaptiveInterval(
+            @NonNull Messenger replyTo, @NonNull Bundle bundle_req) {
+        long minMillis = bundle_req.getLong(BundleKeys.BUNDLE_KEY_INTERVAL_MIN, -1L);
+        long maxMillis = bundle_req.getLong(BundleKeys.BUNDLE_KEY_INTERVAL_MAX, -1L);
+        String errmsg = AdaptiveInterval.validate(minMillis, maxMillis);
+        if (errmsg != null) {
+            errorReply(replyTo, "ADAPTIVE_INTERVAL: " + errmsg);
+            return false;
+        }
+        Log.d(TAG, "Adaptive interval: [" + minMillis + ", " + maxMillis + "] (milliseconds)");
+
+        mMainHandler.removeCallbacks(mAdaptiveIntervalTask);
+        mAdaptiveInterval = new AdaptiveInterval(minMillis, maxMillis, mBaseIntervalMillis);
+        mAdaptiveIntervalClient = replyTo;
+        mLastSendFailureCount = mMetrics.getSendFailureCount();
+        mLastMergeCount = mSnapshotExchange.getMergeCount();
+        applyAdaptiveInterval();
+        mMainHandler.postDelayed(mAdaptiveIntervalTask, ADAPTIVE_INTERVAL_PERIOD);
+        return true;
+    }
 
-                if (isOneshot(sensor)) {
-                    try {
-                        if (! mSensorManager.cancelTriggerSensor(
-                                mTriggerEventListener, sensor)) {
-                            Log.w(TAG, "cancelTriggerSensor(" + typeName + "): FAILED?");
-                        }
-                    } catch (IllegalArgumentException e) {
-                        Log.w(TAG, "cancelTriggerSensor(" + typeName + "): " +
-                                e);
-                    }
-                } else {
-                    mSensorManager.unregisterListener(this, sensor);
-                }
-                mSensorListenerActive = false;
-            } else {
-                Log.w(TAG, "Unsupported sensor type: " + sensorType);
-            }
+    private void disableAdaptiveInterval() {
+        if (mAdaptiveInterval != null) {
+            mMainHandler.removeCallbacks(mAdaptiveIntervalTask);
+            mAdaptiveInterval = null;
+            mAdaptiveIntervalClient = null;
+            mInterval = ms2ns(mBaseIntervalMillis);
         }
     }
 
-    private boolean isOneshot(Sensor sensor) {
-        boolean result = false;
-        if (android.os.Build.VERSION.SDK_INT
-                >= android.os.Build.VERSION_CODES.LOLLIPOP) {
-            int reportingMode = sensor.getReportingMode();
-            switch (reportingMode) {
-                case Sensor.REPORTING_MODE_ONE_SHOT:
-                    result = true;
-                    break;
-                case Sensor.REPORTING_MODE_CONTINUOUS:
-                case Sensor.REPORTING_MODE_ON_CHANGE:
-                case Sensor.REPORTING_MODE_SPECIAL_TRIGGER:
-                default:
-                    break;
+    private final Runnable mAdaptiveIntervalTask = new Runnable() {
+        @Override
+        public void run() {
+            if (mAdaptiveInterval != null) {
+                evaluateAdaptiveInterval();
+                mMainHandler.postDelayed(this, ADAPTIVE_INTERVAL_PERIOD);
             }
-        } else {
-            /*
-             * Maybe the best bet without Sensor.getReportingMode().
-             */
-            result = (sensor.getType() == Sensor.TYPE_SIGNIFICANT_MOTION);
         }
-        return result;
-    }
+    };
 
     /**
-     * Called when there is a new sensor event.  Note that "on changed"
-     * is somewhat of a misnomer, as this will also be called if we have a
-     * new reading from a sensor with the exact same sensor values (but a
-     * newer timestamp).
-     *
-     * <p>See {@link SensorManager SensorManager}
-     * for details on possible sensor types.
+     * Messenger gives no visibility into the queue of the client side.
+     * Instead, the backlog is taken from the records waiting for the
+     * data store, plus the messages failed to be sent and the snapshots
+     * merged for the lagging export thread since the last time.
+     */
+    private void evaluateAdaptiveInterval() {
+        long sendFailureCount = mMetrics.getSendFailureCount();
+        long mergeCount = mSnapshotExchange.getMergeCount();
+        int backlog = mDataStoreQueueDepth.get() +
+                (int) (sendFailureCount - mLastSendFailureCount) +
+                (int) (mergeCount - mLastMergeCount);
+        mLastSendFailureCount = sendFailureCount;
+        mLastMergeCount = mergeCount;
+
+        int batteryPercent = -1;
+        boolean isCharging = false;
+        Intent batteryStatus = registerReceiver(
+                null, new IntentFilter(Intent.ACTION_BATTERY_CHANGED));
+        if (batteryStatus != null) {
+            int level = batteryStatus.getIntExtra(BatteryManager.EXTRA_LEVEL, -1);
+            int scale = batteryStatus.getIntExtra(BatteryManager.EXTRA_SCALE, -1);
+            if (level >= 0 && scale > 0) {
+                batteryPercent = level * 100 / scale;
+            }
+            int status = batteryStatus.getIntExtra(BatteryManager.EXTRA_STATUS, -1);
+            isCharging = (status == BatteryManager.BATTERY_STATUS_CHARGING ||
+                    status == BatteryManager.BATTERY_STATUS_FULL);
+        }
+
+        int thermalStatus = AdaptiveInterval.THERMAL_STATUS_NONE;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            PowerManager powerManager = (PowerManager) getSystemService(Context.POWER_SERVICE);
+            if (powerManager != null) {
+                thermalStatus = powerManager.getCurrentThermalStatus();
+            }
+        }
+
+        if (mAdaptiveInterval.update(backlog, batteryPercent, isCharging, thermalStatus)) {
+            applyAdaptiveInterval();
+        }
+    }
+
+    private void applyAdaptiveInterval() {
+        long milliseconds = mAdaptiveInterval.getIntervalMillis();
+        String reason = mAdaptiveInterval.getReason();
+        Log.d(TAG, "Adaptive interval: " + milliseconds + " (milliseconds), " + reason);
+        mInterval = ms2ns(milliseconds);
+
+        if (mAdaptiveIntervalClient != null) {
+            Bundle bundle = new Bundle();
+            bundle.putLong(BundleKeys.BUNDLE_KEY_INTERVAL_TIMER, milliseconds);
+            bundle.putString(BundleKeys.BUNDLE_KEY_INTERVAL_REASON, reason);
+            sendToClient(mAdaptiveIntervalClient, IpcType.MSG_INTERVAL_CHANGED, 0, bundle);
+        }
+    }
+
+    private boolean enableMotionGating(
+            @NonNull Messenger replyTo, @NonNull Bundle bundle_req) {
+        int mode = bundle_req.getInt(
+                BundleKeys.BUNDLE_KEY_GATING_MODE, MotionGate.MODE_LOW_RATE);
+        long idlePeriodMillis = bundle_req.getLong(
+                BundleKeys.BUNDLE_KEY_GATING_IDLE_PERIOD, MotionGate.DEFAULT_IDLE_PERIOD);
+        long stillDurationMillis = bundle_req.getLong(
+                BundleKeys.BUNDLE_KEY_GATING_STILL_DURATION, MotionGate.DEFAULT_STILL_DURATION);
+        String errmsg = MotionGate.validate(mode, idlePeriodMillis, stillDurationMillis);
+        if (errmsg != null) {
+            errorReply(replyTo, "MOTION_GATING: " + errmsg);
+            return false;
+        }
+
+        Sensor stationaryDetector = lookupOneshotSensor(SensorTypes.TYPE_STATIONARY_DETECT);
+        Sensor motionDetector = lookupOneshotSensor(SensorTypes.TYPE_MOTION_DETECT);
+        if (motionDetector == null) {
+            motionDetector = lookupOneshotSensor(SensorTypes.TYPE_SIGNIFICANT_MOTION);
+        }
+        if ((stationaryDetector == null || motionDetector == null)
+                && mSensorRegistry.lookupSensor(SensorTypes.TYPE_ACCELEROMETER) == null) {
+            errorReply(replyTo, "MOTION_GATING: No sensor available to detect motion");
+            return false;
+        }
+        Log.d(TAG, "Motion gating: mode(" + mode + "),idle(" + idlePeriodMillis +
+                "),stationary(" + (stationaryDetector != null) +
+                "),motion(" + (motionDetector != null) + ")");
+
+        disableMotionGating();
+        mMotionGate = new MotionGate(mode, idlePeriodMillis, stillDurationMillis);
+        mMotionGateClient = replyTo;
+        mStationaryDetector = stationaryDetector;
+        mMotionDetector = motionDetector;
+        armMotionDetectors();
+        return true;
+    }
+
+    private void disableMotionGating() {
+        if (mMotionGate != null) {
+            cancelMotionDetectors();
+            boolean wasStationary = mMotionGate.isStationary();
+            mMotionGate = null;
+            mMotionGateClient = null;
+            mStationaryDetector = null;
+            mMotionDetector = null;
+            if (wasStationary) {
+                /* Get back to the full rate */
+                reregisterHighRateSensors();
+            }
+        }
+    }
+
+    private Sensor lookupOneshotSensor(int sensorType) {
+        Sensor sensor = mSensorRegistry.lookupSensor(sensorType);
+        return (sensor != null && isOneshot(sensor)) ? sensor : null;
+    }
+
+    private void applyMotionGate() {
+        boolean isStationary = mMotionGate.isStationary();
+        Log.d(TAG, "Motion gating: " + (isStationary ? "STATIONARY" : "MOVING"));
+        reregisterHighRateSensors();
+        armMotionDetectors();
+
+        if (mMotionGateClient != null) {
+            Bundle bundle = new Bundle();
+            bundle.putBoolean(BundleKeys.BUNDLE_KEY_MOTION_STATIONARY, isStationary);
+            sendToClient(mMotionGateClient, IpcType.MSG_MOTION_STATE_CHANGED, 0, bundle);
+        }
+    }
+
+    private void reregisterHighRateSensors() {
+        for (int i = 0, n = mEnabledHandles.size(); i < n; i++) {
+            Sensor sensor = mSensorRegistry.lookupSensorByHandle(mEnabledHandles.get(i));
+            if (sensor != null && isHighRate(sensor)) {
+                /* The sampling period cannot be changed without re-registration */
+                mSensorManager.unregisterListener(this, sensor);
+                if (! registerSensorListener(sensor)) {
+                    Log.w(TAG, "registerListener(" + sensor.getName() + "): FAILED?");
+                }
+            }
+        }
+    }
+
+    /**
+     * One-shot detectors get disarmed once triggered; arm the one for
+     * the next transition. The accelerometer stands in for a missing one.
+     */
+    private void armMotionDetectors() {
+        cancelMotionDetectors();
+        Sensor detector = mMotionGate.isStationary() ? mMotionDetector : mStationaryDetector;
+        if (detector != null) {
+            try {
+                if (mSensorManager.requestTriggerSensor(mMotionTriggerListener, detector)) {
+                    return;
+                }
+                Log.w(TAG, "requestTriggerSensor(" + detector.getName() + "): FAILED?");
+            } catch (IllegalArgumentException e) {
+                Log.w(TAG, "requestTriggerSensor(" + detector.getName() + "): " + e);
+            }
+        }
+
+        Sensor accelerometer = mSensorRegistry.lookupSensor(SensorTypes.TYPE_ACCELEROMETER);
+        if (accelerometer != null) {
+            mMotionGate.resetStillness();
+            mMotionAccelerometerActive = mSensorManager.registerListener(
+                    mMotionSensorListener, accelerometer, SensorManager.SENSOR_DELAY_NORMAL);
+        }
+        if (! mMotionAccelerometerActive) {
+            Log.w(TAG, "Motion gating: No way to detect the next transition");
+        }
+    }
+
+    private void cancelMotionDetectors() {
+        if (mStationaryDetector != null) {
+            mSensorManager.cancelTriggerSensor(mMotionTriggerListener, mStationaryDetector);
+        }
+        if (mMotionDetector != null) {
+            mSensorManager.cancelTriggerSensor(mMotionTriggerListener, mMotionDetector);
+        }
+        if (mMotionAccelerometerActive) {
+            mSensorManager.unregisterListener(mMotionSensorListener);
+            mMotionAccelerometerActive = false;
+        }
+    }
+
+    private final TriggerEventListener mMotionTriggerListener =
+            new TriggerEventListener() {
+        @Override
+        public void onTrigger(TriggerEvent event) {
+            if (mMotionGate == null) {
+                return;
+            }
+            Log.d(TAG, "Motion gating: onTrigger(" + event.sensor.getName() + ")");
+            boolean isStationary =
+                    (event.sensor.getType() == SensorTypes.TYPE_STATIONARY_DETECT);
+            if (mMotionGate.setStationary(isStationary)) {
+                applyMotionGate();
+            } else {
+                armMotionDetectors();
+            }
+        }
+    };
+
+    private final SensorEventListener mMotionSensorListener =
+            new SensorEventListener() {
+        @Override
+        public void onSensorChanged(SensorEvent event) {
+            if (mMotionGate != null
+                    && mMotionGate.onAccelerometerSample(event.timestamp, event.values)) {
+                applyMotionGate();
+            }
+        }
+
+        @Override
+        public void onAccuracyChanged(Sensor sensor, int accuracy) {
+        }
+    };
+
+    private void querySensorData(@NonNull Messenger replyTo, @NonNull Bundle bundle_req) {
+        final int queryId = bundle_req.getInt(BundleKeys.BUNDLE_KEY_QUERY_ID, 0);
+        final long fromTime = bundle_req.getLong(
+                BundleKeys.BUNDLE_KEY_QUERY_FROM_TIME, Long.MIN_VALUE);
+        final long toTime = bundle_req.getLong(
+                BundleKeys.BUNDLE_KEY_QUERY_TO_TIME, Long.MAX_VALUE);
+        final long typeMask = SensorDataStore.toTypeMask(
+                bundle_req.getIntegerArrayList(BundleKeys.BUNDLE_KEY_SENSOR_TYPES));
+        Log.d(TAG, "Query(" + queryId + "): [" + fromTime + ", " + toTime + "]");
+
+        /* The Message will be recycled on return; keep what we need */
+        final SensorDataStore sensorDataStore = mSensorDataStore;
+        mDataStoreHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                sensorDataStore.query(fromTime, toTime, typeMask,
+                        new SensorDataStore.SensorDataStoreListener() {
+                            @Override
+                            public void onRecords(@NonNull ArrayList<String> jsonRecords) {
+                                Bundle bundle = new Bundle();
+                                bundle.putInt(BundleKeys.BUNDLE_KEY_QUERY_ID, queryId);
+                                bundle.putStringArrayList(
+                                        BundleKeys.BUNDLE_KEY_QUERY_RECORDS, jsonRecords);
+                                sendToClient(replyTo,
+                                        IpcType.MSG_QUERY_SENSOR_DATA, 0, bundle);
+                            }
+
+                            @Override
+                            public void onCompleted(int totalRecords) {
+                                Bundle bundle = new Bundle();
+                                bundle.putInt(BundleKeys.BUNDLE_KEY_QUERY_ID, queryId);
+                                bundle.putBoolean(
+                                        BundleKeys.BUNDLE_KEY_QUERY_COMPLETED, true);
+                                bundle.putInt(
+                                        BundleKeys.BUNDLE_KEY_QUERY_TOTAL, totalRecords);
+                                sendToClient(replyTo,
+                                        IpcType.MSG_QUERY_SENSOR_DATA, 0, bundle);
+                            }
+
+                            @Override
+                            public void onError(@NonNull String description) {
+                                Bundle bundle = new Bundle();
+                                bundle.putInt(BundleKeys.BUNDLE_KEY_QUERY_ID, queryId);
+                                bundle.putBoolean(
+                                        BundleKeys.BUNDLE_KEY_QUERY_COMPLETED, true);
+                                bundle.putString(
+                                        BundleKeys.BUNDLE_KEY_ERROR_MESSAGE, description);
+                                sendToClient(replyTo,
+                                        IpcType.MSG_QUERY_SENSOR_DATA, -1, bundle);
+                            }
+                        });
+            }
+        });
+    }
+
+    private boolean startTraceReplay(@NonNull Messenger replyTo, @NonNull Bundle bundle_req) {
+        String path = bundle_req.getString(BundleKeys.BUNDLE_KEY_REPLAY_PATH, null);
+        float speed = bundle_req.getFloat(BundleKeys.BUNDLE_KEY_REPLAY_SPEED, 1.0f);
+        if (path == null || ! (speed > 0.0f)) {
+            errorReply(replyTo, "TRACE_REPLAY: Invalid parameters: " +
+                    "path(" + path + "),speed(" + speed + ")");
+            return false;
+        }
+        if (! canStartSampleSource(replyTo, "TRACE_REPLAY")) {
+            return false;
+        }
+
+        FileReader fileReader;
+        try {
+            fileReader = new FileReader(path);
+        } catch (FileNotFoundException e) {
+            errorReply(replyTo, "TRACE_REPLAY: " + e);
+            return false;
+        }
+        Log.d(TAG, "Start trace replay: path(" + path + "),speed(" + speed + ")");
+
+        int generation = ++mSampleSourceGeneration;
+        mSampleSource = new TraceReplaySource(fileReader, speed,
+                newSampleIngest(generation, SampleRing.DEFAULT_MAX_DIMENSIONS),
+                newSampleSourceListener(generation, replyTo,
+                        IpcType.MSG_TRACE_REPLAY_FINISHED));
+        launchSampleSource(TAG + ".TraceReplay");
+        return true;
+    }
+
+    private boolean startSyntheticLoad(@NonNull Messenger replyTo, @NonNull Bundle bundle_req) {
+        SyntheticLoadParams params = new SyntheticLoadParams();
+        params.setSensorCount(bundle_req.getInt(
+                BundleKeys.BUNDLE_KEY_LOAD_SENSOR_COUNT, params.getSensorCount()));
+        params.setRateHz(bundle_req.getFloat(
+                BundleKeys.BUNDLE_KEY_LOAD_RATE_HZ, params.getRateHz()));
+        params.setDimensions(bundle_req.getInt(
+                BundleKeys.BUNDLE_KEY_LOAD_DIMENSIONS, params.getDimensions()));
+        params.setJitter(bundle_req.getFloat(
+                BundleKeys.BUNDLE_KEY_LOAD_JITTER, params.getJitter()));
+        params.setBurstPeriodMillis(bundle_req.getLong(
+                BundleKeys.BUNDLE_KEY_LOAD_BURST_PERIOD, params.getBurstPeriodMillis()));
+        params.setBurstLengthMillis(bundle_req.getLong(
+                BundleKeys.BUNDLE_KEY_LOAD_BURST_LENGTH, params.getBurstLengthMillis()));
+        params.setBurstFactor(bundle_req.getFloat(
+                BundleKeys.BUNDLE_KEY_LOAD_BURST_FACTOR, params.getBurstFactor()));
+        params.setDurationMillis(bundle_req.getLong(
+                BundleKeys.BUNDLE_KEY_LOAD_DURATION, params.getDurationMillis()));
+
+        String errmsg = params.validate();
+        if (errmsg != null) {
+            errorReply(replyTo, "SYNTHETIC_LOAD: " + errmsg);
+            return false;
+        }
+        if (! canStartSampleSource(replyTo, "SYNTHETIC_LOAD")) {
+            return false;
+        }
+        Log.d(TAG, "Start synthetic load: sensors(" + params.getSensorCount() +
+                "),rate(" + params.getRateHz() + ")");
+
+        int generation = ++mSampleSourceGeneration;
+        mSampleSource = new SyntheticLoadSource(params,
+                newSampleIngest(generation, Math.max(
+                        params.getDimensions(), SampleRing.DEFAULT_MAX_DIMENSIONS)),
+                newSampleSourceListener(generation, replyTo,
+                        IpcType.MSG_SYNTHETIC_LOAD_FINISHED));
+        launchSampleSource(TAG + ".SyntheticLoad");
+        return true;
+    }
+
+    private boolean canStartSampleSource(@NonNull Messenger replyTo, @NonNull String label) {
+        if (mProbeRun != null) {
+            errorReply(replyTo, label + ": Sensor probe is running");
+            return false;
+        }
+        if (mSampleSource != null) {
+            errorReply(replyTo, label + ": Another source is running");
+            return false;
+        }
+        if (mSensorListenerActive) {
+            /* Samples from both sources would be mixed up otherwise */
+            errorReply(replyTo, label + ": Disable sensors first");
+            return false;
+        }
+        return true;
+    }
+
+    private void launchSampleSource(@NonNull String threadName) {
+        /* Samples from the source have their own time base */
+        mTimeStamp = 0;
+        mSensorStorage.resetOverwriteCount();
+        synchronized (mExportStatsLock) {
+            mExportCount = 0;
+            mExportNanosTotal = 0L;
+            mExportNanosMax = 0L;
+        }
+        mSampleSourceStartTime = System.nanoTime();
+        new Thread(mSampleSource, threadName).start();
+    }
+
+    /**
+     * The source thread hands each sample over to the main thread through
+     * a ring of its own, where all the SensorStorage operations take place.
+     */
+    @NonNull
+    private SensorIngest newSampleIngest(int generation, int maxDimensions) {
+        mSourceStage = new SampleStage(
+                new SampleRing(SOURCE_RING_CAPACITY, maxDimensions), generation);
+        return mSourceStage;
+    }
+
+    /**
+     * Queue of raw samples from a producer thread (SensorManager or a
+     * {@link SampleSource}) to the ingest stage on the main thread.
+     * <p>
+     *     The producer posts a drain only when none is pending, so that no
+     *     object is allocated per sample. Samples from an obsolete source
+     *     are silently discarded.
+     * </p>
+     */
+    private class SampleStage
+            implements SensorIngest, SampleRing.SampleConsumer, Runnable {
+        final SampleRing ring;
+        final int generation; /* Negative for SensorManager */
+        private final AtomicBoolean mDrainPending = new AtomicBoolean();
+
+        SampleStage(@NonNull SampleRing ring, int generation) {
+            this.ring = ring;
+            this.generation = generation;
+        }
+
+        /* Producer side; the key is a handle for SensorManager, or a sensor type */
+        void offer(int key, long timestamp, long eventNanos, @NonNull float[] values) {
+            ring.offer(key, timestamp, eventNanos, values);
+            TraceUtil.setCounter(COUNTER_SAMPLE_QUEUE, ring.size());
+            if (mDrainPending.compareAndSet(false, true)) {
+                mMainHandler.post(this);
+            }
+        }
+
+        /* Producer side, for a SampleSource */
+        @Override
+        public void onSensorSample(int sensorType, long timestamp, @NonNull float[] values) {
+            /* Source timestamps are not in the elapsed realtime base */
+            offer(sensorType, timestamp, SystemClock.elapsedRealtimeNanos(), values);
+        }
+
+        /* Consumer side, on the main thread */
+        @Override
+        public void run() {
+            /* Clear first, so that a sample offered from now on posts again */
+            mDrainPending.set(false);
+            ring.drain(this, DRAIN_BATCH_SIZE);
+            TraceUtil.setCounter(COUNTER_SAMPLE_QUEUE, ring.size());
+            if (ring.size() > 0 && mDrainPending.compareAndSet(false, true)) {
+                /* Let other messages in between large batches */
+                mMainHandler.post(this);
+            }
+        }
+
+        /* Consumer side, on the main thread */
+        void drainAll() {
+            while (ring.drain(this, DRAIN_BATCH_SIZE) > 0) {
+                /* Keep draining */
+            }
+        }
+
+        @Override
+        public void onSample(int key, long timestamp, long eventNanos,
+                             @NonNull float[] values) {
+            if (generation < 0) {
+                ingestSensorSample(key, timestamp, values, eventNanos);
+            } else if (generation == mSampleSourceGeneration) {
+                /* A source only knows the sensor type */
+                ingestSensorSample(mSensorStorage.getHandle(key), timestamp, values, eventNanos);
+            }
+        }
+    }
+
+    @NonNull
+    private SampleSource.SampleSourceListener newSampleSourceListener(
+            final int generation, @NonNull final Messenger replyTo, final int finishedIpcType) {
+        return new SampleSource.SampleSourceListener() {
+            @Override
+            public void onFinished(int samples, boolean isStopped) {
+                mMainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        Log.d(TAG, "SampleSource finished: samples(" + samples + ")");
+                        Bundle bundle = new Bundle();
+                        bundle.putInt(BundleKeys.BUNDLE_KEY_REPLAY_SAMPLES, samples);
+                        bundle.putBoolean(BundleKeys.BUNDLE_KEY_REPLAY_STOPPED, isStopped);
+                        if (generation == mSampleSourceGeneration) {
+                            /* Samples still in the ring come before the report */
+                            mSourceStage.drainAll();
+                            putSampleSourceStats(bundle);
+                            mSampleSource = null;
+                            mTimeStamp = 0;
+                        }
+                        sendToClient(replyTo, finishedIpcType, 0, bundle);
+                    }
+                });
+            }
+
+            @Override
+            public void onError(@NonNull String description) {
+                mMainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        Log.w(TAG, "SampleSource failed: " + description);
+                        if (generation == mSampleSourceGeneration) {
+                            mSampleSource = null;
+                            mTimeStamp = 0;
+                        }
+                        Bundle bundle = new Bundle();
+                        bundle.putString(BundleKeys.BUNDLE_KEY_ERROR_MESSAGE, description);
+                        sendToClient(replyTo, finishedIpcType, -1, bundle);
+                    }
+                });
+            }
+        };
+    }
+
+    private void putSampleSourceStats(@NonNull Bundle bundle) {
+        bundle.putLong(BundleKeys.BUNDLE_KEY_LOAD_ELAPSED,
+                System.nanoTime() - mSampleSourceStartTime);
+        synchronized (mExportStatsLock) {
+            bundle.putInt(BundleKeys.BUNDLE_KEY_LOAD_EXPORTS, mExportCount);
+            bundle.putLong(BundleKeys.BUNDLE_KEY_LOAD_EXPORT_LATENCY_AVG,
+                    (mExportCount > 0) ? mExportNanosTotal / mExportCount : 0L);
+            bundle.putLong(BundleKeys.BUNDLE_KEY_LOAD_EXPORT_LATENCY_MAX, mExportNanosMax);
+        }
+        bundle.putLong(BundleKeys.BUNDLE_KEY_LOAD_DROPS,
+                mSensorStorage.getOverwriteCount() + mSourceStage.ring.getDropCount());
+    }
+
+    private void stopSampleSource() {
+        if (mSampleSource != null) {
+            Log.d(TAG, "Stop SampleSource");
+            /* Completion will be notified by the source thread */
+            mSampleSource.stop();
+        }
+    }
+
+    private boolean startSensorProbe(@NonNull Messenger replyTo, @NonNull Bundle bundle_req) {
+        int[] periods = bundle_req.getIntArray(BundleKeys.BUNDLE_KEY_PROBE_PERIODS);
+        int maxReportLatency = bundle_req.getInt(BundleKeys.BUNDLE_KEY_PROBE_REPORT_LATENCY, 0);
+        long windowMillis = bundle_req.getLong(
+                BundleKeys.BUNDLE_KEY_PROBE_WINDOW, DEFAULT_PROBE_WINDOW);
+        if (periods == null || periods.length == 0) {
+            errorReply(replyTo, "SENSOR_PROBE: No sampling period given");
+            return false;
+        }
+        for (int period : periods) {
+            if (period < 0) {
+                errorReply(replyTo, "SENSOR_PROBE: Invalid sampling period: " + period);
+                return false;
+            }
+        }
+        if (maxReportLatency < 0) {
+            errorReply(replyTo, "SENSOR_PROBE: Invalid report latency: " + maxReportLatency);
+            return false;
+        }
+        if (windowMillis < MIN_PROBE_WINDOW || windowMillis > MAX_PROBE_WINDOW) {
+            errorReply(replyTo, "SENSOR_PROBE: Window out of range: " + windowMillis);
+            return false;
+        }
+        if (mProbeRun != null) {
+            errorReply(replyTo, "SENSOR_PROBE: Already running");
+            return false;
+        }
+        if (! canStartSampleSource(replyTo, "SENSOR_PROBE")) {
+            return false;
+        }
+
+        ArrayList<Integer> handles =
+                bundle_req.getIntegerArrayList(BundleKeys.BUNDLE_KEY_SENSOR_HANDLES);
+        if (handles == null) {
+            handles = mSensorRegistry.getHandles();
+        }
+        Log.d(TAG, "Start sensor probe: sensors(" + handles.size() +
+                "),periods(" + periods.length + "),window(" + windowMillis + ")");
+
+        mProbeRun = new ProbeRun(replyTo, handles, periods, maxReportLatency, windowMillis);
+        mProbeRun.next();
+        return true;
+    }
+
+    private void stopSensorProbe(boolean notify) {
+        ProbeRun probeRun = mProbeRun;
+        if (probeRun != null) {
+            Log.d(TAG, "Stop sensor probe");
+            probeRun.cancel();
+            if (notify) {
+                probeRun.finish(true);
+            }
+            mProbeRun = null;
+        }
+    }
+
+    /**
+     * Enables each sensor at each sampling period in turn for a window,
+     * with a listener of its own, and collects a result per window.
+     * <p>
+     *     The {@link SensorProbe} of the ongoing window is confined to the
+     *     sensor thread, and taken back to the main thread through it.
+     * </p>
+     */
+    private class ProbeRun implements Runnable {
+        final Messenger replyTo;
+        final ArrayList<Integer> handles;
+        final int[] periods;
+        final int maxReportLatency;
+        final long windowMillis;
+        final ArrayList<SensorProbeReport.Result> results = new ArrayList<>();
+        int step = -1;
+        Sensor sensor = null;
+        volatile SensorProbe probe = null;
+
+        final SensorEventListener listener = new SensorEventListener() {
+            @Override
+            public void onSensorChanged(SensorEvent event) {
+                SensorProbe sensorProbe = probe;
+                if (sensorProbe != null) {
+                    sensorProbe.onSample(event.timestamp, SystemClock.elapsedRealtimeNanos());
+                }
+            }
+
+            @Override
+            public void onAccuracyChanged(Sensor sensor, int accuracy) {
+            }
+        };
+
+        ProbeRun(@NonNull Messenger replyTo, @NonNull ArrayList<Integer> handles,
+                 @NonNull int[] periods, int maxReportLatency, long windowMillis) {
+            this.replyTo = replyTo;
+            this.handles = handles;
+            this.periods = periods;
+            this.maxReportLatency = maxReportLatency;
+            this.windowMillis = windowMillis;
+        }
+
+        /* Start the next window, or finish; on the main thread */
+        void next() {
+            while (++step < handles.size() * periods.length) {
+                sensor = mSensorRegistry.lookupSensorByHandle(handles.get(step / periods.length));
+                if (sensor == null || isOneshot(sensor)) {
+                    continue;
+                }
+                probe = new SensorProbe();
+                if (mSensorManager.registerListener(listener, sensor,
+                        periods[step % periods.length], maxReportLatency, mSensorHandler)) {
+                    mMainHandler.postDelayed(this, windowMillis);
+                    return;
+                }
+                Log.w(TAG, "registerListener(" + sensor.getName() + "): FAILED?");
+            }
+            finish(false);
+            mProbeRun = null;
+        }
+
+        /* End of the window, on the main thread */
+        @Override
+        public void run() {
+            mSensorManager.unregisterListener(listener);
+            final int handle = handles.get(step / periods.length);
+            final int period = periods[step % periods.length];
+            final int sensorType = sensor.getType();
+            mSensorHandler.post(new Runnable() {
+                @Override
+                public void run() {
+                    /* No more samples of this window will be taken */
+                    final SensorProbe sensorProbe = probe;
+                    probe = null;
+                    mMainHandler.post(new Runnable() {
+                        @Override
+                        public void run() {
+                            if (mProbeRun != ProbeRun.this) {
+                                /* Stopped in the meantime */
+                                return;
+                            }
+                            results.add(sensorProbe.toResult(handle, sensorType,
+                                    mSensorRegistry.getSensorTypeName(sensorType),
+                                    period, ms2ns(windowMillis)));
+                            next();
+                        }
+                    });
+                }
+            });
+        }
+
+        void cancel() {
+            mMainHandler.removeCallbacks(this);
+            probe = null;
+            mSensorManager.unregisterListener(listener);
+        }
+
+        void finish(boolean isStopped) {
+            Bundle bundle = ProbeBundleUtil.toBundle(new SensorProbeReport(results));
+            bundle.putBoolean(BundleKeys.BUNDLE_KEY_PROBE_STOPPED, isStopped);
+            sendToClient(replyTo, IpcType.MSG_SENSOR_PROBE_FINISHED, 0, bundle);
+        }
+    }
+
+    private void excludeSensors(Message msg, ArrayList<Integer> sensorTypes) {
+        if (mSensorListenerActive) {
+            Log.w(TAG, "ExcludeSensors: Invalid calling sequence");
+            return;
+        }
+        for (int i = 0, n = sensorTypes.size(); i < n; i++) {
+            int sensorType = sensorTypes.get(i);
+
+            /* All instances of the type, including wake-up variants */
+            Sensor sensor = mSensorRegistry.lookupSensor(sensorType);
+            if (sensor == null) {
+                Log.w(TAG, "Unsupported sensor type: " + sensorType);
+            }
+            while (sensor != null) {
+                Log.d(TAG, "XXX: " + "[" + (i+1) + "/" + n + "]" +
+                        "Going to EXCLUDE: " + sensor.getName());
+
+                int handle = mSensorRegistry.getHandle(sensor);
+                mSensorRegistry.unregisterSensor(sensor);
+                mSensorStorage.unregisterDescriptor(handle);
+                invalidateSensorReplies();
+                sensor = mSensorRegistry.lookupSensor(sensorType);
+            }
+        }
+    }
+
+    /**
+     * Sensors are specified either by handle, or by sensor type for
+     * the default sensor of the type.
+     *
+     * @param bundle_req the request
+     * @return the handles, or null if neither is specified
+     */
+    @Nullable
+    private ArrayList<Integer> toSensorHandles(@NonNull Bundle bundle_req) {
+        ArrayList<Integer> handles =
+                bundle_req.getIntegerArrayList(BundleKeys.BUNDLE_KEY_SENSOR_HANDLES);
+        if (handles == null) {
+            ArrayList<Integer> sensorTypes =
+                    bundle_req.getIntegerArrayList(BundleKeys.BUNDLE_KEY_SENSOR_TYPES);
+            if (sensorTypes != null) {
+                handles = toSensorHandles(sensorTypes);
+            }
+        }
+        return handles;
+    }
+
+    @NonNull
+    private ArrayList<Integer> toSensorHandles(@NonNull ArrayList<Integer> sensorTypes) {
+        ArrayList<Integer> handles = new ArrayList<>();
+        for (int i = 0, n = sensorTypes.size(); i < n; i++) {
+            int sensorType = sensorTypes.get(i);
+            Sensor sensor = mSensorRegistry.lookupSensor(sensorType);
+            if (sensor != null) {
+                handles.add(mSensorRegistry.getHandle(sensor));
+            } else {
+                Log.w(TAG, "Unsupported sensor type: " + sensorType);
+            }
+        }
+        return handles;
+    }
+
+    private boolean enableSensors(Messenger replyTo, ArrayList<Integer> handles) {
+        for (int i = 0, n = handles.size(); i < n; i++) {
+            int handle = handles.get(i);
+
+            Sensor sensor = mSensorRegistry.lookupSensorByHandle(handle);
+            if (sensor != null) {
+                String typeName = mSensorRegistry.getSensorTypeName(sensor.getType());
+                Log.d(TAG, "XXX: " + "[" + (i+1) + "/" + n + "]" +
+                        "Going to enable: " + sensor.getName());
+
+                if (isOneshot(sensor)) {
+                    try {
+                        if (! mSensorManager.requestTriggerSensor(
+                                mTriggerEventListener, sensor)) {
+                            errorReply(replyTo, TAG +
+                                    ": requestTriggerSensor(" + typeName + "): FAILED?");
+                            return false;
+                        }
+                    } catch (IllegalArgumentException e) {
+                        errorReply(replyTo, TAG +
+                                ": requestTriggerSensor(" + typeName + "): " +
+                                e);
+                        return false;
+                    }
+                    if (! mArmedOneShotHandles.contains(handle)) {
+                        mArmedOneShotHandles.add(handle);
+                    }
+                } else {
+                    if (! registerSensorListener(sensor)) {
+                        errorReply(replyTo, TAG +
+                                ": registerListener(" + typeName + "): FAILED?");
+                        return false;
+                    }
+                    if (! mEnabledHandles.contains(handle)) {
+                        mEnabledHandles.add(handle);
+                    }
+                }
+                mSensorListenerActive = true;
+            } else {
+                Log.w(TAG, "Unknown sensor handle: " + handle);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Apply all the settings of a session at once. Settings are validated
+     * before any of them takes effect, and sensors are re-registered in a
+     * single pass: only those added to or removed from the enabled set,
+     * including armed one-shot ones.
+     * <p>
+     *     Registering the added sensors is the only step that may fail,
+     *     so it goes first. On failure, those registered so far are
+     *     unregistered again and nothing else is changed. Otherwise the
+     *     removed sensors are unregistered and the other settings applied.
+     * </p>
+     */
+    private boolean applySessionConfig(
+            @NonNull Messenger replyTo, @NonNull Bundle bundle_req) {
+        SensorSessionConfig config = SessionConfigBundleUtil.fromBundle(bundle_req);
+        String errmsg = config.validate();
+        if (errmsg != null) {
+            errorReply(replyTo, "SESSION_CONFIG: " + errmsg);
+            return false;
+        }
+        ArrayList<Integer> handles = config.getSensorHandles();
+        if (handles != null) {
+            for (int i = 0, n = handles.size(); i < n; i++) {
+                if (mSensorRegistry.lookupSensorByHandle(handles.get(i)) == null) {
+                    errorReply(replyTo, "SESSION_CONFIG: Unknown sensor handle: " +
+                            handles.get(i));
+                    return false;
+                }
+            }
+        } else if (config.getSensorTypes() != null) {
+            handles = toSensorHandles(config.getSensorTypes());
+        }
+
+        if (handles != null && ! reconcileSensors(replyTo, handles)) {
+            return false;
+        }
+
+        if (config.getIntervalMillis() > 0L) {
+            setBaseInterval(config.getIntervalMillis());
+        }
+        if (config.hasLocation()) {
+            Log.d(TAG, "Set location {" +
+                    config.getLatitude() + ", " + config.getLongitude() + "}");
+            mLocationStorage.setLocation(
+                    config.getLatitude(), config.getLongitude(), config.getLocationTime());
+        }
+        if (config.getPublisher() != null) {
+            mUserDataStorage.setPublisher(config.getPublisher());
+        }
+        if (config.getNote() != null) {
+            mUserDataStorage.setNote(config.getNote());
+        }
+        return true;
+    }
+
+    private boolean reconcileSensors(
+            @NonNull Messenger replyTo, @NonNull ArrayList<Integer> handles) {
+        ArrayList<Integer> current = new ArrayList<>(mEnabledHandles);
+        current.addAll(mArmedOneShotHandles);
+
+        ArrayList<Integer> toDisable = new ArrayList<>();
+        for (int i = 0, n = current.size(); i < n; i++) {
+            if (! handles.contains(current.get(i))) {
+                toDisable.add(current.get(i));
+            }
+        }
+        ArrayList<Integer> toEnable = new ArrayList<>();
+        for (int i = 0, n = handles.size(); i < n; i++) {
+            if (! current.contains(handles.get(i))) {
+                toEnable.add(handles.get(i));
+            }
+        }
+        Log.d(TAG, "Session sensors: enable(" + toEnable.size() +
+                "),disable(" + toDisable.size() + ")");
+
+        boolean wasActive = mSensorListenerActive;
+        if (! enableSensors(replyTo, toEnable)) {
+            /* ErrorReply has sent; take back the ones enabled so far */
+            ArrayList<Integer> enabled = new ArrayList<>();
+            for (int i = 0, n = toEnable.size(); i < n; i++) {
+                Integer handle = toEnable.get(i);
+                if (mEnabledHandles.contains(handle)
+                        || mArmedOneShotHandles.contains(handle)) {
+                    enabled.add(handle);
+                }
+            }
+            disableSensors(enabled);
+            mSensorListenerActive = wasActive;
+            return false;
+        }
+        disableSensors(toDisable);
+        if (! mEnabledHandles.isEmpty() || ! mArmedOneShotHandles.isEmpty()) {
+            /* disableSensors() clears it regardless of the sensors left */
+            mSensorListenerActive = true;
+        }
+        return true;
+    }
+
+    private void disableSensors(ArrayList<Integer> handles) {
+        for (int i = 0, n = handles.size(); i < n; i++) {
+            int handle = handles.get(i);
+
+            Sensor sensor = mSensorRegistry.lookupSensorByHandle(handle);
+            if (sensor != null) {
+                String typeName = mSensorRegistry.getSensorTypeName(sensor.getType());
+                Log.d(TAG, "XXX: " + "[" + (i+1) + "/" + n + "]" +
+                        "Going to disable: " + sensor.getName());
+
+                if (isOneshot(sensor)) {
+                    try {
+                        if (! mSensorManager.cancelTriggerSensor(
+                                mTriggerEventListener, sensor)) {
+                            Log.w(TAG, "cancelTriggerSensor(" + typeName + "): FAILED?");
+                        }
+                    } catch (IllegalArgumentException e) {
+                        Log.w(TAG, "cancelTriggerSensor(" + typeName + "): " +
+                                e);
+                    }
+                    mArmedOneShotHandles.remove(Integer.valueOf(handle));
+                } else {
+                    mSensorManager.unregisterListener(this, sensor);
+                    mEnabledHandles.remove(Integer.valueOf(handle));
+                }
+                mSensorListenerActive = false;
+            } else {
+                Log.w(TAG, "Unknown sensor handle: " + handle);
+            }
+        }
+    }
+
+    /**
+     * While the motion gating tells stationary, high-rate sensors are
+     * registered with the idle period, or not at all if paused.
+     */
+    private boolean registerSensorListener(@NonNull Sensor sensor) {
+        int samplingPeriod = SensorManager.SENSOR_DELAY_NORMAL;
+        if (mMotionGate != null && mMotionGate.isStationary() && isHighRate(sensor)) {
+            if (mMotionGate.getMode() == MotionGate.MODE_PAUSE) {
+                /* Will be registered again on the next motion */
+                return true;
+            }
+            samplingPeriod = (int) Math.min(
+                    mMotionGate.getIdlePeriodMillis() * 1000L, Integer.MAX_VALUE); /* microseconds */
+        }
+        return mSensorManager.registerListener(this, sensor, samplingPeriod, mSensorHandler);
+    }
+
+    private boolean isHighRate(@NonNull Sensor sensor) {
+        if (android.os.Build.VERSION.SDK_INT
+                >= android.os.Build.VERSION_CODES.LOLLIPOP) {
+            return (sensor.getReportingMode() == Sensor.REPORTING_MODE_CONTINUOUS);
+        }
+        /* Continuous sensors have the minimum delay, others have zero */
+        return (sensor.getMinDelay() > 0);
+    }
+
+    private boolean isOneshot(Sensor sensor) {
+        boolean result = false;
+        if (android.os.Build.VERSION.SDK_INT
+                >= android.os.Build.VERSION_CODES.LOLLIPOP) {
+            int reportingMode = sensor.getReportingMode();
+            switch (reportingMode) {
+                case Sensor.REPORTING_MODE_ONE_SHOT:
+                    result = true;
+                    break;
+                case Sensor.REPORTING_MODE_CONTINUOUS:
+                case Sensor.REPORTING_MODE_ON_CHANGE:
+                case Sensor.REPORTING_MODE_SPECIAL_TRIGGER:
+                default:
+                    break;
+            }
+        } else {
+            /*
+             * Maybe the best bet without Sensor.getReportingMode().
+             */
+            result = (sensor.getType() == Sensor.TYPE_SIGNIFICANT_MOTION);
+        }
+        return result;
+    }
+
+    /**
+     * Called when there is a new sensor event.  Note that "on changed"
+     * is somewhat of a misnomer, as this will also be called if we have a
+     * new reading from a sensor with the exact same sensor values (but a
+     * newer timestamp).
+     *
+     * <p>See {@link SensorManager SensorManager}
+     * for details on possible sensor types.
      * <p>See also {@link SensorEvent SensorEvent}.
      *
      * <p><b>NOTE:</b> The application doesn't own the
@@ -672,6 +2065,21 @@ public class SensorService extends Service
     @Override
     public void onSensorChanged(SensorEvent event) {
         // Log.d(TAG, "onSensorChanged: " + event.toString());
+        boolean traced = TraceUtil.beginSection("SensorService.onSensorChanged");
+        try {
+            /* Runs on the sensor thread; SensorEvent.timestamp is in the elapsed realtime base */
+            int handle = mSensorRegistry.getHandle(event.sensor);
+            if (handle >= 0) {
+                mSensorStage.offer(handle, event.timestamp, event.timestamp, event.values);
+            }
+        } finally {
+            TraceUtil.endSection(traced);
+        }
+    }
+
+    private void ingestSensorSample(
+            int handle, long timestamp, @NonNull float[] values, long eventNanos) {
+        long ingestNanos = SystemClock.elapsedRealtimeNanos();
 
         /*
          * Though SensorEvent.timestamp has the same time base
@@ -679,17 +2087,104 @@ public class SensorService extends Service
          * to convert to the wall time being used in Unix system.
          */
         long unixTime = mDateTimeUtil.getUnixTime();
+        SensorDescriptor descriptor = mSensorStorage.getSensorDescriptor(handle);
+        if (descriptor != null) {
+            mMetrics.onEventReceived(descriptor.getSensorType());
+        }
 
         /* Keep new value */
-        mSensorStorage.setSensorEvent(event, unixTime);
+        mSensorStorage.setSensorSample(
+                handle, timestamp, values, unixTime, eventNanos, ingestNanos);
 
         /* Rate control */
-        if (event.timestamp - mTimeStamp >= mInterval) {
-            exportSensorValues();
-            mTimeStamp = event.timestamp;
+        if (timestamp - mTimeStamp >= mInterval) {
+            publishSnapshot();
+            mTimeStamp = timestamp;
+        }
+    }
+
+    /**
+     * Hand the samples over to the export thread on each export boundary.
+     * Ingest never waits for serialization; if the export thread lags
+     * behind, the samples get merged into the snapshot not yet taken.
+     */
+    private void publishSnapshot() {
+        if (mExportHandler == null) {
+            Log.w(TAG, "Export thread has gone");
+            return;
+        }
+        boolean traced = TraceUtil.beginSection("SensorService.publishSnapshot");
+        try {
+            mSnapshotExchange.publish(
+                    mSensorStorage.getSensorHolders(), newExportContext());
+            mSensorStorage.clearSensorEvent();
+        } finally {
+            TraceUtil.endSection(traced);
         }
+        mExportHandler.post(mExportTask);
+    }
+
+    /**
+     * The metadata to build JSON with, taken on the export boundary.
+     */
+    private static class ExportContext {
+        final JsonBuilder jsonBuilder;
+        final SignalStrength signalStrength;
+        final int networkType;
+        final long cellularTimestamp;
+
+        ExportContext(@NonNull JsonBuilder jsonBuilder, SignalStrength signalStrength,
+                      int networkType, long cellularTimestamp) {
+            this.jsonBuilder = jsonBuilder;
+            this.signalStrength = signalStrength;
+            this.networkType = networkType;
+            this.cellularTimestamp = cellularTimestamp;
+        }
+    }
+
+    @NonNull
+    private ExportContext newExportContext() {
+        String publisher = mUserDataStorage.getPublisher(); // "user1@example.com";
+        String note = mUserDataStorage.getNote();
+        double latitude = mLocationStorage.getLatitude(); // (double) 139.767125;
+        double longitude = mLocationStorage.getLongitude(); // (double) 35.681236;
+        long utcTime = mLocationStorage.getUtcTime();
+        JsonBuilder jsonBuilder =
+                new JsonBuilder(mSysInfo, publisher, note, latitude, longitude, utcTime);
+
+        /* SignalStrength is replaced, not modified, on each update */
+        return new ExportContext(jsonBuilder, mCellularStorage.getSignalStrength(),
+                mCellularStorage.getNetworkType(), mCellularStorage.getTimestamp());
     }
 
+    /**
+     * Runs on the export thread. A run may find nothing, as the snapshot
+     * has been taken by the former run along with merged samples.
+     */
+    private final Runnable mExportTask = new Runnable() {
+        @Override
+        public void run() {
+            SensorSnapshot snapshot = mSnapshotExchange.acquire();
+            if (snapshot == null) {
+                return;
+            }
+            long startNanos = System.nanoTime();
+            boolean traced = TraceUtil.beginSection("SensorService.exportSensorValues");
+            try {
+                exportSensorValues(snapshot);
+            } finally {
+                TraceUtil.endSection(traced);
+                mSnapshotExchange.release(snapshot);
+            }
+            long elapsedNanos = System.nanoTime() - startNanos;
+            synchronized (mExportStatsLock) {
+                mExportCount++;
+                mExportNanosTotal += elapsedNanos;
+                mExportNanosMax = Math.max(mExportNanosMax, elapsedNanos);
+            }
+        }
+    };
+
     /**
      * Called when the accuracy of the registered sensor has changed.  Unlike
      * onSensorChanged(), this is only called when this accuracy value changes.
@@ -722,6 +2217,9 @@ public class SensorService extends Service
             long timestamp = event.timestamp;
             float[] values = event.values;
 
+            /* A one-shot sensor is disarmed by itself once triggered */
+            mArmedOneShotHandles.remove(Integer.valueOf(mSensorRegistry.getHandle(sensor)));
+
             Log.d(TAG, "onTrigger: SENSOR[" +
                     "name(" + sensor.getName() + ")" +
                     ",timestamp(" + timestamp + ")" +
@@ -734,78 +2232,391 @@ public class SensorService extends Service
         }
     };
 
-    private void exportSensorValues() {
-        String publisher = mUserDataStorage.getPublisher(); // "user1@example.com";
-        String note = mUserDataStorage.getNote();
-        double latitude = mLocationStorage.getLatitude(); // (double) 139.767125;
-        double longitude = mLocationStorage.getLongitude(); // (double) 35.681236;
-        long utcTime = mLocationStorage.getUtcTime();
-        JsonBuilder jsonBuilder =
-                new JsonBuilder(publisher, note, latitude, longitude, utcTime);
+    private void exportSensorValues(@NonNull SensorSnapshot snapshot) {
+        ExportContext exportContext = (ExportContext) snapshot.getAttachment();
+        final ArrayList<SensorHolder> sensorHolders = snapshot.getSensorHolders();
+        final JsonBuilder jsonBuilder = exportContext.jsonBuilder;
+
+        int formats = getSensorDataFormats();
+        if ((formats & SensorDataFormat.SAMPLES) != 0 || !mSampleStreams.isEmpty()) {
+            deliverSensorSamples(sensorHolders);
+        }
+        if ((formats & SensorDataFormat.JSON) == 0 && !mDataStoreEnabled) {
+            /* Nobody needs the JSON string, save both building and parsing it */
+            return;
+        }
 
-        SignalStrength ss = mCellularStorage.getSignalStrength();
+        SignalStrength ss = exportContext.signalStrength;
         if (ss != null) {
-            int networkType = mCellularStorage.getNetworkType();
-            long timestamp = mCellularStorage.getTimestamp();
+            int networkType = exportContext.networkType;
+            long timestamp = exportContext.cellularTimestamp;
             JsonBuilderForCellular jsonBuilder2 = new JsonBuilderForCellular(
                     new JsonBuilderForCellular.JsonBuilderForCellularListener() {
                         @Override
                         public void onJsonObject(@NonNull JSONObject jsonObject) {
                             jsonBuilder.addExtraCellularData(jsonObject);
-                            exportJsonString(jsonBuilder);
+                            exportJsonString(jsonBuilder, sensorHolders);
                         }
 
                         @Override
                         public void onError(@NonNull String description) {
                             Log.e(TAG, description);
-                            exportJsonString(jsonBuilder);
+                            exportJsonString(jsonBuilder, sensorHolders);
                         }
                     });
 
-            jsonBuilder2.build(networkType, ss, timestamp);
+            boolean traced = TraceUtil.beginSection("JsonBuilderForCellular.build");
+            try {
+                jsonBuilder2.build(networkType, ss, timestamp);
+            } finally {
+                TraceUtil.endSection(traced);
+            }
             return;
         }
 
-        exportJsonString(jsonBuilder);
+        exportJsonString(jsonBuilder, sensorHolders);
     }
 
-    private void exportJsonString(@NonNull JsonBuilder jsonBuilder) {
-        ArrayList<SensorHolder> sensorHolders =
-                mSensorStorage.getSensorHolders();
+    private void exportJsonString(@NonNull JsonBuilder jsonBuilder,
+                                  @NonNull ArrayList<SensorHolder> sensorHolders) {
+        TraceUtil.setCounter(COUNTER_PENDING_SENSORS, sensorHolders.size());
 
-        String jsonString = jsonBuilder.buildJsonString(sensorHolders);
+        long startNanos = System.nanoTime();
+        String jsonString;
+        boolean traced = TraceUtil.beginSection("JsonBuilder.buildJsonString");
+        try {
+            jsonString = jsonBuilder.buildJsonString(sensorHolders);
+        } finally {
+            TraceUtil.endSection(traced);
+        }
+        mMetrics.recordLatency(System.nanoTime() - startNanos);
         if (jsonString != null) {
-            Bundle bundle = new Bundle();
-            bundle.putString(BundleKeys.BUNDLE_KEY_SENSOR_VALUES, jsonString);
-            sendToClients(IpcType.MSG_SENSOR_DATA, 0, bundle);
+            deliverJsonString(jsonString, sensorHolders);
+
+            if (mDataStoreEnabled) {
+                storeJsonString(sensorHolders, jsonString);
+            }
         } else {
             Log.w(TAG, "CANNOT BUILD JSON...");
         }
-        mSensorStorage.clearSensorEvent();
     }
 
-    private void sendToClients(int what, int result_code, Bundle bundle) {
-        if (mClients.size() > 0) {
-            for (int i = mClients.size() - 1; i >= 0; i--) {
-                Messenger client = mClients.get(i);
-                sendToClient(client, what, result_code, bundle);
+    /**
+     * The times of each sample, so that the client can tell the
+     * end-to-end latency on receipt.
+     */
+    private static class LatencyStamps {
+        final int[] sensorTypes;
+        final long[] eventNanos;
+        final long[] ingestNanos;
+        final long serializeNanos;
+
+        LatencyStamps(@NonNull ArrayList<SensorHolder> sensorHolders) {
+            int n = sensorHolders.size();
+            sensorTypes = new int[n];
+            eventNanos = new long[n];
+            ingestNanos = new long[n];
+            for (int i = 0; i < n; i++) {
+                SensorHolder sensorHolder = sensorHolders.get(i);
+                sensorTypes[i] = sensorHolder.getSensorType();
+                eventNanos[i] = sensorHolder.getEventNanos();
+                ingestNanos[i] = sensorHolder.getIngestNanos();
+            }
+            serializeNanos = SystemClock.elapsedRealtimeNanos();
+        }
+
+        void putTo(@NonNull Bundle bundle) {
+            bundle.putIntArray(BundleKeys.BUNDLE_KEY_LATENCY_SENSOR_TYPES, sensorTypes);
+            bundle.putLongArray(BundleKeys.BUNDLE_KEY_LATENCY_EVENT_TIMES, eventNanos);
+            bundle.putLongArray(BundleKeys.BUNDLE_KEY_LATENCY_INGEST_TIMES, ingestNanos);
+            bundle.putLong(BundleKeys.BUNDLE_KEY_LATENCY_SERIALIZE_TIME, serializeNanos);
+        }
+    }
+
+    private int getSensorDataFormat(@NonNull Messenger client) {
+        Integer format = mSensorDataFormats.get(client.getBinder());
+        return (format != null) ? format : SensorDataFormat.JSON;
+    }
+
+    /**
+     * @return the union of SensorDataFormat of all clients,
+     * or JSON if none to keep the export path as before.
+     */
+    private int getSensorDataFormats() {
+        if (mClients.isEmpty()) {
+            return SensorDataFormat.JSON;
+        }
+        int formats = 0;
+        for (Messenger client : mClients) {
+            formats |= getSensorDataFormat(client);
+        }
+        return formats;
+    }
+
+    /**
+     * Deliver the sensor data to each client which takes JSON.
+     * Clients in the same process take the values as is, while the
+     * others get them packed into a Bundle.
+     */
+    private void deliverJsonString(
+            @NonNull String jsonString, @NonNull ArrayList<SensorHolder> sensorHolders) {
+        LatencyStamps stamps = new LatencyStamps(sensorHolders);
+        Bundle bundle = null;
+        ArrayList<Bundle> chunks = null;
+        int delivered = 0;
+        boolean traced = TraceUtil.beginSection("SensorService.sendToClients");
+        try {
+            for (Messenger client : mClients) {
+                if ((getSensorDataFormat(client) & SensorDataFormat.JSON) == 0) {
+                    continue;
+                }
+                Object localClient = mLocalBinder.getLocalClient(client);
+                if (localClient instanceof LocalSensorClient) {
+                    ((LocalSensorClient) localClient).onSensorData(jsonString,
+                            stamps.sensorTypes, stamps.eventNanos, stamps.ingestNanos,
+                            stamps.serializeNanos);
+                    mMetrics.onMessageSent();
+                    continue;
+                }
+                if (jsonString.length() > MAX_CHUNK_CHARS) {
+                    if (chunks == null) {
+                        chunks = toChunkBundles(jsonString, stamps);
+                    }
+                    if (sendChunksToClient(client, chunks)) {
+                        delivered++;
+                    }
+                    continue;
+                }
+                if (bundle == null) {
+                    bundle = new Bundle();
+                    bundle.putString(BundleKeys.BUNDLE_KEY_SENSOR_VALUES, jsonString);
+                    stamps.putTo(bundle);
+                }
+                if (sendToClient(client, IpcType.MSG_SENSOR_DATA, 0, bundle)) {
+                    delivered++;
+                }
+            }
+        } finally {
+            TraceUtil.endSection(traced);
+        }
+
+        /* A String is written into Parcel as UTF-16, only for remote clients */
+        mMetrics.onBytesSent(2L * jsonString.length() * delivered);
+    }
+
+    @NonNull
+    private ArrayList<Bundle> toChunkBundles(
+            @NonNull String jsonString, @NonNull LatencyStamps stamps) {
+        int sequence = ++mChunkSequence;
+        int count = ChunkAssembler.getChunkCount(jsonString.length(), MAX_CHUNK_CHARS);
+        ArrayList<Bundle> chunks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Bundle bundle = new Bundle();
+            bundle.putInt(BundleKeys.BUNDLE_KEY_CHUNK_SEQUENCE, sequence);
+            bundle.putInt(BundleKeys.BUNDLE_KEY_CHUNK_INDEX, i);
+            bundle.putInt(BundleKeys.BUNDLE_KEY_CHUNK_COUNT, count);
+            bundle.putString(BundleKeys.BUNDLE_KEY_SENSOR_VALUES,
+                    ChunkAssembler.getChunk(jsonString, i, MAX_CHUNK_CHARS));
+            chunks.add(bundle);
+        }
+        /* Latency is measured on the whole payload */
+        stamps.putTo(chunks.get(count - 1));
+        return chunks;
+    }
+
+    private boolean sendChunksToClient(
+            @NonNull Messenger client, @NonNull ArrayList<Bundle> chunks) {
+        for (int i = 0, n = chunks.size(); i < n; i++) {
+            if (! sendToClient(client, IpcType.MSG_SENSOR_DATA_CHUNK, 0, chunks.get(i))) {
+                /* The client discards the chunks received so far */
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Deliver the sensor data in primitive arrays to each client
+     * which takes {@link SensorSamples}, skipping JSON altogether.
+     */
+    private void deliverSensorSamples(@NonNull ArrayList<SensorHolder> sensorHolders) {
+        /* A new one on each export, as local clients take it over to their thread */
+        SensorSamples samples = new SensorSamples();
+        samples.setSensorHolders(sensorHolders);
+        LatencyStamps stamps = new LatencyStamps(sensorHolders);
+
+        Bundle bundle = null;
+        int delivered = 0;
+        long bytes = 0L;
+        boolean traced = TraceUtil.beginSection("SensorService.sendSamplesToClients");
+        try {
+            for (Messenger client : mClients) {
+                if ((getSensorDataFormat(client) & SensorDataFormat.SAMPLES) == 0) {
+                    continue;
+                }
+                Object localClient = mLocalBinder.getLocalClient(client);
+                if (localClient instanceof LocalSensorClient) {
+                    ((LocalSensorClient) localClient).onSensorSamples(samples,
+                            stamps.sensorTypes, stamps.eventNanos, stamps.ingestNanos,
+                            stamps.serializeNanos);
+                    mMetrics.onMessageSent();
+                    continue;
+                }
+                if (bundle == null) {
+                    bundle = SamplesBundleUtil.toBundle(samples);
+                    stamps.putTo(bundle);
+                    /* Values and both timestamps of each sample */
+                    for (int i = 0, n = samples.size(); i < n; i++) {
+                        bytes += 4L * samples.getValueCount(i) + 16L;
+                    }
+                }
+                if (sendToClient(client, IpcType.MSG_SENSOR_SAMPLES, 0, bundle)) {
+                    delivered++;
+                }
             }
+            for (SampleStreamSender sender : mSampleStreams.values()) {
+                if (sender.offer(samples)) {
+                    mMetrics.onMessageSent();
+                }
+            }
+        } finally {
+            TraceUtil.endSection(traced);
         }
+        mMetrics.onBytesSent(bytes * delivered);
     }
 
-    private void sendToClient(Messenger client, int what, int result_code, Bundle bundle) {
+    /**
+     * Open a pipe to stream {@link SensorSamples} to the client, and
+     * hand the read end over to it. Samples are written continuously
+     * as length-prefixed binary records, see {@link SampleStreamSender}.
+     */
+    private void openSampleStream(@NonNull Messenger replyTo) {
+        final IBinder binder = replyTo.getBinder();
+        closeSampleStream(binder);
+
+        ParcelFileDescriptor[] pipe;
+        try {
+            /* The reader can tell whether we have closed it or crashed */
+            pipe = ParcelFileDescriptor.createReliablePipe();
+        } catch (IOException e) {
+            errorReply(replyTo, "SENSOR_STREAM: createReliablePipe: " + e);
+            return;
+        }
+        SampleStreamSender sender = new SampleStreamSender(TAG + ".Stream", pipe[1],
+                MAX_STREAM_BACKLOG, new SampleStreamSender.SenderListener() {
+                    @Override
+                    public void onSenderFailed(
+                            @NonNull SampleStreamSender sender, @NonNull String errmsg) {
+                        /* The client has closed its end, or gone */
+                        Log.d(TAG, "SampleStream: " + errmsg);
+                        mSampleStreams.remove(binder, sender);
+                    }
+                });
+        mSampleStreams.put(binder, sender);
+
+        Bundle bundle = new Bundle();
+        bundle.putParcelable(BundleKeys.BUNDLE_KEY_STREAM_DESCRIPTOR, pipe[0]);
+        boolean isSent = sendToClient(replyTo, IpcType.MSG_OPEN_SENSOR_STREAM, 0, bundle);
+        if (! isSent) {
+            closeSampleStream(binder);
+        }
+        /*
+         * A Messenger of another process has parceled the Bundle, so that the
+         * client owns a copy of the read end. One of this process has handed
+         * over the very same object, which the client now owns.
+         */
+        if (! isSent || ! (binder instanceof Binder)) {
+            try {
+                pipe[0].close();
+            } catch (IOException e) {
+                Log.w(TAG, "ParcelFileDescriptor.close: " + e);
+            }
+        }
+    }
+
+    private void closeSampleStream(@NonNull IBinder binder) {
+        SampleStreamSender sender = mSampleStreams.remove(binder);
+        if (sender != null) {
+            Log.d(TAG, "SampleStream: closed, dropped(" + sender.getDropCount() + ")");
+            sender.close();
+        }
+    }
+
+    private void storeJsonString(
+            @NonNull ArrayList<SensorHolder> sensorHolders, @NonNull String jsonString) {
+        long minTime = Long.MAX_VALUE;
+        long maxTime = Long.MIN_VALUE;
+        long typeMask = 0L;
+        for (int i = 0, n = sensorHolders.size(); i < n; i++) {
+            SensorHolder sensorHolder = sensorHolders.get(i);
+            long unixTime = sensorHolder.getUnixTime();
+            minTime = Math.min(minTime, unixTime);
+            maxTime = Math.max(maxTime, unixTime);
+            typeMask |= SensorDataStore.toTypeMask(sensorHolder.getSensorType());
+        }
+        if (typeMask == 0L) {
+            /* Nothing to be indexed */
+            return;
+        }
+
+        final long finalMinTime = minTime;
+        final long finalMaxTime = maxTime;
+        final long finalTypeMask = typeMask;
+        final SensorDataStore sensorDataStore = mSensorDataStore;
+        TraceUtil.setCounter(COUNTER_DATA_STORE_QUEUE, mDataStoreQueueDepth.incrementAndGet());
+        mDataStoreHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                TraceUtil.setCounter(COUNTER_DATA_STORE_QUEUE,
+                        mDataStoreQueueDepth.decrementAndGet());
+                if (! sensorDataStore.append(
+                        finalMinTime, finalMaxTime, finalTypeMask, jsonString)) {
+                    Log.w(TAG, "SensorDataStore.append: FAILED");
+                }
+            }
+        });
+    }
+
+    private int sendToClients(int what, int result_code, Bundle bundle) {
+        int delivered = 0;
+        boolean traced = TraceUtil.beginSection("SensorService.sendToClients");
+        try {
+            for (Messenger client : mClients) {
+                if (sendToClient(client, what, result_code, bundle)) {
+                    delivered++;
+                }
+            }
+        } finally {
+            TraceUtil.endSection(traced);
+        }
+        return delivered;
+    }
+
+    private boolean sendToClient(Messenger client, int what, int result_code, Bundle bundle) {
         try {
             /*
              * Get a message containing a description and arbitrary data object
              * that can be sent to a Handler.
              */
             Message msg = Message.obtain(null, what, result_code, 0);
+            if (Looper.myLooper() == Looper.getMainLooper()
+                    && client == mRequestReplyTo) {
+                msg.arg2 = mRequestId;
+            }
             if (bundle != null) {
                 msg.setData(bundle);
             }
             client.send(msg);
+            mMetrics.onMessageSent();
+            return true;
+        } catch (TransactionTooLargeException e) {
+            Log.e(TAG, "Messenger.send: IpcType(" + what + "): " + e);
+            mMetrics.onSendFailed();
+            return false;
         } catch (RemoteException e) {
             Log.e(TAG, "Messenger.send: " + e);
+            mMetrics.onSendFailed();
+            return false;
         }
     }
 
@@ -815,6 +2626,17 @@ public class SensorService extends Service
         sendToClient(replyTo, IpcType.MSG_ERROR, -1, bundle);
     }
 
+    private void setBaseInterval(long milliseconds) {
+        Log.d(TAG, "Set interval timer to " + milliseconds + " (milliseconds)");
+        mBaseIntervalMillis = milliseconds;
+        if (mAdaptiveInterval != null) {
+            /* Takes effect on the next evaluation */
+            mAdaptiveInterval.setBaseInterval(milliseconds);
+        } else {
+            mInterval = ms2ns(milliseconds);
+        }
+    }
+
     private long ms2ns(long milliseconds) {
         /* Milliseconds -> Nanoseconds */
         return milliseconds * 1000 * 1000;
@@ -0,0 +1,47 @@
+/*
+ * Copyright (C) 2026 National Institute of Informatics
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+
+package jp.ad.sinet.stream.android.helper;
+
+import androidx.annotation.Nullable;
+
+/**
+ * Failure of a request to {@link SensorService}, as notified through
+ * the future returned by the asynchronous variants of
+ * {@link SensorController} methods.
+ */
+public class ServiceRequestException extends Exception {
+    private static final long serialVersionUID = 1L;
+
+    private final int mIpcType;
+
+    public ServiceRequestException(int ipcType, @Nullable String message) {
+        super(message);
+        mIpcType = ipcType;
+    }
+
+    /**
+     * @return the IpcType of the failed request
+     */
+    public int getIpcType() {
+        return mIpcType;
+    }
+}
@@ -23,6 +23,9 @@ package jp.ad.sinet.stream.android.helper.constants;
 
 public class BundleKeys {
     public final static String BUNDLE_KEY_INTERVAL_TIMER = "bundle_key_interval_timer";
+    public final static String BUNDLE_KEY_INTERVAL_MIN = "bundle_key_interval_min";
+    public final static String BUNDLE_KEY_INTERVAL_MAX = "bundle_key_interval_max";
+    public final static String BUNDLE_KEY_INTERVAL_REASON = "bundle_key_interval_reason";
     public final static String BUNDLE_KEY_LOCATION_LATITUDE = "bundle_key_location_latitude";
     public final static String BUNDLE_KEY_LOCATION_LONGITUDE = "bundle_key_location_longitude";
     public final static String BUNDLE_KEY_LOCATION_TIMESTAMP = "bundle_key_location_timestamp";
@@ -38,4 +41,71 @@ public class BundleKeys {
     public final static String BUNDLE_KEY_CELLULAR_NETWORK_TYPE = "bundle_key_cellular_network_type";
     public final static String BUNDLE_KEY_CELLULAR_NETWORK_OPERATOR = "bundle_key_cellular_network_operator";
     public final static String BUNDLE_KEY_CELLULAR_PARCELABLE = "bundle_key_cellular_parcelable";
+    public final static String BUNDLE_KEY_QUERY_ID = "bundle_key_query_id";
+    public final static String BUNDLE_KEY_QUERY_FROM_TIME = "bundle_key_query_from_time";
+    public final static String BUNDLE_KEY_QUERY_TO_TIME = "bundle_key_query_to_time";
+    public final static String BUNDLE_KEY_QUERY_RECORDS = "bundle_key_query_records";
+    public final static String BUNDLE_KEY_QUERY_COMPLETED = "bundle_key_query_completed";
+    public final static String BUNDLE_KEY_QUERY_TOTAL = "bundle_key_query_total";
+    public final static String BUNDLE_KEY_REPLAY_PATH = "bundle_key_replay_path";
+    public final static String BUNDLE_KEY_REPLAY_SPEED = "bundle_key_replay_speed";
+    public final static String BUNDLE_KEY_REPLAY_SAMPLES = "bundle_key_replay_samples";
+    public final static String BUNDLE_KEY_REPLAY_STOPPED = "bundle_key_replay_stopped";
+    public final static String BUNDLE_KEY_LOAD_SENSOR_COUNT = "bundle_key_load_sensor_count";
+    public final static String BUNDLE_KEY_LOAD_RATE_HZ = "bundle_key_load_rate_hz";
+    public final static String BUNDLE_KEY_LOAD_DIMENSIONS = "bundle_key_load_dimensions";
+    public final static String BUNDLE_KEY_LOAD_JITTER = "bundle_key_load_jitter";
+    public final static String BUNDLE_KEY_LOAD_BURST_PERIOD = "bundle_key_load_burst_period";
+    public final static String BUNDLE_KEY_LOAD_BURST_LENGTH = "bundle_key_load_burst_length";
+    public final static String BUNDLE_KEY_LOAD_BURST_FACTOR = "bundle_key_load_burst_factor";
+    public final static String BUNDLE_KEY_LOAD_DURATION = "bundle_key_load_duration";
+    public final static String BUNDLE_KEY_LOAD_ELAPSED = "bundle_key_load_elapsed";
+    public final static String BUNDLE_KEY_LOAD_EXPORTS = "bundle_key_load_exports";
+    public final static String BUNDLE_KEY_LOAD_EXPORT_LATENCY_AVG = "bundle_key_load_export_latency_avg";
+    public final static String BUNDLE_KEY_LOAD_EXPORT_LATENCY_MAX = "bundle_key_load_export_latency_max";
+    public final static String BUNDLE_KEY_LOAD_DROPS = "bundle_key_load_drops";
+    public final static String BUNDLE_KEY_STATS_SERVICE_NAME = "bundle_key_stats_service_name";
+    public final static String BUNDLE_KEY_STATS_UPTIME = "bundle_key_stats_uptime";
+    public final static String BUNDLE_KEY_STATS_CLIENT_COUNT = "bundle_key_stats_client_count";
+    public final static String BUNDLE_KEY_STATS_EVENT_COUNT = "bundle_key_stats_event_count";
+    public final static String BUNDLE_KEY_STATS_EVENT_TYPES = "bundle_key_stats_event_types";
+    public final static String BUNDLE_KEY_STATS_EVENT_COUNTS = "bundle_key_stats_event_counts";
+    public final static String BUNDLE_KEY_STATS_MESSAGE_COUNT = "bundle_key_stats_message_count";
+    public final static String BUNDLE_KEY_STATS_BYTE_COUNT = "bundle_key_stats_byte_count";
+    public final static String BUNDLE_KEY_STATS_SEND_FAILURE_COUNT = "bundle_key_stats_send_failure_count";
+    public final static String BUNDLE_KEY_STATS_LATENCY_COUNT = "bundle_key_stats_latency_count";
+    public final static String BUNDLE_KEY_STATS_LATENCY_P50 = "bundle_key_stats_latency_p50";
+    public final static String BUNDLE_KEY_STATS_LATENCY_P99 = "bundle_key_stats_latency_p99";
+    public final static String BUNDLE_KEY_STATS_LATENCY_MAX = "bundle_key_stats_latency_max";
+    public final static String BUNDLE_KEY_STATS_QUEUE_HIGH_WATERMARK = "bundle_key_stats_queue_high_watermark";
+    public final static String BUNDLE_KEY_STATS_QUEUE_DROP_COUNT = "bundle_key_stats_queue_drop_count";
+    public final static String BUNDLE_KEY_LATENCY_SENSOR_TYPES = "bundle_key_latency_sensor_types";
+    public final static String BUNDLE_KEY_LATENCY_EVENT_TIMES = "bundle_key_latency_event_times";
+    public final static String BUNDLE_KEY_LATENCY_INGEST_TIMES = "bundle_key_latency_ingest_times";
+    public final static String BUNDLE_KEY_LATENCY_SERIALIZE_TIME = "bundle_key_latency_serialize_time";
+    public final static String BUNDLE_KEY_GATING_MODE = "bundle_key_gating_mode";
+    public final static String BUNDLE_KEY_GATING_IDLE_PERIOD = "bundle_key_gating_idle_period";
+    public final static String BUNDLE_KEY_GATING_STILL_DURATION = "bundle_key_gating_still_duration";
+    public final static String BUNDLE_KEY_MOTION_STATIONARY = "bundle_key_motion_stationary";
+    public final static String BUNDLE_KEY_SENSOR_HANDLES = "bundle_key_sensor_handles";
+    public final static String BUNDLE_KEY_SENSOR_NAMES = "bundle_key_sensor_names";
+    public final static String BUNDLE_KEY_SENSOR_IDS = "bundle_key_sensor_ids";
+    public final static String BUNDLE_KEY_SENSOR_WAKEUP_FLAGS = "bundle_key_sensor_wakeup_flags";
+    public final static String BUNDLE_KEY_PROBE_PERIODS = "bundle_key_probe_periods";
+    public final static String BUNDLE_KEY_PROBE_REPORT_LATENCY = "bundle_key_probe_report_latency";
+    public final static String BUNDLE_KEY_PROBE_WINDOW = "bundle_key_probe_window";
+    public final static String BUNDLE_KEY_PROBE_STOPPED = "bundle_key_probe_stopped";
+    public final static String BUNDLE_KEY_PROBE_TYPE_NAMES = "bundle_key_probe_type_names";
+    public final static String BUNDLE_KEY_PROBE_INTS = "bundle_key_probe_ints";
+    public final static String BUNDLE_KEY_PROBE_LONGS = "bundle_key_probe_longs";
+    public final static String BUNDLE_KEY_SENSOR_DATA_FORMAT = "bundle_key_sensor_data_format";
+    public final static String BUNDLE_KEY_SAMPLE_TIMESTAMPS = "bundle_key_sample_timestamps";
+    public final static String BUNDLE_KEY_SAMPLE_UNIX_TIMES = "bundle_key_sample_unix_times";
+    public final static String BUNDLE_KEY_SAMPLE_VALUE_COUNTS = "bundle_key_sample_value_counts";
+    public final static String BUNDLE_KEY_SAMPLE_VALUES = "bundle_key_sample_values";
+    public final static String BUNDLE_KEY_REQUEST_ID = "bundle_key_request_id";
+    public final static String BUNDLE_KEY_CHUNK_SEQUENCE = "bundle_key_chunk_sequence";
+    public final static String BUNDLE_KEY_CHUNK_INDEX = "bundle_key_chunk_index";
+    public final static String BUNDLE_KEY_CHUNK_COUNT = "bundle_key_chunk_count";
+    public final static String BUNDLE_KEY_STREAM_DESCRIPTOR = "bundle_key_stream_descriptor";
 }
@@ -51,6 +51,36 @@ public class IpcType {
     /* Client -> Service: Cellular Specific */
     public static final int MSG_CELLULAR_START_UPDATES = 12;
     public static final int MSG_CELLULAR_STOP_UPDATES = 13;
+    /* Client -> Service: Data Store Specific */
+    public static final int MSG_ENABLE_DATA_STORE = 14;
+    public static final int MSG_DISABLE_DATA_STORE = 15;
+    public static final int MSG_QUERY_SENSOR_DATA = 16;
+    /* Client -> Service: Trace Replay Specific */
+    public static final int MSG_START_TRACE_REPLAY = 17;
+    public static final int MSG_STOP_TRACE_REPLAY = 18;
+    /* Client -> Service: Synthetic Load Specific */
+    public static final int MSG_START_SYNTHETIC_LOAD = 19;
+    public static final int MSG_STOP_SYNTHETIC_LOAD = 20;
+    /* Client -> Service: Runtime Metrics, replied with the same type */
+    public static final int MSG_GET_STATS = 21;
+    /* Client -> Service: Adaptive Interval Specific */
+    public static final int MSG_ENABLE_ADAPTIVE_INTERVAL = 22;
+    public static final int MSG_DISABLE_ADAPTIVE_INTERVAL = 23;
+    /* Client -> Service: Motion Gating Specific */
+    public static final int MSG_ENABLE_MOTION_GATING = 24;
+    public static final int MSG_DISABLE_MOTION_GATING = 25;
+    /* Client -> Service: Sensor instances, replied with the same type */
+    public static final int MSG_LIST_SENSORS = 26;
+    /* Client -> Service: Capability Probe Specific */
+    public static final int MSG_START_SENSOR_PROBE = 27;
+    public static final int MSG_STOP_SENSOR_PROBE = 28;
+    /* Client -> Service: Sensor data format of the client, see SensorDataFormat */
+    public static final int MSG_SET_SENSOR_DATA_FORMAT = 29;
+    /* Client -> Service: All settings of a session at once, replied with the same type */
+    public static final int MSG_APPLY_SESSION_CONFIG = 30;
+    /* Client -> Service: Sample stream through a pipe, replied with the same type */
+    public static final int MSG_OPEN_SENSOR_STREAM = 31;
+    public static final int MSG_CLOSE_SENSOR_STREAM = 32;
 
     /* Service -> Client */
     public static final int MSG_SENSOR_DATA = 103;
@@ -60,6 +90,22 @@ public class IpcType {
     public static final int MSG_LOCATION_RESOLUTION_REQUIRED = 106;
     /* Service -> Client: Cellular Specific */
     public static final int MSG_CELLULAR_DATA = 107;
+    /* Service -> Client: Trace Replay Specific */
+    public static final int MSG_TRACE_REPLAY_FINISHED = 108;
+    /* Service -> Client: Synthetic Load Specific */
+    public static final int MSG_SYNTHETIC_LOAD_FINISHED = 109;
+    /* Service -> Client: Adaptive Interval Specific */
+    public static final int MSG_INTERVAL_CHANGED = 110;
+    /* Service -> Client: Motion Gating Specific */
+    public static final int MSG_MOTION_STATE_CHANGED = 111;
+    /* Service -> Client: Sensor instances attached or detached */
+    public static final int MSG_SENSOR_INVENTORY_CHANGED = 112;
+    /* Service -> Client: Capability Probe Specific */
+    public static final int MSG_SENSOR_PROBE_FINISHED = 113;
+    /* Service -> Client: Sensor data in primitive arrays */
+    public static final int MSG_SENSOR_SAMPLES = 114;
+    /* Service -> Client: A piece of MSG_SENSOR_DATA too large for a transaction */
+    public static final int MSG_SENSOR_DATA_CHUNK = 115;
 
     /* Client <-> Service */
     public static final int MSG_ERROR = 999;
@@ -22,9 +22,7 @@
 package jp.ad.sinet.stream.android.helper.provider;
 
 import android.hardware.Sensor;
-import android.hardware.SensorEvent;
 import android.os.Build;
-import android.util.Log;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
@@ -35,33 +33,116 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import jp.ad.sinet.stream.android.helper.constants.SensorTypes;
-import jp.ad.sinet.stream.android.helper.models.SensorHolder;
+import jp.ad.sinet.stream.android.helper.models.SensorDescriptor;
+
+/**
+ * Android specific counterpart of {@link SensorStorage}, which keeps
+ * the {@link Sensor} objects available on this device.
+ * <p>
+ *     Each {@link Sensor} object is kept by its handle, which is shared
+ *     with the {@link SensorDescriptor} in {@link SensorStorage}, so
+ *     that more than one sensor of the same type can coexist.
+ *     For those who only know the sensor type, the default sensor of
+ *     the type is chosen, preferring the non-wake-up variant.
+ * </p>
+ */
+public class SensorRegistry {
+    private final String TAG = SensorRegistry.class.getSimpleName();
+
+    private final SensorTypes mSensorTypes = new SensorTypes();
 
-public class SensorStorage {
-    private final String TAG = SensorStorage.class.getSimpleName();
+    /**
+     * {@link Sensor} objects indexed by handle, or null if unregistered.
+     */
+    private final ArrayList<Sensor> mSensors = new ArrayList<>();
 
-    final SensorTypes mSensorTypes = new SensorTypes();
+    /**
+     * Reverse lookup from {@link Sensor} object to its handle.
+     * This is referred from the sensor thread on every sensor event.
+     */
+    private final Map<Sensor, Integer> mHandleMap = new ConcurrentHashMap<>();
 
     /**
-     * A HashMap to keep {@link Sensor} object per sensor type.
+     * A HashMap to keep the default {@link Sensor} object per sensor type.
      */
     private final Map<Integer, Sensor> mSensorMap = new HashMap<>();
 
-    public void registerSensor(@NonNull Sensor sensor) {
-        mSensorMap.put(sensor.getType(), sensor);
+    public void registerSensor(@NonNull Sensor sensor, int handle) {
+        while (mSensors.size() <= handle) {
+            mSensors.add(null);
+        }
+        mSensors.set(handle, sensor);
+        mHandleMap.put(sensor, handle);
+
+        Sensor defaultSensor = mSensorMap.get(sensor.getType());
+        if (defaultSensor == null
+                || (isWakeUpSensor(defaultSensor) && ! isWakeUpSensor(sensor))) {
+            mSensorMap.put(sensor.getType(), sensor);
+        }
     }
 
     public void unregisterSensor(@NonNull Sensor sensor) {
-        mSensorMap.remove(sensor.getType());
+        Integer handle = mHandleMap.remove(sensor);
+        if (handle != null) {
+            mSensors.set(handle, null);
+        }
+
+        int sensorType = sensor.getType();
+        if (mSensorMap.get(sensorType) == sensor) {
+            mSensorMap.remove(sensorType);
+            /* Fall back to another instance of the same type, if any */
+            for (int i = 0, n = mSensors.size(); i < n; i++) {
+                Sensor other = mSensors.get(i);
+                if (other != null && other.getType() == sensorType) {
+                    registerSensor(other, i);
+                }
+            }
+        }
     }
 
+    /**
+     * @param sensorType Target sensor type
+     * @return the default {@link Sensor} object of the type, or null
+     */
     @Nullable
     public Sensor lookupSensor(int sensorType) {
         return mSensorMap.get(sensorType);
     }
 
+    @Nullable
+    public Sensor lookupSensorByHandle(int handle) {
+        if (handle < 0 || handle >= mSensors.size()) {
+            return null;
+        }
+        return mSensors.get(handle);
+    }
+
+    /**
+     * @param sensor the {@link Sensor} object
+     * @return the handle of the sensor, or -1 if not registered
+     */
+    public int getHandle(@NonNull Sensor sensor) {
+        Integer handle = mHandleMap.get(sensor);
+        return (handle != null) ? handle : -1;
+    }
+
+    /**
+     * @return Sorted list of handles of the registered sensors
+     */
+    @NonNull
+    public ArrayList<Integer> getHandles() {
+        ArrayList<Integer> objArray = new ArrayList<>();
+        for (int i = 0, n = mSensors.size(); i < n; i++) {
+            if (mSensors.get(i) != null) {
+                objArray.add(i);
+            }
+        }
+        return objArray;
+    }
+
     /**
      * Available {@link Sensor} objects on this device are kept in the
      * internal HashMap, which uses the sensor type as the key.
@@ -142,58 +223,29 @@ public class SensorStorage {
     }
 
     /**
-     * A HashMap to keep {@link SensorEvent} object per sensor type.
-     */
-    private final Map<Integer, SensorHolder> mSensorEventMap = new HashMap<>();
-
-    /**
-     * Keep the given {@link SensorEvent} object along with timestamp
-     * in the internal HashMap.
+     * Resolve the {@link SensorDescriptor} of the given {@link Sensor},
+     * so that the platform independent part can refer to it.
      *
-     * @param sensorEvent the {@link SensorEvent} object notified from system
-     * @param unixTime timestamp of the notification
+     * @param sensor the {@link Sensor} object
+     * @param handle the handle given to the sensor
+     * @return the {@link SensorDescriptor} object
      */
-    public void setSensorEvent(@NonNull SensorEvent sensorEvent, long unixTime) {
-        // Log.d(TAG, "setSensorEvent(" + unixTime + "): " + sensorEvent.sensor.toString());
-        int sensorType = sensorEvent.sensor.getType();
-
-        SensorHolder sensorHolder = mSensorEventMap.get(sensorType);
-        if (sensorHolder != null) {
-            /* update current entry */
-            sensorHolder.setSensorEvent(sensorEvent);
-            sensorHolder.setUnixTime(unixTime);
-        } else {
-            /* allocate new entry */
-            sensorHolder = new SensorHolder(sensorEvent, unixTime);
+    @NonNull
+    public SensorDescriptor toSensorDescriptor(@NonNull Sensor sensor, int handle) {
+        int sensorType = sensor.getType();
+        int sensorId = 0;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N) {
+            sensorId = sensor.getId();
         }
-        mSensorEventMap.put(sensorType, sensorHolder);
+        return new SensorDescriptor(handle, sensorType,
+                getSensorTypeName(sensorType), sensor.getName(), sensorId,
+                isWakeUpSensor(sensor));
     }
 
-    /**
-     * Generate an ArrayList of {@link SensorHolder} objects as the
-     * latest collection of {@link SensorEvent} object and timestamp.
-     *
-     * @return ArrayList of {@link SensorHolder} objects
-     */
-    public ArrayList<SensorHolder> getSensorHolders() {
-        ArrayList<SensorHolder> objArray = new ArrayList<>();
-        Set<Integer> mapSet = mSensorEventMap.keySet();
-        for (int i = 0; i < mapSet.size(); i++) {
-            Integer sensorType = mapSet.toArray(new Integer[0])[i];
-            SensorHolder sensorHolder = mSensorEventMap.get(sensorType);
-            if (sensorHolder != null) {
-                objArray.add(sensorHolder);
-            } else {
-                Log.e(TAG, "SensorHolder(sensorType=" + sensorType + ") not found?");
-            }
+    private static boolean isWakeUpSensor(@NonNull Sensor sensor) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
+            return sensor.isWakeUpSensor();
         }
-        return objArray;
-    }
-
-    /**
-     * Clear the HashMap to keep {@link SensorEvent} objects.
-     */
-    public void clearSensorEvent() {
-        mSensorEventMap.clear();
+        return false;
     }
 }
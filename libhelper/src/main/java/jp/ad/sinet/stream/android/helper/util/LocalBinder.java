@@ -0,0 +1,137 @@
+/*
+ * Copyright (C) 2026 National Institute of Informatics
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+
+package jp.ad.sinet.stream.android.helper.util;
+
+import android.content.ComponentName;
+import android.content.Context;
+import android.content.Intent;
+import android.content.pm.PackageManager;
+import android.content.pm.ServiceInfo;
+import android.os.Binder;
+import android.os.IBinder;
+import android.os.Messenger;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Binder handed to the clients running in the same process as the
+ * service, instead of the one of {@link Messenger}.
+ * <p>
+ *     Control messages still go through the {@link Messenger} of the
+ *     service, but the data path skips it: a client registers a typed
+ *     callback here, and the service hands the payload objects to it
+ *     directly, without packing them into a Message and a Bundle.
+ *     Clients in other processes keep using the {@link Messenger} as is.
+ * </p>
+ */
+public class LocalBinder extends Binder {
+    private final static String TAG = LocalBinder.class.getSimpleName();
+
+    /**
+     * Intent action to bind a service in the same process.
+     * A distinct action makes the system call onBind() separately.
+     */
+    public final static String ACTION_BIND_LOCAL =
+            "jp.ad.sinet.stream.android.helper.action.BIND_LOCAL";
+
+    private final Messenger mMessenger;
+
+    /* Keyed by the binder of the client Messenger, as in MSG_REGISTER_CLIENT */
+    private final Map<IBinder, Object> mLocalClients = new ConcurrentHashMap<>();
+
+    public LocalBinder(@NonNull Messenger messenger) {
+        this.mMessenger = messenger;
+    }
+
+    /**
+     * @return the {@link Messenger} of the service for control messages
+     */
+    @NonNull
+    public Messenger getMessenger() {
+        return mMessenger;
+    }
+
+    /**
+     * @param client the {@link Messenger} the client has registered with
+     * @param callback the typed callback of the service
+     */
+    public void registerLocalClient(@NonNull Messenger client, @NonNull Object callback) {
+        mLocalClients.put(client.getBinder(), callback);
+    }
+
+    public void unregisterLocalClient(@NonNull Messenger client) {
+        mLocalClients.remove(client.getBinder());
+    }
+
+    /**
+     * @param client the {@link Messenger} of a registered client
+     * @return the typed callback of the client, or null if remote
+     */
+    @Nullable
+    public Object getLocalClient(@NonNull Messenger client) {
+        return mLocalClients.get(client.getBinder());
+    }
+
+    /**
+     * Make the Intent to bind a service ask for the {@link LocalBinder},
+     * if the service runs in the same process as the client.
+     *
+     * @param context the Context of the client
+     * @param intent the explicit Intent of the service
+     * @return the given Intent
+     */
+    @NonNull
+    public static Intent toBindIntent(@NonNull Context context, @NonNull Intent intent) {
+        ComponentName componentName = intent.getComponent();
+        if (componentName != null && isSameProcess(context, componentName)) {
+            intent.setAction(ACTION_BIND_LOCAL);
+        }
+        return intent;
+    }
+
+    /**
+     * @param intent the Intent given to onBind()
+     * @return true if the client asks for the {@link LocalBinder}
+     */
+    public static boolean isLocalBind(@Nullable Intent intent) {
+        return (intent != null && ACTION_BIND_LOCAL.equals(intent.getAction()));
+    }
+
+    private static boolean isSameProcess(
+            @NonNull Context context, @NonNull ComponentName componentName) {
+        try {
+            ServiceInfo serviceInfo = context.getPackageManager().getServiceInfo(
+                    componentName, 0);
+            return serviceInfo.processName != null
+                    && serviceInfo.processName.equals(
+                            context.getApplicationInfo().processName);
+        } catch (PackageManager.NameNotFoundException e) {
+            Log.w(TAG, "getServiceInfo: " + e);
+            return false;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright (C) 2026 National Institute of Informatics
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+
+package jp.ad.sinet.stream.android.helper.util;
+
+import android.os.Handler;
+import android.os.Message;
+import android.os.Messenger;
+import android.os.RemoteException;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Commands issued by a client while its bind to the service is in
+ * progress, to be sent in a batch as soon as the service gets connected.
+ * <p>
+ *     The queue is bounded, and the commands waiting longer than the
+ *     timeout are dropped all together, as the bind is unlikely to
+ *     complete by then. Dropped commands are told to the
+ *     {@link DropListener} on the given {@link Handler}.
+ * </p>
+ */
+public class PendingCommands {
+    private final static String TAG = PendingCommands.class.getSimpleName();
+
+    public interface DropListener {
+        /**
+         * @param commands the commands which have not been sent, in order
+         * @param reason the description of why those have been dropped
+         */
+        void onCommandsDropped(@NonNull List<Message> commands, @NonNull String reason);
+    }
+
+    private final ArrayDeque<Message> mQueue = new ArrayDeque<>();
+    private final int mCapacity;
+    private final long mTimeoutMillis;
+    private final Handler mHandler;
+    private final DropListener mDropListener;
+
+    private final Runnable mTimeoutTask = new Runnable() {
+        @Override
+        public void run() {
+            drop("Service bind timed out");
+        }
+    };
+
+    public PendingCommands(int capacity, long timeoutMillis,
+                           @NonNull Handler handler, @NonNull DropListener listener) {
+        this.mCapacity = capacity;
+        this.mTimeoutMillis = timeoutMillis;
+        this.mHandler = handler;
+        this.mDropListener = listener;
+    }
+
+    /**
+     * Keep the command until {@link #flush} or the timeout.
+     *
+     * @param msg the command, with its replyTo already set
+     * @return false if the queue is full
+     */
+    public synchronized boolean offer(@NonNull Message msg) {
+        if (mQueue.size() >= mCapacity) {
+            return false;
+        }
+        if (mQueue.isEmpty()) {
+            /* The timeout counts from the oldest command */
+            mHandler.postDelayed(mTimeoutTask, mTimeoutMillis);
+        }
+        mQueue.add(msg);
+        return true;
+    }
+
+    /**
+     * Send all the pending commands to the service, in the order issued.
+     * If sending fails halfway, the rest are dropped.
+     *
+     * @param service the {@link Messenger} of the connected service
+     */
+    public void flush(@NonNull Messenger service) {
+        List<Message> commands = takeAll();
+        if (commands.isEmpty()) {
+            return;
+        }
+        Log.d(TAG, "Flush " + commands.size() + " commands");
+        for (int i = 0, n = commands.size(); i < n; i++) {
+            try {
+                service.send(commands.get(i));
+            } catch (RemoteException e) {
+                mDropListener.onCommandsDropped(
+                        commands.subList(i, n), "Messenger.send: " + e);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Drop all the pending commands, such like on unbind.
+     *
+     * @param reason the description of why those are dropped
+     */
+    public void drop(@NonNull String reason) {
+        List<Message> commands = takeAll();
+        if (! commands.isEmpty()) {
+            Log.w(TAG, reason + ": " + commands.size() + " commands dropped");
+            mDropListener.onCommandsDropped(commands, reason);
+        }
+    }
+
+    private synchronized List<Message> takeAll() {
+        mHandler.removeCallbacks(mTimeoutTask);
+        List<Message> commands = new ArrayList<>(mQueue);
+        mQueue.clear();
+        return commands;
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright (C) 2026 National Institute of Informatics
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+
+package jp.ad.sinet.stream.android.helper.util;
+
+import android.os.Bundle;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import jp.ad.sinet.stream.android.helper.constants.BundleKeys;
+import jp.ad.sinet.stream.android.helper.models.SensorProbeReport;
+
+/**
+ * Conversion of {@link SensorProbeReport} from/to {@link Bundle}, shared by
+ * the service and its clients for {@code IpcType.MSG_SENSOR_PROBE_FINISHED}.
+ * <p>
+ *     The numeric fields of each result are flattened into an int array
+ *     and a long array, with a fixed stride per result.
+ * </p>
+ */
+public class ProbeBundleUtil {
+    /* handle, sensorType, requestedPeriod, samples, batches, maxBatchSize, nonMonotonic */
+    private final static int INT_STRIDE = 7;
+    /* window, span, intervalMean, intervalStdDev, intervalMax */
+    private final static int LONG_STRIDE = 5;
+
+    private ProbeBundleUtil() {
+    }
+
+    @NonNull
+    public static Bundle toBundle(@NonNull SensorProbeReport report) {
+        List<SensorProbeReport.Result> results = report.getResults();
+        int n = results.size();
+        ArrayList<String> typeNames = new ArrayList<>();
+        int[] ints = new int[n * INT_STRIDE];
+        long[] longs = new long[n * LONG_STRIDE];
+        for (int i = 0; i < n; i++) {
+            SensorProbeReport.Result result = results.get(i);
+            typeNames.add(result.getTypeName());
+
+            int j = i * INT_STRIDE;
+            ints[j] = result.getHandle();
+            ints[j + 1] = result.getSensorType();
+            ints[j + 2] = result.getRequestedPeriodMicros();
+            ints[j + 3] = result.getSamples();
+            ints[j + 4] = result.getBatches();
+            ints[j + 5] = result.getMaxBatchSize();
+            ints[j + 6] = result.getNonMonotonicCount();
+
+            int k = i * LONG_STRIDE;
+            longs[k] = result.getWindowNanos();
+            longs[k + 1] = result.getSpanNanos();
+            longs[k + 2] = result.getIntervalMeanNanos();
+            longs[k + 3] = result.getIntervalStdDevNanos();
+            longs[k + 4] = result.getIntervalMaxNanos();
+        }
+
+        Bundle bundle = new Bundle();
+        bundle.putStringArrayList(BundleKeys.BUNDLE_KEY_PROBE_TYPE_NAMES, typeNames);
+        bundle.putIntArray(BundleKeys.BUNDLE_KEY_PROBE_INTS, ints);
+        bundle.putLongArray(BundleKeys.BUNDLE_KEY_PROBE_LONGS, longs);
+        return bundle;
+    }
+
+    @NonNull
+    public static SensorProbeReport fromBundle(@NonNull Bundle bundle) {
+        ArrayList<SensorProbeReport.Result> results = new ArrayList<>();
+        ArrayList<String> typeNames =
+                bundle.getStringArrayList(BundleKeys.BUNDLE_KEY_PROBE_TYPE_NAMES);
+        int[] ints = bundle.getIntArray(BundleKeys.BUNDLE_KEY_PROBE_INTS);
+        long[] longs = bundle.getLongArray(BundleKeys.BUNDLE_KEY_PROBE_LONGS);
+        if (typeNames == null || ints == null || longs == null) {
+            return new SensorProbeReport(results);
+        }
+
+        int n = typeNames.size();
+        if (ints.length != n * INT_STRIDE || longs.length != n * LONG_STRIDE) {
+            return new SensorProbeReport(results);
+        }
+        for (int i = 0; i < n; i++) {
+            int j = i * INT_STRIDE;
+            int k = i * LONG_STRIDE;
+            results.add(new SensorProbeReport.Result(
+                    ints[j], ints[j + 1], typeNames.get(i), ints[j + 2], longs[k],
+                    ints[j + 3], longs[k + 1],
+                    longs[k + 2], longs[k + 3], longs[k + 4],
+                    ints[j + 4], ints[j + 5], ints[j + 6]));
+        }
+        return new SensorProbeReport(results);
+    }
+}
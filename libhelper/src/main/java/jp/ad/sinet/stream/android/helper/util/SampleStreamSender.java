@@ -0,0 +1,152 @@
+/*
+ * Copyright (C) 2026 National Institute of Informatics
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+
+package jp.ad.sinet.stream.android.helper.util;
+
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.ParcelFileDescriptor;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import jp.ad.sinet.stream.android.helper.models.SensorSamples;
+import jp.ad.sinet.stream.android.helper.provider.SampleStreamWriter;
+
+/**
+ * Service side of a sample stream, which writes {@link SensorSamples} to
+ * the write end of a pipe on a thread of its own.
+ * <p>
+ *     A slow reader blocks this thread only, never the caller of
+ *     {@link #offer}. Samples beyond the backlog are dropped and counted.
+ * </p>
+ */
+public class SampleStreamSender {
+    private final static String TAG = SampleStreamSender.class.getSimpleName();
+
+    public interface SenderListener {
+        /**
+         * Called on the sender thread, when writing to the pipe has failed,
+         * typically because the reader has closed its end or has gone.
+         *
+         * @param sender the sender closed
+         * @param errmsg the description of the failure
+         */
+        void onSenderFailed(@NonNull SampleStreamSender sender, @NonNull String errmsg);
+    }
+
+    private final SampleStreamWriter mWriter;
+    private final HandlerThread mThread;
+    private final Handler mHandler;
+    private final int mBacklog;
+    private final SenderListener mListener;
+    private final AtomicInteger mQueueDepth = new AtomicInteger();
+    private final AtomicLong mDropCount = new AtomicLong();
+    private volatile boolean mIsClosing = false;
+    private volatile boolean mIsClosed = false;
+
+    /**
+     * @param name the name of the sender thread
+     * @param writeEnd the write end of the pipe, owned by this sender
+     * @param backlog the maximum number of samples waiting to be written
+     * @param listener the receiver of write failures
+     */
+    public SampleStreamSender(@NonNull String name, @NonNull ParcelFileDescriptor writeEnd,
+                              int backlog, @NonNull SenderListener listener) {
+        this.mWriter = new SampleStreamWriter(
+                new ParcelFileDescriptor.AutoCloseOutputStream(writeEnd).getChannel());
+        this.mBacklog = backlog;
+        this.mListener = listener;
+        this.mThread = new HandlerThread(name);
+        this.mThread.start();
+        this.mHandler = new Handler(mThread.getLooper());
+    }
+
+    /**
+     * Queue the samples to be written.
+     *
+     * @param samples the samples, not to be modified afterwards
+     * @return false if closed or dropped
+     */
+    public boolean offer(@NonNull final SensorSamples samples) {
+        if (mIsClosing || mIsClosed) {
+            return false;
+        }
+        if (mQueueDepth.incrementAndGet() > mBacklog) {
+            mQueueDepth.decrementAndGet();
+            mDropCount.incrementAndGet();
+            return false;
+        }
+        mHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                mQueueDepth.decrementAndGet();
+                if (mIsClosed) {
+                    return;
+                }
+                try {
+                    mWriter.write(samples);
+                } catch (IOException e) {
+                    Log.w(TAG, "SampleStreamWriter.write: " + e);
+                    mIsClosed = true;
+                    closeWriter();
+                    mListener.onSenderFailed(SampleStreamSender.this, e.toString());
+                }
+            }
+        });
+        return true;
+    }
+
+    /**
+     * @return the number of samples dropped for the backlog
+     */
+    public long getDropCount() {
+        return mDropCount.get();
+    }
+
+    /**
+     * Close the write end after the samples already queued, so that the
+     * reader sees the end of stream.
+     */
+    public void close() {
+        mIsClosing = true;
+        mHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                mIsClosed = true;
+                closeWriter();
+            }
+        });
+        mThread.quitSafely();
+    }
+
+    private void closeWriter() {
+        try {
+            mWriter.close();
+        } catch (IOException e) {
+            Log.w(TAG, "SampleStreamWriter.close: " + e);
+        }
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright (C) 2026 National Institute of Informatics
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+
+package jp.ad.sinet.stream.android.helper.util;
+
+import android.os.Bundle;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayList;
+
+import jp.ad.sinet.stream.android.helper.constants.BundleKeys;
+import jp.ad.sinet.stream.android.helper.models.SensorDescriptor;
+import jp.ad.sinet.stream.android.helper.models.SensorSamples;
+
+/**
+ * Conversion of {@link SensorSamples} from/to {@link Bundle},
+ * shared by the service and its clients for {@code IpcType.MSG_SENSOR_SAMPLES}.
+ */
+public class SamplesBundleUtil {
+    private SamplesBundleUtil() {
+    }
+
+    @NonNull
+    public static Bundle toBundle(@NonNull SensorSamples samples) {
+        int n = samples.size();
+        int[] handles = new int[n];
+        int[] sensorTypes = new int[n];
+        ArrayList<String> typeNames = new ArrayList<>();
+        ArrayList<String> names = new ArrayList<>();
+        int[] sensorIds = new int[n];
+        boolean[] wakeUpFlags = new boolean[n];
+        long[] timestamps = new long[n];
+        long[] unixTimes = new long[n];
+        int[] valueCounts = new int[n];
+        int valueCount = 0;
+        for (int i = 0; i < n; i++) {
+            SensorDescriptor descriptor = samples.getDescriptor(i);
+            handles[i] = descriptor.getHandle();
+            sensorTypes[i] = descriptor.getSensorType();
+            typeNames.add(descriptor.getTypeName());
+            names.add(descriptor.getName());
+            sensorIds[i] = descriptor.getSensorId();
+            wakeUpFlags[i] = descriptor.isWakeUp();
+            timestamps[i] = samples.getTimestamp(i);
+            unixTimes[i] = samples.getUnixTime(i);
+            valueCounts[i] = samples.getValueCount(i);
+            valueCount += valueCounts[i];
+        }
+        float[] values = new float[valueCount];
+        for (int i = 0, offset = 0; i < n; i++) {
+            offset += samples.copyValues(i, values, offset);
+        }
+
+        Bundle bundle = new Bundle();
+        bundle.putIntArray(BundleKeys.BUNDLE_KEY_SENSOR_HANDLES, handles);
+        bundle.putIntArray(BundleKeys.BUNDLE_KEY_SENSOR_TYPES, sensorTypes);
+        bundle.putStringArrayList(BundleKeys.BUNDLE_KEY_SENSOR_TYPE_NAMES, typeNames);
+        bundle.putStringArrayList(BundleKeys.BUNDLE_KEY_SENSOR_NAMES, names);
+        bundle.putIntArray(BundleKeys.BUNDLE_KEY_SENSOR_IDS, sensorIds);
+        bundle.putBooleanArray(BundleKeys.BUNDLE_KEY_SENSOR_WAKEUP_FLAGS, wakeUpFlags);
+        bundle.putLongArray(BundleKeys.BUNDLE_KEY_SAMPLE_TIMESTAMPS, timestamps);
+        bundle.putLongArray(BundleKeys.BUNDLE_KEY_SAMPLE_UNIX_TIMES, unixTimes);
+        bundle.putIntArray(BundleKeys.BUNDLE_KEY_SAMPLE_VALUE_COUNTS, valueCounts);
+        bundle.putFloatArray(BundleKeys.BUNDLE_KEY_SAMPLE_VALUES, values);
+        return bundle;
+    }
+
+    /**
+     * Refill the given samples from a {@link Bundle}, reusing the
+     * descriptors of the sensors which have been there.
+     *
+     * @param bundle the Bundle made by {@link #toBundle}
+     * @param samples the samples to be refilled
+     * @return true on success, false if the Bundle is malformed
+     */
+    public static boolean fromBundle(@NonNull Bundle bundle, @NonNull SensorSamples samples) {
+        int[] handles = bundle.getIntArray(BundleKeys.BUNDLE_KEY_SENSOR_HANDLES);
+        int[] sensorTypes = bundle.getIntArray(BundleKeys.BUNDLE_KEY_SENSOR_TYPES);
+        ArrayList<String> typeNames =
+                bundle.getStringArrayList(BundleKeys.BUNDLE_KEY_SENSOR_TYPE_NAMES);
+        ArrayList<String> names = bundle.getStringArrayList(BundleKeys.BUNDLE_KEY_SENSOR_NAMES);
+        int[] sensorIds = bundle.getIntArray(BundleKeys.BUNDLE_KEY_SENSOR_IDS);
+        boolean[] wakeUpFlags = bundle.getBooleanArray(BundleKeys.BUNDLE_KEY_SENSOR_WAKEUP_FLAGS);
+        long[] timestamps = bundle.getLongArray(BundleKeys.BUNDLE_KEY_SAMPLE_TIMESTAMPS);
+        long[] unixTimes = bundle.getLongArray(BundleKeys.BUNDLE_KEY_SAMPLE_UNIX_TIMES);
+        int[] valueCounts = bundle.getIntArray(BundleKeys.BUNDLE_KEY_SAMPLE_VALUE_COUNTS);
+        float[] values = bundle.getFloatArray(BundleKeys.BUNDLE_KEY_SAMPLE_VALUES);
+        if (handles == null || sensorTypes == null || typeNames == null
+                || names == null || sensorIds == null || wakeUpFlags == null
+                || timestamps == null || unixTimes == null
+                || valueCounts == null || values == null) {
+            return false;
+        }
+
+        int n = handles.length;
+        if (sensorTypes.length != n || typeNames.size() != n || names.size() != n
+                || sensorIds.length != n || wakeUpFlags.length != n
+                || timestamps.length != n || unixTimes.length != n
+                || valueCounts.length != n) {
+            return false;
+        }
+        int valueCount = 0;
+        for (int i = 0; i < n; i++) {
+            if (valueCounts[i] < 0) {
+                return false;
+            }
+            valueCount += valueCounts[i];
+        }
+        if (valueCount != values.length) {
+            return false;
+        }
+
+        /* The same sensors come in most of the deliveries */
+        SensorDescriptor[] previous = new SensorDescriptor[samples.size()];
+        for (int i = 0; i < previous.length; i++) {
+            previous[i] = samples.getDescriptor(i);
+        }
+
+        samples.reset(n, valueCount);
+        for (int i = 0, offset = 0; i < n; i++) {
+            SensorDescriptor descriptor = null;
+            for (SensorDescriptor d : previous) {
+                if (d.getHandle() == handles[i]) {
+                    descriptor = d;
+                    break;
+                }
+            }
+            if (descriptor == null) {
+                descriptor = new SensorDescriptor(handles[i], sensorTypes[i],
+                        typeNames.get(i), names.get(i), sensorIds[i], wakeUpFlags[i]);
+            }
+            samples.add(descriptor, timestamps[i], unixTimes[i], values, offset, valueCounts[i]);
+            offset += valueCounts[i];
+        }
+        return true;
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright (C) 2026 National Institute of Informatics
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+
+package jp.ad.sinet.stream.android.helper.util;
+
+import android.os.Bundle;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayList;
+
+import jp.ad.sinet.stream.android.helper.constants.BundleKeys;
+import jp.ad.sinet.stream.android.helper.models.SensorDescriptor;
+
+/**
+ * Conversion of a list of {@link SensorDescriptor} from/to {@link Bundle},
+ * shared by the service and its clients for {@code IpcType.MSG_LIST_SENSORS}.
+ */
+public class SensorBundleUtil {
+    private SensorBundleUtil() {
+    }
+
+    @NonNull
+    public static Bundle toBundle(@NonNull ArrayList<SensorDescriptor> descriptors) {
+        int n = descriptors.size();
+        int[] handles = new int[n];
+        int[] sensorTypes = new int[n];
+        ArrayList<String> typeNames = new ArrayList<>();
+        ArrayList<String> names = new ArrayList<>();
+        int[] sensorIds = new int[n];
+        boolean[] wakeUpFlags = new boolean[n];
+        for (int i = 0; i < n; i++) {
+            SensorDescriptor descriptor = descriptors.get(i);
+            handles[i] = descriptor.getHandle();
+            sensorTypes[i] = descriptor.getSensorType();
+            typeNames.add(descriptor.getTypeName());
+            names.add(descriptor.getName());
+            sensorIds[i] = descriptor.getSensorId();
+            wakeUpFlags[i] = descriptor.isWakeUp();
+        }
+
+        Bundle bundle = new Bundle();
+        bundle.putIntArray(BundleKeys.BUNDLE_KEY_SENSOR_HANDLES, handles);
+        bundle.putIntArray(BundleKeys.BUNDLE_KEY_SENSOR_TYPES, sensorTypes);
+        bundle.putStringArrayList(BundleKeys.BUNDLE_KEY_SENSOR_TYPE_NAMES, typeNames);
+        bundle.putStringArrayList(BundleKeys.BUNDLE_KEY_SENSOR_NAMES, names);
+        bundle.putIntArray(BundleKeys.BUNDLE_KEY_SENSOR_IDS, sensorIds);
+        bundle.putBooleanArray(BundleKeys.BUNDLE_KEY_SENSOR_WAKEUP_FLAGS, wakeUpFlags);
+        return bundle;
+    }
+
+    @NonNull
+    public static ArrayList<SensorDescriptor> fromBundle(@NonNull Bundle bundle) {
+        ArrayList<SensorDescriptor> descriptors = new ArrayList<>();
+        int[] handles = bundle.getIntArray(BundleKeys.BUNDLE_KEY_SENSOR_HANDLES);
+        int[] sensorTypes = bundle.getIntArray(BundleKeys.BUNDLE_KEY_SENSOR_TYPES);
+        ArrayList<String> typeNames =
+                bundle.getStringArrayList(BundleKeys.BUNDLE_KEY_SENSOR_TYPE_NAMES);
+        ArrayList<String> names = bundle.getStringArrayList(BundleKeys.BUNDLE_KEY_SENSOR_NAMES);
+        int[] sensorIds = bundle.getIntArray(BundleKeys.BUNDLE_KEY_SENSOR_IDS);
+        boolean[] wakeUpFlags = bundle.getBooleanArray(BundleKeys.BUNDLE_KEY_SENSOR_WAKEUP_FLAGS);
+        if (handles == null || sensorTypes == null || typeNames == null
+                || names == null || sensorIds == null || wakeUpFlags == null) {
+            return descriptors;
+        }
+
+        int n = handles.length;
+        if (sensorTypes.length != n || typeNames.size() != n || names.size() != n
+                || sensorIds.length != n || wakeUpFlags.length != n) {
+            return descriptors;
+        }
+        for (int i = 0; i < n; i++) {
+            descriptors.add(new SensorDescriptor(handles[i], sensorTypes[i],
+                    typeNames.get(i), names.get(i), sensorIds[i], wakeUpFlags[i]));
+        }
+        return descriptors;
+    }
+}
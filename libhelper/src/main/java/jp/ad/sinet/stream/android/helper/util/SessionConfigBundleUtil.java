@@ -0,0 +1,86 @@
+/*
+ * Copyright (C) 2026 National Institute of Informatics
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+
+package jp.ad.sinet.stream.android.helper.util;
+
+import android.os.Bundle;
+
+import androidx.annotation.NonNull;
+
+import jp.ad.sinet.stream.android.helper.constants.BundleKeys;
+import jp.ad.sinet.stream.android.helper.models.SensorSessionConfig;
+
+/**
+ * Conversion of {@link SensorSessionConfig} from/to {@link Bundle}, shared by
+ * the SensorService and its clients for {@code IpcType.MSG_APPLY_SESSION_CONFIG}.
+ * <p>
+ *     The keys are the same as those of the individual requests,
+ *     and unset settings are simply left out.
+ * </p>
+ */
+public class SessionConfigBundleUtil {
+    private SessionConfigBundleUtil() {
+    }
+
+    @NonNull
+    public static Bundle toBundle(@NonNull SensorSessionConfig config) {
+        Bundle bundle = new Bundle();
+        if (config.getIntervalMillis() > 0L) {
+            bundle.putLong(BundleKeys.BUNDLE_KEY_INTERVAL_TIMER, config.getIntervalMillis());
+        }
+        if (config.hasLocation()) {
+            bundle.putDouble(BundleKeys.BUNDLE_KEY_LOCATION_LATITUDE, config.getLatitude());
+            bundle.putDouble(BundleKeys.BUNDLE_KEY_LOCATION_LONGITUDE, config.getLongitude());
+            bundle.putLong(BundleKeys.BUNDLE_KEY_LOCATION_TIMESTAMP, config.getLocationTime());
+        }
+        if (config.getPublisher() != null) {
+            bundle.putString(BundleKeys.BUNDLE_KEY_USERINFO_PUBLISHER, config.getPublisher());
+        }
+        if (config.getNote() != null) {
+            bundle.putString(BundleKeys.BUNDLE_KEY_USERINFO_NOTE, config.getNote());
+        }
+        if (config.getSensorTypes() != null) {
+            bundle.putIntegerArrayList(BundleKeys.BUNDLE_KEY_SENSOR_TYPES, config.getSensorTypes());
+        }
+        if (config.getSensorHandles() != null) {
+            bundle.putIntegerArrayList(
+                    BundleKeys.BUNDLE_KEY_SENSOR_HANDLES, config.getSensorHandles());
+        }
+        return bundle;
+    }
+
+    @NonNull
+    public static SensorSessionConfig fromBundle(@NonNull Bundle bundle) {
+        SensorSessionConfig config = new SensorSessionConfig();
+        config.setIntervalMillis(bundle.getLong(BundleKeys.BUNDLE_KEY_INTERVAL_TIMER, 0L));
+        if (bundle.containsKey(BundleKeys.BUNDLE_KEY_LOCATION_LATITUDE)) {
+            config.setLocation(
+                    bundle.getDouble(BundleKeys.BUNDLE_KEY_LOCATION_LATITUDE, Double.NaN),
+                    bundle.getDouble(BundleKeys.BUNDLE_KEY_LOCATION_LONGITUDE, Double.NaN),
+                    bundle.getLong(BundleKeys.BUNDLE_KEY_LOCATION_TIMESTAMP, -1L));
+        }
+        config.setPublisher(bundle.getString(BundleKeys.BUNDLE_KEY_USERINFO_PUBLISHER, null));
+        config.setNote(bundle.getString(BundleKeys.BUNDLE_KEY_USERINFO_NOTE, null));
+        config.setSensorTypes(bundle.getIntegerArrayList(BundleKeys.BUNDLE_KEY_SENSOR_TYPES));
+        config.setSensorHandles(bundle.getIntegerArrayList(BundleKeys.BUNDLE_KEY_SENSOR_HANDLES));
+        return config;
+    }
+}
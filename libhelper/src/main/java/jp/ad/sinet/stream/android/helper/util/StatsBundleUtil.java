@@ -0,0 +1,88 @@
+/*
+ * Copyright (C) 2026 National Institute of Informatics
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+
+package jp.ad.sinet.stream.android.helper.util;
+
+import android.os.Bundle;
+
+import androidx.annotation.NonNull;
+
+import jp.ad.sinet.stream.android.helper.constants.BundleKeys;
+import jp.ad.sinet.stream.android.helper.models.ServiceStats;
+
+/**
+ * Conversion of {@link ServiceStats} from/to {@link Bundle}, shared by
+ * the services and their clients for {@code IpcType.MSG_GET_STATS}.
+ */
+public class StatsBundleUtil {
+    private StatsBundleUtil() {
+    }
+
+    @NonNull
+    public static Bundle toBundle(@NonNull ServiceStats stats) {
+        Bundle bundle = new Bundle();
+        bundle.putString(BundleKeys.BUNDLE_KEY_STATS_SERVICE_NAME, stats.getServiceName());
+        bundle.putLong(BundleKeys.BUNDLE_KEY_STATS_UPTIME, stats.getUptimeMillis());
+        bundle.putInt(BundleKeys.BUNDLE_KEY_STATS_CLIENT_COUNT, stats.getClientCount());
+        bundle.putLong(BundleKeys.BUNDLE_KEY_STATS_EVENT_COUNT, stats.getEventCount());
+        bundle.putIntArray(BundleKeys.BUNDLE_KEY_STATS_EVENT_TYPES, stats.getEventTypes());
+        bundle.putLongArray(BundleKeys.BUNDLE_KEY_STATS_EVENT_COUNTS, stats.getEventCounts());
+        bundle.putLong(BundleKeys.BUNDLE_KEY_STATS_MESSAGE_COUNT, stats.getMessageCount());
+        bundle.putLong(BundleKeys.BUNDLE_KEY_STATS_BYTE_COUNT, stats.getByteCount());
+        bundle.putLong(BundleKeys.BUNDLE_KEY_STATS_SEND_FAILURE_COUNT,
+                stats.getSendFailureCount());
+        bundle.putLong(BundleKeys.BUNDLE_KEY_STATS_LATENCY_COUNT, stats.getLatencyCount());
+        bundle.putLong(BundleKeys.BUNDLE_KEY_STATS_LATENCY_P50, stats.getLatencyP50Nanos());
+        bundle.putLong(BundleKeys.BUNDLE_KEY_STATS_LATENCY_P99, stats.getLatencyP99Nanos());
+        bundle.putLong(BundleKeys.BUNDLE_KEY_STATS_LATENCY_MAX, stats.getLatencyMaxNanos());
+        bundle.putLong(BundleKeys.BUNDLE_KEY_STATS_QUEUE_HIGH_WATERMARK,
+                stats.getQueueHighWatermark());
+        bundle.putLong(BundleKeys.BUNDLE_KEY_STATS_QUEUE_DROP_COUNT, stats.getQueueDropCount());
+        return bundle;
+    }
+
+    @NonNull
+    public static ServiceStats fromBundle(@NonNull Bundle bundle) {
+        String serviceName = bundle.getString(BundleKeys.BUNDLE_KEY_STATS_SERVICE_NAME);
+        int[] eventTypes = bundle.getIntArray(BundleKeys.BUNDLE_KEY_STATS_EVENT_TYPES);
+        long[] eventCounts = bundle.getLongArray(BundleKeys.BUNDLE_KEY_STATS_EVENT_COUNTS);
+        if (eventTypes == null || eventCounts == null
+                || eventTypes.length != eventCounts.length) {
+            eventTypes = new int[0];
+            eventCounts = new long[0];
+        }
+        return new ServiceStats(
+                (serviceName != null) ? serviceName : "",
+                bundle.getLong(BundleKeys.BUNDLE_KEY_STATS_UPTIME, 0L),
+                bundle.getInt(BundleKeys.BUNDLE_KEY_STATS_CLIENT_COUNT, 0),
+                bundle.getLong(BundleKeys.BUNDLE_KEY_STATS_EVENT_COUNT, 0L),
+                eventTypes, eventCounts,
+                bundle.getLong(BundleKeys.BUNDLE_KEY_STATS_MESSAGE_COUNT, 0L),
+                bundle.getLong(BundleKeys.BUNDLE_KEY_STATS_BYTE_COUNT, 0L),
+                bundle.getLong(BundleKeys.BUNDLE_KEY_STATS_SEND_FAILURE_COUNT, 0L),
+                bundle.getLong(BundleKeys.BUNDLE_KEY_STATS_LATENCY_COUNT, 0L),
+                bundle.getLong(BundleKeys.BUNDLE_KEY_STATS_LATENCY_P50, 0L),
+                bundle.getLong(BundleKeys.BUNDLE_KEY_STATS_LATENCY_P99, 0L),
+                bundle.getLong(BundleKeys.BUNDLE_KEY_STATS_LATENCY_MAX, 0L),
+                bundle.getLong(BundleKeys.BUNDLE_KEY_STATS_QUEUE_HIGH_WATERMARK, 0L),
+                bundle.getLong(BundleKeys.BUNDLE_KEY_STATS_QUEUE_DROP_COUNT, 0L));
+    }
+}
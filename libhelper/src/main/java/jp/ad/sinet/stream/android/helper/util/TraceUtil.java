@@ -0,0 +1,96 @@
+/*
+ * Copyright (C) 2026 National Institute of Informatics
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+
+package jp.ad.sinet.stream.android.helper.util;
+
+import android.os.Build;
+import android.os.Trace;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Optional {@link Trace} sections and counters for profiling with
+ * Perfetto (or systrace), disabled by default.
+ * <p>
+ *     When disabled, each call costs a read of a volatile flag.
+ *     Sections must be closed with the value returned on open, so that
+ *     toggling the flag in the middle never leaves them unbalanced:
+ * </p>
+ * <pre>
+ *     boolean traced = TraceUtil.beginSection("Foo.bar");
+ *     try {
+ *         ...
+ *     } finally {
+ *         TraceUtil.endSection(traced);
+ *     }
+ * </pre>
+ */
+public class TraceUtil {
+    private static volatile boolean sEnabled = false;
+
+    private TraceUtil() {
+    }
+
+    /**
+     * Turn on/off trace sections and counters in this process,
+     * which includes all services of this library.
+     *
+     * @param enabled true to emit trace events
+     */
+    public static void setEnabled(boolean enabled) {
+        sEnabled = enabled;
+    }
+
+    public static boolean isEnabled() {
+        return sEnabled;
+    }
+
+    /**
+     * @param sectionName name of the section, up to 127 characters
+     * @return true if the section has opened, to be given to {@link #endSection}
+     */
+    public static boolean beginSection(@NonNull String sectionName) {
+        if (sEnabled) {
+            Trace.beginSection(sectionName);
+            return true;
+        }
+        return false;
+    }
+
+    public static void endSection(boolean traced) {
+        if (traced) {
+            Trace.endSection();
+        }
+    }
+
+    /**
+     * Put a counter value on the timeline, such like a queue depth.
+     * Available from Android Q; ignored on older systems.
+     *
+     * @param counterName name of the counter
+     * @param value current value
+     */
+    public static void setCounter(@NonNull String counterName, long value) {
+        if (sEnabled && Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            Trace.setCounter(counterName, value);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright (C) 2026 National Institute of Informatics
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+
+package jp.ad.sinet.stream.android.helper;
+
+import org.junit.Test;
+
+import jp.ad.sinet.stream.android.helper.constants.SensorDataFormat;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit test of the SensorDataFormat told by {@link SensorController}
+ * to {@link SensorService}, run on the host.
+ */
+public class SensorDataFormatTest {
+    private static final int JSON = SensorDataFormat.JSON;
+    private static final int SAMPLES = SensorDataFormat.SAMPLES;
+    private static final int STREAM = SensorDataFormat.STREAM;
+
+    @Test
+    public void streamOnly_isValidWithoutMessengerPayload() {
+        int format = SensorController.toSensorDataFormat(
+                false, true, false, true, false);
+        assertEquals(STREAM, format);
+        assertTrue(SensorDataFormat.isValid(format));
+        assertEquals(0, format & (JSON | SAMPLES));
+    }
+
+    @Test
+    public void stream_withOthers() {
+        assertEquals(STREAM | JSON,
+                SensorController.toSensorDataFormat(false, true, false, true, true));
+        assertEquals(STREAM | SAMPLES,
+                SensorController.toSensorDataFormat(true, false, false, true, false));
+        assertEquals(STREAM | SAMPLES | JSON,
+                SensorController.toSensorDataFormat(true, true, false, true, false));
+        assertEquals(STREAM | SAMPLES,
+                SensorController.toSensorDataFormat(false, true, true, true, false));
+    }
+
+    @Test
+    public void withoutStream() {
+        assertEquals(JSON,
+                SensorController.toSensorDataFormat(false, true, false, false, false));
+        assertEquals(SAMPLES,
+                SensorController.toSensorDataFormat(true, false, false, false, true));
+        assertEquals(SAMPLES | JSON,
+                SensorController.toSensorDataFormat(true, true, false, false, false));
+        assertEquals(SAMPLES | JSON,
+                SensorController.toSensorDataFormat(false, true, true, false, false));
+        /* Never zero, which the service rejects */
+        assertEquals(JSON,
+                SensorController.toSensorDataFormat(false, false, false, false, false));
+    }
+
+    @Test
+    public void isValid() {
+        assertFalse(SensorDataFormat.isValid(0));
+        assertFalse(SensorDataFormat.isValid(1 << 3));
+        assertFalse(SensorDataFormat.isValid(JSON | (1 << 3)));
+        assertTrue(SensorDataFormat.isValid(JSON | SAMPLES | STREAM));
+    }
+}